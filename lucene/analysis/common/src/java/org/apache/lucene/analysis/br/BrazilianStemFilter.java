@@ -54,12 +54,14 @@ public final class BrazilianStemFilter extends TokenFilter {
   @Override
   public boolean incrementToken() throws IOException {
     if (input.incrementToken()) {
-      final String term = termAtt.toString();
-      // Check the exclusion table.
-      if (!keywordAttr.isKeyword() && (exclusions == null || !exclusions.contains(term))) {
-        final String s = stemmer.stem(term);
-        // If not stemmed, don't waste the time adjusting the token.
-        if ((s != null) && !s.equals(term)) termAtt.setEmpty().append(s);
+      if (!keywordAttr.isKeyword()) {
+        final String term = termAtt.toString();
+        // Check the exclusion table.
+        if (exclusions == null || !exclusions.contains(term)) {
+          final String s = stemmer.stem(term);
+          // If not stemmed, don't waste the time adjusting the token.
+          if ((s != null) && !s.equals(term)) termAtt.setEmpty().append(s);
+        }
       }
       return true;
     } else {
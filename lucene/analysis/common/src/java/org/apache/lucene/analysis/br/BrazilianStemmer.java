@@ -54,7 +54,7 @@ public class BrazilianStemmer {
     R1 = getR1(CT);
     R2 = getR1(R1);
     RV = getRV(CT);
-    TERM = term + ";" + CT;
+    TERM = term;
 
     altered = step1();
     if (!altered) {
@@ -218,7 +218,6 @@ public class BrazilianStemmer {
    */
   private String changeTerm(String value) {
     int j;
-    String r = "";
 
     // be-safe !!!
     if (value == null) {
@@ -226,40 +225,41 @@ public class BrazilianStemmer {
     }
 
     value = value.toLowerCase(locale);
+    final StringBuilder r = new StringBuilder(value.length());
     for (j = 0; j < value.length(); j++) {
       if ((value.charAt(j) == 'á') || (value.charAt(j) == 'â') || (value.charAt(j) == 'ã')) {
-        r = r + "a";
+        r.append('a');
         continue;
       }
       if ((value.charAt(j) == 'é') || (value.charAt(j) == 'ê')) {
-        r = r + "e";
+        r.append('e');
         continue;
       }
       if (value.charAt(j) == 'í') {
-        r = r + "i";
+        r.append('i');
         continue;
       }
       if ((value.charAt(j) == 'ó') || (value.charAt(j) == 'ô') || (value.charAt(j) == 'õ')) {
-        r = r + "o";
+        r.append('o');
         continue;
       }
       if ((value.charAt(j) == 'ú') || (value.charAt(j) == 'ü')) {
-        r = r + "u";
+        r.append('u');
         continue;
       }
       if (value.charAt(j) == 'ç') {
-        r = r + "c";
+        r.append('c');
         continue;
       }
       if (value.charAt(j) == 'ñ') {
-        r = r + "n";
+        r.append('n');
         continue;
       }
 
-      r = r + value.charAt(j);
+      r.append(value.charAt(j));
     }
 
-    return r;
+    return r.toString();
   }
 
   /**
@@ -274,11 +274,7 @@ public class BrazilianStemmer {
       return false;
     }
 
-    if (suffix.length() > value.length()) {
-      return false;
-    }
-
-    return value.substring(value.length() - suffix.length()).equals(suffix);
+    return value.endsWith(suffix);
   }
 
   /**
@@ -328,7 +324,9 @@ public class BrazilianStemmer {
       return false;
     }
 
-    return suffix(removeSuffix(value, suffix), preceded);
+    // check that the value without the suffix ends with preceded, without creating it
+    final int end = value.length() - suffix.length();
+    return end >= preceded.length() && value.startsWith(preceded, end - preceded.length());
   }
 
   /** Creates CT (changed term) , substituting * 'ã' and 'õ' for 'a~' and 'o~'. */
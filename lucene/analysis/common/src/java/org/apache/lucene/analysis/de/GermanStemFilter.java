@@ -55,9 +55,8 @@ public final class GermanStemFilter extends TokenFilter {
   @Override
   public boolean incrementToken() throws IOException {
     if (input.incrementToken()) {
-      String term = termAtt.toString();
-
       if (!keywordAttr.isKeyword()) {
+        String term = termAtt.toString();
         String s = stemmer.stem(term);
         // If not stemmed, don't waste the time adjusting the token.
         if ((s != null) && !s.equals(term)) termAtt.setEmpty().append(s);
@@ -79,14 +79,11 @@ public class GermanStemmer {
   private void strip(StringBuilder buffer) {
     boolean doMore = true;
     while (doMore && buffer.length() > 3) {
-      if ((buffer.length() + substCount > 5)
-          && buffer.substring(buffer.length() - 2, buffer.length()).equals("nd")) {
+      if ((buffer.length() + substCount > 5) && endsWith(buffer, "nd")) {
         buffer.delete(buffer.length() - 2, buffer.length());
-      } else if ((buffer.length() + substCount > 4)
-          && buffer.substring(buffer.length() - 2, buffer.length()).equals("em")) {
+      } else if ((buffer.length() + substCount > 4) && endsWith(buffer, "em")) {
         buffer.delete(buffer.length() - 2, buffer.length());
-      } else if ((buffer.length() + substCount > 4)
-          && buffer.substring(buffer.length() - 2, buffer.length()).equals("er")) {
+      } else if ((buffer.length() + substCount > 4) && endsWith(buffer, "er")) {
         buffer.delete(buffer.length() - 2, buffer.length());
       } else if (buffer.charAt(buffer.length() - 1) == 'e') {
         buffer.deleteCharAt(buffer.length() - 1);
@@ -107,8 +104,7 @@ public class GermanStemmer {
   /** Does some optimizations on the term. This optimisations are contextual. */
   private void optimize(StringBuilder buffer) {
     // Additional step for female plurals of professions and inhabitants.
-    if (buffer.length() > 5
-        && buffer.substring(buffer.length() - 5, buffer.length()).equals("erin*")) {
+    if (buffer.length() > 5 && endsWith(buffer, "erin*")) {
       buffer.deleteCharAt(buffer.length() - 1);
       strip(buffer);
     }
@@ -120,11 +116,27 @@ public class GermanStemmer {
     }
   }
 
+  /** Returns true if the buffer ends with the given suffix, without creating a substring. */
+  private static boolean endsWith(StringBuilder buffer, String suffix) {
+    return buffer.length() >= suffix.length()
+        && regionMatches(buffer, buffer.length() - suffix.length(), suffix);
+  }
+
+  /** Returns true if the buffer contains the given string at the given offset. */
+  private static boolean regionMatches(StringBuilder buffer, int offset, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      if (buffer.charAt(offset + i) != s.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /** Removes a particle denotion ("ge") from a term. */
   private void removeParticleDenotion(StringBuilder buffer) {
     if (buffer.length() > 4) {
       for (int c = 0; c < buffer.length() - 3; c++) {
-        if (buffer.substring(c, c + 4).equals("gege")) {
+        if (regionMatches(buffer, c, "gege")) {
           buffer.delete(c, c + 2);
           return;
         }
@@ -207,7 +219,7 @@ public class GermanStemmer {
         buffer.setCharAt(c, x);
       } else if (buffer.charAt(c) == '$') {
         buffer.setCharAt(c, 's');
-        buffer.insert(c + 1, new char[] {'c', 'h'}, 0, 2);
+        buffer.insert(c + 1, "ch");
       } else if (buffer.charAt(c) == '§') {
         buffer.setCharAt(c, 'c');
         buffer.insert(c + 1, 'h');
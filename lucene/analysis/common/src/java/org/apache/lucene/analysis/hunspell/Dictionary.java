@@ -47,9 +47,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
@@ -64,6 +68,7 @@ import org.apache.lucene.util.OfflineSorter.ByteSequencesWriter;
 import org.apache.lucene.util.fst.FST;
 import org.apache.lucene.util.fst.FSTCompiler;
 import org.apache.lucene.util.fst.IntSequenceOutputs;
+import org.apache.lucene.util.fst.OffHeapFSTStore;
 import org.apache.lucene.util.fst.Util;
 
 /** In-memory structure for the dictionary (.dic) and affix (.aff) data of a hunspell dictionary. */
@@ -79,6 +84,10 @@ public class Dictionary {
   static final char HIDDEN_FLAG = (char) 65511; // called 'ONLYUPCASEFLAG' in Hunspell
 
   static final Charset DEFAULT_CHARSET = StandardCharsets.ISO_8859_1;
+
+  static final String CODEC_NAME = "HunspellDictionary";
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
   CharsetDecoder decoder = replacingDecoder(DEFAULT_CHARSET);
 
   FST<IntsRef> prefixes;
@@ -141,6 +150,9 @@ public class Dictionary {
    */
   boolean hasCustomMorphData;
 
+  // CRC32 of the affix file, to check that precompiled dictionaries are loaded with the same one
+  private long affixChecksum;
+
   boolean ignoreCase;
   boolean checkSharpS;
   boolean complexPrefixes;
@@ -222,8 +234,136 @@ public class Dictionary {
       throws IOException, ParseException {
     this.ignoreCase = ignoreCase;
 
+    FlagEnumerator flagEnumerator = readAffix(affix);
+
+    // read dictionary entries
+    IndexOutput unsorted = tempDir.createTempOutput(tempFileNamePrefix, "dat", IOContext.DEFAULT);
+    int wordCount = mergeDictionaries(dictionaries, decoder, unsorted);
+    wordHashes = new FixedBitSet(Integer.highestOneBit(wordCount * 10));
+    String sortedFile = sortWordsOffline(tempDir, tempFileNamePrefix, unsorted);
+    words = readSortedDictionaries(tempDir, sortedFile, flagEnumerator);
+    flagLookup = flagEnumerator.finish();
+    aliases = null; // no longer needed
+    morphAliases = null; // no longer needed
+  }
+
+  /**
+   * Creates a new Dictionary from the provided hunspell affix file and the word entries that were
+   * precompiled with {@link #save(IndexOutput)}, which skips parsing, sorting and compiling the
+   * dictionary files entirely. The affix file must be the same as the one the dictionary was
+   * precompiled with. You have to close the provided InputStream yourself.
+   *
+   * <p>If {@code offHeap} is true, the word entries FST is not copied on heap but read directly
+   * from {@code precompiled}, which is typically memory-mapped and must then remain open as long as
+   * this dictionary is used. Otherwise {@code precompiled} can be closed once this constructor
+   * returns.
+   *
+   * <p>NOTE: the checksum of the input is not verified, use {@link
+   * CodecUtil#checksumEntireFile(IndexInput)} beforehand if needed.
+   *
+   * @param affix InputStream for reading the hunspell affix file (won't be closed).
+   * @param precompiled IndexInput for reading the precompiled word entries
+   * @param offHeap whether to read the word entries FST directly from {@code precompiled}
+   * @throws IOException Can be thrown while reading from the inputs
+   * @throws ParseException Can be thrown if the content of the affix file does not meet expected
+   *     formats
+   * @lucene.experimental
+   */
+  public Dictionary(InputStream affix, IndexInput precompiled, boolean offHeap)
+      throws IOException, ParseException {
+    CodecUtil.checkHeader(precompiled, CODEC_NAME, VERSION_START, VERSION_CURRENT);
+    this.ignoreCase = precompiled.readByte() == 1;
+    long expectedAffixChecksum = precompiled.readLong();
+
+    readAffix(affix);
+    if (affixChecksum != expectedAffixChecksum) {
+      throw new IllegalArgumentException(
+          "The affix file differs from the one the dictionary was precompiled with");
+    }
+
+    // the flag ids of the affixes are deterministic, so the saved lookup covers them too
+    flagLookup = FlagEnumerator.Lookup.read(precompiled);
+    int numBits = precompiled.readVInt();
+    long[] bits = new long[FixedBitSet.bits2words(numBits)];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = precompiled.readLong();
+    }
+    wordHashes = new FixedBitSet(bits, numBits);
+    hasCustomMorphData = precompiled.readByte() == 1;
+    morphData.clear();
+    int morphDataCount = precompiled.readVInt();
+    for (int i = 0; i < morphDataCount; i++) {
+      morphData.add(precompiled.readString());
+    }
+    // phonetic replacements from the dictionary files are appended to the ones of the affix file
+    repTable.clear();
+    int repCount = precompiled.readVInt();
+    for (int i = 0; i < repCount; i++) {
+      repTable.add(RepEntry.read(precompiled));
+    }
+    if (precompiled.readByte() == 1) {
+      if (offHeap) {
+        OffHeapFSTStore fstStore = new OffHeapFSTStore();
+        words = new FST<>(precompiled, precompiled, IntSequenceOutputs.getSingleton(), fstStore);
+        // the FST bytes are read in-place, skip over them
+        precompiled.skipBytes(fstStore.size());
+      } else {
+        words = new FST<>(precompiled, precompiled, IntSequenceOutputs.getSingleton());
+      }
+    }
+    if (precompiled.getFilePointer() != precompiled.length() - CodecUtil.footerLength()) {
+      throw new CorruptIndexException(
+          "unexpected trailing bytes: fp="
+              + precompiled.getFilePointer()
+              + " length="
+              + precompiled.length(),
+          precompiled);
+    }
+    CodecUtil.retrieveChecksum(precompiled);
+    aliases = null; // no longer needed
+    morphAliases = null; // no longer needed
+  }
+
+  /**
+   * Serializes the word entries of this dictionary so that it can be loaded later with {@link
+   * #Dictionary(InputStream, IndexInput, boolean)} and the same affix file. Dictionaries that were
+   * loaded off-heap can't be saved.
+   *
+   * @lucene.experimental
+   */
+  public void save(IndexOutput out) throws IOException {
+    CodecUtil.writeHeader(out, CODEC_NAME, VERSION_CURRENT);
+    out.writeByte((byte) (ignoreCase ? 1 : 0));
+    out.writeLong(affixChecksum);
+    flagLookup.write(out);
+    out.writeVInt(wordHashes.length());
+    long[] bits = wordHashes.getBits();
+    for (int i = 0; i < FixedBitSet.bits2words(wordHashes.length()); i++) {
+      out.writeLong(bits[i]);
+    }
+    out.writeByte((byte) (hasCustomMorphData ? 1 : 0));
+    out.writeVInt(morphData.size());
+    for (String data : morphData) {
+      out.writeString(data);
+    }
+    out.writeVInt(repTable.size());
+    for (RepEntry entry : repTable) {
+      entry.write(out);
+    }
+    if (words == null) {
+      out.writeByte((byte) 0);
+    } else {
+      out.writeByte((byte) 1);
+      words.save(out, out);
+    }
+    CodecUtil.writeFooter(out);
+  }
+
+  /** Reads the affix file, and returns the flag enumerator that the dictionary entries extend. */
+  private FlagEnumerator readAffix(InputStream affix) throws IOException, ParseException {
+    CheckedInputStream checked = new CheckedInputStream(affix, new CRC32());
     try (BufferedInputStream affixStream =
-        new BufferedInputStream(affix, MAX_PROLOGUE_SCAN_WINDOW) {
+        new BufferedInputStream(checked, MAX_PROLOGUE_SCAN_WINDOW) {
           @Override
           public void close() {
             // TODO: maybe we should consume and close it? Why does it need to stay open?
@@ -253,16 +393,9 @@ public class Dictionary {
       // pass 2: parse affixes
       FlagEnumerator flagEnumerator = new FlagEnumerator();
       readAffixFile(affixStream, decoder, flagEnumerator);
-
-      // read dictionary entries
-      IndexOutput unsorted = tempDir.createTempOutput(tempFileNamePrefix, "dat", IOContext.DEFAULT);
-      int wordCount = mergeDictionaries(dictionaries, decoder, unsorted);
-      wordHashes = new FixedBitSet(Integer.highestOneBit(wordCount * 10));
-      String sortedFile = sortWordsOffline(tempDir, tempFileNamePrefix, unsorted);
-      words = readSortedDictionaries(tempDir, sortedFile, flagEnumerator);
-      flagLookup = flagEnumerator.finish();
-      aliases = null; // no longer needed
-      morphAliases = null; // no longer needed
+      // the affix file is read until its end, so this covers all of its bytes
+      affixChecksum = checked.getChecksum().getValue();
+      return flagEnumerator;
     }
   }
 
@@ -16,9 +16,12 @@
  */
 package org.apache.lucene.analysis.hunspell;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.util.ArrayUtil;
 
 /**
@@ -67,6 +70,21 @@ class FlagEnumerator {
       this.data = data;
     }
 
+    static Lookup read(DataInput in) throws IOException {
+      char[] data = new char[in.readVInt()];
+      for (int i = 0; i < data.length; i++) {
+        data[i] = (char) in.readShort();
+      }
+      return new Lookup(data);
+    }
+
+    void write(DataOutput out) throws IOException {
+      out.writeVInt(data.length);
+      for (char c : data) {
+        out.writeShort((short) c);
+      }
+    }
+
     boolean hasFlag(int entryId, char flag) {
       if (entryId < 0 || flag == Dictionary.FLAG_UNSET) return false;
 
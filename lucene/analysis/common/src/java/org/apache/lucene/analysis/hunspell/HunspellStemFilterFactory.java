@@ -18,16 +18,28 @@ package org.apache.lucene.analysis.hunspell;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import org.apache.lucene.analysis.TokenFilterFactory;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ByteBuffersIndexInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.ResourceLoader;
 import org.apache.lucene.util.ResourceLoaderAware;
@@ -46,6 +58,16 @@ import org.apache.lucene.util.ResourceLoaderAware;
  * Both parameters dictionary and affix are mandatory. Dictionaries for many languages are available
  * through the OpenOffice project.
  *
+ * <p>{@code format="binary"} loads a single dictionary file that was precompiled with {@link
+ * Dictionary#save}, which skips parsing, sorting and compiling the dictionary entries entirely; the
+ * affix file is still required and must be the one the dictionary was precompiled with. {@code
+ * ignoreCase} is then taken from the precompiled dictionary.
+ *
+ * <p>If the optional {@code shared} parameter is {@code true}, factories with identical {@code
+ * ignoreCase} and {@code format} parameters and affix and dictionary files of identical content (as
+ * identified by their SHA-256 hash) share a single {@link Dictionary} instance, e.g. across cores,
+ * instead of each loading their own.
+ *
  * <p>See <a href="http://wiki.apache.org/solr/Hunspell">http://wiki.apache.org/solr/Hunspell</a>
  *
  * @lucene.experimental
@@ -63,13 +85,20 @@ public class HunspellStemFilterFactory extends TokenFilterFactory implements Res
   private static final String PARAM_RECURSION_CAP = "recursionCap";
   private static final String PARAM_IGNORE_CASE = "ignoreCase";
   private static final String PARAM_LONGEST_ONLY = "longestOnly";
+  private static final String PARAM_FORMAT = "format";
+  private static final String PARAM_SHARED = "shared";
 
   private final String dictionaryFiles;
   private final String affixFile;
   private final boolean ignoreCase;
   private final boolean longestOnly;
+  private final String format;
+  private final boolean shared;
   private Dictionary dictionary;
 
+  // dictionaries of factories with shared=true, by hash of their parameters and files
+  private static final Map<String, WeakReference<Dictionary>> SHARED_DICTIONARIES = new HashMap<>();
+
   /** Creates a new HunspellStemFilterFactory */
   public HunspellStemFilterFactory(Map<String, String> args) {
     super(args);
@@ -77,6 +106,11 @@ public class HunspellStemFilterFactory extends TokenFilterFactory implements Res
     affixFile = get(args, PARAM_AFFIX);
     ignoreCase = getBoolean(args, PARAM_IGNORE_CASE, false);
     longestOnly = getBoolean(args, PARAM_LONGEST_ONLY, false);
+    format = get(args, PARAM_FORMAT);
+    if (format != null && format.equals("binary") == false) {
+      throw new IllegalArgumentException("Unknown format: " + format);
+    }
+    shared = getBoolean(args, PARAM_SHARED, false);
     // this isnt necessary: we properly load all dictionaries.
     // but recognize and ignore for back compat
     getBoolean(args, "strictAffixParsing", true);
@@ -96,6 +130,57 @@ public class HunspellStemFilterFactory extends TokenFilterFactory implements Res
 
   @Override
   public void inform(ResourceLoader loader) throws IOException {
+    if (shared == false) {
+      dictionary = loadDictionary(loader);
+      return;
+    }
+    final String key = sharedDictionaryKey(loader);
+    synchronized (SHARED_DICTIONARIES) {
+      WeakReference<Dictionary> ref = SHARED_DICTIONARIES.get(key);
+      dictionary = ref == null ? null : ref.get();
+      if (dictionary == null) {
+        dictionary = loadDictionary(loader);
+        SHARED_DICTIONARIES.values().removeIf(r -> r.get() == null);
+        SHARED_DICTIONARIES.put(key, new WeakReference<>(dictionary));
+      }
+    }
+  }
+
+  // for testing
+  Dictionary getDictionary() {
+    return dictionary;
+  }
+
+  /** Returns the hex-encoded SHA-256 hash of the parameters and files of this factory. */
+  private String sharedDictionaryKey(ResourceLoader loader) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+    String params = "ignoreCase=" + ignoreCase + ",format=" + format;
+    digest.update(params.getBytes(StandardCharsets.UTF_8));
+    for (String file : (affixFile + "," + dictionaryFiles).split(",")) {
+      try (InputStream in = loader.openResource(file)) {
+        byte[] bytes = in.readAllBytes();
+        // separate files so that their boundaries are part of the hash
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update(bytes);
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(String.format(Locale.ROOT, "%02x", b));
+    }
+    return key.toString();
+  }
+
+  private Dictionary loadDictionary(ResourceLoader loader) throws IOException {
+    if ("binary".equals(format)) {
+      return loadBinaryDictionary(loader);
+    }
+
     String dicts[] = dictionaryFiles.split(",");
 
     InputStream affix = null;
@@ -110,7 +195,7 @@ public class HunspellStemFilterFactory extends TokenFilterFactory implements Res
 
       Path tempPath = Files.createTempDirectory(Dictionary.getDefaultTempDir(), "Hunspell");
       try (Directory tempDir = FSDirectory.open(tempPath)) {
-        this.dictionary = new Dictionary(tempDir, "hunspell", affix, dictionaries, ignoreCase);
+        return new Dictionary(tempDir, "hunspell", affix, dictionaries, ignoreCase);
       } finally {
         IOUtils.rm(tempPath);
       }
@@ -124,6 +209,36 @@ public class HunspellStemFilterFactory extends TokenFilterFactory implements Res
     }
   }
 
+  /** Loads a dictionary that was precompiled with {@link Dictionary#save}. */
+  private Dictionary loadBinaryDictionary(ResourceLoader loader) throws IOException {
+    if (dictionaryFiles.contains(",")) {
+      throw new IllegalArgumentException(
+          "format=binary requires a single dictionary file, got: " + dictionaryFiles);
+    }
+    final byte[] bytes;
+    try (InputStream in = loader.openResource(dictionaryFiles)) {
+      bytes = in.readAllBytes();
+    }
+    // resources are not necessarily files, so we can't memory-map them: load the FST on heap
+    IndexInput input =
+        new ByteBuffersIndexInput(
+            new ByteBuffersDataInput(Collections.singletonList(ByteBuffer.wrap(bytes))),
+            dictionaryFiles);
+    CodecUtil.checksumEntireFile(input);
+    input.seek(0);
+    try (InputStream affix = loader.openResource(affixFile)) {
+      return new Dictionary(affix, input, false);
+    } catch (ParseException e) {
+      throw new IOException(
+          "Unable to load hunspell data! [dictionary="
+              + dictionaryFiles
+              + ",affix="
+              + affixFile
+              + "]",
+          e);
+    }
+  }
+
   @Override
   public TokenStream create(TokenStream tokenStream) {
     return new HunspellStemFilter(tokenStream, dictionary, true, longestOnly);
@@ -16,9 +16,12 @@
  */
 package org.apache.lucene.analysis.hunspell;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
 
 class RepEntry {
   private final String pattern;
@@ -35,6 +38,27 @@ class RepEntry {
     patternLen = pattern.length();
   }
 
+  private RepEntry(String pattern, String replacement, boolean mustStart, boolean mustEnd) {
+    this.pattern = pattern;
+    this.replacement = replacement;
+    this.mustStart = mustStart;
+    this.mustEnd = mustEnd;
+    patternLen = pattern.length();
+  }
+
+  static RepEntry read(DataInput in) throws IOException {
+    String pattern = in.readString();
+    String replacement = in.readString();
+    byte flags = in.readByte();
+    return new RepEntry(pattern, replacement, (flags & 1) != 0, (flags & 2) != 0);
+  }
+
+  void write(DataOutput out) throws IOException {
+    out.writeString(pattern);
+    out.writeString(replacement);
+    out.writeByte((byte) ((mustStart ? 1 : 0) | (mustEnd ? 2 : 0)));
+  }
+
   boolean isMiddle() {
     return !mustStart && !mustEnd;
   }
@@ -100,6 +100,7 @@ public final class SynonymFilter extends TokenFilter {
   public static final String TYPE_SYNONYM = "SYNONYM";
 
   private final SynonymMap synonyms;
+  private final SynonymMap.WordsReader synonymWords;
 
   private final boolean ignoreCase;
   private final int rollBufferSize;
@@ -258,6 +259,7 @@ public final class SynonymFilter extends TokenFilter {
       throw new IllegalArgumentException("fst must be non-null");
     }
     this.fstReader = fst.getBytesReader();
+    this.synonymWords = synonyms.newWordsReader();
 
     // Must be 1+ so that when roll buffer is at full
     // lookahead we can distinguish this full buffer from
@@ -449,7 +451,8 @@ public final class SynonymFilter extends TokenFilter {
   }
 
   // Interleaves all output tokens onto the futureOutputs:
-  private void addOutput(BytesRef bytes, int matchInputLength, int matchEndOffset) {
+  private void addOutput(BytesRef bytes, int matchInputLength, int matchEndOffset)
+      throws IOException {
     bytesReader.reset(bytes.bytes, bytes.offset, bytes.length);
 
     final int code = bytesReader.readVInt();
@@ -457,7 +460,7 @@ public final class SynonymFilter extends TokenFilter {
     final int count = code >>> 1;
     // System.out.println("  addOutput count=" + count + " keepOrig=" + keepOrig);
     for (int outputIDX = 0; outputIDX < count; outputIDX++) {
-      synonyms.words.get(bytesReader.readVInt(), scratchBytes);
+      synonymWords.get(bytesReader.readVInt(), scratchBytes);
       // System.out.println("    outIDX=" + outputIDX + " bytes=" + scratchBytes.length);
       scratchChars.copyUTF8Bytes(scratchBytes);
       int lastStart = 0;
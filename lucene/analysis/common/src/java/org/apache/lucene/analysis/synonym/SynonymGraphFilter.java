@@ -19,7 +19,6 @@ package org.apache.lucene.analysis.synonym;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
@@ -30,6 +29,7 @@ import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
 import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
 import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.AttributeSource;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRefBuilder;
@@ -86,7 +86,7 @@ public final class SynonymGraphFilter extends TokenFilter {
   private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
   private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
 
-  private final SynonymMap synonyms;
+  private final SynonymMap.WordsReader synonymWords;
   private final boolean ignoreCase;
 
   private final FST<BytesRef> fst;
@@ -96,7 +96,18 @@ public final class SynonymGraphFilter extends TokenFilter {
   private final ByteArrayDataInput bytesReader = new ByteArrayDataInput();
   private final BytesRef scratchBytes = new BytesRef();
   private final CharsRefBuilder scratchChars = new CharsRefBuilder();
-  private final LinkedList<BufferedOutputToken> outputBuffer = new LinkedList<>();
+
+  // Output tokens of the current match are buffered in outputBuffer[outputBufferUpto:
+  // outputBufferSize]; instances are recycled across matches to not allocate per token:
+  private final List<BufferedOutputToken> outputBuffer = new ArrayList<>();
+  private int outputBufferUpto;
+  private int outputBufferSize;
+
+  // Decoded synonym outputs of the current match: the chars of all outputs are concatenated in
+  // pathChars, output i spanning pathStarts[i] to pathStarts[i+1]-1, the separator:
+  private final CharsRefBuilder pathChars = new CharsRefBuilder();
+  private int[] pathStarts = new int[8];
+  private int[] pathTokenCounts = new int[8];
 
   private int nextNodeOut;
   private int lastNodeOut;
@@ -143,20 +154,14 @@ public final class SynonymGraphFilter extends TokenFilter {
   }
 
   static class BufferedOutputToken {
-    final String term;
+    // Only used if state is null:
+    final CharsRefBuilder term = new CharsRefBuilder();
 
     // Non-null if this was an incoming token:
-    final State state;
-
-    final int startNode;
-    final int endNode;
+    State state;
 
-    public BufferedOutputToken(State state, String term, int startNode, int endNode) {
-      this.state = state;
-      this.term = term;
-      this.startNode = startNode;
-      this.endNode = endNode;
-    }
+    int startNode;
+    int endNode;
   }
 
   /**
@@ -170,11 +175,11 @@ public final class SynonymGraphFilter extends TokenFilter {
    */
   public SynonymGraphFilter(TokenStream input, SynonymMap synonyms, boolean ignoreCase) {
     super(input);
-    this.synonyms = synonyms;
     this.fst = synonyms.fst;
     if (fst == null) {
       throw new IllegalArgumentException("fst must be non-null");
     }
+    this.synonymWords = synonyms.newWordsReader();
     this.fstReader = fst.getBytesReader();
     scratchArc = new FST.Arc<>();
     this.ignoreCase = ignoreCase;
@@ -187,7 +192,7 @@ public final class SynonymGraphFilter extends TokenFilter {
 
     assert lastNodeOut <= nextNodeOut;
 
-    if (outputBuffer.isEmpty() == false) {
+    if (outputBufferUpto < outputBufferSize) {
       // We still have pending outputs from a prior synonym match:
       releaseBufferedToken();
       // System.out.println("  syn: ret buffered=" + this);
@@ -253,7 +258,7 @@ public final class SynonymGraphFilter extends TokenFilter {
   private void releaseBufferedToken() throws IOException {
     // System.out.println("  releaseBufferedToken");
 
-    BufferedOutputToken token = outputBuffer.pollFirst();
+    BufferedOutputToken token = outputBuffer.get(outputBufferUpto++);
 
     if (token.state != null) {
       // This is an original input token (keepOrig=true case):
@@ -264,7 +269,7 @@ public final class SynonymGraphFilter extends TokenFilter {
     } else {
       clearAttributes();
       // System.out.println("    no state");
-      termAtt.append(token.term);
+      termAtt.copyBuffer(token.term.chars(), 0, token.term.length());
 
       // We better have a match already:
       assert matchStartOffset != -1;
@@ -418,6 +423,7 @@ public final class SynonymGraphFilter extends TokenFilter {
       }
 
       // There is a match!
+      outputBufferUpto = outputBufferSize = 0;
       bufferOutputTokens(matchOutput, matchInputLength);
       lookaheadNextRead += matchInputLength;
       // System.out.println("  precmatch; set lookaheadNextRead=" + lookaheadNextRead + " now max="
@@ -439,7 +445,7 @@ public final class SynonymGraphFilter extends TokenFilter {
    * Expands the output graph into the necessary tokens, adding synonyms as side paths parallel to
    * the input tokens, and buffers them in the output token buffer.
    */
-  private void bufferOutputTokens(BytesRef bytes, int matchInputLength) {
+  private void bufferOutputTokens(BytesRef bytes, int matchInputLength) throws IOException {
     bytesReader.reset(bytes.bytes, bytes.offset, bytes.length);
 
     final int code = bytesReader.readVInt();
@@ -463,25 +469,28 @@ public final class SynonymGraphFilter extends TokenFilter {
     // TODO: we could encode this instead into the FST:
 
     // 1st pass: count how many new nodes we need
-    List<List<String>> paths = new ArrayList<>();
+    pathChars.clear();
+    pathStarts = ArrayUtil.grow(pathStarts, count);
+    pathTokenCounts = ArrayUtil.grow(pathTokenCounts, count);
     for (int outputIDX = 0; outputIDX < count; outputIDX++) {
       int wordID = bytesReader.readVInt();
-      synonyms.words.get(wordID, scratchBytes);
+      synonymWords.get(wordID, scratchBytes);
       scratchChars.copyUTF8Bytes(scratchBytes);
-      int lastStart = 0;
 
-      List<String> path = new ArrayList<>();
-      paths.add(path);
+      int tokenCount = 1;
       int chEnd = scratchChars.length();
-      for (int chUpto = 0; chUpto <= chEnd; chUpto++) {
-        if (chUpto == chEnd || scratchChars.charAt(chUpto) == SynonymMap.WORD_SEPARATOR) {
-          path.add(new String(scratchChars.chars(), lastStart, chUpto - lastStart));
-          lastStart = 1 + chUpto;
+      for (int chUpto = 0; chUpto < chEnd; chUpto++) {
+        if (scratchChars.charAt(chUpto) == SynonymMap.WORD_SEPARATOR) {
+          tokenCount++;
         }
       }
+      pathStarts[outputIDX] = pathChars.length();
+      pathTokenCounts[outputIDX] = tokenCount;
+      pathChars.append(scratchChars.chars(), 0, chEnd);
+      // Terminate the path so that its last token ends like the others:
+      pathChars.append(SynonymMap.WORD_SEPARATOR);
 
-      assert path.size() > 0;
-      totalPathNodes += path.size() - 1;
+      totalPathNodes += tokenCount - 1;
     }
     // System.out.println("  totalPathNodes=" + totalPathNodes);
 
@@ -496,21 +505,24 @@ public final class SynonymGraphFilter extends TokenFilter {
     int startNode = nextNodeOut;
 
     int endNode = startNode + totalPathNodes + 1;
-    // System.out.println("  " + paths.size() + " new side-paths");
+    // System.out.println("  " + count + " new side-paths");
 
     // First, fanout all tokens departing start node for these new side paths:
     int newNodeCount = 0;
-    for (List<String> path : paths) {
+    for (int pathID = 0; pathID < count; pathID++) {
       int pathEndNode;
-      // System.out.println("    path size=" + path.size());
-      if (path.size() == 1) {
+      int pathSize = pathTokenCounts[pathID];
+      // System.out.println("    path size=" + pathSize);
+      if (pathSize == 1) {
         // Single token output, so there are no intermediate nodes:
         pathEndNode = endNode;
       } else {
         pathEndNode = nextNodeOut + newNodeCount + 1;
-        newNodeCount += path.size() - 1;
+        newNodeCount += pathSize - 1;
       }
-      outputBuffer.add(new BufferedOutputToken(null, path.get(0), startNode, pathEndNode));
+      BufferedOutputToken token = addOutputToken(null, startNode, pathEndNode);
+      // Remember where the rest of this path starts:
+      pathStarts[pathID] = copyPathToken(pathStarts[pathID], token.term);
     }
 
     // We must do the original tokens last, else the offsets "go backwards":
@@ -526,48 +538,79 @@ public final class SynonymGraphFilter extends TokenFilter {
 
       // System.out.println("    keepOrig first token: " + token.term);
 
-      outputBuffer.add(
-          new BufferedOutputToken(token.state, token.term.toString(), startNode, inputEndNode));
+      addOutputToken(token.state, startNode, inputEndNode);
     }
 
     nextNodeOut = endNode;
 
     // Do full side-path for each syn output:
-    for (int pathID = 0; pathID < paths.size(); pathID++) {
-      List<String> path = paths.get(pathID);
-      if (path.size() > 1) {
+    for (int pathID = 0; pathID < count; pathID++) {
+      int pathSize = pathTokenCounts[pathID];
+      if (pathSize > 1) {
         int lastNode = outputBuffer.get(pathID).endNode;
-        for (int i = 1; i < path.size() - 1; i++) {
-          outputBuffer.add(new BufferedOutputToken(null, path.get(i), lastNode, lastNode + 1));
+        int tokenStart = pathStarts[pathID];
+        for (int i = 1; i < pathSize - 1; i++) {
+          BufferedOutputToken token = addOutputToken(null, lastNode, lastNode + 1);
+          tokenStart = copyPathToken(tokenStart, token.term);
           lastNode++;
         }
-        outputBuffer.add(
-            new BufferedOutputToken(null, path.get(path.size() - 1), lastNode, endNode));
+        BufferedOutputToken token = addOutputToken(null, lastNode, endNode);
+        copyPathToken(tokenStart, token.term);
       }
     }
 
     if (keepOrig && matchInputLength > 1) {
       // Do full "side path" with the original tokens:
-      int lastNode = outputBuffer.get(paths.size()).endNode;
+      int lastNode = outputBuffer.get(count).endNode;
       for (int i = 1; i < matchInputLength - 1; i++) {
         BufferedInputToken token = lookahead.get(lookaheadNextRead + i);
-        outputBuffer.add(
-            new BufferedOutputToken(token.state, token.term.toString(), lastNode, lastNode + 1));
+        addOutputToken(token.state, lastNode, lastNode + 1);
         lastNode++;
       }
       BufferedInputToken token = lookahead.get(lookaheadNextRead + matchInputLength - 1);
-      outputBuffer.add(
-          new BufferedOutputToken(token.state, token.term.toString(), lastNode, endNode));
+      addOutputToken(token.state, lastNode, endNode);
     }
 
     /*
-    System.out.println("  after buffer: " + outputBuffer.size() + " tokens:");
-    for(BufferedOutputToken token : outputBuffer) {
+    System.out.println("  after buffer: " + outputBufferSize + " tokens:");
+    for(int i = 0; i < outputBufferSize; i++) {
+      BufferedOutputToken token = outputBuffer.get(i);
       System.out.println("    tok: " + token.term + " startNode=" + token.startNode + " endNode=" + token.endNode);
     }
     */
   }
 
+  /** Appends a (recycled) token to the output buffer. */
+  private BufferedOutputToken addOutputToken(State state, int startNode, int endNode) {
+    final BufferedOutputToken token;
+    if (outputBufferSize == outputBuffer.size()) {
+      token = new BufferedOutputToken();
+      outputBuffer.add(token);
+    } else {
+      token = outputBuffer.get(outputBufferSize);
+    }
+    outputBufferSize++;
+    token.state = state;
+    token.startNode = startNode;
+    token.endNode = endNode;
+    token.term.clear();
+    return token;
+  }
+
+  /**
+   * Copies the path token starting at {@code start} in {@link #pathChars} to {@code dest}, and
+   * returns the start of the next token.
+   */
+  private int copyPathToken(int start, CharsRefBuilder dest) {
+    final char[] chars = pathChars.chars();
+    int end = start;
+    while (chars[end] != SynonymMap.WORD_SEPARATOR) {
+      end++;
+    }
+    dest.copyChars(chars, start, end - start);
+    return end + 1;
+  }
+
   /** Buffers the current input token into lookahead buffer. */
   private void capture() {
     assert liveToken;
@@ -599,7 +642,7 @@ public final class SynonymGraphFilter extends TokenFilter {
     matchEndOffset = -1;
     finished = false;
     liveToken = false;
-    outputBuffer.clear();
+    outputBufferUpto = outputBufferSize = 0;
     maxLookaheadUsed = 0;
     // System.out.println("S: reset");
   }
@@ -18,15 +18,23 @@
 package org.apache.lucene.analysis.synonym;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenFilterFactory;
 import org.apache.lucene.analysis.TokenStream;
@@ -34,6 +42,10 @@ import org.apache.lucene.analysis.Tokenizer;
 import org.apache.lucene.analysis.TokenizerFactory;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteBuffersDataInput;
+import org.apache.lucene.store.ByteBuffersIndexInput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.ResourceLoader;
 import org.apache.lucene.util.ResourceLoaderAware;
 
@@ -68,6 +80,16 @@ import org.apache.lucene.util.ResourceLoaderAware;
  *   <li><code>{@link Analyzer} analyzer</code> - an analyzer used for each raw synonym
  * </ul>
  *
+ * <p>{@code format="binary"} loads a single file that was built offline with {@link
+ * SynonymMap#save}, which skips parsing and analysis entirely; {@code expand} and the analysis
+ * parameters are then ignored.
+ *
+ * <p>If the optional {@code shared} parameter is {@code true}, factories with identical parameters
+ * and synonym files of identical content (as identified by their SHA-256 hash) share a single
+ * {@link SynonymMap} instance, e.g. across cores, instead of each building their own. Do not use it
+ * if the analysis depends on more than these, e.g. with a custom {@code analyzer} that loads
+ * resources itself.
+ *
  * @see SolrSynonymParser SolrSynonymParser: default format
  * @lucene.experimental
  * @since 6.4.0
@@ -84,8 +106,12 @@ public class SynonymGraphFilterFactory extends TokenFilterFactory implements Res
   private final String format;
   private final boolean expand;
   private final String analyzerName;
+  private final boolean shared;
   private final Map<String, String> tokArgs = new HashMap<>();
 
+  // maps of factories with shared=true, by hash of their parameters and synonym files
+  private static final Map<String, WeakReference<SynonymMap>> SHARED_MAPS = new HashMap<>();
+
   private SynonymMap map;
 
   public SynonymGraphFilterFactory(Map<String, String> args) {
@@ -94,6 +120,7 @@ public class SynonymGraphFilterFactory extends TokenFilterFactory implements Res
     synonyms = require(args, "synonyms");
     format = get(args, "format");
     expand = getBoolean(args, "expand", true);
+    shared = getBoolean(args, "shared", false);
 
     analyzerName = get(args, "analyzer");
     tokenizerFactory = get(args, "tokenizerFactory");
@@ -132,6 +159,55 @@ public class SynonymGraphFilterFactory extends TokenFilterFactory implements Res
 
   @Override
   public void inform(ResourceLoader loader) throws IOException {
+    if (shared == false) {
+      map = loadMap(loader);
+      return;
+    }
+    final String key = sharedMapKey(loader);
+    synchronized (SHARED_MAPS) {
+      WeakReference<SynonymMap> ref = SHARED_MAPS.get(key);
+      map = ref == null ? null : ref.get();
+      if (map == null) {
+        map = loadMap(loader);
+        SHARED_MAPS.values().removeIf(r -> r.get() == null);
+        SHARED_MAPS.put(key, new WeakReference<>(map));
+      }
+    }
+  }
+
+  // for testing
+  SynonymMap getSynonymMap() {
+    return map;
+  }
+
+  /** Returns the hex-encoded SHA-256 hash of the parameters and synonym files of this factory. */
+  private String sharedMapKey(ResourceLoader loader) throws IOException {
+    final MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+    // sort to not depend on the iteration order of the arguments
+    String args = new TreeMap<>(getOriginalArgs()).toString();
+    digest.update(args.getBytes(StandardCharsets.UTF_8));
+    for (String file : splitFileNames(synonyms)) {
+      try (InputStream in = loader.openResource(file)) {
+        digest.update(in.readAllBytes());
+      }
+    }
+    StringBuilder key = new StringBuilder();
+    for (byte b : digest.digest()) {
+      key.append(String.format(Locale.ROOT, "%02x", b));
+    }
+    return key.toString();
+  }
+
+  private SynonymMap loadMap(ResourceLoader loader) throws IOException {
+    if ("binary".equals(format)) {
+      return loadBinarySynonyms(loader);
+    }
+
     final TokenizerFactory factory =
         tokenizerFactory == null ? null : loadTokenizerFactory(loader, tokenizerFactory);
     Analyzer analyzer;
@@ -158,12 +234,33 @@ public class SynonymGraphFilterFactory extends TokenFilterFactory implements Res
         formatClass = WordnetSynonymParser.class.getName();
       }
       // TODO: expose dedup as a parameter?
-      map = loadSynonyms(loader, formatClass, true, a);
+      return loadSynonyms(loader, formatClass, true, a);
     } catch (ParseException e) {
       throw new IOException("Error parsing synonyms file:", e);
     }
   }
 
+  /** Loads a synonym map that was serialized with {@link SynonymMap#save}. */
+  private SynonymMap loadBinarySynonyms(ResourceLoader loader) throws IOException {
+    List<String> files = splitFileNames(synonyms);
+    if (files.size() != 1) {
+      throw new IllegalArgumentException(
+          "format=binary requires a single synonyms file, got: " + synonyms);
+    }
+    final byte[] bytes;
+    try (InputStream in = loader.openResource(files.get(0))) {
+      bytes = in.readAllBytes();
+    }
+    // resources are not necessarily files, so we can't memory-map them: the map is read from heap
+    IndexInput input =
+        new ByteBuffersIndexInput(
+            new ByteBuffersDataInput(Collections.singletonList(ByteBuffer.wrap(bytes))),
+            files.get(0));
+    CodecUtil.checksumEntireFile(input);
+    input.seek(0);
+    return SynonymMap.load(input);
+  }
+
   /** Load synonyms with the given {@link SynonymMap.Parser} class. */
   protected SynonymMap loadSynonyms(
       ResourceLoader loader, String cname, boolean dedup, Analyzer analyzer)
@@ -28,7 +28,12 @@ import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.BytesRefHash;
@@ -38,27 +43,163 @@ import org.apache.lucene.util.IntsRefBuilder;
 import org.apache.lucene.util.fst.ByteSequenceOutputs;
 import org.apache.lucene.util.fst.FST;
 import org.apache.lucene.util.fst.FSTCompiler;
+import org.apache.lucene.util.fst.OffHeapFSTStore;
 import org.apache.lucene.util.fst.Util;
 
 /**
  * A map of synonyms, keys and values are phrases.
  *
+ * <p>A map can be serialized with {@link #save(IndexOutput)} and loaded back with {@link
+ * #load(IndexInput)}, which reads the FST and the output words directly from the input instead of
+ * copying them on heap. This allows to build large synonym maps offline and to share a single
+ * memory-mapped copy across analyzers.
+ *
  * @lucene.experimental
  */
 public class SynonymMap {
   /** for multiword support, you must separate words with this separator */
   public static final char WORD_SEPARATOR = 0;
+
+  static final String CODEC_NAME = "SynonymMap";
+  static final int VERSION_START = 0;
+  static final int VERSION_CURRENT = VERSION_START;
+
   /** map&lt;input word, list&lt;ord&gt;&gt; */
   public final FST<BytesRef> fst;
-  /** map&lt;ord, outputword&gt; */
+  /** map&lt;ord, outputword&gt;, or {@code null} if this map was {@link #load loaded} */
   public final BytesRefHash words;
   /** maxHorizontalContext: maximum context we need on the tokenstream */
   public final int maxHorizontalContext;
 
+  private final int numWords;
+  // output words of a loaded map: numWords+1 start offsets, and the concatenated word bytes
+  private final IndexInput wordOffsets;
+  private final IndexInput wordBytes;
+
   public SynonymMap(FST<BytesRef> fst, BytesRefHash words, int maxHorizontalContext) {
     this.fst = fst;
     this.words = words;
     this.maxHorizontalContext = maxHorizontalContext;
+    this.numWords = words.size();
+    this.wordOffsets = null;
+    this.wordBytes = null;
+  }
+
+  private SynonymMap(
+      FST<BytesRef> fst,
+      int maxHorizontalContext,
+      int numWords,
+      IndexInput wordOffsets,
+      IndexInput wordBytes) {
+    this.fst = fst;
+    this.words = null;
+    this.maxHorizontalContext = maxHorizontalContext;
+    this.numWords = numWords;
+    this.wordOffsets = wordOffsets;
+    this.wordBytes = wordBytes;
+  }
+
+  /** Looks up output words by ord. */
+  interface WordsReader {
+    /**
+     * Sets {@code scratch} to the bytes of the output word with the given ord. The byte[] of {@code
+     * scratch} may be replaced or overwritten.
+     */
+    void get(int ord, BytesRef scratch) throws IOException;
+  }
+
+  /**
+   * Returns a reader for the output words of this map. Readers are not thread-safe, every consumer
+   * must create its own.
+   */
+  WordsReader newWordsReader() {
+    if (words != null) {
+      return words::get;
+    }
+    final IndexInput offsets = wordOffsets.clone();
+    final IndexInput bytes = wordBytes.clone();
+    return (ord, scratch) -> {
+      offsets.seek((long) ord * Long.BYTES);
+      final long start = offsets.readLong();
+      final int length = Math.toIntExact(offsets.readLong() - start);
+      if (scratch.bytes.length < length) {
+        scratch.bytes = new byte[ArrayUtil.oversize(length, Byte.BYTES)];
+      }
+      bytes.seek(start);
+      bytes.readBytes(scratch.bytes, 0, length);
+      scratch.offset = 0;
+      scratch.length = length;
+    };
+  }
+
+  /**
+   * Serializes this map to the given output so that it can be loaded later with {@link
+   * #load(IndexInput)}.
+   */
+  public void save(IndexOutput out) throws IOException {
+    CodecUtil.writeHeader(out, CODEC_NAME, VERSION_CURRENT);
+    out.writeVInt(maxHorizontalContext);
+    out.writeVInt(numWords);
+    final WordsReader reader = newWordsReader();
+    final BytesRef scratch = new BytesRef();
+    long offset = 0;
+    for (int ord = 0; ord < numWords; ord++) {
+      reader.get(ord, scratch);
+      offset += scratch.length;
+    }
+    out.writeVLong(offset);
+    offset = 0;
+    for (int ord = 0; ord < numWords; ord++) {
+      out.writeLong(offset);
+      reader.get(ord, scratch);
+      offset += scratch.length;
+    }
+    out.writeLong(offset);
+    for (int ord = 0; ord < numWords; ord++) {
+      reader.get(ord, scratch);
+      out.writeBytes(scratch.bytes, scratch.offset, scratch.length);
+    }
+    if (fst == null) {
+      out.writeByte((byte) 0);
+    } else {
+      out.writeByte((byte) 1);
+      fst.save(out, out);
+    }
+    CodecUtil.writeFooter(out);
+  }
+
+  /**
+   * Loads a map that was serialized with {@link #save(IndexOutput)}. The FST and the output words
+   * are not copied on heap but read directly from {@code in}, which is typically memory-mapped and
+   * must remain open as long as the returned map is used. The returned map is thread-safe, and its
+   * {@link #words} are {@code null}.
+   *
+   * <p>NOTE: the checksum of the input is not verified, use {@link
+   * CodecUtil#checksumEntireFile(IndexInput)} beforehand if needed.
+   */
+  public static SynonymMap load(IndexInput in) throws IOException {
+    CodecUtil.checkHeader(in, CODEC_NAME, VERSION_START, VERSION_CURRENT);
+    final int maxHorizontalContext = in.readVInt();
+    final int numWords = in.readVInt();
+    final long numWordBytes = in.readVLong();
+    final long offsetsLength = (numWords + 1L) * Long.BYTES;
+    final IndexInput wordOffsets = in.slice("word offsets", in.getFilePointer(), offsetsLength);
+    in.skipBytes(offsetsLength);
+    final IndexInput wordBytes = in.slice("word bytes", in.getFilePointer(), numWordBytes);
+    in.skipBytes(numWordBytes);
+    FST<BytesRef> fst = null;
+    if (in.readByte() == 1) {
+      final OffHeapFSTStore fstStore = new OffHeapFSTStore();
+      fst = new FST<>(in, in, ByteSequenceOutputs.getSingleton(), fstStore);
+      // the FST bytes are read in-place, skip over them
+      in.skipBytes(fstStore.size());
+    }
+    if (in.getFilePointer() != in.length() - CodecUtil.footerLength()) {
+      throw new CorruptIndexException(
+          "unexpected trailing bytes: fp=" + in.getFilePointer() + " length=" + in.length(), in);
+    }
+    CodecUtil.retrieveChecksum(in);
+    return new SynonymMap(fst, maxHorizontalContext, numWords, wordOffsets, wordBytes);
   }
 
   /**
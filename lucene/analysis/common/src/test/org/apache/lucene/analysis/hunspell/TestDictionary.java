@@ -27,8 +27,12 @@ import java.util.Collections;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.LuceneTestCase;
 import org.junit.Test;
@@ -256,6 +260,49 @@ public class TestDictionary extends LuceneTestCase {
     assertEquals("", dic.lookupEntries("unsupported2").getMorphologicalData(0));
   }
 
+  public void testSaveAndLoad() throws IOException, ParseException {
+    for (String name : new String[] {"simple", "compressed", "morphdata"}) {
+      Dictionary original = loadDictionary(name + ".aff", name + ".dic");
+      try (Directory dir = getDirectory()) {
+        try (IndexOutput out = dir.createOutput(name + ".bin", IOContext.DEFAULT)) {
+          original.save(out);
+        }
+        try (IndexInput in = dir.openInput(name + ".bin", IOContext.DEFAULT);
+            InputStream affixStream = getClass().getResourceAsStream(name + ".aff")) {
+          CodecUtil.checksumEntireFile(in);
+          in.seek(0);
+          Dictionary loaded = new Dictionary(affixStream, in, random().nextBoolean());
+          for (String word : new String[] {"lucen", "olr", "lay", "sing", "unsupported1", "abc"}) {
+            DictEntries expected = original.lookupEntries(word);
+            DictEntries actual = loaded.lookupEntries(word);
+            if (expected == null) {
+              assertNull(actual);
+              continue;
+            }
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+              assertEquals(expected.getMorphologicalData(i), actual.getMorphologicalData(i));
+            }
+          }
+          assertEquals(new Stemmer(original).stem("lucene"), new Stemmer(loaded).stem("lucene"));
+        }
+      }
+    }
+  }
+
+  public void testLoadWithOtherAffixFile() throws IOException, ParseException {
+    Dictionary original = loadDictionary("simple.aff", "simple.dic");
+    try (Directory dir = getDirectory()) {
+      try (IndexOutput out = dir.createOutput("simple.bin", IOContext.DEFAULT)) {
+        original.save(out);
+      }
+      try (IndexInput in = dir.openInput("simple.bin", IOContext.DEFAULT);
+          InputStream affixStream = getClass().getResourceAsStream("compressed.aff")) {
+        expectThrows(IllegalArgumentException.class, () -> new Dictionary(affixStream, in, false));
+      }
+    }
+  }
+
   private Directory getDirectory() {
     return newDirectory();
   }
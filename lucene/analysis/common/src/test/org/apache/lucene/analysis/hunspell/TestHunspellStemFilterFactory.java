@@ -16,10 +16,22 @@
  */
 package org.apache.lucene.analysis.hunspell;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
 import org.apache.lucene.analysis.BaseTokenStreamFactoryTestCase;
+import org.apache.lucene.analysis.TokenFilterFactory;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.ClasspathResourceLoader;
+import org.apache.lucene.util.ResourceLoader;
+import org.apache.lucene.util.Version;
 
 /** Simple tests to ensure the Hunspell stemmer loads from factory */
 public class TestHunspellStemFilterFactory extends BaseTokenStreamFactoryTestCase {
@@ -32,6 +44,140 @@ public class TestHunspellStemFilterFactory extends BaseTokenStreamFactoryTestCas
     assertTokenStreamContents(stream, new String[] {"ab"});
   }
 
+  private void checkStemming(TokenFilterFactory factory) throws Exception {
+    TokenStream stream = factory.create(whitespaceMockTokenizer(new StringReader("abc")));
+    assertTokenStreamContents(stream, new String[] {"ab"});
+  }
+
+  public void testSharedDictionaries() throws Exception {
+    HunspellStemFilterFactory factory1 =
+        (HunspellStemFilterFactory)
+            tokenFilterFactory(
+                "HunspellStem",
+                "dictionary",
+                "simple.dic",
+                "affix",
+                "simple.aff",
+                "shared",
+                "true");
+    HunspellStemFilterFactory factory2 =
+        (HunspellStemFilterFactory)
+            tokenFilterFactory(
+                "HunspellStem",
+                "dictionary",
+                "simple.dic",
+                "affix",
+                "simple.aff",
+                "shared",
+                "true",
+                "longestOnly",
+                "true");
+    checkStemming(factory1);
+    assertSame(factory1.getDictionary(), factory2.getDictionary());
+
+    // different parameters
+    HunspellStemFilterFactory factory3 =
+        (HunspellStemFilterFactory)
+            tokenFilterFactory(
+                "HunspellStem",
+                "dictionary",
+                "simple.dic",
+                "affix",
+                "simple.aff",
+                "shared",
+                "true",
+                "ignoreCase",
+                "true");
+    assertNotSame(factory1.getDictionary(), factory3.getDictionary());
+
+    // different content
+    HunspellStemFilterFactory factory4 =
+        (HunspellStemFilterFactory)
+            tokenFilterFactory(
+                "HunspellStem",
+                "dictionary",
+                "compressed.dic",
+                "affix",
+                "compressed.aff",
+                "shared",
+                "true");
+    assertNotSame(factory1.getDictionary(), factory4.getDictionary());
+
+    // not shared
+    HunspellStemFilterFactory factory5 =
+        (HunspellStemFilterFactory)
+            tokenFilterFactory("HunspellStem", "dictionary", "simple.dic", "affix", "simple.aff");
+    assertNotSame(factory1.getDictionary(), factory5.getDictionary());
+  }
+
+  public void testBinaryFormat() throws Exception {
+    Dictionary dictionary =
+        ((HunspellStemFilterFactory)
+                tokenFilterFactory(
+                    "HunspellStem", "dictionary", "simple.dic", "affix", "simple.aff"))
+            .getDictionary();
+    final byte[] bytes;
+    try (Directory dir = new ByteBuffersDirectory()) {
+      try (IndexOutput out = dir.createOutput("simple.bin", IOContext.DEFAULT)) {
+        dictionary.save(out);
+      }
+      try (IndexInput in = dir.openInput("simple.bin", IOContext.DEFAULT)) {
+        bytes = new byte[(int) in.length()];
+        in.readBytes(bytes, 0, bytes.length);
+      }
+    }
+
+    ResourceLoader classpath = new ClasspathResourceLoader(getClass());
+    ResourceLoader loader =
+        new ResourceLoader() {
+          @Override
+          public InputStream openResource(String resource) throws IOException {
+            if (resource.equals("simple.bin")) {
+              return new ByteArrayInputStream(bytes);
+            }
+            return classpath.openResource(resource);
+          }
+
+          @Override
+          public <T> Class<? extends T> findClass(String cname, Class<T> expectedType) {
+            return classpath.findClass(cname, expectedType);
+          }
+
+          @Override
+          public <T> T newInstance(String cname, Class<T> expectedType) {
+            return classpath.newInstance(cname, expectedType);
+          }
+        };
+    TokenFilterFactory factory =
+        tokenFilterFactory(
+            "HunspellStem",
+            Version.LATEST,
+            loader,
+            "dictionary",
+            "simple.bin",
+            "affix",
+            "simple.aff",
+            "format",
+            "binary");
+    checkStemming(factory);
+
+    // the affix file must be the one the dictionary was precompiled with
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> {
+          tokenFilterFactory(
+              "HunspellStem",
+              Version.LATEST,
+              loader,
+              "dictionary",
+              "simple.bin",
+              "affix",
+              "compressed.aff",
+              "format",
+              "binary");
+        });
+  }
+
   /** Test that bogus arguments result in exception */
   public void testBogusArguments() throws Exception {
     IllegalArgumentException expected =
@@ -42,6 +42,9 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.store.ByteArrayDataInput;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.CharsRef;
 import org.apache.lucene.util.CharsRefBuilder;
@@ -1973,6 +1976,84 @@ public class TestSynonymGraphFilter extends BaseTokenStreamTestCase {
     assertMapping("word".toUpperCase(Locale.ROOT), "synonym");
   }
 
+  public void testSaveAndLoad() throws Exception {
+    SynonymMap.Builder b = new SynonymMap.Builder(random().nextBoolean());
+    final int synCount = atLeast(10);
+    for (int i = 0; i < synCount; i++) {
+      add(
+          b,
+          toTokenString(randomBinaryChars(1, 5, 0.5, 'a')),
+          toTokenString(randomBinaryChars(1, 5, 0.5, 'x')),
+          random().nextBoolean());
+    }
+    final SynonymMap map = b.build();
+
+    try (Directory dir = newDirectory()) {
+      try (IndexOutput out = dir.createOutput("synonyms", IOContext.DEFAULT)) {
+        map.save(out);
+      }
+      try (IndexInput in = dir.openInput("synonyms", IOContext.DEFAULT)) {
+        final SynonymMap loaded = SynonymMap.load(in);
+        assertNull(loaded.words);
+        assertEquals(map.maxHorizontalContext, loaded.maxHorizontalContext);
+
+        Analyzer expected = new CustomAnalyzer(map);
+        Analyzer actual = new CustomAnalyzer(loaded);
+        final int numDocs = atLeast(20);
+        for (int i = 0; i < numDocs; i++) {
+          String doc = toTokenString(randomBinaryChars(0, 20, 0.5, 'a'));
+          assertEquals(
+              doc,
+              tokensToString(expected.tokenStream("field", doc)),
+              tokensToString(actual.tokenStream("field", doc)));
+        }
+        IOUtils.close(expected, actual);
+      }
+    }
+  }
+
+  public void testSaveAndLoadEmpty() throws Exception {
+    final SynonymMap map = new SynonymMap.Builder(true).build();
+    assertNull(map.fst);
+    try (Directory dir = newDirectory()) {
+      try (IndexOutput out = dir.createOutput("synonyms", IOContext.DEFAULT)) {
+        map.save(out);
+      }
+      try (IndexInput in = dir.openInput("synonyms", IOContext.DEFAULT)) {
+        final SynonymMap loaded = SynonymMap.load(in);
+        assertNull(loaded.fst);
+        assertEquals(0, loaded.maxHorizontalContext);
+      }
+    }
+  }
+
+  private static String tokensToString(TokenStream ts) throws IOException {
+    CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+    PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+    PositionLengthAttribute posLenAtt = ts.addAttribute(PositionLengthAttribute.class);
+    OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+    TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+    StringBuilder b = new StringBuilder();
+    ts.reset();
+    while (ts.incrementToken()) {
+      b.append(termAtt)
+          .append('/')
+          .append(posIncAtt.getPositionIncrement())
+          .append('/')
+          .append(posLenAtt.getPositionLength())
+          .append('/')
+          .append(offsetAtt.startOffset())
+          .append('-')
+          .append(offsetAtt.endOffset())
+          .append('/')
+          .append(typeAtt.type())
+          .append(' ');
+    }
+    ts.end();
+    ts.close();
+    return b.toString();
+  }
+
   private void assertMapping(String inputString, String outputString) throws IOException {
     SynonymMap.Builder builder = new SynonymMap.Builder(false);
     // the rules must be lowercased up front, but the incoming tokens will be case insensitive:
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.analysis.synonym;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import org.apache.lucene.analysis.BaseTokenStreamFactoryTestCase;
+import org.apache.lucene.analysis.TokenFilterFactory;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.StringMockResourceLoader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Version;
+
+public class TestSynonymGraphFilterFactory extends BaseTokenStreamFactoryTestCase {
+
+  /** checks for synonyms of "GB" in synonyms.txt */
+  private void checkSolrSynonyms(TokenFilterFactory factory) throws Exception {
+    Reader reader = new StringReader("GB");
+    TokenStream stream = whitespaceMockTokenizer(reader);
+    stream = factory.create(stream);
+    assertTrue(stream instanceof SynonymGraphFilter);
+    assertTokenStreamContents(
+        stream, new String[] {"gib", "gigabyte", "gigabytes", "GB"}, new int[] {1, 0, 0, 0});
+  }
+
+  public void testSharedMaps() throws Exception {
+    SynonymGraphFilterFactory factory1 =
+        (SynonymGraphFilterFactory)
+            tokenFilterFactory("SynonymGraph", "synonyms", "synonyms.txt", "shared", "true");
+    SynonymGraphFilterFactory factory2 =
+        (SynonymGraphFilterFactory)
+            tokenFilterFactory("SynonymGraph", "synonyms", "synonyms.txt", "shared", "true");
+    checkSolrSynonyms(factory1);
+    assertSame(factory1.getSynonymMap(), factory2.getSynonymMap());
+
+    // different parameters
+    SynonymGraphFilterFactory factory3 =
+        (SynonymGraphFilterFactory)
+            tokenFilterFactory(
+                "SynonymGraph", "synonyms", "synonyms.txt", "shared", "true", "expand", "false");
+    assertNotSame(factory1.getSynonymMap(), factory3.getSynonymMap());
+
+    // different content
+    SynonymGraphFilterFactory factory4 =
+        (SynonymGraphFilterFactory)
+            tokenFilterFactory(
+                "SynonymGraph",
+                Version.LATEST,
+                new StringMockResourceLoader("GB,gib"),
+                "synonyms",
+                "synonyms.txt",
+                "shared",
+                "true");
+    assertNotSame(factory1.getSynonymMap(), factory4.getSynonymMap());
+
+    // not shared
+    SynonymGraphFilterFactory factory5 =
+        (SynonymGraphFilterFactory) tokenFilterFactory("SynonymGraph", "synonyms", "synonyms.txt");
+    assertNotSame(factory1.getSynonymMap(), factory5.getSynonymMap());
+  }
+
+  public void testBinaryFormat() throws Exception {
+    SynonymMap map =
+        ((SynonymGraphFilterFactory) tokenFilterFactory("SynonymGraph", "synonyms", "synonyms.txt"))
+            .getSynonymMap();
+    final byte[] bytes;
+    try (Directory dir = new ByteBuffersDirectory()) {
+      try (IndexOutput out = dir.createOutput("synonyms.bin", IOContext.DEFAULT)) {
+        map.save(out);
+      }
+      try (IndexInput in = dir.openInput("synonyms.bin", IOContext.DEFAULT)) {
+        bytes = new byte[(int) in.length()];
+        in.readBytes(bytes, 0, bytes.length);
+      }
+    }
+
+    StringMockResourceLoader loader =
+        new StringMockResourceLoader("") {
+          @Override
+          public InputStream openResource(String resource) {
+            return new ByteArrayInputStream(bytes);
+          }
+        };
+    SynonymGraphFilterFactory factory =
+        (SynonymGraphFilterFactory)
+            tokenFilterFactory(
+                "SynonymGraph",
+                Version.LATEST,
+                loader,
+                "synonyms",
+                "synonyms.bin",
+                "format",
+                "binary");
+    assertNull(factory.getSynonymMap().words);
+    checkSolrSynonyms(factory);
+
+    IllegalArgumentException expected =
+        expectThrows(
+            IllegalArgumentException.class,
+            () -> {
+              tokenFilterFactory(
+                  "SynonymGraph",
+                  Version.LATEST,
+                  loader,
+                  "synonyms",
+                  "synonyms.bin,synonyms2.bin",
+                  "format",
+                  "binary");
+            });
+    assertTrue(expected.getMessage().contains("single synonyms file"));
+  }
+}
@@ -45,6 +45,7 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.store.ByteBuffersDirectory;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
 import org.apache.lucene.util.IOUtils;
 
 /**
@@ -75,6 +76,9 @@ import org.apache.lucene.util.IOUtils;
  *       ByteBuffersDirectory&gt;
  *   <li><b>taxonomy.directory</b>=&lt;type of directory for taxonomy index| Default:
  *       ByteBuffersDirectory&gt;
+ *   <li><b>mmap.preload</b>=&lt;whether MMapDirectory should preload all files| Default: false&gt;
+ *   <li><b>mmap.read.advice</b>=&lt;read advice of MMapDirectory, one of normal or
+ *       extension_and_context| Default: normal&gt;
  * </ul>
  */
 public class PerfRunData implements Closeable {
@@ -219,14 +223,31 @@ public class PerfRunData implements Closeable {
   private Directory createDirectory(boolean eraseIndex, String dirName, String dirParam)
       throws IOException {
     String dirImpl = config.get(dirParam, DEFAULT_DIRECTORY);
-    if ("FSDirectory".equals(dirImpl)) {
+    if ("FSDirectory".equals(dirImpl) || "MMapDirectory".equals(dirImpl)) {
       Path workDir = Paths.get(config.get("work.dir", "work"));
       Path indexDir = workDir.resolve(dirName);
       if (eraseIndex && Files.exists(indexDir)) {
         IOUtils.rm(indexDir);
       }
       Files.createDirectories(indexDir);
-      return FSDirectory.open(indexDir);
+      if ("FSDirectory".equals(dirImpl)) {
+        return FSDirectory.open(indexDir);
+      }
+      MMapDirectory mmapDir = new MMapDirectory(indexDir);
+      mmapDir.setPreload(config.get("mmap.preload", false));
+      String readAdvice = config.get("mmap.read.advice", "normal");
+      switch (readAdvice) {
+        case "normal":
+          mmapDir.setReadAdvice(MMapDirectory.NORMAL_READ_ADVICE);
+          break;
+        case "extension_and_context":
+          mmapDir.setReadAdvice(MMapDirectory.BASED_ON_FILE_EXTENSION_AND_CONTEXT);
+          break;
+        default:
+          IOUtils.close(mmapDir);
+          throw new IOException("Unsupported mmap.read.advice: " + readAdvice);
+      }
+      return mmapDir;
     }
 
     if ("RAMDirectory".equals(dirImpl)) {
@@ -17,7 +17,11 @@
 package org.apache.lucene.benchmark.byTask.tasks;
 
 import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
 import java.util.List;
+import java.util.Locale;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.tokenattributes.TermToBytesRefAttribute;
@@ -30,14 +34,23 @@ import org.apache.lucene.index.IndexableField;
 /**
  * Simple task to test performance of tokenizers. It just creates a token stream for each field of
  * the document and read all tokens out of that stream.
+ *
+ * <p>If the JVM supports measuring the memory allocated by a thread, the log message also reports
+ * how many bytes were allocated per token, which should be close to zero for analysis chains that
+ * reuse their buffers.
  */
 public class ReadTokensTask extends PerfTask {
 
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+  // com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long), or null if not supported
+  private static final Method GET_THREAD_ALLOCATED_BYTES = lookupGetThreadAllocatedBytes();
+
   public ReadTokensTask(PerfRunData runData) {
     super(runData);
   }
 
   private int totalTokenCount = 0;
+  private long totalAllocatedBytes = 0;
 
   // volatile data passed between setup(), doLogic(), tearDown().
   private Document doc = null;
@@ -51,7 +64,15 @@ public class ReadTokensTask extends PerfTask {
 
   @Override
   protected String getLogMessage(int recsCount) {
-    return "read " + recsCount + " docs; " + totalTokenCount + " tokens";
+    String message = "read " + recsCount + " docs; " + totalTokenCount + " tokens";
+    if (GET_THREAD_ALLOCATED_BYTES != null && totalTokenCount > 0) {
+      message +=
+          String.format(
+              Locale.ROOT,
+              "; %.2f bytes allocated per token",
+              (double) totalAllocatedBytes / totalTokenCount);
+    }
+    return message;
   }
 
   @Override
@@ -64,6 +85,7 @@ public class ReadTokensTask extends PerfTask {
   public int doLogic() throws Exception {
     List<IndexableField> fields = doc.getFields();
     Analyzer analyzer = getRunData().getAnalyzer();
+    final long allocatedBytesBefore = allocatedBytes();
     int tokenCount = 0;
     for (final IndexableField field : fields) {
       if (field.fieldType().indexOptions() == IndexOptions.NONE
@@ -83,10 +105,40 @@ public class ReadTokensTask extends PerfTask {
       stream.end();
       stream.close();
     }
+    totalAllocatedBytes += allocatedBytes() - allocatedBytesBefore;
     totalTokenCount += tokenCount;
     return tokenCount;
   }
 
+  private static Method lookupGetThreadAllocatedBytes() {
+    try {
+      final Class<?> clazz = Class.forName("com.sun.management.ThreadMXBean");
+      if (clazz.isInstance(THREAD_BEAN) == false) {
+        return null;
+      }
+      final Method isSupported = clazz.getMethod("isThreadAllocatedMemorySupported");
+      if (Boolean.TRUE.equals(isSupported.invoke(THREAD_BEAN)) == false) {
+        return null;
+      }
+      clazz.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(THREAD_BEAN, true);
+      return clazz.getMethod("getThreadAllocatedBytes", long.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /** Returns the number of bytes allocated so far by the current thread, or 0 if unsupported. */
+  private static long allocatedBytes() {
+    if (GET_THREAD_ALLOCATED_BYTES == null) {
+      return 0;
+    }
+    try {
+      return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   /* Simple StringReader that can be reset to a new string;
    * we use this when tokenizing the string value from a
    * Field. */
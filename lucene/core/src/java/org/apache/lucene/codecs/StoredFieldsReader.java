@@ -37,6 +37,15 @@ public abstract class StoredFieldsReader implements Cloneable, Closeable, Accoun
   /** Visit the stored fields for document <code>docID</code> */
   public abstract void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Optional method: hint that the stored fields of document <code>docID</code> are going to be
+   * visited soon, so that they may be loaded in the background. Call this for all hits of a page
+   * before visiting them, in order to overlap their I/O. The default implementation does nothing.
+   *
+   * @see org.apache.lucene.store.IndexInput#prefetch
+   */
+  public void prefetch(int docID) throws IOException {}
+
   @Override
   public abstract StoredFieldsReader clone();
 
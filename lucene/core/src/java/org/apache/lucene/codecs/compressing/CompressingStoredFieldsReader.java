@@ -91,6 +91,7 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
   private final BlockState state;
   private final long numDirtyChunks; // number of incomplete compressed blocks written
   private final long numDirtyDocs; // cumulative number of missing docs in incomplete chunks
+  private long lastPrefetchStartPointer = -1; // avoids prefetching a chunk once per hit
   private boolean closed;
 
   // used by clone
@@ -685,6 +686,19 @@ public final class CompressingStoredFieldsReader extends StoredFieldsReader {
     return state.document(docID);
   }
 
+  @Override
+  public void prefetch(int docID) throws IOException {
+    if (state.contains(docID)) {
+      return;
+    }
+    final long startPointer = indexReader.getStartPointer(docID);
+    if (startPointer != lastPrefetchStartPointer) {
+      // chunks are at most chunkSize bytes before compression
+      fieldsStream.prefetch(startPointer, Math.min(chunkSize, maxPointer - startPointer));
+      lastPrefetchStartPointer = startPointer;
+    }
+  }
+
   @Override
   public void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException {
 
@@ -24,6 +24,7 @@ import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.RandomAccessInput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.RoaringDocIdSet;
 
@@ -417,6 +418,12 @@ final class IndexedDISI extends DocIdSetIterator {
 
   // SPARSE variables
   boolean exists;
+  // index of the first doc of the block
+  int sparseFirstIndex;
+  // the lower 16 bits of the docs of the block, loaded on first access so that blocks that only get
+  // skipped over are never read
+  byte[] sparseDocs = BytesRef.EMPTY_BYTES;
+  boolean sparseDocsLoaded;
 
   // DENSE variables
   long word;
@@ -425,6 +432,8 @@ final class IndexedDISI extends DocIdSetIterator {
   int numberOfOnes;
   // Used with rank for jumps inside of DENSE as they are absolute instead of relative
   int denseOrigoIndex;
+  // whether denseRankTable holds the rank of the current block
+  boolean denseRankTableLoaded;
 
   // ALL variables
   int gap;
@@ -493,6 +502,8 @@ final class IndexedDISI extends DocIdSetIterator {
     if (numValues <= MAX_ARRAY_LENGTH) {
       method = Method.SPARSE;
       blockEnd = slice.getFilePointer() + (numValues << 1);
+      sparseFirstIndex = index + 1;
+      sparseDocsLoaded = false;
     } else if (numValues == 65536) {
       method = Method.ALL;
       blockEnd = slice.getFilePointer();
@@ -502,19 +513,11 @@ final class IndexedDISI extends DocIdSetIterator {
       denseBitmapOffset =
           slice.getFilePointer() + (denseRankTable == null ? 0 : denseRankTable.length);
       blockEnd = denseBitmapOffset + (1 << 13);
-      // Performance consideration: All rank (default 128 * 16 bits) are loaded up front. This
-      // should be fast with the
-      // reusable byte[] buffer, but it is still wasted if the DENSE block is iterated in small
-      // steps.
-      // If this results in too great a performance regression, a heuristic strategy might work
-      // where the rank data
-      // are loaded on first in-block advance, if said advance is > X docIDs. The hope being that a
-      // small first
-      // advance means that subsequent advances will be small too.
-      // Another alternative is to maintain an extra slice for DENSE rank, but IndexedDISI is
-      // already slice-heavy.
+      // The rank is only loaded on the first in-block advance that is large enough to use it, so
+      // that DENSE blocks that are iterated in small steps don't pay for it.
       if (denseRankPower != -1) {
-        slice.readBytes(denseRankTable, 0, denseRankTable.length);
+        denseRankTableLoaded = false;
+        slice.seek(denseBitmapOffset);
       }
       wordIndex = -1;
       numberOfOnes = index + 1;
@@ -531,6 +534,48 @@ final class IndexedDISI extends DocIdSetIterator {
     return index;
   }
 
+  /** Loads the docs of the current SPARSE block, if not loaded yet. */
+  void loadSparseDocs() throws IOException {
+    if (sparseDocsLoaded == false) {
+      final int length = (nextBlockIndex + 1 - sparseFirstIndex) << 1;
+      sparseDocs = ArrayUtil.grow(sparseDocs, length);
+      slice.seek(blockEnd - length);
+      slice.readBytes(sparseDocs, 0, length);
+      sparseDocsLoaded = true;
+    }
+  }
+
+  /** Returns the lower 16 bits of the doc at the given position of a SPARSE block. */
+  static int sparseDoc(byte[] docs, int position) {
+    return ((docs[position << 1] & 0xFF) << 8) | (docs[(position << 1) + 1] & 0xFF);
+  }
+
+  /**
+   * Returns the first position in {@code [from, to)} of a SPARSE block whose doc is greater than or
+   * equal to {@code targetInBlock}, or {@code to} if there is no such position. As targets tend to
+   * be close to the current position, this first gallops forward from {@code from} and then binary
+   * searches the last interval with a loop whose body can be compiled to conditional moves.
+   */
+  static int sparseSearch(byte[] docs, int from, int to, int targetInBlock) {
+    int lo = from;
+    int hi = from;
+    for (int step = 1; hi < to && sparseDoc(docs, hi) < targetInBlock; step <<= 1) {
+      lo = hi + 1;
+      hi = from + step;
+    }
+    // the position we are looking for is in [lo, min(hi, to)]
+    int length = Math.min(hi, to) - lo;
+    while (length > 1) {
+      final int half = length >>> 1;
+      lo = sparseDoc(docs, lo + half - 1) < targetInBlock ? lo + half : lo;
+      length -= half;
+    }
+    if (length == 1 && sparseDoc(docs, lo) < targetInBlock) {
+      lo++;
+    }
+    return lo;
+  }
+
   @Override
   public long cost() {
     return cost;
@@ -541,41 +586,36 @@ final class IndexedDISI extends DocIdSetIterator {
       @Override
       boolean advanceWithinBlock(IndexedDISI disi, int target) throws IOException {
         final int targetInBlock = target & 0xFFFF;
-        // TODO: binary search
-        for (; disi.index < disi.nextBlockIndex; ) {
-          int doc = Short.toUnsignedInt(disi.slice.readShort());
-          disi.index++;
-          if (doc >= targetInBlock) {
-            disi.doc = disi.block | doc;
-            disi.exists = true;
-            return true;
-          }
+        disi.loadSparseDocs();
+        final int numValues = disi.nextBlockIndex + 1 - disi.sparseFirstIndex;
+        final int position =
+            sparseSearch(
+                disi.sparseDocs, disi.index + 1 - disi.sparseFirstIndex, numValues, targetInBlock);
+        if (position == numValues) {
+          disi.index = disi.nextBlockIndex;
+          return false;
         }
-        return false;
+        disi.index = disi.sparseFirstIndex + position;
+        disi.doc = disi.block | sparseDoc(disi.sparseDocs, position);
+        disi.exists = true;
+        return true;
       }
 
       @Override
       boolean advanceExactWithinBlock(IndexedDISI disi, int target) throws IOException {
         final int targetInBlock = target & 0xFFFF;
-        // TODO: binary search
         if (target == disi.doc) {
           return disi.exists;
         }
-        for (; disi.index < disi.nextBlockIndex; ) {
-          int doc = Short.toUnsignedInt(disi.slice.readShort());
-          disi.index++;
-          if (doc >= targetInBlock) {
-            if (doc != targetInBlock) {
-              disi.index--;
-              disi.slice.seek(disi.slice.getFilePointer() - Short.BYTES);
-              break;
-            }
-            disi.exists = true;
-            return true;
-          }
-        }
-        disi.exists = false;
-        return false;
+        disi.loadSparseDocs();
+        final int numValues = disi.nextBlockIndex + 1 - disi.sparseFirstIndex;
+        final int position =
+            sparseSearch(
+                disi.sparseDocs, disi.index + 1 - disi.sparseFirstIndex, numValues, targetInBlock);
+        disi.exists = position < numValues && sparseDoc(disi.sparseDocs, position) == targetInBlock;
+        // stay on the last doc that is before the target if the target doesn't exist
+        disi.index = disi.sparseFirstIndex + (disi.exists ? position : position - 1);
+        return disi.exists;
       }
     },
     DENSE {
@@ -686,6 +726,11 @@ final class IndexedDISI extends DocIdSetIterator {
    */
   private static void rankSkip(IndexedDISI disi, int targetInBlock) throws IOException {
     assert disi.denseRankPower >= 0 : disi.denseRankPower;
+    if (disi.denseRankTableLoaded == false) {
+      disi.slice.seek(disi.denseBitmapOffset - disi.denseRankTable.length);
+      disi.slice.readBytes(disi.denseRankTable, 0, disi.denseRankTable.length);
+      disi.denseRankTableLoaded = true;
+    }
     // Resolve the rank as close to targetInBlock as possible (maximum distance is 8 longs)
     // Note: rankOrigoOffset is tracked on block open, so it is absolute (e.g. don't add origo)
     final int rankIndex =
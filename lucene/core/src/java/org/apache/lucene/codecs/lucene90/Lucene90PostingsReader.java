@@ -246,6 +246,7 @@ public final class Lucene90PostingsReader extends PostingsReaderBase {
   public PostingsEnum postings(
       FieldInfo fieldInfo, BlockTermState termState, PostingsEnum reuse, int flags)
       throws IOException {
+    prefetchPostings((IntBlockTermState) termState);
 
     boolean indexHasPositions =
         fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0;
@@ -283,6 +284,7 @@ public final class Lucene90PostingsReader extends PostingsReaderBase {
       // no skip data
       return new SlowImpactsEnum(postings(fieldInfo, state, null, flags));
     }
+    prefetchPostings((IntBlockTermState) state);
 
     final boolean indexHasPositions =
         fieldInfo.getIndexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0;
@@ -308,6 +310,21 @@ public final class Lucene90PostingsReader extends PostingsReaderBase {
     return new BlockImpactsEverythingEnum(fieldInfo, (IntBlockTermState) state, flags);
   }
 
+  /**
+   * Hints the doc file that the postings of the given term are going to be read, so that queries
+   * that create postings for several terms before consuming them overlap I/O across terms.
+   */
+  private void prefetchPostings(IntBlockTermState state) throws IOException {
+    if (state.docFreq > 1) { // single docs are pulsed into the terms dictionary
+      // the first block of docs
+      docIn.prefetch(state.docStartFP, 1);
+      if (state.skipOffset != -1) {
+        // skip data, which is read first when advancing
+        docIn.prefetch(state.docStartFP + state.skipOffset, 1);
+      }
+    }
+  }
+
   final class BlockDocsEnum extends PostingsEnum {
 
     final ForUtil forUtil = new ForUtil();
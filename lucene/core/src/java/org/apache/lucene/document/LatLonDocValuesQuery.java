@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import org.apache.lucene.geo.Component2D;
+import org.apache.lucene.geo.Component2DCache;
 import org.apache.lucene.geo.GeoEncodingUtils;
 import org.apache.lucene.geo.LatLonGeometry;
 import org.apache.lucene.geo.Line;
@@ -50,6 +51,7 @@ class LatLonDocValuesQuery extends Query {
   private final String field;
   private final LatLonGeometry[] geometries;
   private final ShapeField.QueryRelation queryRelation;
+  private final Component2DCache.Entry component2DEntry;
   private final Component2D component2D;
 
   LatLonDocValuesQuery(
@@ -84,7 +86,8 @@ class LatLonDocValuesQuery extends Query {
     this.field = field;
     this.geometries = geometries;
     this.queryRelation = queryRelation;
-    this.component2D = LatLonGeometry.create(geometries);
+    this.component2DEntry = Component2DCache.getOrCreate(geometries);
+    this.component2D = component2DEntry.getComponent2D();
   }
 
   @Override
@@ -132,7 +135,7 @@ class LatLonDocValuesQuery extends Query {
     final GeoEncodingUtils.Component2DPredicate component2DPredicate =
         queryRelation == ShapeField.QueryRelation.CONTAINS
             ? null
-            : GeoEncodingUtils.createComponentPredicate(component2D);
+            : component2DEntry.getComponentPredicate();
     return new ConstantScoreWeight(this, boost) {
 
       @Override
@@ -241,7 +244,7 @@ class LatLonDocValuesQuery extends Query {
   private TwoPhaseIterator contains(SortedNumericDocValues values, LatLonGeometry[] geometries) {
     final List<Component2D> component2Ds = new ArrayList<>(geometries.length);
     for (int i = 0; i < geometries.length; i++) {
-      component2Ds.add(LatLonGeometry.create(geometries[i]));
+      component2Ds.add(Component2DCache.create(geometries[i]));
     }
     return new TwoPhaseIterator(values) {
       @Override
@@ -26,6 +26,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import org.apache.lucene.document.ShapeField.QueryRelation;
 import org.apache.lucene.geo.Component2D;
+import org.apache.lucene.geo.Component2DCache;
 import org.apache.lucene.geo.GeoEncodingUtils;
 import org.apache.lucene.geo.LatLonGeometry;
 import org.apache.lucene.geo.Line;
@@ -41,6 +42,7 @@ import org.apache.lucene.util.NumericUtils;
  */
 final class LatLonPointQuery extends SpatialQuery {
   private final LatLonGeometry[] geometries;
+  private final Component2DCache.Entry component2DEntry;
   private final Component2D component2D;
 
   /**
@@ -69,14 +71,15 @@ final class LatLonPointQuery extends SpatialQuery {
         }
       }
     }
-    this.component2D = LatLonGeometry.create(geometries);
+    this.component2DEntry = Component2DCache.getOrCreate(geometries);
+    this.component2D = component2DEntry.getComponent2D();
     this.geometries = geometries.clone();
   }
 
   @Override
   protected SpatialVisitor getSpatialVisitor() {
     final GeoEncodingUtils.Component2DPredicate component2DPredicate =
-        GeoEncodingUtils.createComponentPredicate(component2D);
+        component2DEntry.getComponentPredicate();
     // bounding box over all geometries, this can speed up tree intersection/cheaply improve
     // approximation for complex multi-geometries
     final byte[] minLat = new byte[Integer.BYTES];
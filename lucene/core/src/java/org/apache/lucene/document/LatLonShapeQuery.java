@@ -21,6 +21,7 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import org.apache.lucene.document.ShapeField.QueryRelation;
 import org.apache.lucene.geo.Component2D;
+import org.apache.lucene.geo.Component2DCache;
 import org.apache.lucene.geo.GeoEncodingUtils;
 import org.apache.lucene.geo.LatLonGeometry;
 import org.apache.lucene.geo.Line;
@@ -53,7 +54,7 @@ final class LatLonShapeQuery extends SpatialQuery {
         }
       }
     }
-    this.component2D = LatLonGeometry.create(geometries);
+    this.component2D = Component2DCache.create(geometries);
     this.geometries = geometries.clone();
   }
 
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.geo;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * A cache of the {@link Component2D} trees that queries build from their {@link LatLonGeometry}
+ * geometries, and of the {@link GeoEncodingUtils.Component2DPredicate predicates} that are built
+ * from these trees to match points. Building these structures for large polygons is often more
+ * costly than running the query itself, and applications tend to query the same geometries over and
+ * over again, e.g. geo-fences. {@link Component2D} trees and predicates are immutable, so they are
+ * shared across queries and threads.
+ *
+ * <p>Entries are keyed by the array of geometries and are evicted in least-recently-used order once
+ * the estimated memory usage of the cache exceeds its maximum. Queries use the cache that is
+ * returned by {@link #getDefault()}, which may be replaced, or disabled by setting it to {@code
+ * null}.
+ *
+ * <p>This cache exposes some statistics ({@link #getHitCount() hit count}, {@link #getMissCount()
+ * miss count}, {@link #getCacheSize() number of cache entries}, {@link #getEvictionCount() number
+ * of evicted entries}) that may help tune its size.
+ *
+ * @lucene.experimental
+ */
+public final class Component2DCache implements Accountable {
+
+  /** Default maximum memory usage of the {@link #getDefault() default cache}: 16MB. */
+  public static final long DEFAULT_MAX_RAM_BYTES_USED = 16L * 1024 * 1024;
+
+  // estimated memory usage of a node of an EdgeTree
+  private static final long EDGE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(EdgeTree.class);
+  // estimated memory usage of simple geometries and their components, e.g. points or circles
+  private static final long GEOMETRY_RAM_BYTES_USED = 256;
+  // estimated memory usage of the grid of a large polygon
+  private static final long GRID_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOf(new Object[Polygon2D.GRID_SIZE * Polygon2D.GRID_SIZE])
+          + 2 * RamUsageEstimator.sizeOf(new double[Polygon2D.GRID_SIZE + 1]);
+  // estimated memory usage of a predicate: a grid of at most 64x64 relations
+  private static final long PREDICATE_RAM_BYTES_USED = RamUsageEstimator.sizeOf(new byte[64 * 64]);
+
+  private static volatile Component2DCache defaultCache =
+      new Component2DCache(DEFAULT_MAX_RAM_BYTES_USED);
+
+  /** Return the cache that queries use by default, or {@code null} if caching is disabled. */
+  public static Component2DCache getDefault() {
+    return defaultCache;
+  }
+
+  /** Set the cache that queries use by default, or {@code null} to disable caching. */
+  public static void setDefault(Component2DCache cache) {
+    defaultCache = cache;
+  }
+
+  private final long maxRamBytesUsed;
+  // access-ordered, so that iteration starts with the least recently used entry
+  private final Map<List<LatLonGeometry>, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long ramBytesUsed;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /** Create a new cache that uses at most {@code maxRamBytesUsed} bytes of memory. */
+  public Component2DCache(long maxRamBytesUsed) {
+    if (maxRamBytesUsed < 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 0, got " + maxRamBytesUsed);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+  }
+
+  /**
+   * Return the cached entry for the given geometries, or build it and cache it. Trees are built
+   * without holding any lock, so that building a large polygon doesn't block lookups of other
+   * geometries.
+   */
+  Entry get(LatLonGeometry... geometries) {
+    final List<LatLonGeometry> key = Arrays.asList(geometries.clone());
+    synchronized (this) {
+      Entry entry = cache.get(key);
+      if (entry != null) {
+        hitCount++;
+        return entry;
+      }
+      missCount++;
+    }
+
+    final Entry entry = new Entry(LatLonGeometry.create(geometries), ramBytesUsed(geometries));
+    if (entry.ramBytesUsed > maxRamBytesUsed) {
+      // would evict everything else
+      return entry;
+    }
+
+    synchronized (this) {
+      Entry existing = cache.putIfAbsent(key, entry);
+      if (existing != null) {
+        // another thread built the same geometries concurrently
+        return existing;
+      }
+      ramBytesUsed += entry.ramBytesUsed;
+      for (Iterator<Entry> it = cache.values().iterator();
+          ramBytesUsed > maxRamBytesUsed && it.hasNext(); ) {
+        Entry eldest = it.next();
+        it.remove();
+        ramBytesUsed -= eldest.ramBytesUsed;
+        evictionCount++;
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * Return the entry of the {@link #getDefault() default cache} for the given geometries, or build
+   * a new entry if they are not cached. Queries should keep the returned entry rather than looking
+   * up the same geometries again, since entries that are not cached would be built again.
+   */
+  public static Entry getOrCreate(LatLonGeometry... geometries) {
+    final Component2DCache cache = defaultCache;
+    if (cache == null || geometries == null) {
+      // LatLonGeometry#create reports invalid geometries
+      return new Entry(LatLonGeometry.create(geometries), 0);
+    }
+    return cache.get(geometries);
+  }
+
+  /**
+   * Same as {@link LatLonGeometry#create(LatLonGeometry...)}, but returns the tree from the {@link
+   * #getDefault() default cache} if it contains the given geometries.
+   */
+  public static Component2D create(LatLonGeometry... geometries) {
+    return getOrCreate(geometries).component2D;
+  }
+
+  private static long ramBytesUsed(LatLonGeometry... geometries) {
+    long ramBytesUsed = RamUsageEstimator.shallowSizeOf(geometries) + PREDICATE_RAM_BYTES_USED;
+    for (LatLonGeometry geometry : geometries) {
+      ramBytesUsed += ramBytesUsed(geometry);
+    }
+    return ramBytesUsed;
+  }
+
+  private static long ramBytesUsed(LatLonGeometry geometry) {
+    if (geometry instanceof Polygon) {
+      final Polygon polygon = (Polygon) geometry;
+      // the vertices of the polygon, and an edge per vertex in the tree
+      long ramBytesUsed =
+          GEOMETRY_RAM_BYTES_USED + polygon.numPoints() * (2 * Double.BYTES + EDGE_RAM_BYTES_USED);
+      if (polygon.numPoints() - 1 >= Polygon2D.GRID_MIN_EDGES) {
+        ramBytesUsed += GRID_RAM_BYTES_USED;
+      }
+      for (Polygon hole : polygon.getHoles()) {
+        ramBytesUsed += ramBytesUsed(hole);
+      }
+      return ramBytesUsed;
+    } else if (geometry instanceof Line) {
+      final Line line = (Line) geometry;
+      return GEOMETRY_RAM_BYTES_USED + line.numPoints() * (2 * Double.BYTES + EDGE_RAM_BYTES_USED);
+    }
+    return GEOMETRY_RAM_BYTES_USED;
+  }
+
+  /** Remove all entries from this cache. */
+  public synchronized void clear() {
+    cache.clear();
+    ramBytesUsed = 0;
+  }
+
+  @Override
+  public synchronized long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  /** Return the number of times that a tree was found in the cache. */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /** Return the number of times that a tree had to be built. */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /** Return the number of entries that are currently in the cache. */
+  public synchronized long getCacheSize() {
+    return cache.size();
+  }
+
+  /** Return the number of entries that have been evicted to make room for new entries. */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** A tree together with its point predicate, which is only built when needed. */
+  public static final class Entry {
+    final Component2D component2D;
+    final long ramBytesUsed;
+    private volatile GeoEncodingUtils.Component2DPredicate predicate;
+
+    Entry(Component2D component2D, long ramBytesUsed) {
+      this.component2D = component2D;
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    /** Return the tree of the geometries of this entry. */
+    public Component2D getComponent2D() {
+      return component2D;
+    }
+
+    /**
+     * Same as {@link GeoEncodingUtils#createComponentPredicate(Component2D)} on the tree of this
+     * entry, but only builds the predicate once.
+     */
+    public GeoEncodingUtils.Component2DPredicate getComponentPredicate() {
+      GeoEncodingUtils.Component2DPredicate predicate = this.predicate;
+      if (predicate == null) {
+        // racy, but predicates are immutable, so the worst case is building it more than once
+        predicate = GeoEncodingUtils.createComponentPredicate(component2D);
+        this.predicate = predicate;
+      }
+      return predicate;
+    }
+  }
+}
@@ -26,6 +26,11 @@ import org.apache.lucene.index.PointValues.Relation;
  * http://www-ma2.upc.es/geoc/Schirra-pointPolygon.pdf</a>.
  */
 final class Polygon2D implements Component2D {
+  /** Polygons that have at least this number of edges get a {@link Grid}. */
+  static final int GRID_MIN_EDGES = 64;
+  /** Number of rows and columns of a {@link Grid}. */
+  static final int GRID_SIZE = 32;
+
   /** minimum Y of this geometry's bounding box area */
   private final double minY;
   /** maximum Y of this geometry's bounding box area */
@@ -38,6 +43,8 @@ final class Polygon2D implements Component2D {
   protected final Component2D holes;
   /** Edges of the polygon represented as a 2-d interval tree. */
   final EdgeTree tree;
+  /** precomputed relations of cells of the bounding box, or null */
+  private final Grid grid;
 
   private Polygon2D(
       final double minX,
@@ -53,6 +60,11 @@ final class Polygon2D implements Component2D {
     this.maxX = maxX;
     this.holes = holes;
     this.tree = EdgeTree.createTree(x, y);
+    if (x.length - 1 >= GRID_MIN_EDGES && minX < maxX && minY < maxY) {
+      this.grid = new Grid(this);
+    } else {
+      this.grid = null;
+    }
   }
 
   private Polygon2D(XYPolygon polygon, Component2D holes) {
@@ -105,7 +117,14 @@ final class Polygon2D implements Component2D {
    */
   @Override
   public boolean contains(double x, double y) {
-    if (Component2D.containsPoint(x, y, minX, maxX, minY, maxY) && tree.contains(x, y)) {
+    if (Component2D.containsPoint(x, y, minX, maxX, minY, maxY) == false) {
+      return false;
+    }
+    final Relation gridRelation = gridRelate(x, x, y, y);
+    if (gridRelation != null) {
+      return gridRelation == Relation.CELL_INSIDE_QUERY;
+    }
+    if (tree.contains(x, y)) {
       return holes == null || holes.contains(x, y) == false;
     }
     return false;
@@ -119,6 +138,27 @@ final class Polygon2D implements Component2D {
     if (Component2D.within(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return Relation.CELL_CROSSES_QUERY;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      return gridRelation;
+    }
+    return relateSlowly(minX, maxX, minY, maxY);
+  }
+
+  /**
+   * Returns {@link Relation#CELL_INSIDE_QUERY} if the box is within cells of the grid that are
+   * inside the polygon, {@link Relation#CELL_OUTSIDE_QUERY} if it is within cells that are outside
+   * of the polygon, or null if edges need to be checked.
+   */
+  private Relation gridRelate(double minX, double maxX, double minY, double maxY) {
+    if (grid == null) {
+      return null;
+    }
+    return grid.relate(minX, maxX, minY, maxY);
+  }
+
+  /** Relate a box that intersects the bounding box of this polygon without using the grid. */
+  private Relation relateSlowly(double minX, double maxX, double minY, double maxY) {
     // check any holes
     if (holes != null) {
       Relation holeRelation = holes.relate(minX, maxX, minY, maxY);
@@ -160,6 +200,10 @@ final class Polygon2D implements Component2D {
     if (Component2D.disjoint(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return false;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      return gridRelation == Relation.CELL_INSIDE_QUERY;
+    }
     if (contains(aX, aY)
         || contains(bX, bY)
         || tree.crossesLine(minX, maxX, minY, maxY, aX, aY, bX, bY, true)) {
@@ -183,6 +227,10 @@ final class Polygon2D implements Component2D {
     if (Component2D.disjoint(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return false;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      return gridRelation == Relation.CELL_INSIDE_QUERY;
+    }
     if (contains(aX, aY)
         || contains(bX, bY)
         || contains(cX, cY)
@@ -208,6 +256,10 @@ final class Polygon2D implements Component2D {
     if (Component2D.disjoint(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return false;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      return gridRelation == Relation.CELL_INSIDE_QUERY;
+    }
     if (contains(aX, aY)
         && contains(bX, bY)
         && tree.crossesLine(minX, maxX, minY, maxY, aX, aY, bX, bY, false) == false) {
@@ -231,6 +283,10 @@ final class Polygon2D implements Component2D {
     if (Component2D.disjoint(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return false;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      return gridRelation == Relation.CELL_INSIDE_QUERY;
+    }
     if (contains(aX, aY)
         && contains(bX, bY)
         && contains(cX, cY)
@@ -284,6 +340,13 @@ final class Polygon2D implements Component2D {
     if (Component2D.disjoint(this.minX, this.maxX, this.minY, this.maxY, minX, maxX, minY, maxY)) {
       return WithinRelation.DISJOINT;
     }
+    final Relation gridRelation = gridRelate(minX, maxX, minY, maxY);
+    if (gridRelation != null) {
+      // the triangle is either inside the polygon or doesn't touch it
+      return gridRelation == Relation.CELL_INSIDE_QUERY
+          ? WithinRelation.NOTWITHIN
+          : WithinRelation.DISJOINT;
+    }
 
     // if any of the points is inside the polygon, the polygon cannot be within this indexed
     // shape because points belong to the original indexed shape.
@@ -357,6 +420,100 @@ final class Polygon2D implements Component2D {
     return containsCount;
   }
 
+  /**
+   * Relations of the cells of a regular grid over the bounding box of a polygon. Cells that are
+   * inside or outside of the polygon are not touched by any edge, so boxes that only cover such
+   * cells can be related to the polygon without checking edges. This resolves most calls on large
+   * polygons, whose edges only go through a small fraction of the cells.
+   */
+  private static final class Grid {
+    /** boundaries of the columns, minX and maxX included */
+    private final double[] xs;
+    /** boundaries of the rows, minY and maxY included */
+    private final double[] ys;
+    /** relations of cells, row by row */
+    private final Relation[] relations;
+
+    Grid(Polygon2D polygon) {
+      xs = boundaries(polygon.minX, polygon.maxX);
+      ys = boundaries(polygon.minY, polygon.maxY);
+      relations = new Relation[GRID_SIZE * GRID_SIZE];
+      for (int row = 0; row < GRID_SIZE; ++row) {
+        for (int col = 0; col < GRID_SIZE; ++col) {
+          relations[row * GRID_SIZE + col] =
+              polygon.relateSlowly(xs[col], xs[col + 1], ys[row], ys[row + 1]);
+        }
+      }
+    }
+
+    private static double[] boundaries(double min, double max) {
+      final double[] boundaries = new double[GRID_SIZE + 1];
+      for (int i = 0; i < GRID_SIZE; ++i) {
+        boundaries[i] = min + (max - min) * i / GRID_SIZE;
+      }
+      boundaries[GRID_SIZE] = max;
+      return boundaries;
+    }
+
+    /** Index of the first cell that contains the given value, or the closest one. */
+    private static int minCell(double[] boundaries, double min) {
+      int i = guessCell(boundaries, min);
+      while (i > 0 && boundaries[i] > min) {
+        --i;
+      }
+      while (i < GRID_SIZE - 1 && boundaries[i + 1] <= min) {
+        ++i;
+      }
+      return i;
+    }
+
+    /** Index of the last cell that contains the given value, or the closest one. */
+    private static int maxCell(double[] boundaries, double max) {
+      int i = guessCell(boundaries, max);
+      while (i > 0 && boundaries[i] >= max) {
+        --i;
+      }
+      while (i < GRID_SIZE - 1 && boundaries[i + 1] < max) {
+        ++i;
+      }
+      return i;
+    }
+
+    private static int guessCell(double[] boundaries, double value) {
+      final double min = boundaries[0];
+      final double max = boundaries[GRID_SIZE];
+      final int i = (int) ((value - min) / (max - min) * GRID_SIZE);
+      return Math.max(0, Math.min(GRID_SIZE - 1, i));
+    }
+
+    /**
+     * Returns the relation that all cells covered by the box have if it is inside or outside, or
+     * null otherwise. Parts of the box that are out of the grid are outside of the polygon.
+     */
+    Relation relate(double minX, double maxX, double minY, double maxY) {
+      final int minCol = minCell(xs, minX);
+      final int maxCol = maxCell(xs, maxX);
+      final int minRow = minCell(ys, minY);
+      final int maxRow = maxCell(ys, maxY);
+      final Relation relation = relations[minRow * GRID_SIZE + minCol];
+      if (relation == Relation.CELL_CROSSES_QUERY) {
+        return null;
+      }
+      if (relation == Relation.CELL_INSIDE_QUERY
+          && (minX < xs[0] || maxX > xs[GRID_SIZE] || minY < ys[0] || maxY > ys[GRID_SIZE])) {
+        return null;
+      }
+      for (int row = minRow; row <= maxRow; ++row) {
+        for (int col = minCol; col <= maxCol; ++col) {
+          if (relations[row * GRID_SIZE + col] != relation) {
+            return null;
+          }
+        }
+      }
+      return relation;
+    }
+  }
+
   /** Builds a Polygon2D from LatLon polygon */
   static Component2D create(Polygon polygon) {
     Polygon gonHoles[] = polygon.getHoles();
@@ -23,10 +23,11 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.BytesRefBuilder;
 import org.apache.lucene.util.IntsRefBuilder;
 import org.apache.lucene.util.StringHelper;
-import org.apache.lucene.util.automaton.Automaton;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.ByteRunnable;
 import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.NFARunAutomaton;
 import org.apache.lucene.util.automaton.Transition;
+import org.apache.lucene.util.automaton.TransitionAccessor;
 
 /**
  * A FilteredTermsEnum that enumerates terms based upon what is accepted by a DFA.
@@ -43,20 +44,23 @@ import org.apache.lucene.util.automaton.Transition;
  * accepted. This is not possible when the language accepted by the FSM is not finite (i.e. *
  * operator).
  *
+ * <p>If the {@link CompiledAutomaton} was not determinized, then states of the DFA are lazily
+ * computed by a {@link NFARunAutomaton} as they get visited.
+ *
  * @lucene.internal
  */
 public class AutomatonTermsEnum extends FilteredTermsEnum {
   // a tableized array-based form of the DFA
-  private final ByteRunAutomaton runAutomaton;
+  private final ByteRunnable runAutomaton;
   // common suffix of the automaton
   private final BytesRef commonSuffixRef;
   // true if the automaton accepts a finite language
   private final boolean finite;
   // array of sorted transitions for each state, indexed by state number
-  private final Automaton automaton;
+  private final TransitionAccessor automaton;
   // Used for visited state tracking: each short records gen when we last
   // visited the state; we use gens to avoid having to clear
-  private final short[] visited;
+  private short[] visited;
   private short curGen;
   // the reference used for seeking forwards through the term dictionary
   private final BytesRefBuilder seekBytesRef = new BytesRefBuilder();
@@ -82,10 +86,17 @@ public class AutomatonTermsEnum extends FilteredTermsEnum {
       throw new IllegalArgumentException("please use CompiledAutomaton.getTermsEnum instead");
     }
     this.finite = compiled.finite;
-    this.runAutomaton = compiled.runAutomaton;
+    if (compiled.nfa != null) {
+      // states are computed lazily, and can't be shared across threads
+      NFARunAutomaton nfaRunAutomaton = new NFARunAutomaton(compiled.nfa);
+      this.runAutomaton = nfaRunAutomaton;
+      this.automaton = nfaRunAutomaton;
+    } else {
+      this.runAutomaton = compiled.runAutomaton;
+      this.automaton = compiled.automaton;
+    }
     assert this.runAutomaton != null;
     this.commonSuffixRef = compiled.commonSuffixRef;
-    this.automaton = compiled.automaton;
 
     // No need to track visited states for a finite language without loops.
     visited = finite ? null : new short[runAutomaton.getSize()];
@@ -94,13 +105,19 @@ public class AutomatonTermsEnum extends FilteredTermsEnum {
   /** Records the given state has been visited. */
   private void setVisited(int state) {
     if (!finite) {
+      if (state >= visited.length) {
+        // lazily determinized automata keep growing
+        final int oldLength = visited.length;
+        visited = ArrayUtil.grow(visited, state + 1);
+        Arrays.fill(visited, oldLength, visited.length, (short) -1);
+      }
       visited[state] = curGen;
     }
   }
 
   /** Indicates whether the given state has been visited. */
   private boolean isVisited(int state) {
-    return !finite && visited[state] == curGen;
+    return !finite && state < visited.length && visited[state] == curGen;
   }
 
   /**
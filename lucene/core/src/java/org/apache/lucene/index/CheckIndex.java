@@ -18,9 +18,11 @@ package org.apache.lucene.index;
 
 import static org.apache.lucene.search.DocIdSetIterator.NO_MORE_DOCS;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.NumberFormat;
@@ -31,6 +33,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesProducer;
 import org.apache.lucene.codecs.NormsProducer;
@@ -61,8 +68,10 @@ import org.apache.lucene.util.CommandLineUtil;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LongBitSet;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.StringHelper;
 import org.apache.lucene.util.SuppressForbidden;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.CompiledAutomaton;
@@ -438,6 +447,24 @@ public final class CheckIndex implements Closeable {
 
   private boolean verbose;
 
+  private int threadCount = 1;
+
+  /**
+   * Sets the number of threads used by {@link #checkIndex(List)} to check segments, and the
+   * independent parts of each segment, concurrently. Default is 1, which checks sequentially.
+   */
+  public void setThreadCount(int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("threadCount must be at least 1, got: " + count);
+    }
+    threadCount = count;
+  }
+
+  /** See {@link #setThreadCount}. */
+  public int getThreadCount() {
+    return threadCount;
+  }
+
   /** See {@link #getChecksumsOnly}. */
   public boolean getChecksumsOnly() {
     return checksumsOnly;
@@ -491,9 +518,38 @@ public final class CheckIndex implements Closeable {
    *     quite a long time to run.
    */
   public Status checkIndex(List<String> onlySegments) throws IOException {
+    if (threadCount <= 1) {
+      return checkIndex(onlySegments, null);
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(threadCount, new NamedThreadFactory("async-check-index"));
+    try {
+      return checkIndex(onlySegments, executor);
+    } finally {
+      // checkIndex only returns once its tasks are done or cancelled, so threads are idle
+      executor.shutdown();
+      try {
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      }
+    }
+  }
+
+  /**
+   * Returns a {@link Status} instance detailing the state of the index, checking segments and the
+   * independent parts of each segment concurrently on the provided executor. Messages and the
+   * returned status are the same as with a sequential check: the output of each segment is buffered
+   * and printed in segment order.
+   *
+   * @param onlySegments list of specific segment names to check, or null to check all segments
+   * @param executor executor to run checks on, or null to check sequentially in the calling thread.
+   *     This method only returns once the checks it submitted completed or were cancelled, and the
+   *     executor is not shut down.
+   */
+  public Status checkIndex(List<String> onlySegments, ExecutorService executor) throws IOException {
     ensureOpen();
     long startNS = System.nanoTime();
-    NumberFormat nf = NumberFormat.getInstance(Locale.ROOT);
     SegmentInfos sis = null;
     Status result = new Status();
     result.dir = dir;
@@ -608,6 +664,9 @@ public final class CheckIndex implements Closeable {
     result.newSegments.clear();
     result.maxSegmentName = -1;
 
+    List<SegmentCheck> checks = new ArrayList<>();
+    CheckTasks tasks = new CheckTasks();
+
     for (int i = 0; i < numSegments; i++) {
       final SegmentCommitInfo info = sis.info(i);
       long segmentName = Long.parseLong(info.info.name.substring(1), Character.MAX_RADIX);
@@ -617,214 +676,32 @@ public final class CheckIndex implements Closeable {
       if (onlySegments != null && !onlySegments.contains(info.info.name)) {
         continue;
       }
-      Status.SegmentInfoStatus segInfoStat = new Status.SegmentInfoStatus();
-      result.segmentInfos.add(segInfoStat);
-      msg(
-          infoStream,
-          "  "
-              + (1 + i)
-              + " of "
-              + numSegments
-              + ": name="
-              + info.info.name
-              + " maxDoc="
-              + info.info.maxDoc());
-      segInfoStat.name = info.info.name;
-      segInfoStat.maxDoc = info.info.maxDoc();
-
-      final Version version = info.info.getVersion();
-      if (info.info.maxDoc() <= 0) {
-        throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
+      SegmentCheck check = new SegmentCheck(info, executor != null && infoStream != null);
+      result.segmentInfos.add(check.status);
+      if (executor == null) {
+        testSegment(sis, i, check, null);
+        collectSegment(result, check);
+      } else {
+        final SegmentInfos segmentInfos = sis;
+        final int segment = i;
+        checks.add(check);
+        tasks.execute(executor, () -> testSegment(segmentInfos, segment, check, executor));
       }
+    }
 
-      int toLoseDocCount = info.info.maxDoc();
-
-      SegmentReader reader = null;
-      Sort previousIndexSort = null;
-
-      try {
-        msg(infoStream, "    version=" + (version == null ? "3.0" : version));
-        msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
-        final Codec codec = info.info.getCodec();
-        msg(infoStream, "    codec=" + codec);
-        segInfoStat.codec = codec;
-        msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
-        segInfoStat.compound = info.info.getUseCompoundFile();
-        msg(infoStream, "    numFiles=" + info.files().size());
-        Sort indexSort = info.info.getIndexSort();
-        if (indexSort != null) {
-          msg(infoStream, "    sort=" + indexSort);
-          if (previousIndexSort != null) {
-            if (previousIndexSort.equals(indexSort) == false) {
-              throw new RuntimeException(
-                  "index sort changed from " + previousIndexSort + " to " + indexSort);
-            }
-          } else {
-            previousIndexSort = indexSort;
-          }
-        }
-        segInfoStat.numFiles = info.files().size();
-        segInfoStat.sizeMB = info.sizeInBytes() / (1024. * 1024.);
-        msg(infoStream, "    size (MB)=" + nf.format(segInfoStat.sizeMB));
-        Map<String, String> diagnostics = info.info.getDiagnostics();
-        segInfoStat.diagnostics = diagnostics;
-        if (diagnostics.size() > 0) {
-          msg(infoStream, "    diagnostics = " + diagnostics);
-        }
-
-        if (!info.hasDeletions()) {
-          msg(infoStream, "    no deletions");
-          segInfoStat.hasDeletions = false;
-        } else {
-          msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
-          segInfoStat.hasDeletions = true;
-          segInfoStat.deletionsGen = info.getDelGen();
-        }
-
-        long startOpenReaderNS = System.nanoTime();
-        if (infoStream != null) infoStream.print("    test: open reader.........");
-        reader = new SegmentReader(info, sis.getIndexCreatedVersionMajor(), IOContext.DEFAULT);
-        msg(
-            infoStream,
-            String.format(
-                Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime() - startOpenReaderNS)));
-
-        segInfoStat.openReaderPassed = true;
-
-        long startIntegrityNS = System.nanoTime();
-        if (infoStream != null) infoStream.print("    test: check integrity.....");
-        reader.checkIntegrity();
-        msg(
-            infoStream,
-            String.format(
-                Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime() - startIntegrityNS)));
-
-        if (reader.maxDoc() != info.info.maxDoc()) {
-          throw new RuntimeException(
-              "SegmentReader.maxDoc() "
-                  + reader.maxDoc()
-                  + " != SegmentInfo.maxDoc "
-                  + info.info.maxDoc());
-        }
-
-        final int numDocs = reader.numDocs();
-        toLoseDocCount = numDocs;
-
-        if (reader.hasDeletions()) {
-          if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
-            throw new RuntimeException(
-                "delete count mismatch: info="
-                    + (info.info.maxDoc() - info.getDelCount())
-                    + " vs reader="
-                    + reader.numDocs());
-          }
-          if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
-            throw new RuntimeException(
-                "too many deleted docs: maxDoc()="
-                    + reader.maxDoc()
-                    + " vs del count="
-                    + (info.info.maxDoc() - reader.numDocs()));
-          }
-          if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
-            throw new RuntimeException(
-                "delete count mismatch: info="
-                    + info.getDelCount()
-                    + " vs reader="
-                    + (info.info.maxDoc() - reader.numDocs()));
-          }
-        } else {
-          if (info.getDelCount() != 0) {
-            throw new RuntimeException(
-                "delete count mismatch: info="
-                    + info.getDelCount()
-                    + " vs reader="
-                    + (info.info.maxDoc() - reader.numDocs()));
-          }
-        }
-
-        if (checksumsOnly == false) {
-          // Test Livedocs
-          segInfoStat.liveDocStatus = testLiveDocs(reader, infoStream, failFast);
-
-          // Test Fieldinfos
-          segInfoStat.fieldInfoStatus = testFieldInfos(reader, infoStream, failFast);
-
-          // Test Field Norms
-          segInfoStat.fieldNormStatus = testFieldNorms(reader, infoStream, failFast);
-
-          // Test the Term Index
-          segInfoStat.termIndexStatus =
-              testPostings(reader, infoStream, verbose, doSlowChecks, failFast);
-
-          // Test Stored Fields
-          segInfoStat.storedFieldStatus = testStoredFields(reader, infoStream, failFast);
-
-          // Test Term Vectors
-          segInfoStat.termVectorStatus =
-              testTermVectors(reader, infoStream, verbose, doSlowChecks, failFast);
-
-          // Test Docvalues
-          segInfoStat.docValuesStatus = testDocValues(reader, infoStream, failFast);
-
-          // Test PointValues
-          segInfoStat.pointsStatus = testPoints(reader, infoStream, failFast);
-
-          // Test VectorValues
-          segInfoStat.vectorValuesStatus = testVectors(reader, infoStream, failFast);
-
-          // Test index sort
-          segInfoStat.indexSortStatus = testSort(reader, indexSort, infoStream, failFast);
-
-          // Rethrow the first exception we encountered
-          //  This will cause stats for failed segments to be incremented properly
-          if (segInfoStat.liveDocStatus.error != null) {
-            throw new RuntimeException("Live docs test failed");
-          } else if (segInfoStat.fieldInfoStatus.error != null) {
-            throw new RuntimeException("Field Info test failed");
-          } else if (segInfoStat.fieldNormStatus.error != null) {
-            throw new RuntimeException("Field Norm test failed");
-          } else if (segInfoStat.termIndexStatus.error != null) {
-            throw new RuntimeException("Term Index test failed");
-          } else if (segInfoStat.storedFieldStatus.error != null) {
-            throw new RuntimeException("Stored Field test failed");
-          } else if (segInfoStat.termVectorStatus.error != null) {
-            throw new RuntimeException("Term Vector test failed");
-          } else if (segInfoStat.docValuesStatus.error != null) {
-            throw new RuntimeException("DocValues test failed");
-          } else if (segInfoStat.pointsStatus.error != null) {
-            throw new RuntimeException("Points test failed");
-          }
-        }
-        final String softDeletesField = reader.getFieldInfos().getSoftDeletesField();
-        if (softDeletesField != null) {
-          checkSoftDeletes(softDeletesField, info, reader, infoStream, failFast);
-        }
-        msg(infoStream, "");
-
-        if (verbose) {
-          msg(infoStream, "detailed segment RAM usage: ");
-          msg(infoStream, Accountables.toString(reader));
-        }
-
-      } catch (Throwable t) {
-        if (failFast) {
-          throw IOUtils.rethrowAlways(t);
-        }
-        msg(infoStream, "FAILED");
-        String comment;
-        comment = "exorciseIndex() would remove reference to this segment";
-        msg(infoStream, "    WARNING: " + comment + "; full exception:");
-        if (infoStream != null) t.printStackTrace(infoStream);
-        msg(infoStream, "");
-        result.totLoseDocCount += toLoseDocCount;
-        result.numBadSegments++;
-        continue;
-      } finally {
-        if (reader != null) reader.close();
+    // collect concurrently checked segments in segment order, so that output and status do not
+    // depend on the order in which segments completed:
+    boolean success = false;
+    try {
+      for (int i = 0; i < tasks.size(); i++) {
+        tasks.await(i);
+        collectSegment(result, checks.get(i));
+      }
+      success = true;
+    } finally {
+      if (success == false) {
+        tasks.cancel();
       }
-
-      // Keeper
-      result.newSegments.add(info.clone());
     }
 
     if (0 == result.numBadSegments) {
@@ -860,6 +737,393 @@ public final class CheckIndex implements Closeable {
     return result;
   }
 
+  /**
+   * Checks one segment, writing messages to the output of {@code check}. If {@code executor} is not
+   * null, the independent parts of the segment are checked concurrently on it.
+   */
+  private void testSegment(SegmentInfos sis, int i, SegmentCheck check, ExecutorService executor)
+      throws IOException {
+    final PrintStream infoStream = check.out;
+    final SegmentCommitInfo info = check.info;
+    final int numSegments = sis.size();
+    final Status.SegmentInfoStatus segInfoStat = check.status;
+    msg(
+        infoStream,
+        "  "
+            + (1 + i)
+            + " of "
+            + numSegments
+            + ": name="
+            + info.info.name
+            + " maxDoc="
+            + info.info.maxDoc());
+    segInfoStat.name = info.info.name;
+    segInfoStat.maxDoc = info.info.maxDoc();
+
+    final Version version = info.info.getVersion();
+    if (info.info.maxDoc() <= 0) {
+      throw new RuntimeException("illegal number of documents: maxDoc=" + info.info.maxDoc());
+    }
+
+    int toLoseDocCount = info.info.maxDoc();
+
+    SegmentReader reader = null;
+    Sort previousIndexSort = null;
+
+    try {
+      msg(infoStream, "    version=" + (version == null ? "3.0" : version));
+      msg(infoStream, "    id=" + StringHelper.idToString(info.info.getId()));
+      final Codec codec = info.info.getCodec();
+      msg(infoStream, "    codec=" + codec);
+      segInfoStat.codec = codec;
+      msg(infoStream, "    compound=" + info.info.getUseCompoundFile());
+      segInfoStat.compound = info.info.getUseCompoundFile();
+      msg(infoStream, "    numFiles=" + info.files().size());
+      Sort indexSort = info.info.getIndexSort();
+      if (indexSort != null) {
+        msg(infoStream, "    sort=" + indexSort);
+        if (previousIndexSort != null) {
+          if (previousIndexSort.equals(indexSort) == false) {
+            throw new RuntimeException(
+                "index sort changed from " + previousIndexSort + " to " + indexSort);
+          }
+        } else {
+          previousIndexSort = indexSort;
+        }
+      }
+      segInfoStat.numFiles = info.files().size();
+      segInfoStat.sizeMB = info.sizeInBytes() / (1024. * 1024.);
+      msg(
+          infoStream,
+          "    size (MB)=" + NumberFormat.getInstance(Locale.ROOT).format(segInfoStat.sizeMB));
+      Map<String, String> diagnostics = info.info.getDiagnostics();
+      segInfoStat.diagnostics = diagnostics;
+      if (diagnostics.size() > 0) {
+        msg(infoStream, "    diagnostics = " + diagnostics);
+      }
+
+      if (!info.hasDeletions()) {
+        msg(infoStream, "    no deletions");
+        segInfoStat.hasDeletions = false;
+      } else {
+        msg(infoStream, "    has deletions [delGen=" + info.getDelGen() + "]");
+        segInfoStat.hasDeletions = true;
+        segInfoStat.deletionsGen = info.getDelGen();
+      }
+
+      long startOpenReaderNS = System.nanoTime();
+      if (infoStream != null) infoStream.print("    test: open reader.........");
+      reader = new SegmentReader(info, sis.getIndexCreatedVersionMajor(), IOContext.DEFAULT);
+      msg(
+          infoStream,
+          String.format(
+              Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime() - startOpenReaderNS)));
+
+      segInfoStat.openReaderPassed = true;
+
+      long startIntegrityNS = System.nanoTime();
+      if (infoStream != null) infoStream.print("    test: check integrity.....");
+      reader.checkIntegrity();
+      msg(
+          infoStream,
+          String.format(
+              Locale.ROOT, "OK [took %.3f sec]", nsToSec(System.nanoTime() - startIntegrityNS)));
+
+      if (reader.maxDoc() != info.info.maxDoc()) {
+        throw new RuntimeException(
+            "SegmentReader.maxDoc() "
+                + reader.maxDoc()
+                + " != SegmentInfo.maxDoc "
+                + info.info.maxDoc());
+      }
+
+      final int numDocs = reader.numDocs();
+      toLoseDocCount = numDocs;
+
+      if (reader.hasDeletions()) {
+        if (reader.numDocs() != info.info.maxDoc() - info.getDelCount()) {
+          throw new RuntimeException(
+              "delete count mismatch: info="
+                  + (info.info.maxDoc() - info.getDelCount())
+                  + " vs reader="
+                  + reader.numDocs());
+        }
+        if ((info.info.maxDoc() - reader.numDocs()) > reader.maxDoc()) {
+          throw new RuntimeException(
+              "too many deleted docs: maxDoc()="
+                  + reader.maxDoc()
+                  + " vs del count="
+                  + (info.info.maxDoc() - reader.numDocs()));
+        }
+        if (info.info.maxDoc() - reader.numDocs() != info.getDelCount()) {
+          throw new RuntimeException(
+              "delete count mismatch: info="
+                  + info.getDelCount()
+                  + " vs reader="
+                  + (info.info.maxDoc() - reader.numDocs()));
+        }
+      } else {
+        if (info.getDelCount() != 0) {
+          throw new RuntimeException(
+              "delete count mismatch: info="
+                  + info.getDelCount()
+                  + " vs reader="
+                  + (info.info.maxDoc() - reader.numDocs()));
+        }
+      }
+
+      if (checksumsOnly == false) {
+        testSegmentParts(reader, indexSort, segInfoStat, infoStream, executor);
+
+        // Rethrow the first exception we encountered
+        //  This will cause stats for failed segments to be incremented properly
+        if (segInfoStat.liveDocStatus.error != null) {
+          throw new RuntimeException("Live docs test failed");
+        } else if (segInfoStat.fieldInfoStatus.error != null) {
+          throw new RuntimeException("Field Info test failed");
+        } else if (segInfoStat.fieldNormStatus.error != null) {
+          throw new RuntimeException("Field Norm test failed");
+        } else if (segInfoStat.termIndexStatus.error != null) {
+          throw new RuntimeException("Term Index test failed");
+        } else if (segInfoStat.storedFieldStatus.error != null) {
+          throw new RuntimeException("Stored Field test failed");
+        } else if (segInfoStat.termVectorStatus.error != null) {
+          throw new RuntimeException("Term Vector test failed");
+        } else if (segInfoStat.docValuesStatus.error != null) {
+          throw new RuntimeException("DocValues test failed");
+        } else if (segInfoStat.pointsStatus.error != null) {
+          throw new RuntimeException("Points test failed");
+        }
+      }
+      final String softDeletesField = reader.getFieldInfos().getSoftDeletesField();
+      if (softDeletesField != null) {
+        checkSoftDeletes(softDeletesField, info, reader, infoStream, failFast);
+      }
+      msg(infoStream, "");
+
+      if (verbose) {
+        msg(infoStream, "detailed segment RAM usage: ");
+        msg(infoStream, Accountables.toString(reader));
+      }
+
+    } catch (Throwable t) {
+      if (failFast) {
+        throw IOUtils.rethrowAlways(t);
+      }
+      msg(infoStream, "FAILED");
+      String comment;
+      comment = "exorciseIndex() would remove reference to this segment";
+      msg(infoStream, "    WARNING: " + comment + "; full exception:");
+      if (infoStream != null) t.printStackTrace(infoStream);
+      msg(infoStream, "");
+      check.failed = true;
+      check.toLoseDocCount = toLoseDocCount;
+    } finally {
+      if (reader != null) reader.close();
+    }
+  }
+
+  /** Adds the outcome of a checked segment to {@code result} and prints its buffered output. */
+  private void collectSegment(Status result, SegmentCheck check) {
+    if (check.output != null) {
+      infoStream.print(check.output.toString(StandardCharsets.UTF_8));
+    }
+    if (check.failed) {
+      result.totLoseDocCount += check.toLoseDocCount;
+      result.numBadSegments++;
+    } else {
+      // Keeper
+      result.newSegments.add(check.info.clone());
+    }
+  }
+
+  /** A unit of work checking one part of a segment, writing messages to the given stream. */
+  @FunctionalInterface
+  private interface SegmentPart {
+    void check(PrintStream infoStream) throws IOException;
+  }
+
+  /**
+   * Runs the logical checks of a segment. If {@code executor} is not null, they run concurrently
+   * and their messages are buffered, then printed in the same order as a sequential check.
+   */
+  private void testSegmentParts(
+      CodecReader reader,
+      Sort indexSort,
+      Status.SegmentInfoStatus segInfoStat,
+      PrintStream infoStream,
+      ExecutorService executor)
+      throws IOException {
+    List<SegmentPart> parts =
+        Arrays.asList(
+            // Test Livedocs
+            out -> segInfoStat.liveDocStatus = testLiveDocs(reader, out, failFast),
+            // Test Fieldinfos
+            out -> segInfoStat.fieldInfoStatus = testFieldInfos(reader, out, failFast),
+            // Test Field Norms
+            out -> segInfoStat.fieldNormStatus = testFieldNorms(reader, out, failFast),
+            // Test the Term Index
+            out ->
+                segInfoStat.termIndexStatus =
+                    testPostings(reader, out, verbose, doSlowChecks, failFast),
+            // Test Stored Fields
+            out -> segInfoStat.storedFieldStatus = testStoredFields(reader, out, failFast),
+            // Test Term Vectors
+            out ->
+                segInfoStat.termVectorStatus =
+                    testTermVectors(reader, out, verbose, doSlowChecks, failFast),
+            // Test Docvalues
+            out -> segInfoStat.docValuesStatus = testDocValues(reader, out, failFast),
+            // Test PointValues
+            out -> segInfoStat.pointsStatus = testPoints(reader, out, failFast),
+            // Test VectorValues
+            out -> segInfoStat.vectorValuesStatus = testVectors(reader, out, failFast),
+            // Test index sort
+            out -> segInfoStat.indexSortStatus = testSort(reader, indexSort, out, failFast));
+
+    if (executor == null) {
+      for (SegmentPart part : parts) {
+        part.check(infoStream);
+      }
+      return;
+    }
+
+    List<ByteArrayOutputStream> outputs = new ArrayList<>();
+    CheckTasks tasks = new CheckTasks();
+    for (SegmentPart part : parts) {
+      ByteArrayOutputStream output = infoStream == null ? null : new ByteArrayOutputStream();
+      PrintStream out =
+          output == null ? null : new PrintStream(output, true, StandardCharsets.UTF_8);
+      outputs.add(output);
+      tasks.execute(executor, () -> part.check(out));
+    }
+    boolean success = false;
+    try {
+      for (int i = 0; i < tasks.size(); i++) {
+        // run the part in this thread if no executor thread picked it up yet: this thread would
+        // otherwise block on it, which could deadlock with all executor threads checking segments
+        tasks.run(i);
+        tasks.await(i);
+        if (outputs.get(i) != null) {
+          infoStream.print(outputs.get(i).toString(StandardCharsets.UTF_8));
+        }
+      }
+      success = true;
+    } finally {
+      if (success == false) {
+        tasks.cancel();
+      }
+    }
+  }
+
+  /**
+   * Tasks that one check submitted to an executor. When the check fails, it cancels the tasks that
+   * did not start yet and waits for the ones that are running, so that none of its tasks keeps
+   * updating the status after it returned, even on an executor that is shared with other work.
+   */
+  private static final class CheckTasks {
+
+    @FunctionalInterface
+    interface Check {
+      void run() throws IOException;
+    }
+
+    private final List<FutureTask<Void>> tasks = new ArrayList<>();
+    private int running;
+    private boolean cancelled;
+
+    void execute(ExecutorService executor, Check check) {
+      FutureTask<Void> task =
+          new FutureTask<>(
+              () -> {
+                synchronized (this) {
+                  if (cancelled) {
+                    return null;
+                  }
+                  running++;
+                }
+                try {
+                  check.run();
+                } finally {
+                  synchronized (this) {
+                    running--;
+                    notifyAll();
+                  }
+                }
+                return null;
+              });
+      tasks.add(task);
+      executor.execute(task);
+    }
+
+    int size() {
+      return tasks.size();
+    }
+
+    /** Runs the i-th task in the calling thread, if it did not start yet. */
+    void run(int i) {
+      tasks.get(i).run();
+    }
+
+    /** Waits for the i-th task, and rethrows its exception if it failed. */
+    void await(int i) throws IOException {
+      try {
+        tasks.get(i).get();
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException e) {
+        throw IOUtils.rethrowAlways(e.getCause());
+      }
+    }
+
+    /** Cancels tasks that did not start yet, and waits for running tasks to complete. */
+    void cancel() {
+      synchronized (this) {
+        cancelled = true;
+      }
+      for (FutureTask<Void> task : tasks) {
+        task.cancel(false);
+      }
+      boolean interrupted = false;
+      synchronized (this) {
+        while (running > 0) {
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            // running tasks may still update the status, keep waiting
+            interrupted = true;
+          }
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** State of the check of one segment. */
+  private class SegmentCheck {
+    final SegmentCommitInfo info;
+    final Status.SegmentInfoStatus status = new Status.SegmentInfoStatus();
+    /** Buffered messages, or null if messages go to the info stream directly. */
+    final ByteArrayOutputStream output;
+
+    final PrintStream out;
+    boolean failed;
+    int toLoseDocCount;
+
+    SegmentCheck(SegmentCommitInfo info, boolean buffered) {
+      this.info = info;
+      if (buffered) {
+        output = new ByteArrayOutputStream();
+        out = new PrintStream(output, true, StandardCharsets.UTF_8);
+      } else {
+        output = null;
+        out = infoStream;
+      }
+    }
+  }
+
   /**
    * Tests index sort order.
    *
@@ -3803,6 +4067,7 @@ public final class CheckIndex implements Closeable {
     boolean doSlowChecks = false;
     boolean verbose = false;
     boolean doChecksumsOnly = false;
+    int threadCount = 1;
     List<String> onlySegments = new ArrayList<>();
     String indexPath = null;
     String dirImpl = null;
@@ -3895,6 +4160,22 @@ public final class CheckIndex implements Closeable {
         }
         i++;
         opts.onlySegments.add(args[i]);
+      } else if ("-threadCount".equals(arg)) {
+        if (i == args.length - 1) {
+          throw new IllegalArgumentException("ERROR: missing value for -threadCount option");
+        }
+        i++;
+        int threadCount;
+        try {
+          threadCount = Integer.parseInt(args[i]);
+        } catch (NumberFormatException e) {
+          threadCount = 0;
+        }
+        if (threadCount <= 0) {
+          throw new IllegalArgumentException(
+              "ERROR: -threadCount requires a number larger than 0, but got: " + args[i]);
+        }
+        opts.threadCount = threadCount;
       } else if ("-dir-impl".equals(arg)) {
         if (i == args.length - 1) {
           throw new IllegalArgumentException("ERROR: missing value for -dir-impl option");
@@ -3913,7 +4194,7 @@ public final class CheckIndex implements Closeable {
     if (opts.indexPath == null) {
       throw new IllegalArgumentException(
           "\nERROR: index path not specified"
-              + "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-slow] [-segment X] [-segment Y] [-dir-impl X]\n"
+              + "\nUsage: java org.apache.lucene.index.CheckIndex pathToIndex [-exorcise] [-slow] [-segment X] [-segment Y] [-threadCount X] [-dir-impl X]\n"
               + "\n"
               + "  -exorcise: actually write a new segments_N file, removing any problematic segments\n"
               + "  -fast: just verify file checksums, omitting logical integrity checks\n"
@@ -3923,6 +4204,9 @@ public final class CheckIndex implements Closeable {
               + "  -segment X: only check the specified segments.  This can be specified multiple\n"
               + "              times, to check more than one segment, eg '-segment _2 -segment _a'.\n"
               + "              You can't use this with the -exorcise option\n"
+              + "  -threadCount X: number of threads used to check segments, and the independent\n"
+              + "              parts of each segment, concurrently. Output is the same as with a\n"
+              + "              single thread, which is the default.\n"
               + "  -dir-impl X: use a specific "
               + FSDirectory.class.getSimpleName()
               + " implementation. "
@@ -3968,6 +4252,7 @@ public final class CheckIndex implements Closeable {
     setDoSlowChecks(opts.doSlowChecks);
     setChecksumsOnly(opts.doChecksumsOnly);
     setInfoStream(opts.out, opts.verbose);
+    setThreadCount(opts.threadCount);
 
     Status result = checkIndex(opts.onlySegments);
     if (result.missingSegments) {
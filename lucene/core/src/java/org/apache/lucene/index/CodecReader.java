@@ -93,6 +93,12 @@ public abstract class CodecReader extends LeafReader implements Accountable {
     getFieldsReader().visitDocument(docID, visitor);
   }
 
+  @Override
+  public final void prefetchDocument(int docID) throws IOException {
+    checkBounds(docID);
+    getFieldsReader().prefetch(docID);
+  }
+
   @Override
   public final Fields getTermVectors(int docID) throws IOException {
     TermVectorsReader termVectorsReader = getTermVectorsReader();
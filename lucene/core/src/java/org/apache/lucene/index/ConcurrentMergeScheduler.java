@@ -21,6 +21,11 @@ import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
@@ -31,6 +36,7 @@ import org.apache.lucene.store.RateLimitedIndexOutput;
 import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.CollectionUtil;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.ThreadInterruptedException;
 
 /**
@@ -45,6 +51,12 @@ import org.apache.lucene.util.ThreadInterruptedException;
  * <p>If more than {@link #getMaxMergeCount} merges are requested then this class will forcefully
  * throttle the incoming threads by pausing until one more merges complete.
  *
+ * <p>The auto IO throttle can be replaced with a {@link MergeThrottleController} that also takes
+ * feedback signals like write or search latency into account, see {@link #setThrottleController}.
+ *
+ * <p>Optionally, the different parts of a single merge (postings, doc values, points, ...) can be
+ * merged concurrently by extra threads, see {@link #setMaxIntraMergeThreadCount}.
+ *
  * <p>This class sets defaults based on Java's view of the cpu count, and it assumes a solid state
  * disk (or similar). If you have a spinning disk and want to maximize performance, use {@link
  * #setDefaultMaxMergesAndThreads(boolean)}.
@@ -106,6 +118,24 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
   private double forceMergeMBPerSec = Double.POSITIVE_INFINITY;
 
+  // Max number of extra threads that merge parts of a segment concurrently with the merge threads,
+  // shared by all running merges. 0 means that each merge runs entirely on its merge thread.
+  private int maxIntraMergeThreadCount = 0;
+
+  // Lazily created when intra-merge concurrency is enabled:
+  private ThreadPoolExecutor intraMergeExecutor;
+
+  // Replaces the backlog based heuristic of the auto IO throttle when set:
+  private volatile MergeThrottleController throttleController;
+
+  // Number of merges that may run at once as decided by the throttle controller, or -1:
+  private int throttledMaxThreadCount = -1;
+
+  // Feedback collected from merge threads since the last decision of the throttle controller:
+  private volatile long lastThrottleUpdateNS;
+  private final LongAdder throttleBytesWritten = new LongAdder();
+  private final LongAdder throttleWriteNS = new LongAdder();
+
   /** Sole constructor, with all settings set to default values. */
   public ConcurrentMergeScheduler() {}
 
@@ -189,6 +219,93 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     return forceMergeMBPerSec;
   }
 
+  /**
+   * Expert: set the maximum number of extra threads that may merge the different parts of a segment
+   * (postings, doc values, points, vectors, term vectors) concurrently with the merge threads.
+   * These threads are shared by all running merges and write through the same rate limiter as the
+   * merge they work for, so IO throttling applies to a merge as a whole. The default is {@code 0},
+   * which merges each segment on a single thread.
+   *
+   * @lucene.experimental
+   */
+  public synchronized void setMaxIntraMergeThreadCount(int maxIntraMergeThreadCount) {
+    if (maxIntraMergeThreadCount < 0) {
+      throw new IllegalArgumentException(
+          "maxIntraMergeThreadCount should be >= 0; got: " + maxIntraMergeThreadCount);
+    }
+    this.maxIntraMergeThreadCount = maxIntraMergeThreadCount;
+    if (intraMergeExecutor != null && maxIntraMergeThreadCount > 0) {
+      intraMergeExecutor.setMaximumPoolSize(maxIntraMergeThreadCount);
+    }
+  }
+
+  /**
+   * Expert: set the controller that adjusts the IO rate limit and the number of merges that may run
+   * at once when auto IO throttling is enabled, or null to use the default heuristic, which only
+   * looks at the merge backlog. The controller never lets more than {@link #getMaxThreadCount()}
+   * merges run at once.
+   *
+   * @lucene.experimental
+   */
+  public synchronized void setThrottleController(MergeThrottleController throttleController) {
+    this.throttleController = throttleController;
+    throttledMaxThreadCount = -1;
+    lastThrottleUpdateNS = System.nanoTime();
+    throttleBytesWritten.reset();
+    throttleWriteNS.reset();
+    updateMergeThreads();
+  }
+
+  /**
+   * Returns the throttle controller, or null if the default heuristic is used.
+   *
+   * @see #setThrottleController(MergeThrottleController)
+   */
+  public MergeThrottleController getThrottleController() {
+    return throttleController;
+  }
+
+  /**
+   * Returns how many merges may currently run at once, which is less than {@link
+   * #getMaxThreadCount()} if the throttle controller decided so.
+   */
+  private int getEffectiveMaxThreadCount() {
+    assert Thread.holdsLock(this);
+    if (throttledMaxThreadCount == -1 || throttleController == null || doAutoIOThrottle == false) {
+      return maxThreadCount;
+    }
+    return Math.min(maxThreadCount, throttledMaxThreadCount);
+  }
+
+  /**
+   * Returns {@code maxIntraMergeThreadCount}.
+   *
+   * @see #setMaxIntraMergeThreadCount(int)
+   */
+  public synchronized int getMaxIntraMergeThreadCount() {
+    return maxIntraMergeThreadCount;
+  }
+
+  @Override
+  public synchronized Executor getIntraMergeExecutor(OneMerge merge) {
+    if (maxIntraMergeThreadCount == 0) {
+      return null;
+    }
+    if (intraMergeExecutor == null) {
+      // No queue: parts that can't get a thread right away are rejected, and then merged by the
+      // merge thread itself
+      intraMergeExecutor =
+          new ThreadPoolExecutor(
+              0,
+              maxIntraMergeThreadCount,
+              1L,
+              TimeUnit.SECONDS,
+              new SynchronousQueue<>(),
+              new NamedThreadFactory("Lucene Intra-Merge"));
+    }
+    return intraMergeExecutor;
+  }
+
   /**
    * Turn on dynamic IO throttling, to adaptively rate limit writes bytes/sec to the minimal rate
    * necessary so merges do not fall behind. By default this is enabled.
@@ -206,6 +323,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
    */
   public synchronized void disableAutoIOThrottle() {
     doAutoIOThrottle = false;
+    throttledMaxThreadCount = -1;
     updateMergeThreads();
   }
 
@@ -275,8 +393,10 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
         assert context.context == IOContext.Context.MERGE : "got context=" + context.context;
 
         // Because rateLimiter is bound to a particular merge thread, this method should
-        // always be called from that context. Verify this.
+        // always be called from that context, or from a thread that merges a part of the
+        // segment on its behalf. Verify this.
         assert mergeThread == Thread.currentThread()
+                || merge.getMergeProgress().isMergeThread(Thread.currentThread())
             : "Not the same merge thread, current="
                 + Thread.currentThread()
                 + ", expected="
@@ -333,9 +453,10 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       message.append(
           String.format(
               Locale.ROOT,
-              "updateMergeThreads ioThrottle=%s targetMBPerSec=%.1f MB/sec",
+              "updateMergeThreads ioThrottle=%s targetMBPerSec=%.1f MB/sec maxThreadCount=%d",
               doAutoIOThrottle,
-              targetMBPerSec));
+              targetMBPerSec,
+              getEffectiveMaxThreadCount()));
     } else {
       message = null;
     }
@@ -346,7 +467,7 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
       OneMerge merge = mergeThread.merge;
 
       // pause the thread if maxThreadCount is smaller than the number of merge threads.
-      final boolean doPause = threadIdx < bigMergeCount - maxThreadCount;
+      final boolean doPause = threadIdx < bigMergeCount - getEffectiveMaxThreadCount();
 
       double newMBPerSec;
       if (doPause) {
@@ -442,6 +563,14 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
   @Override
   public void close() {
     sync();
+    final ThreadPoolExecutor executor;
+    synchronized (this) {
+      executor = intraMergeExecutor;
+      intraMergeExecutor = null;
+    }
+    if (executor != null) {
+      executor.shutdown();
+    }
   }
 
   /**
@@ -672,7 +801,13 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     public MergeThread(MergeSource mergeSource, OneMerge merge) {
       this.mergeSource = mergeSource;
       this.merge = merge;
-      this.rateLimiter = new MergeRateLimiter(merge.getMergeProgress());
+      this.rateLimiter =
+          new MergeRateLimiter(merge.getMergeProgress()) {
+            @Override
+            public void onWrite(long bytes, long nanos) {
+              onMergeWrite(bytes, nanos);
+            }
+          };
     }
 
     @Override
@@ -735,6 +870,12 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     sb.append("maxThreadCount=").append(maxThreadCount).append(", ");
     sb.append("maxMergeCount=").append(maxMergeCount).append(", ");
     sb.append("ioThrottle=").append(doAutoIOThrottle);
+    if (throttleController != null) {
+      sb.append(", throttleController=").append(throttleController);
+    }
+    if (maxIntraMergeThreadCount > 0) {
+      sb.append(", maxIntraMergeThreadCount=").append(maxIntraMergeThreadCount);
+    }
     return sb.toString();
   }
 
@@ -774,6 +915,13 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
 
     long now = System.nanoTime();
 
+    final MergeThrottleController controller = throttleController;
+    if (controller != null) {
+      updateThrottle(controller, now);
+      rateLimiter.setMBPerSec(newMerge.maxNumSegments != -1 ? forceMergeMBPerSec : targetMBPerSec);
+      return;
+    }
+
     // Simplistic closed-loop feedback control: if we find any other similarly
     // sized merges running, then we are falling behind, so we bump up the
     // IO throttle, else we lower it:
@@ -862,6 +1010,57 @@ public class ConcurrentMergeScheduler extends MergeScheduler {
     targetMBPerSecChanged();
   }
 
+  /** Called by merge threads as they write, to let the throttle controller decide periodically. */
+  private void onMergeWrite(long bytes, long nanos) {
+    final MergeThrottleController controller = throttleController;
+    if (controller == null) {
+      return;
+    }
+    throttleBytesWritten.add(bytes);
+    throttleWriteNS.add(nanos);
+    long now = System.nanoTime();
+    if (now - lastThrottleUpdateNS >= controller.getUpdateIntervalNS()) {
+      synchronized (this) {
+        // Check again, another merge thread may have been faster:
+        if (doAutoIOThrottle
+            && controller == throttleController
+            && now - lastThrottleUpdateNS >= controller.getUpdateIntervalNS()) {
+          updateThrottle(controller, now);
+          updateMergeThreads();
+        }
+      }
+    }
+  }
+
+  /** Asks the throttle controller for a new decision based on the feedback since the last one. */
+  private synchronized void updateThrottle(MergeThrottleController controller, long now) {
+    int effectiveMaxThreadCount = getEffectiveMaxThreadCount();
+    boolean backlog = mergeThreads.size() > effectiveMaxThreadCount;
+    for (int i = 0; backlog == false && i < mergeThreads.size(); i++) {
+      backlog = isBacklog(now, mergeThreads.get(i).merge);
+    }
+    MergeThrottleController.Signals signals =
+        new MergeThrottleController.Signals(
+            targetMBPerSec,
+            MIN_MERGE_MB_PER_SEC,
+            MAX_MERGE_MB_PER_SEC,
+            effectiveMaxThreadCount,
+            maxThreadCount,
+            mergeThreads.size(),
+            backlog,
+            throttleBytesWritten.sumThenReset(),
+            throttleWriteNS.sumThenReset(),
+            now - lastThrottleUpdateNS);
+    lastThrottleUpdateNS = now;
+    MergeThrottleController.Decision decision = controller.update(signals);
+    if (verbose()) {
+      message("io throttle: " + signals + " -> " + decision);
+    }
+    targetMBPerSec = decision.mbPerSec;
+    throttledMaxThreadCount = decision.maxThreadCount;
+    targetMBPerSecChanged();
+  }
+
   /** Subclass can override to tweak targetMBPerSec. */
   protected void targetMBPerSecChanged() {}
 
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@link TieredMergePolicy} that also takes the cost of searching segments into account when
+ * picking merges. Each segment gets an expected search cost from pluggable {@link
+ * SegmentCostSignal}s, such as its ratio of deleted documents, how many doc-values update
+ * generations it carries, or how hot it is for searches. Merging segments saves their cost, since
+ * the merged segment has no deletes or updates and queries visit one segment instead of several.
+ *
+ * <p>When the index is over its budget, candidate merges are scored like {@link TieredMergePolicy}
+ * does, and that score is divided by {@code 1 + costImportance * density}, where {@code density} is
+ * the expected search cost that the merge saves per merged byte, relative to the average cost per
+ * byte of the index. Merges that save a lot of search cost for few merged bytes are favored, while
+ * the tiered score still keeps merges balanced.
+ *
+ * <p>By default, the {@link #deletesSignal() deletes} and {@link #docValuesUpdatesSignal() doc
+ * values updates} signals are registered. Use {@link #addCostSignal} to register more signals, for
+ * instance {@link #searchHeatSignal}.
+ *
+ * @lucene.experimental
+ */
+public class CostBasedMergePolicy extends TieredMergePolicy {
+
+  /** Expected search cost of a segment, that merging it away would save. */
+  @FunctionalInterface
+  public interface SegmentCostSignal {
+    /**
+     * Returns a non-negative cost for the given segment, which has {@code delCount} deleted
+     * documents that a merge would reclaim.
+     */
+    double cost(SegmentCommitInfo info, int delCount) throws IOException;
+  }
+
+  /** The ratio of deleted documents of a segment, which searches still need to skip. */
+  public static SegmentCostSignal deletesSignal() {
+    return (info, delCount) -> (double) delCount / info.info.maxDoc();
+  }
+
+  /**
+   * The number of doc-values update generations of a segment, which searches on updated fields need
+   * to resolve.
+   */
+  public static SegmentCostSignal docValuesUpdatesSignal() {
+    return (info, delCount) -> Math.max(0, info.getDocValuesGen());
+  }
+
+  /** The share of hits that a segment contributes to searches, as recorded by {@code tracker}. */
+  public static SegmentCostSignal searchHeatSignal(SegmentHeatTracker tracker) {
+    return (info, delCount) -> tracker.getHeat(info.info.name);
+  }
+
+  /** Default weight of {@link #deletesSignal()}. */
+  public static final double DEFAULT_DELETES_WEIGHT = 1.0;
+
+  /** Default weight of {@link #docValuesUpdatesSignal()}. */
+  public static final double DEFAULT_DOC_VALUES_UPDATES_WEIGHT = 0.25;
+
+  /** Default importance of search cost compared to the tiered merge score. */
+  public static final double DEFAULT_COST_IMPORTANCE = 1.0;
+
+  private final List<SegmentCostSignal> signals = new ArrayList<>();
+  private final List<Double> weights = new ArrayList<>();
+  private double costImportance = DEFAULT_COST_IMPORTANCE;
+
+  /** Creates a policy with the default signals. */
+  public CostBasedMergePolicy() {
+    addCostSignal(deletesSignal(), DEFAULT_DELETES_WEIGHT);
+    addCostSignal(docValuesUpdatesSignal(), DEFAULT_DOC_VALUES_UPDATES_WEIGHT);
+  }
+
+  /** Registers a cost signal with the given weight. */
+  public CostBasedMergePolicy addCostSignal(SegmentCostSignal signal, double weight) {
+    if (weight >= 0 == false) {
+      throw new IllegalArgumentException("weight must be >= 0; got: " + weight);
+    }
+    signals.add(signal);
+    weights.add(weight);
+    return this;
+  }
+
+  /** Removes all cost signals, including the default ones. */
+  public CostBasedMergePolicy clearCostSignals() {
+    signals.clear();
+    weights.clear();
+    return this;
+  }
+
+  /**
+   * Sets how much the expected search cost matters compared to the tiered merge score. {@code 0}
+   * makes this policy behave like {@link TieredMergePolicy}. Default is {@link
+   * #DEFAULT_COST_IMPORTANCE}.
+   */
+  public CostBasedMergePolicy setCostImportance(double costImportance) {
+    if (costImportance >= 0 == false) {
+      throw new IllegalArgumentException("costImportance must be >= 0; got: " + costImportance);
+    }
+    this.costImportance = costImportance;
+    return this;
+  }
+
+  /**
+   * Returns the current costImportance setting.
+   *
+   * @see #setCostImportance
+   */
+  public double getCostImportance() {
+    return costImportance;
+  }
+
+  /** Returns the weighted sum of the cost signals of the given segment. */
+  protected double cost(SegmentCommitInfo info, int delCount) throws IOException {
+    double cost = 0;
+    for (int i = 0; i < signals.size(); i++) {
+      cost += weights.get(i) * signals.get(i).cost(info, delCount);
+    }
+    return cost;
+  }
+
+  @Override
+  protected MergeScore score(
+      List<SegmentCommitInfo> candidate,
+      boolean hitTooLarge,
+      Map<SegmentCommitInfo, SegmentSizeAndDocs> segmentsSizes)
+      throws IOException {
+    final MergeScore tieredScore = super.score(candidate, hitTooLarge, segmentsSizes);
+    if (costImportance == 0 || signals.isEmpty()) {
+      return tieredScore;
+    }
+
+    // segmentsSizes has all segments that are eligible for merging
+    double totalCost = 0;
+    long totalBytes = 0;
+    for (SegmentSizeAndDocs segSizeDocs : segmentsSizes.values()) {
+      totalCost += cost(segSizeDocs.segInfo, segSizeDocs.delCount);
+      totalBytes += segSizeDocs.sizeInBytes;
+    }
+    double savedCost = 0;
+    long mergeBytes = 0;
+    for (SegmentCommitInfo info : candidate) {
+      SegmentSizeAndDocs segSizeDocs = segmentsSizes.get(info);
+      savedCost += cost(info, segSizeDocs.delCount);
+      mergeBytes += segSizeDocs.sizeInBytes;
+    }
+
+    final double density;
+    if (totalCost <= 0 || totalBytes <= 0) {
+      density = 0;
+    } else {
+      density = (savedCost / Math.max(1, mergeBytes)) / (totalCost / totalBytes);
+    }
+    final double score = tieredScore.getScore() / (1 + costImportance * density);
+    final double finalSavedCost = savedCost;
+
+    return new MergeScore() {
+      @Override
+      double getScore() {
+        return score;
+      }
+
+      @Override
+      String getExplanation() {
+        return tieredScore.getExplanation()
+            + " savedCost="
+            + String.format(Locale.ROOT, "%.3f", finalSavedCost)
+            + " costDensity="
+            + String.format(Locale.ROOT, "%.3f", density);
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return super.toString()
+        + ", costImportance="
+        + costImportance
+        + ", numCostSignals="
+        + signals.size();
+  }
+}
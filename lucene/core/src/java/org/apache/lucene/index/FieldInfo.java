@@ -529,7 +529,7 @@ public final class FieldInfo {
   }
 
   /** Get a codec attribute value, or null if it does not exist */
-  public String getAttribute(String key) {
+  public synchronized String getAttribute(String key) {
     return attributes.get(key);
   }
 
@@ -543,8 +543,11 @@ public final class FieldInfo {
    * <p>If a value already exists for the key in the field, it will be replaced with the new value.
    * If the value of the attributes for a same field is changed between the documents, the behaviour
    * after merge is undefined.
+   *
+   * <p>This method is thread-safe since different formats may put attributes concurrently while a
+   * segment is merged.
    */
-  public String putAttribute(String key, String value) {
+  public synchronized String putAttribute(String key, String value) {
     return attributes.put(key, value);
   }
 
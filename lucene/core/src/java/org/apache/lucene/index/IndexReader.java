@@ -318,6 +318,17 @@ public abstract class IndexReader implements Closeable {
    */
   public abstract void document(int docID, StoredFieldVisitor visitor) throws IOException;
 
+  /**
+   * Expert: hint that the stored fields of document <code>docID</code> are going to be loaded soon,
+   * so that the index may start reading them in the background. Calling this for all hits of a page
+   * before loading their documents overlaps their I/O, which helps on high-latency storage. The
+   * default implementation does nothing.
+   *
+   * @see org.apache.lucene.store.IndexInput#prefetch
+   * @lucene.experimental
+   */
+  public void prefetchDocument(int docID) throws IOException {}
+
   /**
    * Returns the stored fields of the <code>n</code><sup>th</sup> <code>Document</code> in this
    * index. This is just sugar for using {@link DocumentStoredFieldVisitor}.
@@ -25,7 +25,9 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -92,11 +94,15 @@ public abstract class MergePolicy {
 
     /**
      * This field is for sanity-check purposes only. Only the same thread that invoked {@link
-     * OneMerge#mergeInit()} is permitted to be calling {@link #pauseNanos}. This is always verified
-     * at runtime.
+     * OneMerge#mergeInit()}, or a helper thread that is currently running a part of this merge on
+     * its behalf, is permitted to be calling {@link #pauseNanos}. This is always verified at
+     * runtime.
      */
     private Thread owner;
 
+    /** Threads that are currently running parts of this merge on behalf of the owner. */
+    private final Set<Thread> helpers = ConcurrentHashMap.newKeySet();
+
     /** Creates a new merge progress info. */
     public OneMergeProgress() {
       // Place all the pause reasons in there immediately so that we can simply update values.
@@ -133,9 +139,9 @@ public abstract class MergePolicy {
      */
     public void pauseNanos(long pauseNanos, PauseReason reason, BooleanSupplier condition)
         throws InterruptedException {
-      if (Thread.currentThread() != owner) {
+      if (Thread.currentThread() != owner && helpers.contains(Thread.currentThread()) == false) {
         throw new RuntimeException(
-            "Only the merge owner thread can call pauseNanos(). This thread: "
+            "Only the merge owner or helper threads can call pauseNanos(). This thread: "
                 + Thread.currentThread().getName()
                 + ", owner thread: "
                 + owner);
@@ -175,6 +181,34 @@ public abstract class MergePolicy {
       assert this.owner == null;
       this.owner = owner;
     }
+
+    /**
+     * Returns true if the calling thread is the owner of this merge or a helper thread that is
+     * running a part of it.
+     */
+    final boolean isMergeThread(Thread thread) {
+      return thread == owner || helpers.contains(thread);
+    }
+
+    /**
+     * Wraps the given executor so that the threads running tasks for this merge are registered as
+     * helper threads while they do so.
+     */
+    final Executor wrapHelperExecutor(Executor executor) {
+      return task ->
+          executor.execute(
+              () -> {
+                final Thread thread = Thread.currentThread();
+                final boolean added = thread != owner && helpers.add(thread);
+                try {
+                  task.run();
+                } finally {
+                  if (added) {
+                    helpers.remove(thread);
+                  }
+                }
+              });
+    }
   }
 
   /**
@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.lucene.index.MergePolicy.OneMergeProgress;
 import org.apache.lucene.index.MergePolicy.OneMergeProgress.PauseReason;
 import org.apache.lucene.store.RateLimiter;
@@ -39,6 +40,9 @@ public class MergeRateLimiter extends RateLimiter {
   private volatile double mbPerSec;
   private volatile long minPauseCheckBytes;
 
+  // Guards lastNS. Threads that write on behalf of the same merge take turns to pause, so that
+  // the rate applies to the bytes they write in aggregate rather than to each of them.
+  private final ReentrantLock pauseLock = new ReentrantLock();
   private long lastNS;
 
   private AtomicLong totalBytesWritten = new AtomicLong();
@@ -89,9 +93,14 @@ public class MergeRateLimiter extends RateLimiter {
     // is changed while we were pausing:
     long paused = 0;
     long delta;
-    while ((delta = maybePause(bytes, System.nanoTime())) >= 0) {
-      // Keep waiting.
-      paused += delta;
+    pauseLock.lock();
+    try {
+      while ((delta = maybePause(bytes, System.nanoTime())) >= 0) {
+        // Keep waiting.
+        paused += delta;
+      }
+    } finally {
+      pauseLock.unlock();
     }
 
     return paused;
@@ -18,6 +18,7 @@ package org.apache.lucene.index;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.concurrent.Executor;
 import org.apache.lucene.index.MergePolicy.OneMerge;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RateLimitedIndexOutput;
@@ -52,6 +53,19 @@ public abstract class MergeScheduler implements Closeable {
     return in;
   }
 
+  /**
+   * Returns the {@link Executor} that {@link IndexWriter} may use to merge the independent parts of
+   * a segment (postings, doc values, points, ...) concurrently, or {@code null} to merge them
+   * sequentially on the thread that runs the merge. Parts that the executor rejects are merged on
+   * that thread too. This method is called from the thread that runs the merge.
+   *
+   * @lucene.experimental
+   */
+  public Executor getIntraMergeExecutor(OneMerge merge) {
+    // Sequential by default.
+    return null;
+  }
+
   /** Close this MergeScheduler. */
   @Override
   public abstract void close() throws IOException;
@@ -91,6 +91,9 @@ public class MergeState {
   /** Indicates if the index needs to be sorted * */
   public boolean needsIndexSort;
 
+  // readers being merged, after sorting if the index is sorted
+  private final List<CodecReader> readers;
+
   /** Sole constructor. */
   MergeState(List<CodecReader> originalReaders, SegmentInfo segmentInfo, InfoStream infoStream)
       throws IOException {
@@ -100,7 +103,7 @@ public class MergeState {
     final Sort indexSort = segmentInfo.getIndexSort();
     int numReaders = originalReaders.size();
     leafDocMaps = new DocMap[numReaders];
-    List<CodecReader> readers = maybeSortReaders(originalReaders, segmentInfo);
+    readers = maybeSortReaders(originalReaders, segmentInfo);
 
     maxDocs = new int[numReaders];
     fieldsProducers = new FieldsProducer[numReaders];
@@ -120,45 +123,86 @@ public class MergeState {
       maxDocs[i] = reader.maxDoc();
       liveDocs[i] = reader.getLiveDocs();
       fieldInfos[i] = reader.getFieldInfos();
+      setMergeInstances(i, reader);
 
-      normsProducers[i] = reader.getNormsReader();
-      if (normsProducers[i] != null) {
-        normsProducers[i] = normsProducers[i].getMergeInstance();
-      }
+      numDocs += reader.numDocs();
+    }
 
-      docValuesProducers[i] = reader.getDocValuesReader();
-      if (docValuesProducers[i] != null) {
-        docValuesProducers[i] = docValuesProducers[i].getMergeInstance();
-      }
+    segmentInfo.setMaxDoc(numDocs);
 
-      storedFieldsReaders[i] = reader.getFieldsReader();
-      if (storedFieldsReaders[i] != null) {
-        storedFieldsReaders[i] = storedFieldsReaders[i].getMergeInstance();
-      }
+    this.segmentInfo = segmentInfo;
+    this.docMaps = buildDocMaps(readers, indexSort);
+  }
 
-      termVectorsReaders[i] = reader.getTermVectorsReader();
-      if (termVectorsReaders[i] != null) {
-        termVectorsReaders[i] = termVectorsReaders[i].getMergeInstance();
-      }
+  /**
+   * Creates a copy of the given merge state for a part of the merge that runs on another thread.
+   * Merge instances are acquired again from the readers, so this must be called on the thread that
+   * consumes the copy. Arrays are not shared, so that the copy can be restricted to a subset of
+   * fields, like per-field formats do, without affecting other parts of the merge. The given field
+   * infos are used as the field infos of the merged segment, since the ones of {@code other} may be
+   * temporarily restricted by a concurrent part of the merge.
+   */
+  MergeState(MergeState other, FieldInfos mergeFieldInfos) throws IOException {
+    this.readers = other.readers;
+    this.docMaps = other.docMaps;
+    this.leafDocMaps = other.leafDocMaps;
+    this.segmentInfo = other.segmentInfo;
+    this.mergeFieldInfos = mergeFieldInfos;
+    this.infoStream = other.infoStream;
+    this.needsIndexSort = other.needsIndexSort;
 
-      fieldsProducers[i] = reader.getPostingsReader().getMergeInstance();
-      pointsReaders[i] = reader.getPointsReader();
-      if (pointsReaders[i] != null) {
-        pointsReaders[i] = pointsReaders[i].getMergeInstance();
-      }
+    int numReaders = readers.size();
+    maxDocs = new int[numReaders];
+    fieldsProducers = new FieldsProducer[numReaders];
+    normsProducers = new NormsProducer[numReaders];
+    storedFieldsReaders = new StoredFieldsReader[numReaders];
+    termVectorsReaders = new TermVectorsReader[numReaders];
+    docValuesProducers = new DocValuesProducer[numReaders];
+    pointsReaders = new PointsReader[numReaders];
+    vectorReaders = new VectorReader[numReaders];
+    fieldInfos = new FieldInfos[numReaders];
+    liveDocs = new Bits[numReaders];
 
-      vectorReaders[i] = reader.getVectorReader();
-      if (vectorReaders[i] != null) {
-        vectorReaders[i] = vectorReaders[i].getMergeInstance();
-      }
+    for (int i = 0; i < numReaders; i++) {
+      final CodecReader reader = readers.get(i);
+      maxDocs[i] = reader.maxDoc();
+      liveDocs[i] = reader.getLiveDocs();
+      fieldInfos[i] = reader.getFieldInfos();
+      setMergeInstances(i, reader);
+    }
+  }
 
-      numDocs += reader.numDocs();
+  private void setMergeInstances(int i, CodecReader reader) throws IOException {
+    normsProducers[i] = reader.getNormsReader();
+    if (normsProducers[i] != null) {
+      normsProducers[i] = normsProducers[i].getMergeInstance();
     }
 
-    segmentInfo.setMaxDoc(numDocs);
+    docValuesProducers[i] = reader.getDocValuesReader();
+    if (docValuesProducers[i] != null) {
+      docValuesProducers[i] = docValuesProducers[i].getMergeInstance();
+    }
 
-    this.segmentInfo = segmentInfo;
-    this.docMaps = buildDocMaps(readers, indexSort);
+    storedFieldsReaders[i] = reader.getFieldsReader();
+    if (storedFieldsReaders[i] != null) {
+      storedFieldsReaders[i] = storedFieldsReaders[i].getMergeInstance();
+    }
+
+    termVectorsReaders[i] = reader.getTermVectorsReader();
+    if (termVectorsReaders[i] != null) {
+      termVectorsReaders[i] = termVectorsReaders[i].getMergeInstance();
+    }
+
+    fieldsProducers[i] = reader.getPostingsReader().getMergeInstance();
+    pointsReaders[i] = reader.getPointsReader();
+    if (pointsReaders[i] != null) {
+      pointsReaders[i] = pointsReaders[i].getMergeInstance();
+    }
+
+    vectorReaders[i] = reader.getVectorReader();
+    if (vectorReaders[i] != null) {
+      vectorReaders[i] = vectorReaders[i].getMergeInstance();
+    }
   }
 
   // Remap docIDs around deletions
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how fast merges may write and how many of them may run at once, based on feedback signals
+ * collected by {@link ConcurrentMergeScheduler}. This replaces the default auto IO throttle, which
+ * only looks at the merge backlog, when set with {@link
+ * ConcurrentMergeScheduler#setThrottleController}.
+ *
+ * <p>The scheduler calls {@link #decide} whenever a new merge starts, and at least every {@link
+ * #getUpdateIntervalMS()} milliseconds while merges are writing. The decisions that were made are
+ * exposed through the getters of this class so that they can be monitored.
+ *
+ * @see ProportionalMergeThrottleController
+ * @lucene.experimental
+ */
+public abstract class MergeThrottleController {
+
+  /** The state of merging and the feedback signals that a decision is based on. */
+  public static final class Signals {
+    /** The current per-merge IO rate limit. */
+    public final double mbPerSec;
+    /** The lowest IO rate limit the scheduler accepts. */
+    public final double minMBPerSec;
+    /** The highest IO rate limit the scheduler accepts. */
+    public final double maxMBPerSec;
+    /** The current number of merges that may run at once. */
+    public final int maxThreadCount;
+    /** The configured number of merges that may run at once, which is the upper bound. */
+    public final int maxThreadCountLimit;
+    /** The number of running merges. */
+    public final int activeMergeCount;
+    /** True if merges are falling behind, ie. similarly sized merges are running concurrently. */
+    public final boolean backlog;
+    /** The number of bytes that merges wrote since the previous decision. */
+    public final long bytesWritten;
+    /**
+     * The average time that merges spent in the write calls of their outputs per MB since the
+     * previous decision, or {@link Double#NaN} if no bytes were written. Pauses due to throttling
+     * and the work that merges do between writes are not counted, see {@link
+     * org.apache.lucene.store.RateLimiter#onWrite}.
+     */
+    public final double writeNanosPerMB;
+    /** How many nanoseconds elapsed since the previous decision. */
+    public final long elapsedNS;
+
+    /** Sole constructor. */
+    public Signals(
+        double mbPerSec,
+        double minMBPerSec,
+        double maxMBPerSec,
+        int maxThreadCount,
+        int maxThreadCountLimit,
+        int activeMergeCount,
+        boolean backlog,
+        long bytesWritten,
+        long writeNS,
+        long elapsedNS) {
+      this.mbPerSec = mbPerSec;
+      this.minMBPerSec = minMBPerSec;
+      this.maxMBPerSec = maxMBPerSec;
+      this.maxThreadCount = maxThreadCount;
+      this.maxThreadCountLimit = maxThreadCountLimit;
+      this.activeMergeCount = activeMergeCount;
+      this.backlog = backlog;
+      this.bytesWritten = bytesWritten;
+      this.writeNanosPerMB =
+          bytesWritten == 0 ? Double.NaN : writeNS / (bytesWritten / 1024. / 1024.);
+      this.elapsedNS = elapsedNS;
+    }
+
+    @Override
+    public String toString() {
+      return "Signals(mbPerSec="
+          + mbPerSec
+          + " maxThreadCount="
+          + maxThreadCount
+          + " activeMergeCount="
+          + activeMergeCount
+          + " backlog="
+          + backlog
+          + " bytesWritten="
+          + bytesWritten
+          + " writeNanosPerMB="
+          + writeNanosPerMB
+          + " elapsedNS="
+          + elapsedNS
+          + ")";
+    }
+  }
+
+  /** A throttling decision. */
+  public static final class Decision {
+    /** The new per-merge IO rate limit. */
+    public final double mbPerSec;
+    /** The new number of merges that may run at once. */
+    public final int maxThreadCount;
+
+    /** Sole constructor. */
+    public Decision(double mbPerSec, int maxThreadCount) {
+      this.mbPerSec = mbPerSec;
+      this.maxThreadCount = maxThreadCount;
+    }
+
+    @Override
+    public String toString() {
+      return "Decision(mbPerSec=" + mbPerSec + " maxThreadCount=" + maxThreadCount + ")";
+    }
+  }
+
+  private final long updateIntervalMS;
+
+  // metrics
+  private long updateCount;
+  private long rateIncreaseCount;
+  private long rateDecreaseCount;
+  private long threadCountChangeCount;
+  private Signals lastSignals;
+  private Decision lastDecision;
+
+  /**
+   * Sole constructor.
+   *
+   * @param updateIntervalMS how often, in milliseconds, to make decisions while merges are writing
+   */
+  protected MergeThrottleController(long updateIntervalMS) {
+    if (updateIntervalMS <= 0) {
+      throw new IllegalArgumentException("updateIntervalMS must be > 0; got: " + updateIntervalMS);
+    }
+    this.updateIntervalMS = updateIntervalMS;
+  }
+
+  /**
+   * Returns the new IO rate limit and number of merges that may run at once. The scheduler clamps
+   * the rate to [{@link Signals#minMBPerSec}, {@link Signals#maxMBPerSec}] and the number of
+   * threads to [1, {@link Signals#maxThreadCountLimit}].
+   */
+  protected abstract Decision decide(Signals signals);
+
+  /** Makes a decision and records it. */
+  final synchronized Decision update(Signals signals) {
+    Decision decision = decide(signals);
+    double mbPerSec =
+        Math.max(signals.minMBPerSec, Math.min(signals.maxMBPerSec, decision.mbPerSec));
+    int maxThreadCount =
+        Math.max(1, Math.min(signals.maxThreadCountLimit, decision.maxThreadCount));
+    decision = new Decision(mbPerSec, maxThreadCount);
+    updateCount++;
+    if (mbPerSec > signals.mbPerSec) {
+      rateIncreaseCount++;
+    } else if (mbPerSec < signals.mbPerSec) {
+      rateDecreaseCount++;
+    }
+    if (maxThreadCount != signals.maxThreadCount) {
+      threadCountChangeCount++;
+    }
+    lastSignals = signals;
+    lastDecision = decision;
+    return decision;
+  }
+
+  /** Returns how often, in milliseconds, decisions are made while merges are writing. */
+  public final long getUpdateIntervalMS() {
+    return updateIntervalMS;
+  }
+
+  final long getUpdateIntervalNS() {
+    return TimeUnit.MILLISECONDS.toNanos(updateIntervalMS);
+  }
+
+  /** Returns how many decisions were made. */
+  public final synchronized long getUpdateCount() {
+    return updateCount;
+  }
+
+  /** Returns how many decisions increased the IO rate limit. */
+  public final synchronized long getRateIncreaseCount() {
+    return rateIncreaseCount;
+  }
+
+  /** Returns how many decisions decreased the IO rate limit. */
+  public final synchronized long getRateDecreaseCount() {
+    return rateDecreaseCount;
+  }
+
+  /** Returns how many decisions changed the number of merges that may run at once. */
+  public final synchronized long getThreadCountChangeCount() {
+    return threadCountChangeCount;
+  }
+
+  /** Returns the signals of the last decision, or null if no decision was made yet. */
+  public final synchronized Signals getLastSignals() {
+    return lastSignals;
+  }
+
+  /** Returns the last decision, or null if no decision was made yet. */
+  public final synchronized Decision getLastDecision() {
+    return lastDecision;
+  }
+}
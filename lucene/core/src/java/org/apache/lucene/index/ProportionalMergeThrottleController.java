@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A {@link MergeThrottleController} that adjusts the merge IO rate limit in proportion to how far
+ * feedback signals are from their targets:
+ *
+ * <ul>
+ *   <li>search latency, as reported by a probe supplied with {@link #setSearchLatencyProbe}, e.g.
+ *       the 99th percentile latency of recent queries
+ *   <li>the time it takes merges to write a MB, see {@link #setTargetWriteMSPerMB}
+ * </ul>
+ *
+ * <p>The error is the largest relative deviation of these signals from their targets, eg. {@code
+ * 0.5} if search latency is 50% above its target. The rate is then multiplied by {@code 1 - gain *
+ * error}. Once the rate reaches its floor and signals are still above target, fewer merges are
+ * allowed to run at once; once it reaches its ceiling and signals are below target, more merges are
+ * allowed again. If no target is configured, or no signal is available, this controller only reacts
+ * to the merge backlog, like the default auto IO throttle does.
+ *
+ * @lucene.experimental
+ */
+public class ProportionalMergeThrottleController extends MergeThrottleController {
+
+  /** Default interval between decisions, in milliseconds. */
+  public static final long DEFAULT_UPDATE_INTERVAL_MS = 1000;
+
+  /** Default gain. */
+  public static final double DEFAULT_GAIN = 0.5;
+
+  private final double gain;
+  private volatile DoubleSupplier searchLatencyProbe;
+  private volatile double targetSearchLatencyMS = Double.NaN;
+  private volatile double targetWriteMSPerMB = Double.NaN;
+
+  /** Creates a controller with the default update interval and gain. */
+  public ProportionalMergeThrottleController() {
+    this(DEFAULT_UPDATE_INTERVAL_MS, DEFAULT_GAIN);
+  }
+
+  /**
+   * Creates a controller.
+   *
+   * @param updateIntervalMS how often, in milliseconds, to make decisions while merges are writing
+   * @param gain how strongly to react to deviations from targets, in (0, 1]
+   */
+  public ProportionalMergeThrottleController(long updateIntervalMS, double gain) {
+    super(updateIntervalMS);
+    if (gain > 0 == false || gain > 1) {
+      throw new IllegalArgumentException("gain must be in (0, 1]; got: " + gain);
+    }
+    this.gain = gain;
+  }
+
+  /**
+   * Sets a probe that returns the current search latency in milliseconds, and the latency that
+   * merges should not push it above. The probe is called from merge threads and must be cheap and
+   * thread-safe; it may return {@link Double#NaN} when it has no measurement. Pass a null probe to
+   * ignore search latency, which is the default.
+   */
+  public void setSearchLatencyProbe(DoubleSupplier probe, double targetLatencyMS) {
+    if (probe != null && targetLatencyMS > 0 == false) {
+      throw new IllegalArgumentException("targetLatencyMS must be > 0; got: " + targetLatencyMS);
+    }
+    this.targetSearchLatencyMS = probe == null ? Double.NaN : targetLatencyMS;
+    this.searchLatencyProbe = probe;
+  }
+
+  /**
+   * Sets how many milliseconds merges should spend at most in write calls to write a MB, see {@link
+   * Signals#writeNanosPerMB}. Higher values mean that the device can't keep up with writes. Pass
+   * {@link Double#NaN} to ignore write latency, which is the default.
+   */
+  public void setTargetWriteMSPerMB(double targetMSPerMB) {
+    if (Double.isNaN(targetMSPerMB) == false && targetMSPerMB > 0 == false) {
+      throw new IllegalArgumentException("targetMSPerMB must be > 0; got: " + targetMSPerMB);
+    }
+    this.targetWriteMSPerMB = targetMSPerMB;
+  }
+
+  /**
+   * Returns the relative deviation of the feedback signals from their targets, positive when merges
+   * should slow down, or {@link Double#NaN} if no signal is available.
+   */
+  protected double error(Signals signals) {
+    double error = Double.NaN;
+    final DoubleSupplier probe = searchLatencyProbe;
+    final double targetSearchLatencyMS = this.targetSearchLatencyMS;
+    if (probe != null && Double.isNaN(targetSearchLatencyMS) == false) {
+      double latencyMS = probe.getAsDouble();
+      if (latencyMS >= 0) {
+        error = latencyMS / targetSearchLatencyMS - 1;
+      }
+    }
+    final double targetWriteMSPerMB = this.targetWriteMSPerMB;
+    if (Double.isNaN(targetWriteMSPerMB) == false
+        && Double.isNaN(signals.writeNanosPerMB) == false) {
+      double writeError = signals.writeNanosPerMB / 1000000 / targetWriteMSPerMB - 1;
+      error = Double.isNaN(error) ? writeError : Math.max(error, writeError);
+    }
+    return error;
+  }
+
+  @Override
+  protected Decision decide(Signals signals) {
+    double error = error(signals);
+    final boolean hasSignal = Double.isNaN(error) == false;
+    if (hasSignal == false) {
+      // No signal: speed up when falling behind, else slow down, like the default throttle
+      error = signals.backlog ? -0.4 : 0.2;
+    } else if (error < 0 && signals.backlog == false) {
+      // Signals are below target but merges keep up: no need to write faster
+      error = 0;
+    }
+    error = Math.max(-1, Math.min(1, error));
+
+    double mbPerSec = signals.mbPerSec * (1 - gain * error);
+    int maxThreadCount = signals.maxThreadCount;
+    if (hasSignal && error > 0 && mbPerSec <= signals.minMBPerSec) {
+      // Slowest rate already, and still too much impact: run fewer merges at once
+      maxThreadCount--;
+    } else if (error < 0 && (mbPerSec >= signals.maxMBPerSec || hasSignal == false)) {
+      // Merges fall behind and may run at full speed: let held back merges run
+      maxThreadCount++;
+    }
+    return new Decision(mbPerSec, maxThreadCount);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+        + "(updateIntervalMS="
+        + getUpdateIntervalMS()
+        + " gain="
+        + gain
+        + " targetSearchLatencyMS="
+        + targetSearchLatencyMS
+        + " targetWriteMSPerMB="
+        + targetWriteMSPerMB
+        + ")";
+  }
+}
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -34,6 +35,7 @@ import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
 import org.apache.lucene.codecs.DocValuesFormat;
 import org.apache.lucene.codecs.FieldInfosFormat;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FlushInfo;
 import org.apache.lucene.store.IOContext;
@@ -47,6 +49,13 @@ import org.apache.lucene.util.InfoStream;
 // searching or merging), plus pending deletes and updates,
 // for a given segment
 final class ReadersAndUpdates {
+  // Doc values updates are written as sparse generations that only hold the updated docs, until
+  // a field has that many sparse generations...
+  static final int MAX_STACKED_GENS = 8;
+  // ... or until its sparse generations hold more than maxDoc / MAX_STACKED_DOCS_RATIO docs, in
+  // which case the field gets fully rewritten
+  static final int MAX_STACKED_DOCS_RATIO = 8;
+
   // Not final because we replace (clone) when we need to
   // change it and it's been shared:
   final SegmentCommitInfo info;
@@ -324,7 +333,27 @@ final class ReadersAndUpdates {
       final IOContext updatesContext = new IOContext(new FlushInfo(info.info.maxDoc(), bytes));
       final FieldInfo fieldInfo = infos.fieldInfo(field);
       assert fieldInfo != null;
-      fieldInfo.setDocValuesGen(nextDocValuesGen);
+      Function<FieldInfo, DocValuesFieldUpdates.Iterator> updateSupplier =
+          (info) -> {
+            if (info != fieldInfo) {
+              throw new IllegalArgumentException(
+                  "expected field info for field: " + fieldInfo.name + " but got: " + info.name);
+            }
+            DocValuesFieldUpdates.Iterator[] subs =
+                new DocValuesFieldUpdates.Iterator[updatesToApply.size()];
+            for (int i = 0; i < subs.length; i++) {
+              subs[i] = updatesToApply.get(i).iterator();
+            }
+            return DocValuesFieldUpdates.mergedIterator(subs);
+          };
+      final long stackedDocCount =
+          getStackableDocCount(reader, fieldInfo, type, updateSupplier.apply(fieldInfo));
+      final boolean stacked = stackedDocCount != -1;
+      if (stacked) {
+        StackedDocValuesProducer.pushStackedGen(fieldInfo, nextDocValuesGen, stackedDocCount);
+      } else {
+        StackedDocValuesProducer.clearStackedGens(fieldInfo, nextDocValuesGen);
+      }
       final FieldInfos fieldInfos = new FieldInfos(new FieldInfo[] {fieldInfo});
       // separately also track which files were created for this gen
       final TrackingDirectoryWrapper trackingDir = new TrackingDirectoryWrapper(dir);
@@ -332,21 +361,32 @@ final class ReadersAndUpdates {
           new SegmentWriteState(
               null, trackingDir, info.info, fieldInfos, null, updatesContext, segmentSuffix);
       try (final DocValuesConsumer fieldsConsumer = dvFormat.fieldsConsumer(state)) {
-        Function<FieldInfo, DocValuesFieldUpdates.Iterator> updateSupplier =
-            (info) -> {
-              if (info != fieldInfo) {
-                throw new IllegalArgumentException(
-                    "expected field info for field: " + fieldInfo.name + " but got: " + info.name);
-              }
-              DocValuesFieldUpdates.Iterator[] subs =
-                  new DocValuesFieldUpdates.Iterator[updatesToApply.size()];
-              for (int i = 0; i < subs.length; i++) {
-                subs[i] = updatesToApply.get(i).iterator();
-              }
-              return DocValuesFieldUpdates.mergedIterator(subs);
-            };
         pendingDeletes.onDocValuesUpdate(fieldInfo, updateSupplier.apply(fieldInfo));
-        if (type == DocValuesType.BINARY) {
+        if (stacked) {
+          // only write the updated docs, they are stacked on top of the existing generations at
+          // read time
+          if (type == DocValuesType.BINARY) {
+            fieldsConsumer.addBinaryField(
+                fieldInfo,
+                new EmptyDocValuesProducer() {
+                  @Override
+                  public BinaryDocValues getBinary(FieldInfo fieldInfoIn) {
+                    return DocValuesFieldUpdates.Iterator.asBinaryDocValues(
+                        updateSupplier.apply(fieldInfo));
+                  }
+                });
+          } else {
+            fieldsConsumer.addNumericField(
+                fieldInfo,
+                new EmptyDocValuesProducer() {
+                  @Override
+                  public NumericDocValues getNumeric(FieldInfo fieldInfoIn) {
+                    return DocValuesFieldUpdates.Iterator.asNumericDocValues(
+                        updateSupplier.apply(fieldInfo));
+                  }
+                });
+          }
+        } else if (type == DocValuesType.BINARY) {
           fieldsConsumer.addBinaryField(
               fieldInfo,
               new EmptyDocValuesProducer() {
@@ -443,8 +483,49 @@ final class ReadersAndUpdates {
       }
       info.advanceDocValuesGen();
       assert !fieldFiles.containsKey(fieldInfo.number);
-      fieldFiles.put(fieldInfo.number, trackingDir.getCreatedFiles());
+      final Set<String> files = new HashSet<>(trackingDir.getCreatedFiles());
+      if (stacked) {
+        // the generations below this one are still needed
+        Set<String> previousFiles = info.getDocValuesUpdatesFiles().get(fieldInfo.number);
+        if (previousFiles != null) {
+          files.addAll(previousFiles);
+        }
+      }
+      fieldFiles.put(fieldInfo.number, files);
+    }
+  }
+
+  /**
+   * Returns the number of documents that the given updates touch if they can be written as a sparse
+   * generation on top of the current doc values of the field, or -1 if the field needs to be fully
+   * rewritten. Full rewrites are required if the segment doesn't have values for the field yet or
+   * if some documents get their values reset, and they compact the field once it has too many
+   * sparse generations or once these generations hold too many documents.
+   */
+  private long getStackableDocCount(
+      SegmentReader reader,
+      FieldInfo fieldInfo,
+      DocValuesType type,
+      DocValuesFieldUpdates.Iterator iterator) {
+    final FieldInfo existing = reader.getFieldInfos().fieldInfo(fieldInfo.name);
+    if (iterator == null
+        || existing == null
+        || existing.getDocValuesType() != type
+        || StackedDocValuesProducer.getStackedGenCount(fieldInfo) >= MAX_STACKED_GENS) {
+      return -1;
+    }
+    final long maxStackedDocCount =
+        info.info.maxDoc() / MAX_STACKED_DOCS_RATIO
+            - StackedDocValuesProducer.getStackedDocCount(fieldInfo);
+    long docCount = 0;
+    for (int doc = iterator.nextDoc();
+        doc != DocIdSetIterator.NO_MORE_DOCS;
+        doc = iterator.nextDoc()) {
+      if (iterator.hasValue() == false || ++docCount > maxStackedDocCount) {
+        return -1;
+      }
     }
+    return docCount;
   }
 
   /**
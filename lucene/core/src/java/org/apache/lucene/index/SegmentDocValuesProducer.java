@@ -69,24 +69,35 @@ class SegmentDocValuesProducer extends DocValuesProducer {
         if (fi.getDocValuesType() == DocValuesType.NONE) {
           continue;
         }
-        long docValuesGen = fi.getDocValuesGen();
-        if (docValuesGen == -1) {
-          if (baseProducer == null) {
-            // the base producer gets the original fieldinfos it wrote
-            baseProducer = segDocValues.getDocValuesProducer(docValuesGen, si, dir, coreInfos);
+        final long[] stackedGens = StackedDocValuesProducer.getStackedGens(fi);
+        final long[] gens = stackedGens == null ? new long[] {fi.getDocValuesGen()} : stackedGens;
+        final DocValuesProducer[] producers = new DocValuesProducer[gens.length];
+        for (int i = 0; i < gens.length; i++) {
+          long docValuesGen = gens[i];
+          if (docValuesGen == -1) {
+            if (baseProducer == null) {
+              // the base producer gets the original fieldinfos it wrote
+              baseProducer = segDocValues.getDocValuesProducer(docValuesGen, si, dir, coreInfos);
+              dvGens.add(docValuesGen);
+              dvProducers.add(baseProducer);
+            }
+            producers[i] = baseProducer;
+          } else {
+            assert !dvGens.contains(docValuesGen);
+            // otherwise, producer sees only the one fieldinfo it wrote
+            final DocValuesProducer dvp =
+                segDocValues.getDocValuesProducer(
+                    docValuesGen, si, dir, new FieldInfos(new FieldInfo[] {fi}));
             dvGens.add(docValuesGen);
-            dvProducers.add(baseProducer);
+            dvProducers.add(dvp);
+            producers[i] = dvp;
           }
-          dvProducersByField.put(fi.name, baseProducer);
+        }
+        if (producers.length == 1) {
+          dvProducersByField.put(fi.name, producers[0]);
         } else {
-          assert !dvGens.contains(docValuesGen);
-          // otherwise, producer sees only the one fieldinfo it wrote
-          final DocValuesProducer dvp =
-              segDocValues.getDocValuesProducer(
-                  docValuesGen, si, dir, new FieldInfos(new FieldInfo[] {fi}));
-          dvGens.add(docValuesGen);
-          dvProducers.add(dvp);
-          dvProducersByField.put(fi.name, dvp);
+          // sparse updates generations on top of a base generation
+          dvProducersByField.put(fi.name, new StackedDocValuesProducer(producers));
         }
       }
     } catch (Throwable t) {
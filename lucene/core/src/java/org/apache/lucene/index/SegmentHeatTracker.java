@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.lucene.search.IndexSearcher;
+
+/**
+ * Tracks how many hits each segment contributes to searches, in order to tell hot segments from
+ * cold ones. Register it on searchers with {@link IndexSearcher#setLeafHitsListener}, and pass it
+ * to {@link CostBasedMergePolicy#searchHeatSignal}. Segments are identified by name, so counts
+ * survive reopens. Call {@link #decay} periodically so that heat reflects recent searches, which
+ * also forgets segments that were merged away.
+ *
+ * @lucene.experimental
+ */
+public class SegmentHeatTracker implements IndexSearcher.LeafHitsListener {
+
+  private final Map<String, AtomicLong> hits = new ConcurrentHashMap<>();
+  private final AtomicLong totalHits = new AtomicLong();
+
+  /** Sole constructor. */
+  public SegmentHeatTracker() {}
+
+  @Override
+  public void onLeafHits(LeafReaderContext context, long hitCount) {
+    LeafReader reader = FilterLeafReader.unwrap(context.reader());
+    if (reader instanceof SegmentReader && hitCount > 0) {
+      addHits(((SegmentReader) reader).getSegmentName(), hitCount);
+    }
+  }
+
+  /** Records {@code hitCount} hits on the given segment. */
+  public void addHits(String segmentName, long hitCount) {
+    if (hitCount < 0) {
+      throw new IllegalArgumentException("hitCount must be >= 0; got: " + hitCount);
+    }
+    hits.computeIfAbsent(segmentName, k -> new AtomicLong()).addAndGet(hitCount);
+    totalHits.addAndGet(hitCount);
+  }
+
+  /** Returns the number of hits recorded on the given segment. */
+  public long getHits(String segmentName) {
+    AtomicLong count = hits.get(segmentName);
+    return count == null ? 0 : count.get();
+  }
+
+  /** Returns the number of hits recorded on all segments. */
+  public long getTotalHits() {
+    return totalHits.get();
+  }
+
+  /** Returns the share of all recorded hits that the given segment contributed, between 0 and 1. */
+  public double getHeat(String segmentName) {
+    long total = totalHits.get();
+    return total == 0 ? 0 : Math.min(1, (double) getHits(segmentName) / total);
+  }
+
+  /**
+   * Multiplies all counts by {@code factor}, which must be in [0, 1), and forgets segments whose
+   * count drops to zero.
+   */
+  public void decay(double factor) {
+    if (factor >= 0 == false || factor >= 1) {
+      throw new IllegalArgumentException("factor must be in [0, 1); got: " + factor);
+    }
+    for (Iterator<AtomicLong> it = hits.values().iterator(); it.hasNext(); ) {
+      AtomicLong count = it.next();
+      long before, after;
+      do {
+        before = count.get();
+        after = (long) (before * factor);
+      } while (count.compareAndSet(before, after) == false);
+      totalHits.addAndGet(after - before);
+      if (after == 0) {
+        it.remove();
+      }
+    }
+  }
+}
@@ -17,7 +17,12 @@
 package org.apache.lucene.index;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesConsumer;
 import org.apache.lucene.codecs.FieldsConsumer;
@@ -29,7 +34,9 @@ import org.apache.lucene.codecs.TermVectorsWriter;
 import org.apache.lucene.codecs.VectorWriter;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.ThreadInterruptedException;
 import org.apache.lucene.util.Version;
 
 /**
@@ -47,6 +54,7 @@ final class SegmentMerger {
 
   final MergeState mergeState;
   private final FieldInfos.Builder fieldInfosBuilder;
+  private final Executor executor;
 
   // note, just like in codec apis Directory 'dir' is NOT the same as segmentInfo.dir!!
   SegmentMerger(
@@ -57,6 +65,23 @@ final class SegmentMerger {
       FieldInfos.FieldNumbers fieldNumbers,
       IOContext context)
       throws IOException {
+    this(readers, segmentInfo, infoStream, dir, fieldNumbers, context, null);
+  }
+
+  /**
+   * Creates a merger that merges the independent parts of the segment (postings, doc values,
+   * points, vectors and term vectors) concurrently on the given executor, or sequentially on the
+   * calling thread if the executor is null.
+   */
+  SegmentMerger(
+      List<CodecReader> readers,
+      SegmentInfo segmentInfo,
+      InfoStream infoStream,
+      Directory dir,
+      FieldInfos.FieldNumbers fieldNumbers,
+      IOContext context,
+      Executor executor)
+      throws IOException {
     if (context.context != IOContext.Context.MERGE) {
       throw new IllegalArgumentException(
           "IOContext.context should be MERGE; got: " + context.context);
@@ -66,6 +91,7 @@ final class SegmentMerger {
     this.codec = segmentInfo.getCodec();
     this.context = context;
     this.fieldInfosBuilder = new FieldInfos.Builder(fieldNumbers);
+    this.executor = executor;
     Version minVersion = Version.LATEST;
     for (CodecReader reader : readers) {
       Version leafMinVersion = reader.getMetaData().getMinVersion();
@@ -129,28 +155,43 @@ final class SegmentMerger {
             IOContext.READ,
             segmentWriteState.segmentSuffix);
 
-    if (mergeState.mergeFieldInfos.hasNorms()) {
-      mergeWithLogging(() -> mergeNorms(segmentWriteState), "norms", numMerged);
-    }
-
-    mergeWithLogging(() -> mergeTerms(segmentWriteState, segmentReadState), "postings", numMerged);
+    final List<MergePart> parts = new ArrayList<>();
+    // postings are merged after norms since they read the norms that were just written
+    parts.add(
+        state -> {
+          if (mergeState.mergeFieldInfos.hasNorms()) {
+            mergeWithLogging(() -> mergeNorms(segmentWriteState, state), "norms", numMerged);
+          }
+          mergeWithLogging(
+              () -> mergeTerms(segmentWriteState, segmentReadState, state), "postings", numMerged);
+        });
 
     if (mergeState.mergeFieldInfos.hasDocValues()) {
-      mergeWithLogging(() -> mergeDocValues(segmentWriteState), "doc values", numMerged);
+      parts.add(
+          state ->
+              mergeWithLogging(
+                  () -> mergeDocValues(segmentWriteState, state), "doc values", numMerged));
     }
 
     if (mergeState.mergeFieldInfos.hasPointValues()) {
-      mergeWithLogging(() -> mergePoints(segmentWriteState), "points", numMerged);
+      parts.add(
+          state ->
+              mergeWithLogging(() -> mergePoints(segmentWriteState, state), "points", numMerged));
     }
 
     if (mergeState.mergeFieldInfos.hasVectorValues()) {
-      mergeWithLogging(() -> mergeVectorValues(segmentWriteState), "numeric vectors", numMerged);
+      parts.add(
+          state ->
+              mergeWithLogging(
+                  () -> mergeVectorValues(segmentWriteState, state), "numeric vectors", numMerged));
     }
 
     if (mergeState.mergeFieldInfos.hasVectors()) {
-      mergeWithLogging(this::mergeTermVectors, "term vectors");
+      parts.add(state -> mergeWithLogging(() -> mergeTermVectors(state), "term vectors"));
     }
 
+    mergeParts(parts);
+
     // write the merged infos
     mergeWithLogging(
         () ->
@@ -163,25 +204,86 @@ final class SegmentMerger {
     return mergeState;
   }
 
-  private void mergeDocValues(SegmentWriteState segmentWriteState) throws IOException {
+  /**
+   * Runs the given parts, concurrently if an executor was provided. The first part runs on the
+   * calling thread, which then also runs any part that the executor did not start yet. This method
+   * only returns once all parts are done, and rethrows the first failure if any.
+   */
+  private void mergeParts(List<MergePart> parts) throws IOException {
+    if (executor == null || parts.size() == 1) {
+      for (MergePart part : parts) {
+        part.merge(mergeState);
+      }
+      return;
+    }
+
+    // per-field formats temporarily restrict the merge state to some fields, so the field infos
+    // are read before any part starts
+    final FieldInfos mergeFieldInfos = mergeState.mergeFieldInfos;
+    final List<FutureTask<Void>> tasks = new ArrayList<>();
+    for (MergePart part : parts) {
+      final boolean first = tasks.isEmpty();
+      tasks.add(
+          new FutureTask<>(
+              () -> {
+                // merge instances may only be consumed by the thread that acquired them, so parts
+                // that may run on another thread acquire their own, on the thread that runs them
+                part.merge(first ? mergeState : new MergeState(mergeState, mergeFieldInfos));
+                return null;
+              }));
+    }
+    Throwable firstThrowable = null;
+    for (int i = 1; i < tasks.size(); i++) {
+      try {
+        executor.execute(tasks.get(i));
+      } catch (RejectedExecutionException e) {
+        // the task will be run on this thread below
+      }
+    }
+    for (FutureTask<Void> task : tasks) {
+      // no-op if the task was already started by the executor
+      task.run();
+      // other parts may still be writing files, so keep waiting even if interrupted
+      while (true) {
+        try {
+          task.get();
+          break;
+        } catch (ExecutionException e) {
+          firstThrowable = IOUtils.useOrSuppress(firstThrowable, e.getCause());
+          break;
+        } catch (InterruptedException e) {
+          firstThrowable = IOUtils.useOrSuppress(firstThrowable, new ThreadInterruptedException(e));
+        }
+      }
+    }
+    if (firstThrowable != null) {
+      throw IOUtils.rethrowAlways(firstThrowable);
+    }
+  }
+
+  private void mergeDocValues(SegmentWriteState segmentWriteState, MergeState mergeState)
+      throws IOException {
     try (DocValuesConsumer consumer = codec.docValuesFormat().fieldsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
   }
 
-  private void mergePoints(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergePoints(SegmentWriteState segmentWriteState, MergeState mergeState)
+      throws IOException {
     try (PointsWriter writer = codec.pointsFormat().fieldsWriter(segmentWriteState)) {
       writer.merge(mergeState);
     }
   }
 
-  private void mergeNorms(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeNorms(SegmentWriteState segmentWriteState, MergeState mergeState)
+      throws IOException {
     try (NormsConsumer consumer = codec.normsFormat().normsConsumer(segmentWriteState)) {
       consumer.merge(mergeState);
     }
   }
 
-  private void mergeTerms(SegmentWriteState segmentWriteState, SegmentReadState segmentReadState)
+  private void mergeTerms(
+      SegmentWriteState segmentWriteState, SegmentReadState segmentReadState, MergeState mergeState)
       throws IOException {
     try (NormsProducer norms =
         mergeState.mergeFieldInfos.hasNorms()
@@ -226,7 +328,7 @@ final class SegmentMerger {
    *
    * @throws IOException if there is a low-level IO error
    */
-  private int mergeTermVectors() throws IOException {
+  private int mergeTermVectors(MergeState mergeState) throws IOException {
     try (TermVectorsWriter termVectorsWriter =
         codec.termVectorsFormat().vectorsWriter(directory, mergeState.segmentInfo, context)) {
       int numMerged = termVectorsWriter.merge(mergeState);
@@ -235,7 +337,8 @@ final class SegmentMerger {
     }
   }
 
-  private void mergeVectorValues(SegmentWriteState segmentWriteState) throws IOException {
+  private void mergeVectorValues(SegmentWriteState segmentWriteState, MergeState mergeState)
+      throws IOException {
     try (VectorWriter writer = codec.vectorFormat().fieldsWriter(segmentWriteState)) {
       writer.merge(mergeState);
     }
@@ -249,6 +352,10 @@ final class SegmentMerger {
     void merge() throws IOException;
   }
 
+  private interface MergePart {
+    void merge(MergeState mergeState) throws IOException;
+  }
+
   private int mergeWithLogging(Merger merger, String formatName) throws IOException {
     long t0 = 0;
     if (mergeState.infoStream.isEnabled("SM")) {
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * Exposes a numeric or binary doc values field whose updates have been written as sparse
+ * generations on top of a base generation. Each generation only holds the documents that were
+ * updated in it, and the value of a document is taken from the most recent generation that has it.
+ *
+ * <p>The generations that a field is stacked from are recorded in the {@link #STACKED_GENS_KEY}
+ * attribute of its {@link FieldInfo}, oldest first, as {@code base,gen:docCount,gen:docCount...}.
+ * The attribute is only valid if its last generation is the current doc values generation of the
+ * field: merges copy attributes but reset the generation, and full rewrites of the field remove it.
+ */
+final class StackedDocValuesProducer extends DocValuesProducer {
+
+  /** {@link FieldInfo} attribute that records the generations a field is stacked from. */
+  static final String STACKED_GENS_KEY = StackedDocValuesProducer.class.getSimpleName() + ".gens";
+
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(StackedDocValuesProducer.class);
+
+  /**
+   * Returns the base generation followed by the sparse generations stacked on top of it, oldest
+   * first, or null if the doc values of the given field are not stacked.
+   */
+  static long[] getStackedGens(FieldInfo fi) {
+    final String[] entries = getStackedEntries(fi);
+    if (entries == null) {
+      return null;
+    }
+    final long[] gens = new long[entries.length];
+    gens[0] = Long.parseLong(entries[0]);
+    for (int i = 1; i < entries.length; i++) {
+      gens[i] = Long.parseLong(entries[i].substring(0, entries[i].indexOf(':')));
+    }
+    return gens;
+  }
+
+  /** Returns the number of sparse generations of the given field. */
+  static int getStackedGenCount(FieldInfo fi) {
+    final String[] entries = getStackedEntries(fi);
+    return entries == null ? 0 : entries.length - 1;
+  }
+
+  /**
+   * Returns the sum of the number of documents of the sparse generations of the given field. A
+   * document that got updated in several generations is counted once per generation.
+   */
+  static long getStackedDocCount(FieldInfo fi) {
+    final String[] entries = getStackedEntries(fi);
+    if (entries == null) {
+      return 0;
+    }
+    long docCount = 0;
+    for (int i = 1; i < entries.length; i++) {
+      docCount += Long.parseLong(entries[i].substring(entries[i].indexOf(':') + 1));
+    }
+    return docCount;
+  }
+
+  /**
+   * Records that a sparse generation holding {@code docCount} documents is stacked on top of the
+   * current doc values of the given field, and makes it the doc values generation of the field.
+   */
+  static void pushStackedGen(FieldInfo fi, long gen, long docCount) {
+    final String previous =
+        getStackedEntries(fi) == null
+            ? Long.toString(fi.getDocValuesGen())
+            : fi.getAttribute(STACKED_GENS_KEY);
+    fi.setDocValuesGen(gen);
+    fi.putAttribute(STACKED_GENS_KEY, previous + "," + gen + ":" + docCount);
+  }
+
+  /** Records that the given field was fully rewritten into generation {@code gen}. */
+  static void clearStackedGens(FieldInfo fi, long gen) {
+    fi.setDocValuesGen(gen);
+    fi.attributes().remove(STACKED_GENS_KEY);
+  }
+
+  private static String[] getStackedEntries(FieldInfo fi) {
+    final String value = fi.getAttribute(STACKED_GENS_KEY);
+    if (value == null) {
+      return null;
+    }
+    final String[] entries = value.split(",");
+    final String last = entries[entries.length - 1];
+    if (entries.length < 2
+        || Long.parseLong(last.substring(0, last.indexOf(':'))) != fi.getDocValuesGen()) {
+      // stale, e.g. copied over from a segment that got merged
+      return null;
+    }
+    return entries;
+  }
+
+  private final DocValuesProducer[] producers;
+
+  /** Sole constructor, takes producers for the base and the sparse generations, oldest first. */
+  StackedDocValuesProducer(DocValuesProducer[] producers) {
+    this.producers = producers;
+  }
+
+  @Override
+  public NumericDocValues getNumeric(FieldInfo field) throws IOException {
+    final NumericDocValues[] values = new NumericDocValues[producers.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = producers[i].getNumeric(field);
+    }
+    final Stack stack = new Stack(values);
+    return new NumericDocValues() {
+      @Override
+      public long longValue() throws IOException {
+        return values[stack.current].longValue();
+      }
+
+      @Override
+      public boolean advanceExact(int target) throws IOException {
+        return stack.advanceExact(target);
+      }
+
+      @Override
+      public int docID() {
+        return stack.doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return stack.advance(stack.doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return stack.advance(target);
+      }
+
+      @Override
+      public long cost() {
+        return stack.cost();
+      }
+    };
+  }
+
+  @Override
+  public BinaryDocValues getBinary(FieldInfo field) throws IOException {
+    final BinaryDocValues[] values = new BinaryDocValues[producers.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = producers[i].getBinary(field);
+    }
+    final Stack stack = new Stack(values);
+    return new BinaryDocValues() {
+      @Override
+      public BytesRef binaryValue() throws IOException {
+        return values[stack.current].binaryValue();
+      }
+
+      @Override
+      public boolean advanceExact(int target) throws IOException {
+        return stack.advanceExact(target);
+      }
+
+      @Override
+      public int docID() {
+        return stack.doc;
+      }
+
+      @Override
+      public int nextDoc() throws IOException {
+        return stack.advance(stack.doc + 1);
+      }
+
+      @Override
+      public int advance(int target) throws IOException {
+        return stack.advance(target);
+      }
+
+      @Override
+      public long cost() {
+        return stack.cost();
+      }
+    };
+  }
+
+  @Override
+  public SortedDocValues getSorted(FieldInfo field) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public SortedNumericDocValues getSortedNumeric(FieldInfo field) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public SortedSetDocValues getSortedSet(FieldInfo field) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void checkIntegrity() throws IOException {
+    for (DocValuesProducer producer : producers) {
+      producer.checkIntegrity();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    throw new UnsupportedOperationException(); // there is separate ref tracking
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    // the producers are accounted for by SegmentDocValuesProducer
+    return BASE_RAM_BYTES_USED
+        + RamUsageEstimator.shallowSizeOf(producers)
+        + producers.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(producers=" + Arrays.toString(producers) + ")";
+  }
+
+  /** Positions iterators over the values of each generation, newest values win. */
+  private static final class Stack {
+    // oldest first
+    private final DocValuesIterator[] subs;
+    // whether each sub has a value if it is positioned on the current doc
+    private final boolean[] exists;
+    int doc = -1;
+    // index of the sub that holds the value of the current doc
+    int current = -1;
+
+    Stack(DocValuesIterator[] subs) {
+      this.subs = subs;
+      this.exists = new boolean[subs.length];
+    }
+
+    int advance(int target) throws IOException {
+      int min = DocIdSetIterator.NO_MORE_DOCS;
+      for (int i = subs.length - 1; i >= 0; --i) {
+        int subDoc = subs[i].docID();
+        if (subDoc < target) {
+          subDoc = subs[i].advance(target);
+        }
+        exists[i] = true;
+        if (subDoc < min) {
+          // strictly less so that newer generations win ties
+          min = subDoc;
+          current = i;
+        }
+      }
+      return doc = min;
+    }
+
+    boolean advanceExact(int target) throws IOException {
+      doc = target;
+      for (int i = subs.length - 1; i >= 0; --i) {
+        if (subs[i].docID() < target) {
+          exists[i] = subs[i].advanceExact(target);
+        }
+        if (subs[i].docID() == target && exists[i]) {
+          current = i;
+          return true;
+        }
+      }
+      return false;
+    }
+
+    long cost() {
+      long cost = 0;
+      for (DocValuesIterator sub : subs) {
+        cost += sub.cost();
+      }
+      return cost;
+    }
+  }
+}
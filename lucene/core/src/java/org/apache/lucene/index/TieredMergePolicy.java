@@ -261,12 +261,13 @@ public class TieredMergePolicy extends MergePolicy {
     return segsPerTier;
   }
 
-  private static class SegmentSizeAndDocs {
-    private final SegmentCommitInfo segInfo;
-    private final long sizeInBytes;
-    private final int delCount;
-    private final int maxDoc;
-    private final String name;
+  // package-private so that merge policies of this package can override score()
+  static class SegmentSizeAndDocs {
+    final SegmentCommitInfo segInfo;
+    final long sizeInBytes;
+    final int delCount;
+    final int maxDoc;
+    final String name;
 
     SegmentSizeAndDocs(SegmentCommitInfo info, final long sizeInBytes, final int segDelCount)
         throws IOException {
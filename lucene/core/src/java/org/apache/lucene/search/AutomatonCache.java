@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+
+/**
+ * A cache of the automata that {@link RegexpQuery} and {@link WildcardQuery} compile from their
+ * patterns. Parsing patterns and determinizing automata is often more costly than running the query
+ * itself, and applications tend to run the same patterns over and over again. Compiled automata are
+ * immutable and don't depend on the field, so they are shared across queries and threads.
+ *
+ * <p>Entries are keyed by the pattern and all the flags and limits that affect compilation, and are
+ * evicted in least-recently-used order once the memory usage of the cache exceeds its maximum.
+ * Patterns that fail to compile, for instance because they are too complex to determinize, are
+ * never cached. Queries use the cache that is returned by {@link #getDefault()}, which may be
+ * replaced, or disabled by setting it to {@code null}.
+ *
+ * <p>This cache exposes some statistics ({@link #getHitCount() hit count}, {@link #getMissCount()
+ * miss count}, {@link #getCacheSize() number of cache entries}, {@link #getEvictionCount() number
+ * of evicted entries}) that may help tune its size.
+ *
+ * @lucene.experimental
+ */
+public final class AutomatonCache implements Accountable {
+
+  /** Default maximum memory usage of the {@link #getDefault() default cache}: 16MB. */
+  public static final long DEFAULT_MAX_RAM_BYTES_USED = 16L * 1024 * 1024;
+
+  private static volatile AutomatonCache defaultCache =
+      new AutomatonCache(DEFAULT_MAX_RAM_BYTES_USED);
+
+  /** Return the cache that queries use by default, or {@code null} if caching is disabled. */
+  public static AutomatonCache getDefault() {
+    return defaultCache;
+  }
+
+  /** Set the cache that queries use by default, or {@code null} to disable caching. */
+  public static void setDefault(AutomatonCache cache) {
+    defaultCache = cache;
+  }
+
+  private final long maxRamBytesUsed;
+  // access-ordered, so that iteration starts with the least recently used entry
+  private final Map<List<Object>, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long ramBytesUsed;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /** Create a new cache that uses at most {@code maxRamBytesUsed} bytes of memory. */
+  public AutomatonCache(long maxRamBytesUsed) {
+    if (maxRamBytesUsed < 0) {
+      throw new IllegalArgumentException("maxRamBytesUsed must be >= 0, got " + maxRamBytesUsed);
+    }
+    this.maxRamBytesUsed = maxRamBytesUsed;
+  }
+
+  /**
+   * Return the cached entry for the given key, or compute it with the given supplier and cache it.
+   * The supplier is called without holding any lock, so that compiling a costly pattern doesn't
+   * block lookups of other patterns.
+   */
+  Entry get(List<Object> key, Supplier<Entry> supplier) {
+    synchronized (this) {
+      Entry entry = cache.get(key);
+      if (entry != null) {
+        hitCount++;
+        return entry;
+      }
+      missCount++;
+    }
+
+    final Entry entry = supplier.get();
+    final long entryRamBytesUsed = entry.ramBytesUsed() + ramBytesUsed(key);
+    if (entryRamBytesUsed > maxRamBytesUsed) {
+      // would evict everything else
+      return entry;
+    }
+
+    synchronized (this) {
+      Entry existing = cache.putIfAbsent(key, entry);
+      if (existing != null) {
+        // another thread compiled the same pattern concurrently
+        return existing;
+      }
+      entry.ramBytesUsedInCache = entryRamBytesUsed;
+      ramBytesUsed += entryRamBytesUsed;
+      for (Iterator<Entry> it = cache.values().iterator();
+          ramBytesUsed > maxRamBytesUsed && it.hasNext(); ) {
+        Entry eldest = it.next();
+        it.remove();
+        ramBytesUsed -= eldest.ramBytesUsedInCache;
+        evictionCount++;
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * Look up the given key in the {@link #getDefault() default cache}, or simply call the supplier
+   * if caching is disabled.
+   */
+  static Entry getOrCompile(List<Object> key, Supplier<Entry> supplier) {
+    final AutomatonCache cache = defaultCache;
+    if (cache == null) {
+      return supplier.get();
+    }
+    return cache.get(key, supplier);
+  }
+
+  private static long ramBytesUsed(List<Object> key) {
+    long ramBytesUsed = RamUsageEstimator.shallowSizeOf(key.toArray());
+    for (Object o : key) {
+      ramBytesUsed += RamUsageEstimator.sizeOfObject(o);
+    }
+    return ramBytesUsed;
+  }
+
+  /** Remove all entries from this cache. */
+  public synchronized void clear() {
+    cache.clear();
+    ramBytesUsed = 0;
+  }
+
+  @Override
+  public synchronized long ramBytesUsed() {
+    return ramBytesUsed;
+  }
+
+  /** Return the number of times that a compiled automaton was found in the cache. */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /** Return the number of times that an automaton had to be compiled. */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /** Return the number of entries that are currently in the cache. */
+  public synchronized long getCacheSize() {
+    return cache.size();
+  }
+
+  /** Return the number of entries that have been evicted to make room for new entries. */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /** An automaton together with its compiled form. */
+  static final class Entry implements Accountable {
+    final Automaton automaton;
+    final CompiledAutomaton compiled;
+    long ramBytesUsedInCache;
+
+    Entry(Automaton automaton, CompiledAutomaton compiled) {
+      this.automaton = automaton;
+      this.compiled = compiled;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return automaton.ramBytesUsed() + compiled.ramBytesUsed();
+    }
+  }
+}
@@ -96,12 +96,45 @@ public class AutomatonQuery extends MultiTermQuery implements Accountable {
    */
   public AutomatonQuery(
       final Term term, Automaton automaton, int maxDeterminizedStates, boolean isBinary) {
+    this(term, automaton, maxDeterminizedStates, isBinary, true);
+  }
+
+  /**
+   * Create a new AutomatonQuery from an {@link Automaton}.
+   *
+   * @param term Term containing field and possibly some pattern structure. The term text is
+   *     ignored.
+   * @param automaton Automaton to run, terms that are accepted are considered a match.
+   * @param maxDeterminizedStates maximum number of states in the resulting automata. If the
+   *     automata would need more than this many states TooComplextToDeterminizeException is thrown.
+   *     Higher number require more space but can process more complex automata.
+   * @param isBinary if true, this automaton is already binary and will not go through the
+   *     UTF32ToUTF8 conversion
+   * @param determinize if false, the automaton is not determinized up-front but lazily, as terms
+   *     get intersected with it, see {@link CompiledAutomaton#nfa}. This is useful for automata
+   *     that are costly or impossible to determinize.
+   */
+  public AutomatonQuery(
+      final Term term,
+      Automaton automaton,
+      int maxDeterminizedStates,
+      boolean isBinary,
+      boolean determinize) {
+    // TODO: we could take isFinite too, to save a bit of CPU in CompiledAutomaton ctor?:
+    this(
+        term,
+        automaton,
+        new CompiledAutomaton(automaton, null, true, maxDeterminizedStates, isBinary, determinize),
+        isBinary);
+  }
+
+  /** Create a new AutomatonQuery from an {@link Automaton} that has already been compiled. */
+  AutomatonQuery(Term term, Automaton automaton, CompiledAutomaton compiled, boolean isBinary) {
     super(term.field());
     this.term = term;
     this.automaton = automaton;
     this.automatonIsBinary = isBinary;
-    // TODO: we could take isFinite too, to save a bit of CPU in CompiledAutomaton ctor?:
-    this.compiled = new CompiledAutomaton(automaton, null, true, maxDeterminizedStates, isBinary);
+    this.compiled = compiled;
 
     this.ramBytesUsed =
         BASE_RAM_BYTES + term.ramBytesUsed() + automaton.ramBytesUsed() + compiled.ramBytesUsed();
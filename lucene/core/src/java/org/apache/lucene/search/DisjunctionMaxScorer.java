@@ -33,6 +33,10 @@ final class DisjunctionMaxScorer extends DisjunctionScorer {
 
   private final DisjunctionScoreBlockBoundaryPropagator disjunctionBlockPropagator;
 
+  // global max scores of sub scorers, lazily computed when the min competitive score is first set
+  private float[] subMaxScores;
+  private double sumOfSubMaxScores;
+
   /**
    * Creates a new instance of DisjunctionMaxScorer
    *
@@ -44,7 +48,7 @@ final class DisjunctionMaxScorer extends DisjunctionScorer {
   DisjunctionMaxScorer(
       Weight weight, float tieBreakerMultiplier, List<Scorer> subScorers, ScoreMode scoreMode)
       throws IOException {
-    super(weight, subScorers, scoreMode);
+    super(weight, subScorers, scoreMode, tieBreakerMultiplier > 0);
     this.subScorers = subScorers;
     this.tieBreakerMultiplier = tieBreakerMultiplier;
     if (tieBreakerMultiplier < 0 || tieBreakerMultiplier > 1) {
@@ -115,6 +119,60 @@ final class DisjunctionMaxScorer extends DisjunctionScorer {
       for (Scorer scorer : subScorers) {
         scorer.setMinCompetitiveScore(minScore);
       }
+    } else {
+      // sub scorers may now skip documents that match other clauses
+      setMinCompetitiveScoreOfMatches(minScore);
+      if (subMaxScores == null) {
+        subMaxScores = new float[subScorers.size()];
+        for (int i = 0; i < subMaxScores.length; ++i) {
+          subMaxScores[i] = subScorers.get(i).getMaxScore(DocIdSetIterator.NO_MORE_DOCS);
+          sumOfSubMaxScores += subMaxScores[i];
+        }
+        // account for the error of the sum, like getMaxScore
+        sumOfSubMaxScores *= (1 + 2 * MathUtil.sumRelativeErrorBound(subMaxScores.length));
+      }
+      for (int i = 0; i < subMaxScores.length; ++i) {
+        final float subMinScore = subMinCompetitiveScore(i, minScore);
+        if (subMinScore > 0) {
+          subScorers.get(i).setMinCompetitiveScore(subMinScore);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a score so that documents on which the i-th sub scorer produces a lower score can't be
+   * competitive, regardless of the scores of other sub scorers.
+   *
+   * <p>The score of a document is increasing with the score {@code s} of every sub scorer. Given
+   * the max scores of other sub scorers, the max score of a document is {@code max(s, maxOther) +
+   * tieBreakerMultiplier * (s + sumOther - max(s, maxOther))}. This method inverts this function.
+   */
+  private float subMinCompetitiveScore(int i, float minScore) {
+    double maxOther = 0;
+    for (int j = 0; j < subMaxScores.length; ++j) {
+      if (j != i) {
+        maxOther = Math.max(maxOther, subMaxScores[j]);
+      }
+    }
+    final double sumOther = sumOfSubMaxScores - subMaxScores[i];
+    final double tieBreaker = tieBreakerMultiplier;
+    double subMinScore;
+    if (maxOther + tieBreaker * sumOther >= minScore) {
+      // the sub score would not be the max
+      subMinScore = (minScore - (1 - tieBreaker) * maxOther - tieBreaker * sumOther) / tieBreaker;
+    } else {
+      subMinScore = minScore - tieBreaker * sumOther;
+    }
+    if (Double.isFinite(subMinScore) == false) {
+      // one of the sub scorers doesn't have a max score
+      return 0;
+    }
+    // scores are compared as floats, make sure to not round up
+    float f = (float) subMinScore;
+    if (f > subMinScore) {
+      f = Math.nextDown(f);
     }
+    return Math.max(0, f);
   }
 }
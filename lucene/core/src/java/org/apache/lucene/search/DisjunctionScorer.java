@@ -31,9 +31,22 @@ abstract class DisjunctionScorer extends Scorer {
   private final DocIdSetIterator approximation;
   private final BlockMaxDISI blockMaxApprox;
   private final TwoPhase twoPhase;
+  private final boolean checkScores;
+  private float minCompetitiveScore;
 
   protected DisjunctionScorer(Weight weight, List<Scorer> subScorers, ScoreMode scoreMode)
       throws IOException {
+    this(weight, subScorers, scoreMode, false);
+  }
+
+  /**
+   * Create a new disjunction. If {@code checkScores} is set and scores are computed with {@link
+   * ScoreMode#TOP_SCORES}, matches are also verified against the score passed to {@link
+   * #setMinCompetitiveScoreOfMatches(float)}.
+   */
+  protected DisjunctionScorer(
+      Weight weight, List<Scorer> subScorers, ScoreMode scoreMode, boolean checkScores)
+      throws IOException {
     super(weight);
     if (subScorers.size() <= 1) {
       throw new IllegalArgumentException("There must be at least 2 subScorers");
@@ -70,10 +83,16 @@ abstract class DisjunctionScorer extends Scorer {
       }
     }
 
-    if (hasApproximation == false) { // no sub scorer supports approximations
+    this.checkScores = checkScores && scoreMode == ScoreMode.TOP_SCORES;
+    if (hasApproximation == false && this.checkScores == false) {
+      // no sub scorer supports approximations
       twoPhase = null;
     } else {
-      final float matchCost = sumMatchCost / sumApproxCost;
+      float matchCost = sumMatchCost / sumApproxCost;
+      if (this.checkScores) {
+        // verifying the score requires scoring all matching clauses
+        matchCost += this.subScorers.size();
+      }
       twoPhase = new TwoPhase(approximation, matchCost);
     }
   }
@@ -99,6 +118,9 @@ abstract class DisjunctionScorer extends Scorer {
     DisiWrapper verifiedMatches;
     // priority queue of approximations on the current doc that have not been verified yet
     final PriorityQueue<DisiWrapper> unverifiedMatches;
+    // doc and score of the last match whose score was verified, so that it is not computed twice
+    int scoredDoc = -1;
+    float score;
 
     private TwoPhase(DocIdSetIterator approximation, float matchCost) {
       super(approximation);
@@ -126,6 +148,18 @@ abstract class DisjunctionScorer extends Scorer {
 
     @Override
     public boolean matches() throws IOException {
+      if (matchesApproximation() == false) {
+        return false;
+      }
+      if (minCompetitiveScore > 0) {
+        scoredDoc = docID();
+        score = score(getSubMatches());
+        return score >= minCompetitiveScore;
+      }
+      return true;
+    }
+
+    private boolean matchesApproximation() throws IOException {
       verifiedMatches = null;
       unverifiedMatches.clear();
 
@@ -176,6 +210,16 @@ abstract class DisjunctionScorer extends Scorer {
     return subScorers.top().doc;
   }
 
+  /**
+   * Skip matches that produce a score less than {@code minScore}. This must be called by sub
+   * classes that propagate the minimum competitive score to their sub scorers: sub scorers may then
+   * skip documents that still match other clauses, whose score would be incomplete.
+   */
+  void setMinCompetitiveScoreOfMatches(float minScore) {
+    assert checkScores;
+    this.minCompetitiveScore = minScore;
+  }
+
   BlockMaxDISI getBlockMaxApprox() {
     return blockMaxApprox;
   }
@@ -190,6 +234,9 @@ abstract class DisjunctionScorer extends Scorer {
 
   @Override
   public final float score() throws IOException {
+    if (twoPhase != null && twoPhase.scoredDoc == docID()) {
+      return twoPhase.score;
+    }
     return score(getSubMatches());
   }
 
@@ -46,7 +46,7 @@ import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.ThreadInterruptedException;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.ByteRunnable;
 
 /**
  * Implements search over a single IndexReader.
@@ -125,6 +125,7 @@ public class IndexSearcher {
 
   private QueryCache queryCache = DEFAULT_QUERY_CACHE;
   private QueryCachingPolicy queryCachingPolicy = DEFAULT_CACHING_POLICY;
+  private LeafHitsListener leafHitsListener;
 
   /**
    * Expert: returns a default Similarity instance. In general, this method is only called to
@@ -291,6 +292,42 @@ public class IndexSearcher {
     this.queryCachingPolicy = Objects.requireNonNull(queryCachingPolicy);
   }
 
+  /**
+   * Expert: receives the number of hits that each segment contributed to a search, for instance to
+   * let a merge policy know which segments are hot.
+   *
+   * @lucene.experimental
+   */
+  @FunctionalInterface
+  public interface LeafHitsListener {
+    /**
+     * Called after the given leaf was searched with the number of hits that were collected on it.
+     * This may be called concurrently if the searcher has an executor.
+     */
+    void onLeafHits(LeafReaderContext context, long hitCount);
+  }
+
+  /**
+   * Set a listener that is notified of the number of hits that each segment contributes to
+   * searches, or null to disable, which is the default. This method should be called <b>before</b>
+   * starting using this {@link IndexSearcher}.
+   *
+   * @lucene.experimental
+   */
+  public void setLeafHitsListener(LeafHitsListener leafHitsListener) {
+    this.leafHitsListener = leafHitsListener;
+  }
+
+  /**
+   * Return the listener that is notified of per-segment hit counts, or null if there is none.
+   *
+   * @see #setLeafHitsListener(LeafHitsListener)
+   * @lucene.experimental
+   */
+  public LeafHitsListener getLeafHitsListener() {
+    return leafHitsListener;
+  }
+
   /**
    * Return the query cache of this {@link IndexSearcher}. This will be either the {@link
    * #getDefaultQueryCachingPolicy() default policy} or the policy that was last set through {@link
@@ -731,8 +768,9 @@ public class IndexSearcher {
     // TODO: should we make this
     // threaded...? the Collector could be sync'd?
     // always use single thread:
+    final LeafHitsListener leafHitsListener = this.leafHitsListener;
     for (LeafReaderContext ctx : leaves) { // search each subreader
-      final LeafCollector leafCollector;
+      LeafCollector leafCollector;
       try {
         leafCollector = collector.getLeafCollector(ctx);
       } catch (CollectionTerminatedException e) {
@@ -740,6 +778,12 @@ public class IndexSearcher {
         // continue with the following leaf
         continue;
       }
+      final HitCountingLeafCollector hitCounter;
+      if (leafHitsListener != null) {
+        leafCollector = hitCounter = new HitCountingLeafCollector(leafCollector);
+      } else {
+        hitCounter = null;
+      }
       BulkScorer scorer = weight.bulkScorer(ctx);
       if (scorer != null) {
         try {
@@ -749,6 +793,29 @@ public class IndexSearcher {
           // continue with the following leaf
         }
       }
+      if (hitCounter != null) {
+        leafHitsListener.onLeafHits(ctx, hitCounter.hitCount);
+      }
+    }
+  }
+
+  /** Counts the hits that are collected on a leaf. */
+  private static final class HitCountingLeafCollector extends FilterLeafCollector {
+    long hitCount;
+
+    HitCountingLeafCollector(LeafCollector in) {
+      super(in);
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+      in.collect(doc);
+      hitCount++;
+    }
+
+    @Override
+    public DocIdSetIterator competitiveIterator() throws IOException {
+      return in.competitiveIterator();
     }
   }
 
@@ -803,7 +870,7 @@ public class IndexSearcher {
 
       @Override
       public void consumeTermsMatching(
-          Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+          Query query, String field, Supplier<ByteRunnable> automaton) {
         if (numClauses > maxClauseCount) {
           throw new TooManyClauses();
         }
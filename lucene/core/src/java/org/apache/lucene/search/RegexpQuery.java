@@ -16,9 +16,12 @@
  */
 package org.apache.lucene.search;
 
+import java.util.Arrays;
+import java.util.function.Supplier;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.automaton.AutomatonProvider;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
 import org.apache.lucene.util.automaton.Operations;
 import org.apache.lucene.util.automaton.RegExp;
 
@@ -131,11 +134,66 @@ public class RegexpQuery extends AutomatonQuery {
       int match_flags,
       AutomatonProvider provider,
       int maxDeterminizedStates) {
-    super(
+    this(term, syntax_flags, match_flags, provider, maxDeterminizedStates, true);
+  }
+
+  /**
+   * Constructs a query for terms matching <code>term</code>.
+   *
+   * @param term regular expression.
+   * @param syntax_flags optional RegExp features from {@link RegExp}
+   * @param match_flags boolean 'or' of match behavior options such as case insensitivity
+   * @param provider custom AutomatonProvider for named automata
+   * @param maxDeterminizedStates maximum number of states that compiling the automaton for the
+   *     regexp can result in. Set higher to allow more complex queries and lower to prevent memory
+   *     exhaustion.
+   * @param determinize if false, the automaton of the regexp is not determinized up-front but
+   *     lazily, while the terms dictionary is intersected with it. This allows running regexps that
+   *     would otherwise be too complex to determinize, and only pays for the states that the terms
+   *     actually visit.
+   */
+  public RegexpQuery(
+      Term term,
+      int syntax_flags,
+      int match_flags,
+      AutomatonProvider provider,
+      int maxDeterminizedStates,
+      boolean determinize) {
+    this(
         term,
-        new RegExp(term.text(), syntax_flags, match_flags)
-            .toAutomaton(provider, maxDeterminizedStates),
-        maxDeterminizedStates);
+        compile(term, syntax_flags, match_flags, provider, maxDeterminizedStates, determinize));
+  }
+
+  private RegexpQuery(Term term, AutomatonCache.Entry entry) {
+    super(term, entry.automaton, entry.compiled, false);
+  }
+
+  private static AutomatonCache.Entry compile(
+      Term term,
+      int syntax_flags,
+      int match_flags,
+      AutomatonProvider provider,
+      int maxDeterminizedStates,
+      boolean determinize) {
+    final String text = term.text();
+    final Supplier<AutomatonCache.Entry> compiler =
+        () -> {
+          Automaton automaton =
+              new RegExp(text, syntax_flags, match_flags)
+                  .toAutomaton(provider, maxDeterminizedStates, determinize);
+          return new AutomatonCache.Entry(
+              automaton,
+              new CompiledAutomaton(
+                  automaton, null, true, maxDeterminizedStates, false, determinize));
+        };
+    if (provider != defaultProvider) {
+      // named automata may change over time, don't cache them
+      return compiler.get();
+    }
+    return AutomatonCache.getOrCompile(
+        Arrays.asList(
+            RegexpQuery.class, text, syntax_flags, match_flags, maxDeterminizedStates, determinize),
+        compiler);
   }
 
   /** Returns the regexp of this query wrapped in a Term. */
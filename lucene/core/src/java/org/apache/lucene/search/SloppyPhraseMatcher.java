@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import org.apache.lucene.index.Impact;
 import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
 import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.similarities.Similarity.SimScorer;
@@ -99,41 +100,21 @@ public final class SloppyPhraseMatcher extends PhraseMatcher {
           new PhrasePositions(postings[i].postings, postings[i].position, i, postings[i].terms);
     }
 
-    approximation =
+    final DocIdSetIterator approximation =
         ConjunctionDISI.intersectIterators(
             Arrays.stream(postings).map(p -> p.postings).collect(Collectors.toList()));
-    // What would be a good upper bound of the sloppy frequency? A sum of the
-    // sub frequencies would be correct, but it is usually so much higher than
-    // the actual sloppy frequency that it doesn't help skip irrelevant
-    // documents. As a consequence for now, sloppy phrase queries use dummy
-    // impacts:
+    // Every match contributes at most 1 to the sloppy frequency, and there are at most as many
+    // matches as term positions (see maxFreq()), so the sum of the frequencies of the terms is an
+    // upper bound of the sloppy frequency. This is loose, but it still bounds scores of
+    // similarities that saturate term frequencies, and gets tighter on rare terms.
     final ImpactsSource impactsSource =
-        new ImpactsSource() {
-          @Override
-          public Impacts getImpacts() throws IOException {
-            return new Impacts() {
-
-              @Override
-              public int numLevels() {
-                return 1;
-              }
-
-              @Override
-              public List<Impact> getImpacts(int level) {
-                return Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
-              }
-
-              @Override
-              public int getDocIdUpTo(int level) {
-                return DocIdSetIterator.NO_MORE_DOCS;
-              }
-            };
-          }
-
-          @Override
-          public void advanceShallow(int target) throws IOException {}
-        };
+        sumImpacts(Arrays.stream(postings).map(p -> p.impacts).toArray(ImpactsEnum[]::new));
     impactsApproximation = new ImpactsDISI(approximation, impactsSource, scorer);
+    if (scoreMode == ScoreMode.TOP_SCORES) {
+      this.approximation = impactsApproximation;
+    } else {
+      this.approximation = approximation;
+    }
   }
 
   @Override
@@ -146,6 +127,120 @@ public final class SloppyPhraseMatcher extends PhraseMatcher {
     return impactsApproximation;
   }
 
+  /**
+   * Merge impacts for multiple terms of a sloppy phrase, by summing up the frequencies of the terms
+   * for every norm.
+   */
+  static ImpactsSource sumImpacts(ImpactsEnum[] impactsEnums) {
+    // Iteration of block boundaries uses the impacts enum with the lower cost.
+    // This is consistent with ExactPhraseMatcher#mergeImpacts.
+    int tmpLeadIndex = -1;
+    for (int i = 0; i < impactsEnums.length; ++i) {
+      if (tmpLeadIndex == -1 || impactsEnums[i].cost() < impactsEnums[tmpLeadIndex].cost()) {
+        tmpLeadIndex = i;
+      }
+    }
+    final int leadIndex = tmpLeadIndex;
+
+    return new ImpactsSource() {
+
+      @Override
+      public Impacts getImpacts() throws IOException {
+        final Impacts[] impacts = new Impacts[impactsEnums.length];
+        for (int i = 0; i < impactsEnums.length; ++i) {
+          impacts[i] = impactsEnums[i].getImpacts();
+        }
+        final Impacts lead = impacts[leadIndex];
+        return new Impacts() {
+
+          @Override
+          public int numLevels() {
+            // Delegate to the lead
+            return lead.numLevels();
+          }
+
+          @Override
+          public int getDocIdUpTo(int level) {
+            // Delegate to the lead
+            return lead.getDocIdUpTo(level);
+          }
+
+          @Override
+          public List<Impact> getImpacts(int level) {
+            final int docIdUpTo = getDocIdUpTo(level);
+
+            // Unlike for exact phrases, all terms contribute to the bound: if any of them doesn't
+            // have useful impacts up to docIdUpTo, then there is no bound.
+            final List<List<Impact>> impactLists = new ArrayList<>(impacts.length);
+            for (Impacts subImpacts : impacts) {
+              int subLevel = 0;
+              final int numLevels = subImpacts.numLevels();
+              while (subLevel < numLevels && subImpacts.getDocIdUpTo(subLevel) < docIdUpTo) {
+                ++subLevel;
+              }
+              if (subLevel == numLevels) {
+                return Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
+              }
+              final List<Impact> impactList = subImpacts.getImpacts(subLevel);
+              final Impact firstImpact = impactList.get(0);
+              if (firstImpact.freq == Integer.MAX_VALUE && firstImpact.norm == 1L) {
+                // Dummy impacts
+                return impactList;
+              }
+              impactLists.add(impactList);
+            }
+
+            // Impacts are sorted by increasing freq and unsigned norm. For every norm that appears
+            // in any of the lists, the maximum freq of a term in a document that has this norm is
+            // the freq of the last impact of this term whose norm is less than or equal to it.
+            // So the sum of these freqs is the maximum sloppy freq for this norm. Since freqs
+            // strictly increase within each list, so do sums.
+            final int[] upTo = new int[impactLists.size()];
+            final List<Impact> summedImpacts = new ArrayList<>();
+            while (true) {
+              boolean hasNext = false;
+              long norm = 0;
+              for (int i = 0; i < upTo.length; ++i) {
+                final List<Impact> impactList = impactLists.get(i);
+                if (upTo[i] < impactList.size()) {
+                  final long subNorm = impactList.get(upTo[i]).norm;
+                  if (hasNext == false || Long.compareUnsigned(subNorm, norm) < 0) {
+                    norm = subNorm;
+                    hasNext = true;
+                  }
+                }
+              }
+              if (hasNext == false) {
+                break;
+              }
+
+              long freq = 0;
+              for (int i = 0; i < upTo.length; ++i) {
+                final List<Impact> impactList = impactLists.get(i);
+                while (upTo[i] < impactList.size()
+                    && Long.compareUnsigned(impactList.get(upTo[i]).norm, norm) <= 0) {
+                  upTo[i]++;
+                }
+                if (upTo[i] > 0) {
+                  freq += impactList.get(upTo[i] - 1).freq;
+                }
+              }
+              summedImpacts.add(new Impact((int) Math.min(freq, Integer.MAX_VALUE), norm));
+            }
+            return summedImpacts;
+          }
+        };
+      }
+
+      @Override
+      public void advanceShallow(int target) throws IOException {
+        for (ImpactsEnum impactsEnum : impactsEnums) {
+          impactsEnum.advanceShallow(target);
+        }
+      }
+    };
+  }
+
   @Override
   float maxFreq() throws IOException {
     // every term position in each postings list can be at the head of at most
@@ -30,11 +30,13 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.PrefixCodedTerms;
 import org.apache.lucene.index.PrefixCodedTerms.TermIterator;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermState;
 import org.apache.lucene.index.TermStates;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.TermsEnum.SeekStatus;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.ArrayUtil;
@@ -274,27 +276,46 @@ public class TermInSetQuery extends Query implements Accountable {
         List<TermAndState> matchingTerms = new ArrayList<>(threshold);
         DocIdSetBuilder builder = null;
 
-        for (BytesRef term = iterator.next(); term != null; term = iterator.next()) {
+        // Both the query terms and the terms dictionary are sorted, so we leapfrog between them
+        // rather than seeking every query term independently: seekCeil positions the terms enum on
+        // the next indexed term, and all query terms that sort before it are skipped without
+        // touching the terms dictionary. This also stops early once query terms go past the
+        // greatest indexed term.
+        BytesRef term = iterator.next();
+        while (term != null) {
           assert field.equals(iterator.field());
-          if (termsEnum.seekExact(term)) {
-            if (matchingTerms == null) {
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
-              builder.add(docs);
-            } else if (matchingTerms.size() < threshold) {
-              matchingTerms.add(new TermAndState(field, termsEnum));
-            } else {
-              assert matchingTerms.size() == threshold;
-              builder = new DocIdSetBuilder(reader.maxDoc(), terms);
-              docs = termsEnum.postings(docs, PostingsEnum.NONE);
+          final SeekStatus status = termsEnum.seekCeil(term);
+          if (status == SeekStatus.END) {
+            break;
+          } else if (status == SeekStatus.NOT_FOUND) {
+            final BytesRef ceil = termsEnum.term();
+            do {
+              term = iterator.next();
+            } while (term != null && term.compareTo(ceil) < 0);
+            if (term == null || term.equals(ceil) == false) {
+              continue;
+            }
+            assert field.equals(iterator.field());
+          }
+          // the terms enum is positioned on the current query term
+          if (matchingTerms == null) {
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+          } else if (matchingTerms.size() < threshold) {
+            matchingTerms.add(new TermAndState(field, termsEnum));
+          } else {
+            assert matchingTerms.size() == threshold;
+            builder = new DocIdSetBuilder(reader.maxDoc(), terms);
+            docs = termsEnum.postings(docs, PostingsEnum.NONE);
+            builder.add(docs);
+            for (TermAndState t : matchingTerms) {
+              t.termsEnum.seekExact(t.term, t.state);
+              docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
               builder.add(docs);
-              for (TermAndState t : matchingTerms) {
-                t.termsEnum.seekExact(t.term, t.state);
-                docs = t.termsEnum.postings(docs, PostingsEnum.NONE);
-                builder.add(docs);
-              }
-              matchingTerms = null;
             }
+            matchingTerms = null;
           }
+          term = iterator.next();
         }
         if (matchingTerms != null) {
           assert builder == null;
@@ -356,8 +377,14 @@ public class TermInSetQuery extends Query implements Accountable {
       public boolean isCacheable(LeafReaderContext ctx) {
         // Only cache instances that have a reasonable size. Otherwise it might cause memory issues
         // with the query cache if most memory ends up being spent on queries rather than doc id
-        // sets.
-        return ramBytesUsed() <= RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED;
+        // sets. The query is only stored once for all segments, so instances that are no larger
+        // than a bit set over the whole index are fine: large filters, e.g. on ids, are typically
+        // reused and very costly to recompute.
+        final long maxRamBytesUsed =
+            Math.max(
+                RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED,
+                ReaderUtil.getTopLevelContext(ctx).reader().maxDoc() / Byte.SIZE);
+        return ramBytesUsed() <= maxRamBytesUsed;
       }
     };
   }
@@ -17,10 +17,12 @@
 package org.apache.lucene.search;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
 import org.apache.lucene.util.automaton.Operations;
 
 /**
@@ -47,7 +49,7 @@ public class WildcardQuery extends AutomatonQuery {
 
   /** Constructs a query for terms matching <code>term</code>. */
   public WildcardQuery(Term term) {
-    super(term, toAutomaton(term));
+    this(term, Operations.DEFAULT_MAX_DETERMINIZED_STATES);
   }
 
   /**
@@ -58,7 +60,37 @@ public class WildcardQuery extends AutomatonQuery {
    *     Higher number require more space but can process more complex automata.
    */
   public WildcardQuery(Term term, int maxDeterminizedStates) {
-    super(term, toAutomaton(term), maxDeterminizedStates);
+    this(term, maxDeterminizedStates, true);
+  }
+
+  /**
+   * Constructs a query for terms matching <code>term</code>.
+   *
+   * @param maxDeterminizedStates maximum number of states in the resulting automata. If the
+   *     automata would need more than this many states TooComplextToDeterminizeException is thrown.
+   *     Higher number require more space but can process more complex automata.
+   * @param determinize if false, the automaton of the pattern is not determinized up-front but
+   *     lazily, while the terms dictionary is intersected with it.
+   */
+  public WildcardQuery(Term term, int maxDeterminizedStates, boolean determinize) {
+    this(term, compile(term, maxDeterminizedStates, determinize));
+  }
+
+  private WildcardQuery(Term term, AutomatonCache.Entry entry) {
+    super(term, entry.automaton, entry.compiled, false);
+  }
+
+  private static AutomatonCache.Entry compile(
+      Term term, int maxDeterminizedStates, boolean determinize) {
+    return AutomatonCache.getOrCompile(
+        Arrays.asList(WildcardQuery.class, term.text(), maxDeterminizedStates, determinize),
+        () -> {
+          Automaton automaton = toAutomaton(term);
+          return new AutomatonCache.Entry(
+              automaton,
+              new CompiledAutomaton(
+                  automaton, null, true, maxDeterminizedStates, false, determinize));
+        });
   }
 
   /**
@@ -135,9 +135,19 @@ public class SpanScorer extends Scorer {
     return scoreCurrentDoc();
   }
 
+  /**
+   * Returns an upper bound of the score of {@link #scoreCurrentDoc}. Since the sloppy {@link #freq}
+   * of spans is not bounded by impacts, the default implementation returns the score of the
+   * similarity for an infinite frequency and the most competitive norm, which is finite for
+   * similarities that saturate term frequencies. Subclasses that override {@link #scoreCurrentDoc}
+   * must override this method too.
+   */
   @Override
   public float getMaxScore(int upTo) throws IOException {
-    return Float.POSITIVE_INFINITY;
+    if (docScorer == null) {
+      return Float.POSITIVE_INFINITY;
+    }
+    return docScorer.getSimScorer().score(Float.MAX_VALUE, 1L);
   }
 
   /**
@@ -49,6 +49,8 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
   private FloatBuffer[] curFloatBufferViews;
 
   protected boolean isClone = false;
+  // implements prefetch(), relative to the start of this input, or null
+  FilePrefetcher prefetcher;
 
   public static ByteBufferIndexInput newInstance(
       String resourceDescription,
@@ -334,6 +336,7 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
   @Override
   public final ByteBufferIndexInput clone() {
     final ByteBufferIndexInput clone = buildSlice((String) null, 0L, this.length);
+    clone.prefetcher = prefetcher;
     try {
       clone.seek(getFilePointer());
     } catch (IOException ioe) {
@@ -363,7 +366,27 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
               + this);
     }
 
-    return buildSlice(sliceDescription, offset, length);
+    final ByteBufferIndexInput slice = buildSlice(sliceDescription, offset, length);
+    slice.prefetcher = prefetcher == null ? null : prefetcher.slice(offset);
+    return slice;
+  }
+
+  @Override
+  public final void prefetch(long offset, long length) throws IOException {
+    if (offset < 0 || length < 0 || offset > this.length) {
+      throw new IllegalArgumentException(
+          "prefetch() out of bounds: offset="
+              + offset
+              + ",length="
+              + length
+              + ",fileLength="
+              + this.length
+              + ": "
+              + this);
+    }
+    if (prefetcher != null && buffers != null) {
+      prefetcher.prefetch(offset, Math.min(length, this.length - offset));
+    }
   }
 
   /** Builds the actual sliced IndexInput (may apply extra offset in subclasses). * */
@@ -432,8 +455,14 @@ public abstract class ByteBufferIndexInput extends IndexInput implements RandomA
 
       if (isClone) return;
 
-      // tell the guard to invalidate and later unmap the bytebuffers (if supported):
-      guard.invalidateAndUnmap(bufs);
+      try {
+        // tell the guard to invalidate and later unmap the bytebuffers (if supported):
+        guard.invalidateAndUnmap(bufs);
+      } finally {
+        if (prefetcher != null) {
+          prefetcher.close();
+        }
+      }
     } finally {
       unsetBuffers();
     }
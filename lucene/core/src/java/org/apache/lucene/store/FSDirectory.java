@@ -36,7 +36,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.util.Constants;
@@ -106,6 +108,9 @@ public abstract class FSDirectory extends BaseDirectory {
   /** Used to generate temp file names in {@link #createTempOutput}. */
   private final AtomicLong nextTempFileCounter = new AtomicLong();
 
+  /** Implements {@link IndexInput#prefetch} for subclasses that enable it, or null. */
+  private ThreadPoolExecutor prefetchExecutor;
+
   /**
    * Create a new FSDirectory for the named location (ctor for subclasses). The directory is created
    * at the named location if it does not yet exist.
@@ -281,7 +286,32 @@ public abstract class FSDirectory extends BaseDirectory {
   @Override
   public synchronized void close() throws IOException {
     isOpen = false;
-    deletePendingFiles();
+    try {
+      deletePendingFiles();
+    } finally {
+      setPrefetchEnabled(false);
+    }
+  }
+
+  /**
+   * Starts or stops the pool of threads that prefetches files in the background. Inputs that were
+   * opened with prefetching enabled stop prefetching once it is disabled.
+   */
+  synchronized void setPrefetchEnabled(boolean enabled) {
+    if (enabled) {
+      ensureOpen();
+      if (prefetchExecutor == null) {
+        prefetchExecutor = FilePrefetcher.newExecutor();
+      }
+    } else if (prefetchExecutor != null) {
+      FilePrefetcher.shutdown(prefetchExecutor);
+      prefetchExecutor = null;
+    }
+  }
+
+  /** Returns the executor that prefetches files in the background, or null if disabled. */
+  synchronized Executor getPrefetchExecutor() {
+    return prefetchExecutor;
   }
 
   /** @return the underlying filesystem directory */
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.ThreadInterruptedException;
+
+/**
+ * Implements {@link IndexInput#prefetch} for file-based directories by reading ranges of a file on
+ * a pool of background threads that belongs to the directory. This makes the operating system load
+ * them into its page cache, which backs both reads through a {@link FileChannel} and memory-mapped
+ * files, so that the query thread does not wait for the storage when it reads them later.
+ *
+ * <p>Prefetching is best-effort: when the pool is saturated or shut down, or when the file was
+ * closed or deleted in the meantime, prefetch requests are silently dropped.
+ */
+final class FilePrefetcher implements Closeable {
+
+  /** Maximum number of bytes that are read by a single call to {@link #prefetch}. */
+  static final int MAX_PREFETCH_BYTES = 1 << 20;
+
+  private static final int READ_BUFFER_SIZE = 16 * 1024;
+  private static final int MAX_QUEUED_PREFETCHES = 1024;
+
+  private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(READ_BUFFER_SIZE));
+
+  /**
+   * Creates the pool of threads that prefetches the files of a directory. Prefetches that can't be
+   * queued are dropped. The directory must release it with {@link #shutdown} when it is closed.
+   */
+  static ThreadPoolExecutor newExecutor() {
+    final int numThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    final ThreadFactory namedFactory = new NamedThreadFactory("Lucene Prefetch");
+    final ThreadFactory threadFactory =
+        r -> {
+          Thread t = namedFactory.newThread(r);
+          t.setDaemon(true);
+          return t;
+        };
+    final ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            numThreads,
+            numThreads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(MAX_QUEUED_PREFETCHES),
+            threadFactory,
+            new ThreadPoolExecutor.DiscardPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Shuts down a pool that was created with {@link #newExecutor}. Pending prefetches are dropped,
+   * and this method waits for running ones to complete so that no thread outlives the directory.
+   */
+  static void shutdown(ThreadPoolExecutor executor) {
+    executor.shutdown();
+    executor.getQueue().clear();
+    try {
+      while (executor.awaitTermination(1, TimeUnit.MINUTES) == false) {
+        // a prefetch reads at most MAX_PREFETCH_BYTES, keep waiting
+      }
+    } catch (InterruptedException e) {
+      throw new ThreadInterruptedException(e);
+    }
+  }
+
+  /**
+   * Returns a prefetcher that reads from {@code channel}, which the caller keeps open, on the given
+   * executor.
+   */
+  static FilePrefetcher forChannel(FileChannel channel, Executor executor) {
+    return new FilePrefetcher(channel, null, 0L, executor);
+  }
+
+  /**
+   * Returns a prefetcher that opens the file at {@code path} on the first prefetch, on the given
+   * executor. The file is closed when the returned prefetcher is closed, its slices share the same
+   * file and must not be closed.
+   */
+  static FilePrefetcher forPath(Path path, Executor executor) {
+    return new FilePrefetcher(null, new LazyChannel(path), 0L, executor);
+  }
+
+  private final FileChannel channel;
+  private final LazyChannel lazyChannel;
+  private final long baseOffset;
+  private final Executor executor;
+
+  private FilePrefetcher(
+      FileChannel channel, LazyChannel lazyChannel, long baseOffset, Executor executor) {
+    this.channel = channel;
+    this.lazyChannel = lazyChannel;
+    this.baseOffset = baseOffset;
+    this.executor = executor;
+  }
+
+  /** Returns a prefetcher whose offsets are relative to {@code offset}. */
+  FilePrefetcher slice(long offset) {
+    return offset == 0
+        ? this
+        : new FilePrefetcher(channel, lazyChannel, baseOffset + offset, executor);
+  }
+
+  /** Asynchronously reads up to {@link #MAX_PREFETCH_BYTES} bytes starting at {@code offset}. */
+  void prefetch(long offset, long length) {
+    if (length <= 0) {
+      return;
+    }
+    final long start = baseOffset + offset;
+    final long end = start + Math.min(length, MAX_PREFETCH_BYTES);
+    // dropped by the executor if it is saturated or was shut down
+    executor.execute(() -> read(start, end));
+  }
+
+  private void read(long start, long end) {
+    try {
+      final FileChannel fc = channel != null ? channel : lazyChannel.get();
+      if (fc != null) {
+        read(fc, start, end);
+      }
+    } catch (IOException ignored) {
+      // the file was closed or deleted, this was only a hint
+    }
+  }
+
+  private static void read(FileChannel fc, long start, long end) throws IOException {
+    final ByteBuffer buffer = READ_BUFFER.get();
+    long pos = start;
+    while (pos < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - pos));
+      final int n = fc.read(buffer, pos);
+      if (n < 0) {
+        break;
+      }
+      pos += n;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (lazyChannel != null) {
+      lazyChannel.close();
+    }
+  }
+
+  /** A channel that is opened on first use, so that inputs that never prefetch don't open it. */
+  private static final class LazyChannel implements Closeable {
+    private final Path path;
+    private FileChannel channel;
+    private boolean closed;
+
+    LazyChannel(Path path) {
+      this.path = path;
+    }
+
+    /** Returns the channel, or {@code null} if it was closed. */
+    synchronized FileChannel get() throws IOException {
+      if (closed) {
+        return null;
+      }
+      if (channel == null) {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+      }
+      return channel;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      closed = true;
+      if (channel != null) {
+        channel.close();
+      }
+    }
+  }
+}
@@ -134,6 +134,18 @@ public abstract class IndexInput extends DataInput implements Cloneable, Closeab
     }
   }
 
+  /**
+   * Optional method: hint that the bytes of this input between {@code offset} and {@code offset +
+   * length} are going to be read soon, so that implementations may start loading them in the
+   * background. This doesn't change the file pointer, and a prefetched range may be ignored or
+   * loaded only partially.
+   *
+   * <p>The default implementation does nothing.
+   *
+   * @lucene.experimental
+   */
+  public void prefetch(long offset, long length) throws IOException {}
+
   /**
    * Creates a random-access slice of this index input, with the given offset and length.
    *
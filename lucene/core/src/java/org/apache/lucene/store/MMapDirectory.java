@@ -33,9 +33,13 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.store.ByteBufferGuard.BufferCleaner;
 import org.apache.lucene.util.Constants;
+import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.SuppressForbidden;
 
 /**
@@ -75,12 +79,84 @@ import org.apache.lucene.util.SuppressForbidden;
  * Thread#interrupt()} or {@link Future#cancel(boolean)} you should use the legacy {@code
  * RAFDirectory} from the Lucene {@code misc} module in favor of {@link MMapDirectory}.
  *
+ * <p>How each file is opened can be tuned per file name and {@link IOContext} with {@link
+ * #setReadAdvice}, for instance to preload the terms index and norms, which every search hits, and
+ * to read merged segments sequentially. See {@link ReadAdvice}.
+ *
  * @see <a href="http://blog.thetaphi.de/2012/07/use-lucenes-mmapdirectory-on-64bit.html">Blog post
  *     about MMapDirectory</a>
  */
 public class MMapDirectory extends FSDirectory {
   private boolean useUnmapHack = UNMAP_SUPPORTED;
   private boolean preload;
+  private BiFunction<String, IOContext, ReadAdvice> readAdvice = NORMAL_READ_ADVICE;
+
+  /**
+   * How a file is expected to be read. Java offers no way to pass {@code madvise} hints for mapped
+   * files to the operating system, so each advice maps to the closest behavior that can be
+   * implemented on top of mapped buffers and file channels.
+   *
+   * @lucene.experimental
+   */
+  public enum ReadAdvice {
+    /**
+     * The file is mapped, and loaded into physical memory on open if {@link #setPreload preload} is
+     * enabled.
+     */
+    NORMAL,
+    /**
+     * The file is accessed randomly, eg. to look up stored fields of top hits: it is mapped, and
+     * never loaded into physical memory on open, even if {@link #setPreload preload} is enabled, so
+     * that it does not evict hotter pages.
+     */
+    RANDOM,
+    /**
+     * The file is read once from start to end, eg. by a merge: it is read through a {@link
+     * FileChannel} in chunks, like {@link NIOFSDirectory} does. Unlike page faults on a mapping,
+     * sequential reads trigger the operating system's read-ahead, and they don't take virtual
+     * address space.
+     */
+    SEQUENTIAL,
+    /**
+     * The file is accessed randomly by most searches, eg. the terms index or norms: it is mapped
+     * and loaded into physical memory on open, so that the first searches after opening a reader do
+     * not pay for page faults.
+     *
+     * @see MappedByteBuffer#load
+     */
+    PRELOAD
+  }
+
+  /** {@link ReadAdvice#NORMAL} for all files. This is the default. */
+  public static final BiFunction<String, IOContext, ReadAdvice> NORMAL_READ_ADVICE =
+      (name, context) -> ReadAdvice.NORMAL;
+
+  /**
+   * {@link ReadAdvice#SEQUENTIAL} for files opened by merges, {@link ReadAdvice#PRELOAD} for the
+   * terms index and norms, {@link ReadAdvice#RANDOM} for stored fields and {@link
+   * ReadAdvice#NORMAL} for other files. Note that files that are stored in a compound file are only
+   * seen as the compound file, which gets {@link ReadAdvice#NORMAL} for searches.
+   */
+  public static final BiFunction<String, IOContext, ReadAdvice>
+      BASED_ON_FILE_EXTENSION_AND_CONTEXT =
+          (name, context) -> {
+            if (context.context == IOContext.Context.MERGE) {
+              return ReadAdvice.SEQUENTIAL;
+            }
+            final String extension = IndexFileNames.getExtension(name);
+            if (extension == null) {
+              return ReadAdvice.NORMAL;
+            }
+            switch (extension) {
+              case "tip": // terms index
+              case "nvd": // norms
+                return ReadAdvice.PRELOAD;
+              case "fdt": // stored fields
+                return ReadAdvice.RANDOM;
+              default:
+                return ReadAdvice.NORMAL;
+            }
+          };
 
   /**
    * Default max chunk size.
@@ -215,6 +291,48 @@ public class MMapDirectory extends FSDirectory {
     return preload;
   }
 
+  /**
+   * Set to {@code true} to implement {@link IndexInput#prefetch} by reading prefetched ranges on a
+   * pool of background threads, which loads them into the operating system's page cache that backs
+   * mapped files. This helps on high-latency storage when queries read from several places of the
+   * index, at the cost of some extra reads. This only applies to inputs that are opened after this
+   * call. The threads are stopped when prefetching is disabled or when this directory is closed.
+   *
+   * @lucene.experimental
+   */
+  public void setPrefetch(boolean prefetch) {
+    setPrefetchEnabled(prefetch);
+  }
+
+  /**
+   * Returns {@code true} if inputs prefetch ranges in the background.
+   *
+   * @see #setPrefetch
+   */
+  public boolean getPrefetch() {
+    return getPrefetchExecutor() != null;
+  }
+
+  /**
+   * Sets the function that gives the {@link ReadAdvice} of a file, given its name and the {@link
+   * IOContext} it is opened with. Default is {@link #NORMAL_READ_ADVICE}.
+   *
+   * @see #BASED_ON_FILE_EXTENSION_AND_CONTEXT
+   * @lucene.experimental
+   */
+  public void setReadAdvice(BiFunction<String, IOContext, ReadAdvice> readAdvice) {
+    this.readAdvice = Objects.requireNonNull(readAdvice);
+  }
+
+  /**
+   * Returns the function that gives the {@link ReadAdvice} of a file.
+   *
+   * @see #setReadAdvice
+   */
+  public BiFunction<String, IOContext, ReadAdvice> getReadAdvice() {
+    return readAdvice;
+  }
+
   /**
    * Returns the current mmap chunk size.
    *
@@ -230,20 +348,48 @@ public class MMapDirectory extends FSDirectory {
     ensureOpen();
     ensureCanRead(name);
     Path path = directory.resolve(name);
+    final ReadAdvice advice = Objects.requireNonNull(readAdvice.apply(name, context));
+    if (advice == ReadAdvice.SEQUENTIAL) {
+      return openSequentialInput(path, context);
+    }
+    final boolean load =
+        advice == ReadAdvice.PRELOAD || (advice == ReadAdvice.NORMAL && getPreload());
     try (FileChannel c = FileChannel.open(path, StandardOpenOption.READ)) {
       final String resourceDescription = "MMapIndexInput(path=\"" + path.toString() + "\")";
       final boolean useUnmap = getUseUnmap();
-      return ByteBufferIndexInput.newInstance(
-          resourceDescription,
-          map(resourceDescription, c, 0, c.size()),
-          c.size(),
-          chunkSizePower,
-          new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
+      final ByteBufferIndexInput input =
+          ByteBufferIndexInput.newInstance(
+              resourceDescription,
+              map(resourceDescription, c, 0, c.size(), load),
+              c.size(),
+              chunkSizePower,
+              new ByteBufferGuard(resourceDescription, useUnmap ? CLEANER : null));
+      final Executor prefetchExecutor = getPrefetchExecutor();
+      if (prefetchExecutor != null) {
+        input.prefetcher = FilePrefetcher.forPath(path, prefetchExecutor);
+      }
+      return input;
+    }
+  }
+
+  private static IndexInput openSequentialInput(Path path, IOContext context) throws IOException {
+    FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
+    boolean success = false;
+    try {
+      final IndexInput indexInput =
+          new NIOFSDirectory.NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context);
+      success = true;
+      return indexInput;
+    } finally {
+      if (success == false) {
+        IOUtils.closeWhileHandlingException(fc);
+      }
     }
   }
 
   /** Maps a file into a set of buffers */
-  final ByteBuffer[] map(String resourceDescription, FileChannel fc, long offset, long length)
+  final ByteBuffer[] map(
+      String resourceDescription, FileChannel fc, long offset, long length, boolean load)
       throws IOException {
     if ((length >>> chunkSizePower) >= Integer.MAX_VALUE)
       throw new IllegalArgumentException(
@@ -266,7 +412,7 @@ public class MMapDirectory extends FSDirectory {
       } catch (IOException ioe) {
         throw convertMapFailedIOException(ioe, resourceDescription, bufSize);
       }
-      if (preload) {
+      if (load) {
         buffer.load();
       }
       buffers[bufNr] = buffer;
@@ -23,6 +23,7 @@ import java.nio.channels.ClosedChannelException; // javadoc @link
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future; // javadoc
 import org.apache.lucene.util.IOUtils;
 
@@ -70,16 +71,43 @@ public class NIOFSDirectory extends FSDirectory {
     this(path, FSLockFactory.getDefault());
   }
 
+  /**
+   * Set to {@code true} to implement {@link IndexInput#prefetch} by reading prefetched ranges on a
+   * pool of background threads, which makes the operating system cache them. This helps on
+   * high-latency storage when queries read from several places of the index, at the cost of some
+   * extra reads. This only applies to inputs that are opened after this call. The threads are
+   * stopped when prefetching is disabled or when this directory is closed.
+   *
+   * @lucene.experimental
+   */
+  public void setPrefetch(boolean prefetch) {
+    setPrefetchEnabled(prefetch);
+  }
+
+  /**
+   * Returns {@code true} if inputs prefetch ranges in the background.
+   *
+   * @see #setPrefetch
+   */
+  public boolean getPrefetch() {
+    return getPrefetchExecutor() != null;
+  }
+
   @Override
   public IndexInput openInput(String name, IOContext context) throws IOException {
     ensureOpen();
     ensureCanRead(name);
     Path path = getDirectory().resolve(name);
+    Executor prefetchExecutor = getPrefetchExecutor();
     FileChannel fc = FileChannel.open(path, StandardOpenOption.READ);
     boolean success = false;
     try {
       final NIOFSIndexInput indexInput =
-          new NIOFSIndexInput("NIOFSIndexInput(path=\"" + path + "\")", fc, context);
+          new NIOFSIndexInput(
+              "NIOFSIndexInput(path=\"" + path + "\")",
+              fc,
+              context,
+              prefetchExecutor == null ? null : FilePrefetcher.forChannel(fc, prefetchExecutor));
       success = true;
       return indexInput;
     } finally {
@@ -102,22 +130,42 @@ public class NIOFSDirectory extends FSDirectory {
     protected final long off;
     /** end offset (start+length) */
     protected final long end;
+    /** implements prefetch(), relative to the start of the file, or null */
+    private final FilePrefetcher prefetcher;
 
     public NIOFSIndexInput(String resourceDesc, FileChannel fc, IOContext context)
         throws IOException {
+      this(resourceDesc, fc, context, null);
+    }
+
+    NIOFSIndexInput(
+        String resourceDesc, FileChannel fc, IOContext context, FilePrefetcher prefetcher)
+        throws IOException {
       super(resourceDesc, context);
       this.channel = fc;
       this.off = 0L;
       this.end = fc.size();
+      this.prefetcher = prefetcher;
     }
 
     public NIOFSIndexInput(
         String resourceDesc, FileChannel fc, long off, long length, int bufferSize) {
+      this(resourceDesc, fc, off, length, bufferSize, null);
+    }
+
+    private NIOFSIndexInput(
+        String resourceDesc,
+        FileChannel fc,
+        long off,
+        long length,
+        int bufferSize,
+        FilePrefetcher prefetcher) {
       super(resourceDesc, bufferSize);
       this.channel = fc;
       this.off = off;
       this.end = off + length;
       this.isClone = true;
+      this.prefetcher = prefetcher;
     }
 
     @Override
@@ -154,7 +202,26 @@ public class NIOFSDirectory extends FSDirectory {
           channel,
           off + offset,
           length,
-          getBufferSize());
+          getBufferSize(),
+          prefetcher);
+    }
+
+    @Override
+    public void prefetch(long offset, long length) throws IOException {
+      if (offset < 0 || length < 0 || offset > this.length()) {
+        throw new IllegalArgumentException(
+            "prefetch() out of bounds: offset="
+                + offset
+                + ",length="
+                + length
+                + ",fileLength="
+                + this.length()
+                + ": "
+                + this);
+      }
+      if (prefetcher != null) {
+        prefetcher.prefetch(off + offset, Math.min(length, this.length() - offset));
+      }
     }
 
     @Override
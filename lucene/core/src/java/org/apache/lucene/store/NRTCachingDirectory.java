@@ -24,6 +24,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.util.Accountable;
@@ -58,6 +60,14 @@ import org.apache.lucene.util.IOUtils;
  * <= 5 MB}, unless the net cached bytes exceeds 60 MB at which point all writes will not be cached
  * (until the net bytes falls below 60 MB).
  *
+ * <p>Reads, listings and writes don't take any directory-wide lock. Moving a file from the cache to
+ * the delegate only locks this file (and files that hash to the same lock stripe), so that a commit
+ * that copies large cached files doesn't block concurrent flushes and reopens.
+ *
+ * <p>Optionally, an {@link Executor} may be passed to copy cached files to the delegate in the
+ * background, so that they are already there when a commit syncs them. See {@link
+ * #NRTCachingDirectory(Directory, double, double, Executor)}.
+ *
  * @lucene.experimental
  */
 public class NRTCachingDirectory extends FilterDirectory implements Accountable {
@@ -76,8 +86,15 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
             return ByteBuffersDirectory.OUTPUT_AS_MANY_BUFFERS_LUCENE.apply(fileName, content);
           });
 
+  /**
+   * Striped locks that prevent a file from being deleted or moved to the delegate while it is being
+   * moved to the delegate.
+   */
+  private final Object[] fileLocks = new Object[32];
+
   private final long maxMergeSizeBytes;
   private final long maxCachedBytes;
+  private final Executor uncacheExecutor;
 
   private static final boolean VERBOSE = false;
 
@@ -87,9 +104,27 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
    * maxCachedMB}
    */
   public NRTCachingDirectory(Directory delegate, double maxMergeSizeMB, double maxCachedMB) {
+    this(delegate, maxMergeSizeMB, maxCachedMB, null);
+  }
+
+  /**
+   * Same as {@link #NRTCachingDirectory(Directory, double, double)}, but cached files are also
+   * copied to the delegate on the given executor as soon as they are closed, if they are expected
+   * to live until the next commit. By default, this is the case of files written by merges, since
+   * merged segments typically outlive flushed segments, and of any file that is closed while the
+   * cache is over its maximum size. Cached files that the executor didn't copy yet when they are
+   * synced are copied by the syncing thread, so commits don't wait for queued copies. Pass {@code
+   * null} to only copy files to the delegate when they are synced.
+   */
+  public NRTCachingDirectory(
+      Directory delegate, double maxMergeSizeMB, double maxCachedMB, Executor uncacheExecutor) {
     super(delegate);
     maxMergeSizeBytes = (long) (maxMergeSizeMB * 1024 * 1024);
     maxCachedBytes = (long) (maxCachedMB * 1024 * 1024);
+    this.uncacheExecutor = uncacheExecutor;
+    for (int i = 0; i < fileLocks.length; ++i) {
+      fileLocks[i] = new Object();
+    }
   }
 
   @Override
@@ -104,7 +139,9 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   @Override
-  public synchronized String[] listAll() throws IOException {
+  public String[] listAll() throws IOException {
+    // a file that is being uncached may be in both directories, but it is always in one of them
+    // since it is deleted from the cache after it has been copied
     final Set<String> files = new HashSet<>();
     for (String f : cacheDirectory.listAll()) {
       files.add(f);
@@ -118,24 +155,31 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   @Override
-  public synchronized void deleteFile(String name) throws IOException {
+  public void deleteFile(String name) throws IOException {
     if (VERBOSE) {
       System.out.println("nrtdir.deleteFile name=" + name);
     }
-    if (cacheDirectory.fileExists(name)) {
-      cacheDirectory.deleteFile(name);
-    } else {
-      in.deleteFile(name);
+    synchronized (fileLock(name)) {
+      if (cacheDirectory.fileExists(name)) {
+        final long length = cacheDirectory.fileLength(name);
+        cacheDirectory.deleteFile(name);
+        cacheSize.addAndGet(-length);
+      } else {
+        in.deleteFile(name);
+      }
     }
   }
 
   @Override
-  public synchronized long fileLength(String name) throws IOException {
+  public long fileLength(String name) throws IOException {
     if (cacheDirectory.fileExists(name)) {
-      return cacheDirectory.fileLength(name);
-    } else {
-      return in.fileLength(name);
+      try {
+        return cacheDirectory.fileLength(name);
+      } catch (NoSuchFileException | FileNotFoundException e) {
+        // concurrently moved to the delegate
+      }
     }
+    return in.fileLength(name);
   }
 
   public String[] listCachedFiles() {
@@ -155,7 +199,11 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
       if (VERBOSE) {
         System.out.println("  to cache");
       }
-      return cacheDirectory.createOutput(name, context);
+      final IndexOutput out = cacheDirectory.createOutput(name, context);
+      if (uncacheExecutor == null) {
+        return out;
+      }
+      return new UncacheOnCloseIndexOutput(out, context);
     } else {
       return in.createOutput(name, context);
     }
@@ -182,7 +230,7 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   }
 
   @Override
-  public synchronized IndexInput openInput(String name, IOContext context) throws IOException {
+  public IndexInput openInput(String name, IOContext context) throws IOException {
     if (VERBOSE) {
       System.out.println("nrtdir.openInput name=" + name);
     }
@@ -190,10 +238,13 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
       if (VERBOSE) {
         System.out.println("  from cache");
       }
-      return cacheDirectory.openInput(name, context);
-    } else {
-      return in.openInput(name, context);
+      try {
+        return cacheDirectory.openInput(name, context);
+      } catch (NoSuchFileException | FileNotFoundException e) {
+        // concurrently moved to the delegate
+      }
     }
+    return in.openInput(name, context);
   }
 
   /**
@@ -222,13 +273,18 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
   /**
    * Subclass can override this to customize logic; return true if this file should be written to
    * the RAM-based cache first.
+   *
+   * <p>The default implementation caches flushed segments and merged segments whose estimated size
+   * is {@code <= maxMergeSizeMB}, as long as the cache has room for them. Segments that are
+   * expected to outlive the next commit anyway, ie. segments produced by forced merges or added
+   * from external indexes, are never cached.
    */
   protected boolean doCacheWrite(String name, IOContext context) {
-    // System.out.println(Thread.currentThread().getName() + ": CACHE check merge=" + merge + "
-    // size=" + (merge==null ? 0 : merge.estimatedMergeBytes));
-
     long bytes = 0;
     if (context.mergeInfo != null) {
+      if (context.mergeInfo.mergeMaxNumSegments != -1 || context.mergeInfo.isExternal) {
+        return false;
+      }
       bytes = context.mergeInfo.estimatedMergeBytes;
     } else if (context.flushInfo != null) {
       bytes = context.flushInfo.estimatedSegmentSize;
@@ -287,6 +343,18 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
     return out;
   }
 
+  /**
+   * Subclass can override this to customize logic; return true if a cached file that was written
+   * with the given context and just got closed should be copied to the delegate in the background.
+   * This is only called if an executor was passed to the constructor.
+   *
+   * <p>The default implementation returns true for files written by merges, which typically live
+   * until the next commit, and for all files when the cache is over its maximum size.
+   */
+  protected boolean doUncacheEagerly(String name, IOContext context) {
+    return context.mergeInfo != null || cacheSize.get() > maxCachedBytes;
+  }
+
   /**
    * Returns true if the file exists (can be opened), false if it cannot be opened, and (unlike
    * Java's File.exists) throws IOException if there's some unexpected error.
@@ -300,10 +368,14 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
     }
   }
 
+  private Object fileLock(String fileName) {
+    return fileLocks[Math.floorMod(fileName.hashCode(), fileLocks.length)];
+  }
+
   private void unCache(String fileName) throws IOException {
-    // Must sync here because other sync methods have
+    // Must lock the file here because deleteFile has
     // if (cache.fileNameExists(name)) { ... } else { ... }:
-    synchronized (this) {
+    synchronized (fileLock(fileName)) {
       if (VERBOSE) {
         System.out.println("nrtdir.unCache name=" + fileName);
       }
@@ -320,8 +392,82 @@ public class NRTCachingDirectory extends FilterDirectory implements Accountable
     }
   }
 
+  private void unCacheInBackground(String fileName) {
+    try {
+      uncacheExecutor.execute(
+          () -> {
+            if (closed.get()) {
+              return;
+            }
+            try {
+              unCache(fileName);
+            } catch (IOException | AlreadyClosedException e) {
+              // the file stays in the cache: syncing it will copy it again or report the error
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // the file stays in the cache until it is synced
+    }
+  }
+
   @Override
   public long ramBytesUsed() {
     return cacheSize.get();
   }
+
+  /** Moves a cached file to the delegate in the background when it gets closed, if applicable. */
+  private final class UncacheOnCloseIndexOutput extends IndexOutput {
+
+    private final IndexOutput out;
+    private final IOContext context;
+
+    UncacheOnCloseIndexOutput(IndexOutput out, IOContext context) {
+      super(out.toString(), out.getName());
+      this.out = out;
+      this.context = context;
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+      if (doUncacheEagerly(getName(), context)) {
+        unCacheInBackground(getName());
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return out.getFilePointer();
+    }
+
+    @Override
+    public long getChecksum() throws IOException {
+      return out.getChecksum();
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+      out.writeByte(b);
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+      out.writeBytes(b, offset, length);
+    }
+
+    @Override
+    public void writeShort(short i) throws IOException {
+      out.writeShort(i);
+    }
+
+    @Override
+    public void writeInt(int i) throws IOException {
+      out.writeInt(i);
+    }
+
+    @Override
+    public void writeLong(long i) throws IOException {
+      out.writeLong(i);
+    }
+  }
 }
@@ -37,6 +37,9 @@ public final class RateLimitedIndexOutput extends IndexOutput {
    */
   private long currentMinPauseCheckBytes;
 
+  /** Time spent in the delegate's write methods since we last called rateLimiter.pause. */
+  private long writeNSSinceLastPause;
+
   public RateLimitedIndexOutput(final RateLimiter rateLimiter, final IndexOutput delegate) {
     super("RateLimitedIndexOutput(" + delegate + ")", delegate.getName());
     this.delegate = delegate;
@@ -63,20 +66,26 @@ public final class RateLimitedIndexOutput extends IndexOutput {
   public void writeByte(byte b) throws IOException {
     bytesSinceLastPause++;
     checkRate();
+    final long startNS = System.nanoTime();
     delegate.writeByte(b);
+    writeNSSinceLastPause += System.nanoTime() - startNS;
   }
 
   @Override
   public void writeBytes(byte[] b, int offset, int length) throws IOException {
     bytesSinceLastPause += length;
     checkRate();
+    final long startNS = System.nanoTime();
     delegate.writeBytes(b, offset, length);
+    writeNSSinceLastPause += System.nanoTime() - startNS;
   }
 
   private void checkRate() throws IOException {
     if (bytesSinceLastPause > currentMinPauseCheckBytes) {
+      rateLimiter.onWrite(bytesSinceLastPause, writeNSSinceLastPause);
       rateLimiter.pause(bytesSinceLastPause);
       bytesSinceLastPause = 0;
+      writeNSSinceLastPause = 0;
       currentMinPauseCheckBytes = rateLimiter.getMinPauseCheckBytes();
     }
   }
@@ -53,6 +53,17 @@ public abstract class RateLimiter {
    */
   public abstract long getMinPauseCheckBytes();
 
+  /**
+   * Called by {@link RateLimitedIndexOutput} before it pauses, with the number of bytes that were
+   * written since the previous pause and the time that was spent in the write methods of the
+   * wrapped output to write them. This excludes pauses and the work that the caller does between
+   * writes, so that this time mostly grows when the device can't keep up with writes. The default
+   * implementation does nothing.
+   *
+   * @lucene.experimental
+   */
+  public void onWrite(long bytes, long nanos) {}
+
   /** Simple class to rate limit IO. */
   public static class SimpleRateLimiter extends RateLimiter {
 
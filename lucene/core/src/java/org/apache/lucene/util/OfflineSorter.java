@@ -29,13 +29,16 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
 import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.ChecksumIndexInput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.TrackingDirectoryWrapper;
+import org.apache.lucene.util.compress.LZ4;
 
 /**
  * On-disk sorting of byte arrays. Each byte array (entry) is a composed of the following fields:
@@ -67,12 +70,16 @@ public class OfflineSorter {
   /** Maximum number of temporary files before doing an intermediate merge. */
   public static final int MAX_TEMPFILES = 10;
 
+  // size of the blocks that compressed temporary files are split into: the LZ4 window size
+  private static final int COMPRESSION_BLOCK_SIZE = 1 << 16;
+
   private final Directory dir;
   private final int valueLength;
   private final String tempFileNamePrefix;
 
   private final ExecutorService exec;
   private final Semaphore partitionsInRAM;
+  private final boolean compressTempFiles;
 
   /**
    * A bit more descriptive unit for constructors.
@@ -224,6 +231,34 @@ public class OfflineSorter {
       int valueLength,
       ExecutorService exec,
       int maxPartitionsInRAM) {
+    this(
+        dir,
+        tempFileNamePrefix,
+        comparator,
+        ramBufferSize,
+        maxTempfiles,
+        valueLength,
+        exec,
+        maxPartitionsInRAM,
+        false);
+  }
+
+  /**
+   * All-details constructor, see {@link #OfflineSorter(Directory, String, Comparator, BufferSize,
+   * int, int, ExecutorService, int)}. If {@code compressTempFiles} is true, the intermediate
+   * partitions are compressed with {@link LZ4}, which trades some CPU for less temporary disk space
+   * and I/O. The sorted output file is never compressed.
+   */
+  public OfflineSorter(
+      Directory dir,
+      String tempFileNamePrefix,
+      Comparator<BytesRef> comparator,
+      BufferSize ramBufferSize,
+      int maxTempfiles,
+      int valueLength,
+      ExecutorService exec,
+      int maxPartitionsInRAM,
+      boolean compressTempFiles) {
     if (exec != null) {
       this.exec = exec;
       if (maxPartitionsInRAM <= 0) {
@@ -255,6 +290,7 @@ public class OfflineSorter {
     this.comparator = comparator;
     this.dir = dir;
     this.tempFileNamePrefix = tempFileNamePrefix;
+    this.compressTempFiles = compressTempFiles;
   }
 
   /** Returns the {@link Directory} we use to create temp files. */
@@ -295,7 +331,9 @@ public class OfflineSorter {
           break;
         }
 
-        Callable<Partition> job = new SortPartitionTask(trackingDir, part);
+        // the partition is the sorted output if it is the only one
+        boolean compress = compressTempFiles && (part.exhausted == false || segments.size() > 0);
+        Callable<Partition> job = new SortPartitionTask(trackingDir, part, compress);
 
         segments.add(exec.submit(job));
         sortInfo.tempMergeFiles++;
@@ -305,7 +343,7 @@ public class OfflineSorter {
         // Handle intermediate merges; we need a while loop to "cascade" the merge when necessary:
         int mergeLevel = 0;
         while (levelCounts[mergeLevel] == maxTempFiles) {
-          mergePartitions(trackingDir, segments);
+          mergePartitions(trackingDir, segments, part.exhausted);
           if (mergeLevel + 2 > levelCounts.length) {
             levelCounts = ArrayUtil.grow(levelCounts, mergeLevel + 2);
           }
@@ -324,7 +362,7 @@ public class OfflineSorter {
 
       // Merge all partitions down to 1 (basically a forceMerge(1)):
       while (segments.size() > 1) {
-        mergePartitions(trackingDir, segments);
+        mergePartitions(trackingDir, segments, true);
       }
 
       String result;
@@ -336,7 +374,12 @@ public class OfflineSorter {
           result = out.getName();
         }
       } else {
-        result = getPartition(segments.get(0)).fileName;
+        Partition partition = getPartition(segments.get(0));
+        if (partition.compressed) {
+          // the end of the input was only detected after the last partition was written
+          partition = decompress(trackingDir, partition);
+        }
+        result = partition.fileName;
       }
 
       // We should be explicitly removing all intermediate files ourselves unless there is an
@@ -367,13 +410,62 @@ public class OfflineSorter {
    */
   private void verifyChecksum(Throwable priorException, ByteSequencesReader reader)
       throws IOException {
-    try (ChecksumIndexInput in = dir.openChecksumInput(reader.name, IOContext.READONCE)) {
+    try (ChecksumIndexInput in =
+        openInput(dir, reader.name, reader.in instanceof DecompressingIndexInput)) {
       CodecUtil.checkFooter(in, priorException);
     }
   }
 
-  /** Merge the most recent {@code maxTempFile} partitions into a new partition. */
-  void mergePartitions(Directory trackingDir, List<Future<Partition>> segments) throws IOException {
+  /** Creates a temporary file, that compresses what is written to it if requested. */
+  private IndexOutput createTempOutput(Directory dir, boolean compress) throws IOException {
+    IndexOutput out = dir.createTempOutput(tempFileNamePrefix, "sort", IOContext.DEFAULT);
+    return compress ? new CompressingIndexOutput(out) : out;
+  }
+
+  /** Opens a file that was written by {@link #createTempOutput}. */
+  private static ChecksumIndexInput openInput(Directory dir, String name, boolean compressed)
+      throws IOException {
+    if (compressed) {
+      return new DecompressingIndexInput(dir.openInput(name, IOContext.READONCE));
+    }
+    return dir.openChecksumInput(name, IOContext.READONCE);
+  }
+
+  /** Rewrites a compressed partition uncompressed. */
+  private Partition decompress(Directory trackingDir, Partition partition) throws IOException {
+    String newFileName;
+    try (ByteSequencesReader reader =
+            getReader(openInput(trackingDir, partition.fileName, true), partition.fileName);
+        ByteSequencesWriter writer =
+            getWriter(createTempOutput(trackingDir, false), partition.count)) {
+      newFileName = writer.out.getName();
+      BytesRef item;
+      while (true) {
+        item = null;
+        try {
+          item = reader.next();
+        } catch (Throwable t) {
+          verifyChecksum(t, reader);
+        }
+        if (item == null) {
+          break;
+        }
+        writer.write(item);
+      }
+      CodecUtil.checkFooter(reader.in);
+      CodecUtil.writeFooter(writer.out);
+    }
+    trackingDir.deleteFile(partition.fileName);
+    return new Partition(newFileName, partition.count, false);
+  }
+
+  /**
+   * Merge the most recent {@code maxTempFile} partitions into a new partition. {@code exhausted}
+   * tells whether the input was fully read, in which case merging all partitions produces the
+   * sorted output.
+   */
+  void mergePartitions(Directory trackingDir, List<Future<Partition>> segments, boolean exhausted)
+      throws IOException {
     long start = System.currentTimeMillis();
     List<Future<Partition>> segmentsToMerge;
     if (segments.size() > maxTempFiles) {
@@ -384,8 +476,9 @@ public class OfflineSorter {
 
     sortInfo.mergeRounds++;
 
+    boolean compress = compressTempFiles && (exhausted == false || segments.size() > maxTempFiles);
     MergePartitionsTask task =
-        new MergePartitionsTask(trackingDir, new ArrayList<>(segmentsToMerge));
+        new MergePartitionsTask(trackingDir, new ArrayList<>(segmentsToMerge), compress);
 
     segmentsToMerge.clear();
     segments.add(exec.submit(task));
@@ -399,6 +492,7 @@ public class OfflineSorter {
     public final boolean exhausted;
     public final long count;
     public final String fileName;
+    public final boolean compressed;
 
     /** A partition loaded into memory. */
     public Partition(SortableBytesRefArray buffer, boolean exhausted) {
@@ -406,14 +500,16 @@ public class OfflineSorter {
       this.fileName = null;
       this.count = buffer.size();
       this.exhausted = exhausted;
+      this.compressed = false;
     }
 
     /** An on-disk partition. */
-    public Partition(String fileName, long count) {
+    public Partition(String fileName, long count, boolean compressed) {
       this.buffer = null;
       this.fileName = fileName;
       this.count = count;
       this.exhausted = true;
+      this.compressed = compressed;
     }
   }
 
@@ -613,16 +709,17 @@ public class OfflineSorter {
 
     private final Directory dir;
     private final Partition part;
+    private final boolean compress;
 
-    public SortPartitionTask(Directory dir, Partition part) {
+    public SortPartitionTask(Directory dir, Partition part, boolean compress) {
       this.dir = dir;
       this.part = part;
+      this.compress = compress;
     }
 
     @Override
     public Partition call() throws IOException {
-      try (IndexOutput tempFile =
-              dir.createTempOutput(tempFileNamePrefix, "sort", IOContext.DEFAULT);
+      try (IndexOutput tempFile = createTempOutput(dir, compress);
           ByteSequencesWriter out = getWriter(tempFile, part.buffer.size()); ) {
 
         BytesRef spare;
@@ -642,7 +739,7 @@ public class OfflineSorter {
         CodecUtil.writeFooter(out.out);
         part.buffer.clear();
 
-        return new Partition(tempFile.getName(), part.count);
+        return new Partition(tempFile.getName(), part.count, compress);
       } finally {
         if (partitionsInRAM != null) {
           partitionsInRAM.release();
@@ -667,10 +764,13 @@ public class OfflineSorter {
   private class MergePartitionsTask implements Callable<Partition> {
     private final Directory dir;
     private final List<Future<Partition>> segmentsToMerge;
+    private final boolean compress;
 
-    public MergePartitionsTask(Directory dir, List<Future<Partition>> segmentsToMerge) {
+    public MergePartitionsTask(
+        Directory dir, List<Future<Partition>> segmentsToMerge, boolean compress) {
       this.dir = dir;
       this.segmentsToMerge = segmentsToMerge;
+      this.compress = compress;
     }
 
     @Override
@@ -693,9 +793,7 @@ public class OfflineSorter {
       String newSegmentName = null;
 
       long startMS = System.currentTimeMillis();
-      try (ByteSequencesWriter writer =
-          getWriter(
-              dir.createTempOutput(tempFileNamePrefix, "sort", IOContext.DEFAULT), totalCount)) {
+      try (ByteSequencesWriter writer = getWriter(createTempOutput(dir, compress), totalCount)) {
 
         newSegmentName = writer.out.getName();
 
@@ -703,8 +801,7 @@ public class OfflineSorter {
         for (int i = 0; i < segmentsToMerge.size(); i++) {
           Partition segment = getPartition(segmentsToMerge.get(i));
           streams[i] =
-              getReader(
-                  dir.openChecksumInput(segment.fileName, IOContext.READONCE), segment.fileName);
+              getReader(openInput(dir, segment.fileName, segment.compressed), segment.fileName);
 
           BytesRef item = null;
           try {
@@ -752,7 +849,190 @@ public class OfflineSorter {
       }
       IOUtils.deleteFiles(dir, toDelete);
 
-      return new Partition(newSegmentName, totalCount);
+      return new Partition(newSegmentName, totalCount, compress);
+    }
+  }
+
+  /**
+   * An {@link IndexOutput} that compresses blocks of {@link #COMPRESSION_BLOCK_SIZE} bytes with
+   * {@link LZ4}. File pointers and checksums are those of the uncompressed bytes, so that codec
+   * footers can be written and verified as usual. The uncompressed length is written last.
+   */
+  private static final class CompressingIndexOutput extends IndexOutput {
+    private final IndexOutput out;
+    private final CRC32 crc = new CRC32();
+    private final LZ4.FastCompressionHashTable hashTable = new LZ4.FastCompressionHashTable();
+    private final byte[] block = new byte[COMPRESSION_BLOCK_SIZE];
+    private int blockUpto;
+    // bytes of the current block up to this offset were added to the checksum
+    private int checksumUpto;
+    private long filePointer;
+    private boolean closed;
+
+    CompressingIndexOutput(IndexOutput out) {
+      super("CompressingIndexOutput(" + out + ")", out.getName());
+      this.out = out;
+    }
+
+    private void updateChecksum() {
+      crc.update(block, checksumUpto, blockUpto - checksumUpto);
+      checksumUpto = blockUpto;
+    }
+
+    private void flushBlock() throws IOException {
+      if (blockUpto > 0) {
+        updateChecksum();
+        out.writeVInt(blockUpto);
+        LZ4.compress(block, 0, blockUpto, out, hashTable);
+        blockUpto = checksumUpto = 0;
+      }
+    }
+
+    @Override
+    public void writeByte(byte b) throws IOException {
+      if (blockUpto == block.length) {
+        flushBlock();
+      }
+      block[blockUpto++] = b;
+      filePointer++;
+    }
+
+    @Override
+    public void writeBytes(byte[] b, int offset, int length) throws IOException {
+      filePointer += length;
+      while (length > 0) {
+        if (blockUpto == block.length) {
+          flushBlock();
+        }
+        int chunk = Math.min(length, block.length - blockUpto);
+        System.arraycopy(b, offset, block, blockUpto, chunk);
+        blockUpto += chunk;
+        offset += chunk;
+        length -= chunk;
+      }
+    }
+
+    @Override
+    public long getFilePointer() {
+      return filePointer;
+    }
+
+    @Override
+    public long getChecksum() {
+      updateChecksum();
+      return crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try (IndexOutput out = this.out) {
+        flushBlock();
+        out.writeLong(filePointer);
+      }
+    }
+  }
+
+  /** Reads files that were written by {@link CompressingIndexOutput}, sequentially. */
+  private static final class DecompressingIndexInput extends ChecksumIndexInput {
+    private final IndexInput in;
+    private final long length;
+    private final long compressedEnd;
+    private final CRC32 crc = new CRC32();
+    private final byte[] block = new byte[COMPRESSION_BLOCK_SIZE];
+    private int blockUpto;
+    private int blockLength;
+    // bytes of the current block up to this offset were added to the checksum
+    private int checksumUpto;
+    private long filePointer;
+
+    DecompressingIndexInput(IndexInput in) throws IOException {
+      super("DecompressingIndexInput(" + in + ")");
+      this.in = in;
+      compressedEnd = in.length() - Long.BYTES;
+      if (compressedEnd < 0) {
+        throw new CorruptIndexException("compressed file is too short", in);
+      }
+      in.seek(compressedEnd);
+      length = in.readLong();
+      in.seek(0);
+    }
+
+    private void updateChecksum() {
+      crc.update(block, checksumUpto, blockUpto - checksumUpto);
+      checksumUpto = blockUpto;
+    }
+
+    private void refill() throws IOException {
+      updateChecksum();
+      if (in.getFilePointer() >= compressedEnd) {
+        throw new EOFException("read past EOF: " + this);
+      }
+      blockLength = in.readVInt();
+      if (blockLength <= 0 || blockLength > block.length) {
+        throw new CorruptIndexException("invalid block length: " + blockLength, in);
+      }
+      try {
+        LZ4.decompress(in, blockLength, block, 0);
+      } catch (IndexOutOfBoundsException e) {
+        throw new CorruptIndexException("failed to decompress block", in, e);
+      }
+      blockUpto = checksumUpto = 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      if (blockUpto == blockLength) {
+        refill();
+      }
+      byte b = block[blockUpto++];
+      filePointer++;
+      return b;
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+      int upto = offset;
+      int end = offset + len;
+      while (upto < end) {
+        if (blockUpto == blockLength) {
+          refill();
+        }
+        int chunk = Math.min(end - upto, blockLength - blockUpto);
+        System.arraycopy(block, blockUpto, b, upto, chunk);
+        blockUpto += chunk;
+        upto += chunk;
+      }
+      filePointer += len;
+    }
+
+    @Override
+    public long getChecksum() {
+      updateChecksum();
+      return crc.getValue();
+    }
+
+    @Override
+    public long getFilePointer() {
+      return filePointer;
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
     }
   }
 }
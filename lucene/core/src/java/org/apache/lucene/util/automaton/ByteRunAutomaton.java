@@ -17,7 +17,7 @@
 package org.apache.lucene.util.automaton;
 
 /** Automaton representation for matching UTF-8 byte[]. */
-public class ByteRunAutomaton extends RunAutomaton {
+public class ByteRunAutomaton extends RunAutomaton implements ByteRunnable {
 
   /** Converts incoming automaton to byte-based (UTF32ToUTF8) first */
   public ByteRunAutomaton(Automaton a) {
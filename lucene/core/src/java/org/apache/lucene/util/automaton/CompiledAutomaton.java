@@ -19,6 +19,7 @@ package org.apache.lucene.util.automaton;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import org.apache.lucene.index.AutomatonTermsEnum;
 import org.apache.lucene.index.SingleTermsEnum;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
@@ -37,6 +38,10 @@ import org.apache.lucene.util.UnicodeUtil;
  * Immutable class holding compiled details for a given Automaton. The Automaton is deterministic,
  * must not have dead states but is not necessarily minimal.
  *
+ * <p>Alternatively, determinization may be disabled, in which case the automaton is kept
+ * non-deterministic in {@link #nfa} and determinized lazily by {@link NFARunAutomaton} while terms
+ * are being enumerated. This helps with automata that are too complex to determinize up-front.
+ *
  * @lucene.experimental
  */
 public class CompiledAutomaton implements Accountable {
@@ -93,6 +98,15 @@ public class CompiledAutomaton implements Accountable {
   /** Which state, if any, accepts all suffixes, else -1. */
   public final int sinkState;
 
+  /**
+   * Binary automaton, without dead states but not necessarily deterministic, that needs to be run
+   * with a {@link NFARunAutomaton}. Only valid for {@link AUTOMATON_TYPE#NORMAL} when
+   * determinization is disabled, in which case {@link #runAutomaton}, {@link #automaton} and {@link
+   * #commonSuffixRef} are null. Terms dictionaries can't intersect such automata, use {@link
+   * #getTermsEnum} instead.
+   */
+  public final Automaton nfa;
+
   /**
    * Create this, passing simplify=true and finite=null, so that we try to simplify the automaton
    * and determine if it is finite.
@@ -149,6 +163,24 @@ public class CompiledAutomaton implements Accountable {
       boolean simplify,
       int maxDeterminizedStates,
       boolean isBinary) {
+    this(automaton, finite, simplify, maxDeterminizedStates, isBinary, true);
+  }
+
+  /**
+   * Create this. If finite is null, we use {@link Operations#isFinite} to determine whether it is
+   * finite. If simplify is true, we run possibly expensive operations to determine if the automaton
+   * is one the cases in {@link CompiledAutomaton.AUTOMATON_TYPE}. If determinize is true, then only
+   * maxDeterminizedStates will be created when determinizing the automaton. Any more than that will
+   * cause a TooComplexToDeterminizeException. If determinize is false, the automaton is never
+   * determinized up-front, see {@link #nfa}.
+   */
+  public CompiledAutomaton(
+      Automaton automaton,
+      Boolean finite,
+      boolean simplify,
+      int maxDeterminizedStates,
+      boolean isBinary,
+      boolean determinize) {
     if (automaton.getNumStates() == 0) {
       automaton = new Automaton();
       automaton.createState();
@@ -169,6 +201,7 @@ public class CompiledAutomaton implements Accountable {
         this.automaton = null;
         this.finite = null;
         sinkState = -1;
+        nfa = null;
         return;
       }
 
@@ -190,12 +223,15 @@ public class CompiledAutomaton implements Accountable {
         this.automaton = null;
         this.finite = null;
         sinkState = -1;
+        nfa = null;
         return;
       }
 
-      automaton = Operations.determinize(automaton, maxDeterminizedStates);
+      if (determinize) {
+        automaton = Operations.determinize(automaton, maxDeterminizedStates);
+      }
 
-      IntsRef singleton = Operations.getSingleton(automaton);
+      IntsRef singleton = automaton.isDeterministic() ? Operations.getSingleton(automaton) : null;
 
       if (singleton != null) {
         // matches a fixed string
@@ -213,6 +249,7 @@ public class CompiledAutomaton implements Accountable {
                   UnicodeUtil.newString(singleton.ints, singleton.offset, singleton.length));
         }
         sinkState = -1;
+        nfa = null;
         return;
       }
     }
@@ -237,6 +274,15 @@ public class CompiledAutomaton implements Accountable {
       binary = new UTF32ToUTF8().convert(automaton);
     }
 
+    if (determinize == false) {
+      commonSuffixRef = null;
+      runAutomaton = null;
+      this.automaton = null;
+      sinkState = -1;
+      nfa = Operations.removeDeadStates(binary);
+      return;
+    }
+
     if (this.finite) {
       commonSuffixRef = null;
     } else {
@@ -261,13 +307,13 @@ public class CompiledAutomaton implements Accountable {
     // than 1 sink state but auto-prefix will fail
     // to run for those:
     sinkState = findSinkState(this.automaton);
+    nfa = null;
   }
 
-  private Transition transition = new Transition();
-
   // private static final boolean DEBUG = BlockTreeTermsWriter.DEBUG;
 
-  private BytesRef addTail(int state, BytesRefBuilder term, int idx, int leadLabel) {
+  private BytesRef addTail(
+      int state, BytesRefBuilder term, int idx, int leadLabel, Transition transition) {
     // System.out.println("addTail state=" + state + " term=" + term.utf8ToString() + " idx=" + idx
     // + " leadLabel=" + (char) leadLabel);
     // System.out.println(automaton.toDot());
@@ -347,6 +393,10 @@ public class CompiledAutomaton implements Accountable {
       case SINGLE:
         return new SingleTermsEnum(terms.iterator(), term);
       case NORMAL:
+        if (nfa != null) {
+          // codecs' intersect implementations require a deterministic automaton
+          return new AutomatonTermsEnum(terms.iterator(), this);
+        }
         return terms.intersect(this, null);
       default:
         // unreachable
@@ -359,7 +409,12 @@ public class CompiledAutomaton implements Accountable {
     if (visitor.acceptField(field)) {
       switch (type) {
         case NORMAL:
-          visitor.consumeTermsMatching(parent, field, () -> runAutomaton);
+          if (nfa != null) {
+            // determinize lazily too, a new instance per call since it is not thread-safe
+            visitor.consumeTermsMatching(parent, field, () -> new NFARunAutomaton(nfa));
+          } else {
+            visitor.consumeTermsMatching(parent, field, () -> runAutomaton);
+          }
           break;
         case NONE:
           break;
@@ -397,6 +452,7 @@ public class CompiledAutomaton implements Accountable {
     }
 
     final List<Integer> stack = new ArrayList<>();
+    final Transition transition = new Transition();
 
     int idx = 0;
     while (true) {
@@ -460,7 +516,7 @@ public class CompiledAutomaton implements Accountable {
 
         // if (DEBUG) System.out.println("  label=" + (char) label + " idx=" + idx);
 
-        return addTail(state, output, idx, label);
+        return addTail(state, output, idx, label, transition);
 
       } else {
         output.grow(1 + idx);
@@ -477,6 +533,7 @@ public class CompiledAutomaton implements Accountable {
     final int prime = 31;
     int result = 1;
     result = prime * result + ((runAutomaton == null) ? 0 : runAutomaton.hashCode());
+    result = prime * result + ((nfa == null) ? 0 : nfa.getNumStates());
     result = prime * result + ((term == null) ? 0 : term.hashCode());
     result = prime * result + ((type == null) ? 0 : type.hashCode());
     return result;
@@ -492,19 +549,53 @@ public class CompiledAutomaton implements Accountable {
     if (type == AUTOMATON_TYPE.SINGLE) {
       if (!term.equals(other.term)) return false;
     } else if (type == AUTOMATON_TYPE.NORMAL) {
-      if (!runAutomaton.equals(other.runAutomaton)) return false;
+      if (nfa != null || other.nfa != null) {
+        if (nfa == null || other.nfa == null || sameAutomaton(nfa, other.nfa) == false) {
+          return false;
+        }
+      } else if (!runAutomaton.equals(other.runAutomaton)) return false;
     }
 
     return true;
   }
 
+  /** Returns true if both automata have the same states and transitions. */
+  private static boolean sameAutomaton(Automaton a, Automaton b) {
+    if (a == b) {
+      return true;
+    }
+    final int numStates = a.getNumStates();
+    if (numStates != b.getNumStates() || a.getNumTransitions() != b.getNumTransitions()) {
+      return false;
+    }
+    Transition t1 = new Transition();
+    Transition t2 = new Transition();
+    for (int state = 0; state < numStates; state++) {
+      if (a.isAccept(state) != b.isAccept(state)) {
+        return false;
+      }
+      int numTransitions = a.initTransition(state, t1);
+      if (numTransitions != b.initTransition(state, t2)) {
+        return false;
+      }
+      for (int i = 0; i < numTransitions; i++) {
+        a.getNextTransition(t1);
+        b.getNextTransition(t2);
+        if (t1.dest != t2.dest || t1.min != t2.min || t1.max != t2.max) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
   @Override
   public long ramBytesUsed() {
     return BASE_RAM_BYTES
         + RamUsageEstimator.sizeOfObject(automaton)
         + RamUsageEstimator.sizeOfObject(commonSuffixRef)
         + RamUsageEstimator.sizeOfObject(runAutomaton)
-        + RamUsageEstimator.sizeOfObject(term)
-        + RamUsageEstimator.sizeOfObject(transition);
+        + RamUsageEstimator.sizeOfObject(nfa)
+        + RamUsageEstimator.sizeOfObject(term);
   }
 }
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.automaton;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * A {@link ByteRunnable} over a binary automaton that doesn't need to be deterministic. Instead of
+ * computing all states of the equivalent deterministic automaton up-front, which might require an
+ * exponential number of states, states are computed on demand when {@link #step} or the {@link
+ * TransitionAccessor} methods first reach them, and then memoized. This makes it possible to run
+ * automata that would be too complex to determinize, at the cost of slower transitions for states
+ * that are visited for the first time.
+ *
+ * <p>The input automaton must not have dead states, which guarantees that the computed
+ * deterministic states don't have dead states either. State 0 is the initial state.
+ *
+ * <p><b>NOTE</b>: this class is not thread-safe since computing states modifies its internal state,
+ * create one instance per thread instead.
+ *
+ * @lucene.experimental
+ */
+public class NFARunAutomaton implements ByteRunnable, TransitionAccessor {
+
+  /** Marks transitions that haven't been computed yet. */
+  private static final int NOT_COMPUTED = -2;
+  /** Marks transitions that lead to a dead state. */
+  private static final int MISSING = -1;
+
+  private final Automaton automaton;
+  private final int[] points; // char interval start points
+  private final int[] classmap; // map from byte to class
+  private final Map<StateSet, Integer> ords = new HashMap<>();
+  private DState[] dStates = new DState[8];
+  private int numDStates;
+  private final Transition transition = new Transition();
+  private int[] scratch = new int[8];
+
+  /**
+   * Constructor, the provided automaton must be binary, ie. only have labels between 0 and 255, and
+   * must not have dead states.
+   */
+  public NFARunAutomaton(Automaton automaton) {
+    this.automaton = automaton;
+    int[] startPoints = automaton.getStartPoints();
+    int numPoints = 0;
+    while (numPoints < startPoints.length && startPoints[numPoints] < 256) {
+      numPoints++;
+    }
+    this.points = ArrayUtil.copyOfSubArray(startPoints, 0, numPoints);
+    this.classmap = new int[256];
+    int i = 0;
+    for (int j = 0; j < classmap.length; j++) {
+      if (i + 1 < points.length && j == points[i + 1]) {
+        i++;
+      }
+      classmap[j] = i;
+    }
+    if (automaton.getNumStates() == 0) {
+      getOrCreate(new int[0], 0);
+    } else {
+      getOrCreate(new int[] {0}, 1);
+    }
+  }
+
+  @Override
+  public int step(int state, int c) {
+    return step(dStates[state], classmap[c]);
+  }
+
+  private int step(DState dState, int charClass) {
+    int next = dState.nextStates[charClass];
+    if (next == NOT_COMPUTED) {
+      next = computeNext(dState, points[charClass]);
+      dState.nextStates[charClass] = next;
+    }
+    return next;
+  }
+
+  /** Compute the state that is reached from the given state with the given label. */
+  private int computeNext(DState dState, int label) {
+    int count = 0;
+    for (int nfaState : dState.nfaStates.states) {
+      int numTransitions = automaton.initTransition(nfaState, transition);
+      for (int i = 0; i < numTransitions; i++) {
+        automaton.getNextTransition(transition);
+        if (transition.min > label) {
+          // transitions are sorted by min
+          break;
+        }
+        if (transition.max >= label) {
+          scratch = ArrayUtil.grow(scratch, count + 1);
+          scratch[count++] = transition.dest;
+        }
+      }
+    }
+    if (count == 0) {
+      return MISSING;
+    }
+    Arrays.sort(scratch, 0, count);
+    int numUnique = 1;
+    for (int i = 1; i < count; i++) {
+      if (scratch[i] != scratch[numUnique - 1]) {
+        scratch[numUnique++] = scratch[i];
+      }
+    }
+    return getOrCreate(scratch, numUnique);
+  }
+
+  private int getOrCreate(int[] nfaStates, int length) {
+    StateSet key = new StateSet(ArrayUtil.copyOfSubArray(nfaStates, 0, length));
+    Integer ord = ords.get(key);
+    if (ord == null) {
+      ord = numDStates;
+      dStates = ArrayUtil.grow(dStates, numDStates + 1);
+      dStates[numDStates++] = new DState(key);
+      ords.put(key, ord);
+    }
+    return ord;
+  }
+
+  @Override
+  public boolean isAccept(int state) {
+    return dStates[state].isAccept;
+  }
+
+  @Override
+  public int getSize() {
+    return numDStates;
+  }
+
+  /** Return the transitions of the given state as (dest, min, max) triples, sorted by min. */
+  private int[] getTransitions(int state) {
+    DState dState = dStates[state];
+    if (dState.transitions == null) {
+      int[] transitions = new int[3 * points.length];
+      int upto = 0;
+      for (int i = 0; i < points.length; i++) {
+        int dest = step(dState, i);
+        if (dest == MISSING) {
+          continue;
+        }
+        int min = points[i];
+        int max = i + 1 < points.length ? points[i + 1] - 1 : 255;
+        if (upto > 0 && transitions[upto - 3] == dest && transitions[upto - 1] == min - 1) {
+          // same destination as the previous interval, merge
+          transitions[upto - 1] = max;
+        } else {
+          transitions[upto++] = dest;
+          transitions[upto++] = min;
+          transitions[upto++] = max;
+        }
+      }
+      dState.transitions = ArrayUtil.copyOfSubArray(transitions, 0, upto);
+    }
+    return dState.transitions;
+  }
+
+  @Override
+  public int initTransition(int state, Transition t) {
+    t.source = state;
+    t.transitionUpto = 0;
+    return getNumTransitions(state);
+  }
+
+  @Override
+  public void getNextTransition(Transition t) {
+    int[] transitions = getTransitions(t.source);
+    assert t.transitionUpto + 3 <= transitions.length;
+    t.dest = transitions[t.transitionUpto++];
+    t.min = transitions[t.transitionUpto++];
+    t.max = transitions[t.transitionUpto++];
+  }
+
+  @Override
+  public int getNumTransitions(int state) {
+    return getTransitions(state).length / 3;
+  }
+
+  @Override
+  public void getTransition(int state, int index, Transition t) {
+    int[] transitions = getTransitions(state);
+    int i = 3 * index;
+    t.source = state;
+    t.dest = transitions[i++];
+    t.min = transitions[i++];
+    t.max = transitions[i++];
+  }
+
+  /** A sorted set of states of the non-deterministic automaton. */
+  private static final class StateSet {
+    final int[] states;
+    final int hashCode;
+
+    StateSet(int[] states) {
+      this.states = states;
+      this.hashCode = Arrays.hashCode(states);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof StateSet && Arrays.equals(states, ((StateSet) obj).states);
+    }
+  }
+
+  /** A state of the deterministic automaton. */
+  private class DState {
+    final StateSet nfaStates;
+    final boolean isAccept;
+    // destination state for every char class, or NOT_COMPUTED
+    final int[] nextStates;
+    // transitions as (dest, min, max) triples, computed on demand
+    int[] transitions;
+
+    DState(StateSet nfaStates) {
+      this.nfaStates = nfaStates;
+      boolean isAccept = false;
+      for (int nfaState : nfaStates.states) {
+        if (automaton.isAccept(nfaState)) {
+          isAccept = true;
+          break;
+        }
+      }
+      this.isAccept = isAccept;
+      this.nextStates = new int[points.length];
+      Arrays.fill(nextStates, NOT_COMPUTED);
+    }
+  }
+}
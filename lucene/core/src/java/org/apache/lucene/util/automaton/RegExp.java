@@ -556,7 +556,7 @@ public class RegExp {
    * toAutomaton(null)</code> (empty automaton map).
    */
   public Automaton toAutomaton() {
-    return toAutomaton(null, null, Operations.DEFAULT_MAX_DETERMINIZED_STATES);
+    return toAutomaton(null, null, Operations.DEFAULT_MAX_DETERMINIZED_STATES, true);
   }
 
   /**
@@ -573,7 +573,7 @@ public class RegExp {
    */
   public Automaton toAutomaton(int maxDeterminizedStates)
       throws IllegalArgumentException, TooComplexToDeterminizeException {
-    return toAutomaton(null, null, maxDeterminizedStates);
+    return toAutomaton(null, null, maxDeterminizedStates, true);
   }
 
   /**
@@ -591,7 +591,29 @@ public class RegExp {
    */
   public Automaton toAutomaton(AutomatonProvider automaton_provider, int maxDeterminizedStates)
       throws IllegalArgumentException, TooComplexToDeterminizeException {
-    return toAutomaton(null, automaton_provider, maxDeterminizedStates);
+    return toAutomaton(null, automaton_provider, maxDeterminizedStates, true);
+  }
+
+  /**
+   * Constructs new <code>Automaton</code> from this <code>RegExp</code>. If determinize is false,
+   * the constructed automaton is not determinized nor minimized, except for parts of the regular
+   * expression that require a deterministic automaton such as complements, so it is usually much
+   * cheaper to build. Such an automaton may be non-deterministic and have dead states.
+   *
+   * @param automaton_provider provider of automata for named identifiers
+   * @param maxDeterminizedStates maximum number of states in the automata that need to be
+   *     determinized. If the automata would need more than this many states
+   *     TooComplextToDeterminizeException is thrown.
+   * @param determinize whether to determinize and minimize the constructed automaton
+   * @exception IllegalArgumentException if this regular expression uses a named identifier that is
+   *     not available from the automaton provider
+   * @exception TooComplexToDeterminizeException if determinizing this regexp requires more than
+   *     maxDeterminizedStates states
+   */
+  public Automaton toAutomaton(
+      AutomatonProvider automaton_provider, int maxDeterminizedStates, boolean determinize)
+      throws IllegalArgumentException, TooComplexToDeterminizeException {
+    return toAutomaton(null, automaton_provider, maxDeterminizedStates, determinize);
   }
 
   /**
@@ -609,16 +631,17 @@ public class RegExp {
    */
   public Automaton toAutomaton(Map<String, Automaton> automata, int maxDeterminizedStates)
       throws IllegalArgumentException, TooComplexToDeterminizeException {
-    return toAutomaton(automata, null, maxDeterminizedStates);
+    return toAutomaton(automata, null, maxDeterminizedStates, true);
   }
 
   private Automaton toAutomaton(
       Map<String, Automaton> automata,
       AutomatonProvider automaton_provider,
-      int maxDeterminizedStates)
+      int maxDeterminizedStates,
+      boolean determinize)
       throws IllegalArgumentException, TooComplexToDeterminizeException {
     try {
-      return toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates);
+      return toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates, determinize);
     } catch (TooComplexToDeterminizeException e) {
       throw new TooComplexToDeterminizeException(this, e);
     }
@@ -627,23 +650,38 @@ public class RegExp {
   private Automaton toAutomatonInternal(
       Map<String, Automaton> automata,
       AutomatonProvider automaton_provider,
-      int maxDeterminizedStates)
+      int maxDeterminizedStates,
+      boolean determinize)
       throws IllegalArgumentException {
     List<Automaton> list;
     Automaton a = null;
     switch (kind) {
       case REGEXP_PRE_CLASS:
         RegExp expanded = expandPredefined();
-        a = expanded.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates);
+        a =
+            expanded.toAutomatonInternal(
+                automata, automaton_provider, maxDeterminizedStates, determinize);
         break;
       case REGEXP_UNION:
         list = new ArrayList<>();
         findLeaves(
-            exp1, Kind.REGEXP_UNION, list, automata, automaton_provider, maxDeterminizedStates);
+            exp1,
+            Kind.REGEXP_UNION,
+            list,
+            automata,
+            automaton_provider,
+            maxDeterminizedStates,
+            determinize);
         findLeaves(
-            exp2, Kind.REGEXP_UNION, list, automata, automaton_provider, maxDeterminizedStates);
+            exp2,
+            Kind.REGEXP_UNION,
+            list,
+            automata,
+            automaton_provider,
+            maxDeterminizedStates,
+            determinize);
         a = Operations.union(list);
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_CONCATENATION:
         list = new ArrayList<>();
@@ -653,47 +691,57 @@ public class RegExp {
             list,
             automata,
             automaton_provider,
-            maxDeterminizedStates);
+            maxDeterminizedStates,
+            determinize);
         findLeaves(
             exp2,
             Kind.REGEXP_CONCATENATION,
             list,
             automata,
             automaton_provider,
-            maxDeterminizedStates);
+            maxDeterminizedStates,
+            determinize);
         a = Operations.concatenate(list);
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_INTERSECTION:
         a =
             Operations.intersection(
-                exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates),
-                exp2.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates));
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+                exp1.toAutomatonInternal(
+                    automata, automaton_provider, maxDeterminizedStates, determinize),
+                exp2.toAutomatonInternal(
+                    automata, automaton_provider, maxDeterminizedStates, determinize));
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_OPTIONAL:
         a =
             Operations.optional(
-                exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates));
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+                exp1.toAutomatonInternal(
+                    automata, automaton_provider, maxDeterminizedStates, determinize));
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_REPEAT:
         a =
             Operations.repeat(
-                exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates));
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+                exp1.toAutomatonInternal(
+                    automata, automaton_provider, maxDeterminizedStates, determinize));
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_REPEAT_MIN:
-        a = exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates);
+        a =
+            exp1.toAutomatonInternal(
+                automata, automaton_provider, maxDeterminizedStates, determinize);
         int minNumStates = (a.getNumStates() - 1) * min;
         if (minNumStates > maxDeterminizedStates) {
           throw new TooComplexToDeterminizeException(a, minNumStates);
         }
         a = Operations.repeat(a, min);
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_REPEAT_MINMAX:
-        a = exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates);
+        a =
+            exp1.toAutomatonInternal(
+                automata, automaton_provider, maxDeterminizedStates, determinize);
         int minMaxNumStates = (a.getNumStates() - 1) * max;
         if (minMaxNumStates > maxDeterminizedStates) {
           throw new TooComplexToDeterminizeException(a, minMaxNumStates);
@@ -703,13 +751,14 @@ public class RegExp {
       case REGEXP_COMPLEMENT:
         a =
             Operations.complement(
-                exp1.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates),
+                exp1.toAutomatonInternal(
+                    automata, automaton_provider, maxDeterminizedStates, determinize),
                 maxDeterminizedStates);
-        a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+        a = minimize(a, maxDeterminizedStates, determinize);
         break;
       case REGEXP_CHAR:
         if (check(ASCII_CASE_INSENSITIVE)) {
-          a = toCaseInsensitiveChar(c, maxDeterminizedStates);
+          a = toCaseInsensitiveChar(c, maxDeterminizedStates, determinize);
         } else {
           a = Automata.makeChar(c);
         }
@@ -725,7 +774,7 @@ public class RegExp {
         break;
       case REGEXP_STRING:
         if (check(ASCII_CASE_INSENSITIVE)) {
-          a = toCaseInsensitiveString(maxDeterminizedStates);
+          a = toCaseInsensitiveString(maxDeterminizedStates, determinize);
         } else {
           a = Automata.makeString(s);
         }
@@ -757,7 +806,8 @@ public class RegExp {
     return a;
   }
 
-  private Automaton toCaseInsensitiveChar(int codepoint, int maxDeterminizedStates) {
+  private Automaton toCaseInsensitiveChar(
+      int codepoint, int maxDeterminizedStates, boolean determinize) {
     Automaton case1 = Automata.makeChar(codepoint);
     // For now we only work with ASCII characters
     if (codepoint > 128) {
@@ -770,22 +820,22 @@ public class RegExp {
     Automaton result;
     if (altCase != codepoint) {
       result = Operations.union(case1, Automata.makeChar(altCase));
-      result = MinimizationOperations.minimize(result, maxDeterminizedStates);
+      result = minimize(result, maxDeterminizedStates, determinize);
     } else {
       result = case1;
     }
     return result;
   }
 
-  private Automaton toCaseInsensitiveString(int maxDeterminizedStates) {
+  private Automaton toCaseInsensitiveString(int maxDeterminizedStates, boolean determinize) {
     List<Automaton> list = new ArrayList<>();
 
     Iterator<Integer> iter = s.codePoints().iterator();
     while (iter.hasNext()) {
-      list.add(toCaseInsensitiveChar(iter.next(), maxDeterminizedStates));
+      list.add(toCaseInsensitiveChar(iter.next(), maxDeterminizedStates, determinize));
     }
     Automaton a = Operations.concatenate(list);
-    a = MinimizationOperations.minimize(a, maxDeterminizedStates);
+    a = minimize(a, maxDeterminizedStates, determinize);
     return a;
   }
 
@@ -795,15 +845,31 @@ public class RegExp {
       List<Automaton> list,
       Map<String, Automaton> automata,
       AutomatonProvider automaton_provider,
-      int maxDeterminizedStates) {
+      int maxDeterminizedStates,
+      boolean determinize) {
     if (exp.kind == kind) {
-      findLeaves(exp.exp1, kind, list, automata, automaton_provider, maxDeterminizedStates);
-      findLeaves(exp.exp2, kind, list, automata, automaton_provider, maxDeterminizedStates);
+      findLeaves(
+          exp.exp1, kind, list, automata, automaton_provider, maxDeterminizedStates, determinize);
+      findLeaves(
+          exp.exp2, kind, list, automata, automaton_provider, maxDeterminizedStates, determinize);
     } else {
-      list.add(exp.toAutomatonInternal(automata, automaton_provider, maxDeterminizedStates));
+      list.add(
+          exp.toAutomatonInternal(
+              automata, automaton_provider, maxDeterminizedStates, determinize));
     }
   }
 
+  /**
+   * Minimizes the given automaton, or returns it unchanged if determinization is disabled since
+   * minimization requires a deterministic automaton.
+   */
+  private static Automaton minimize(Automaton a, int maxDeterminizedStates, boolean determinize) {
+    if (determinize) {
+      return MinimizationOperations.minimize(a, maxDeterminizedStates);
+    }
+    return a;
+  }
+
   /** The string that was used to construct the regex. Compare to toString. */
   public String getOriginalString() {
     return originalString;
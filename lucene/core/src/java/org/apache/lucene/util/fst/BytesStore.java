@@ -41,6 +41,8 @@ class BytesStore extends DataOutput implements Accountable {
 
   private byte[] current;
   private int nextWrite;
+  // number of leading blocks that have been written to a DataOutput and released
+  private int numReleasedBlocks;
 
   public BytesStore(int blockBits) {
     this.blockBits = blockBits;
@@ -369,11 +371,36 @@ class BytesStore extends DataOutput implements Accountable {
 
   /** Writes all of our bytes to the target {@link DataOutput}. */
   public void writeTo(DataOutput out) throws IOException {
-    for (byte[] block : blocks) {
+    for (int i = numReleasedBlocks; i < blocks.size(); i++) {
+      byte[] block = blocks.get(i);
       out.writeBytes(block, 0, block.length);
     }
   }
 
+  /**
+   * Writes all blocks that are complete, ie. all blocks but the one that the next byte would be
+   * written to, to the target {@link DataOutput} and releases them from memory. Released bytes
+   * can't be read or modified anymore, but positions keep counting from the start of the store. If
+   * called after {@link #finish()}, the last block is released too.
+   */
+  void releaseCompleteBlocks(DataOutput out) throws IOException {
+    final int numCompleteBlocks =
+        current == null || nextWrite == blockSize ? blocks.size() : blocks.size() - 1;
+    for (; numReleasedBlocks < numCompleteBlocks; numReleasedBlocks++) {
+      byte[] block = blocks.get(numReleasedBlocks);
+      out.writeBytes(block, 0, block.length);
+      blocks.set(numReleasedBlocks, null);
+      if (block == current) {
+        current = null;
+      }
+    }
+  }
+
+  /** Returns true if some blocks have been released by {@link #releaseCompleteBlocks}. */
+  boolean hasReleasedBlocks() {
+    return numReleasedBlocks > 0;
+  }
+
   public FST.BytesReader getForwardReader() {
     if (blocks.size() == 1) {
       return new ForwardBytesReader(blocks.get(0));
@@ -504,8 +531,9 @@ class BytesStore extends DataOutput implements Accountable {
   @Override
   public long ramBytesUsed() {
     long size = BASE_RAM_BYTES_USED;
-    for (byte[] block : blocks) {
-      size += RamUsageEstimator.sizeOf(block);
+    size += RamUsageEstimator.NUM_BYTES_OBJECT_REF * (long) blocks.size();
+    for (int i = numReleasedBlocks; i < blocks.size(); i++) {
+      size += RamUsageEstimator.sizeOf(blocks.get(i));
     }
     return size;
   }
@@ -525,6 +525,37 @@ public final class FST<T> implements Accountable {
   }
 
   public void save(DataOutput metaOut, DataOutput out) throws IOException {
+    if (bytes != null && bytes.hasReleasedBlocks()) {
+      throw new IllegalStateException(
+          "the bytes of this FST have been written to a DataOutput while it was built, use"
+              + " saveMetadata instead");
+    }
+    writeMetadataHeader(metaOut);
+    if (bytes != null) {
+      long numBytes = bytes.getPosition();
+      metaOut.writeVLong(numBytes);
+      bytes.writeTo(out);
+    } else {
+      assert fstStore != null;
+      fstStore.writeTo(out);
+    }
+  }
+
+  /**
+   * Save the metadata of a newly built FST, ie. everything but its bytes, to the given output. This
+   * is useful when the bytes of the FST have been written to a separate output while it was built,
+   * see {@link FSTCompiler.Builder#dataOutput}. The FST can then be loaded with {@link
+   * #FST(DataInput, DataInput, Outputs, FSTStore)}.
+   */
+  public void saveMetadata(DataOutput metaOut) throws IOException {
+    if (bytes == null) {
+      throw new IllegalStateException("saveMetadata may only be called on FSTs that were built");
+    }
+    writeMetadataHeader(metaOut);
+    metaOut.writeVLong(bytes.getPosition());
+  }
+
+  private void writeMetadataHeader(DataOutput metaOut) throws IOException {
     if (startNode == -1) {
       throw new IllegalStateException("call finish first");
     }
@@ -565,14 +596,6 @@ public final class FST<T> implements Accountable {
     }
     metaOut.writeByte(t);
     metaOut.writeVLong(startNode);
-    if (bytes != null) {
-      long numBytes = bytes.getPosition();
-      metaOut.writeVLong(numBytes);
-      bytes.writeTo(out);
-    } else {
-      assert fstStore != null;
-      fstStore.writeTo(out);
-    }
   }
 
   /** Writes an automaton to a file. */
@@ -1472,23 +1495,33 @@ public final class FST<T> implements Accountable {
       return null;
     }
 
-    // Linear scan
-    readFirstRealTargetArc(follow.target(), arc, in);
-
+    // Linear scan: only read the flags and label of the arcs we scan, and skip over their outputs,
+    // so that we only create objects for the output of the matching arc, if found
+    long arcAddress = follow.target();
     while (true) {
       // System.out.println("  non-bs cycle");
-      // TODO: we should fix this code to not have to create
-      // object for the output of every arc we scan... only
-      // for the matching arc, if found
-      if (arc.label() == labelToMatch) {
+      final int label = readLabel(in);
+      if (label == labelToMatch) {
         // System.out.println("    found!");
-        return arc;
-      } else if (arc.label() > labelToMatch) {
+        arc.nextArc = arcAddress;
+        arc.bytesPerArc = 0;
+        return readNextRealArc(arc, in);
+      } else if (label > labelToMatch) {
         return null;
-      } else if (arc.isLast()) {
+      } else if (flag(flags, BIT_LAST_ARC)) {
         return null;
       } else {
-        readNextRealArc(arc, in);
+        if (flag(flags, BIT_ARC_HAS_OUTPUT)) {
+          outputs.skipOutput(in);
+        }
+        if (flag(flags, BIT_ARC_HAS_FINAL_OUTPUT)) {
+          outputs.skipFinalOutput(in);
+        }
+        if (flag(flags, BIT_STOP_NODE) == false && flag(flags, BIT_TARGET_NEXT) == false) {
+          readUnpackedNodeTarget(in);
+        }
+        arcAddress = in.getPosition();
+        flags = in.readByte();
       }
     }
   }
@@ -1522,6 +1555,10 @@ public final class FST<T> implements Accountable {
   public BytesReader getBytesReader() {
     if (this.fstStore != null) {
       return this.fstStore.getReverseBytesReader();
+    } else if (bytes.hasReleasedBlocks()) {
+      throw new IllegalStateException(
+          "the bytes of this FST have been written to a DataOutput while it was built, load it"
+              + " from there to read it");
     } else {
       return bytes.getReverseReader();
     }
@@ -18,14 +18,12 @@ package org.apache.lucene.util.fst;
 
 import java.io.IOException;
 import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.IntsRefBuilder;
 import org.apache.lucene.util.fst.FST.INPUT_TYPE; // javadoc
 
-// TODO: could we somehow stream an FST to disk while we
-// build it?
-
 /**
  * Builds a minimal FST (maps an IntsRef term to an arbitrary output) from pre-sorted terms with
  * outputs. The FST becomes an FSA if you use NoOutputs. The FST is written on-the-fly into a
@@ -40,6 +38,12 @@ import org.apache.lucene.util.fst.FST.INPUT_TYPE; // javadoc
  * <p>FSTs larger than 2.1GB are now possible (as of Lucene 4.2). FSTs containing more than 2.1B
  * nodes are also now possible, however they cannot be packed.
  *
+ * <p>Building very large FSTs may require a lot of heap, mostly for the FST bytes and for the hash
+ * of frozen nodes that is used to share suffixes. The former can be streamed to a {@link
+ * DataOutput} as the FST is built, see {@link Builder#dataOutput}, and the latter can be bounded,
+ * see {@link Builder#suffixRAMLimitMB}. Together, these options make the heap required to build an
+ * FST independent of its size.
+ *
  * @lucene.experimental
  */
 public class FSTCompiler<T> {
@@ -94,12 +98,27 @@ public class FSTCompiler<T> {
 
   final BytesStore bytes;
 
+  // if not null, frozen nodes are written to this output and released from memory
+  private final DataOutput dataOutput;
+
   /**
    * Instantiates an FST/FSA builder with default settings and pruning options turned off. For more
    * tuning and tweaking, see {@link Builder}.
    */
   public FSTCompiler(FST.INPUT_TYPE inputType, Outputs<T> outputs) {
-    this(inputType, 0, 0, true, true, Integer.MAX_VALUE, outputs, true, 15, 1f);
+    this(
+        inputType,
+        0,
+        0,
+        true,
+        true,
+        Integer.MAX_VALUE,
+        outputs,
+        true,
+        15,
+        1f,
+        Double.POSITIVE_INFINITY,
+        null);
   }
 
   private FSTCompiler(
@@ -112,7 +131,9 @@ public class FSTCompiler<T> {
       Outputs<T> outputs,
       boolean allowFixedLengthArcs,
       int bytesPageBits,
-      float directAddressingMaxOversizingFactor) {
+      float directAddressingMaxOversizingFactor,
+      double suffixRAMLimitMB,
+      DataOutput dataOutput) {
     this.minSuffixCount1 = minSuffixCount1;
     this.minSuffixCount2 = minSuffixCount2;
     this.doShareNonSingletonNodes = doShareNonSingletonNodes;
@@ -122,8 +143,17 @@ public class FSTCompiler<T> {
     fst = new FST<>(inputType, outputs, bytesPageBits);
     bytes = fst.bytes;
     assert bytes != null;
+    this.dataOutput = dataOutput;
     if (doShareSuffix) {
-      dedupHash = new NodeHash<>(fst, bytes.getReverseReader(false));
+      final long ramLimitBytes;
+      if (suffixRAMLimitMB == Double.POSITIVE_INFINITY) {
+        ramLimitBytes = Long.MAX_VALUE;
+      } else {
+        ramLimitBytes = (long) (suffixRAMLimitMB * 1024 * 1024);
+      }
+      // frozen nodes can't be read back from the FST if they are streamed to the data output
+      final boolean copyNodes = dataOutput != null;
+      dedupHash = new NodeHash<>(fst, bytes.getReverseReader(false), ramLimitBytes, copyNodes);
     } else {
       dedupHash = null;
     }
@@ -155,6 +185,8 @@ public class FSTCompiler<T> {
     private boolean allowFixedLengthArcs = true;
     private int bytesPageBits = 15;
     private float directAddressingMaxOversizingFactor = DIRECT_ADDRESSING_MAX_OVERSIZING_FACTOR;
+    private double suffixRAMLimitMB = Double.POSITIVE_INFINITY;
+    private DataOutput dataOutput;
 
     /**
      * @param inputType The input type (transition labels). Can be anything from {@link INPUT_TYPE}
@@ -267,6 +299,37 @@ public class FSTCompiler<T> {
       return this;
     }
 
+    /**
+     * Only used if {@code shouldShareSuffix} is true. Bounds the memory of the hash of frozen nodes
+     * that is used to share suffixes to about this many MB. The hash then only remembers recently
+     * frozen nodes, which may prevent sharing some suffixes and make the FST larger than the
+     * minimal FST. Pass {@link Double#POSITIVE_INFINITY} to always build the minimal FST.
+     *
+     * <p>Default = {@link Double#POSITIVE_INFINITY}.
+     */
+    public Builder<T> suffixRAMLimitMB(double mb) {
+      if (mb <= 0 || Double.isNaN(mb)) {
+        throw new IllegalArgumentException("suffixRAMLimitMB must be > 0, got " + mb);
+      }
+      this.suffixRAMLimitMB = mb;
+      return this;
+    }
+
+    /**
+     * Streams the FST bytes to the given output as the FST is built, instead of keeping them in
+     * heap. The FST that {@link FSTCompiler#compile()} returns then can't be used or saved
+     * directly: write its metadata with {@link FST#saveMetadata} and load it back with {@link
+     * FST#FST(org.apache.lucene.store.DataInput, org.apache.lucene.store.DataInput, Outputs,
+     * FSTStore)}, typically with an {@link OffHeapFSTStore}. Nothing else may be written to this
+     * output until {@link FSTCompiler#compile()} returns.
+     *
+     * <p>Default = {@code null}, ie. the FST is built in heap.
+     */
+    public Builder<T> dataOutput(DataOutput dataOutput) {
+      this.dataOutput = dataOutput;
+      return this;
+    }
+
     /** Creates a new {@link FSTCompiler}. */
     public FSTCompiler<T> build() {
       FSTCompiler<T> fstCompiler =
@@ -280,7 +343,9 @@ public class FSTCompiler<T> {
               outputs,
               allowFixedLengthArcs,
               bytesPageBits,
-              directAddressingMaxOversizingFactor);
+              directAddressingMaxOversizingFactor,
+              suffixRAMLimitMB,
+              dataOutput);
       return fstCompiler;
     }
   }
@@ -328,6 +393,9 @@ public class FSTCompiler<T> {
       // The FST added a new node:
       assert bytesPosEnd > bytesPosStart;
       lastFrozenNode = node;
+      if (dataOutput != null) {
+        bytes.releaseCompleteBlocks(dataOutput);
+      }
     }
 
     nodeIn.clear();
@@ -603,6 +671,9 @@ public class FSTCompiler<T> {
     // if (DEBUG) System.out.println("  builder.finish root.isFinal=" + root.isFinal + "
     // root.output=" + root.output);
     fst.finish(compileNode(root, lastInput.length()).node);
+    if (dataOutput != null) {
+      bytes.releaseCompleteBlocks(dataOutput);
+    }
 
     return fst;
   }
@@ -17,28 +17,55 @@
 package org.apache.lucene.util.fst;
 
 import java.io.IOException;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.packed.PackedInts;
 import org.apache.lucene.util.packed.PagedGrowableWriter;
 
 // Used to dedup states (lookup already-frozen states)
+//
+// By default this hash is unbounded and reads frozen nodes from the FST's bytes, which makes the
+// FST minimal. It can also be bounded in RAM, in which case it only remembers recently frozen
+// nodes: once the current table exceeds half the budget it becomes the fallback table and a new
+// table is started, and nodes that are found in the fallback table are promoted to the current
+// table. This approximates an LRU cache and may create duplicate suffixes, so that the FST is no
+// longer minimal. Finally, nodes may be copied into the hash itself, which is required when the
+// FST's bytes are written to disk as they are built and can no longer be read.
 final class NodeHash<T> {
 
-  private PagedGrowableWriter table;
-  private long count;
-  private long mask;
   private final FST<T> fst;
+  private final long ramLimitBytes;
+  private final boolean copyNodes;
   private final FST.Arc<T> scratchArc = new FST.Arc<>();
-  private final FST.BytesReader in;
+  private final FST.BytesReader fstReader;
+  private byte[] scratchBytes = new byte[16];
 
+  // table that new nodes are added to
+  private Table primary;
+  // previous table, only used when RAM is bounded
+  private Table fallback;
+
+  /** Creates an unbounded hash that reads frozen nodes from the FST. */
   public NodeHash(FST<T> fst, FST.BytesReader in) {
-    table = new PagedGrowableWriter(16, 1 << 27, 8, PackedInts.COMPACT);
-    mask = 15;
+    this(fst, in, Long.MAX_VALUE, false);
+  }
+
+  /**
+   * Creates a hash that uses about {@code ramLimitBytes} of memory, and that copies frozen nodes
+   * into its own memory instead of reading them from the FST if {@code copyNodes} is true.
+   */
+  NodeHash(FST<T> fst, FST.BytesReader in, long ramLimitBytes, boolean copyNodes) {
     this.fst = fst;
-    this.in = in;
+    this.fstReader = in;
+    this.ramLimitBytes = ramLimitBytes;
+    this.copyNodes = copyNodes;
+    this.primary = new Table();
   }
 
-  private boolean nodesEqual(FSTCompiler.UnCompiledNode<T> node, long address) throws IOException {
-    fst.readFirstRealTargetArc(address, scratchArc, in);
+  private boolean nodesEqual(FSTCompiler.UnCompiledNode<T> node, Table table, long pos)
+      throws IOException {
+    final long address = table.addresses.get(pos);
+    fst.readFirstRealTargetArc(address, scratchArc, table.reader(pos, address));
+    final FST.BytesReader in = table.reader;
 
     // Fail fast for a node with fixed length arcs.
     if (scratchArc.bytesPerArc() != 0) {
@@ -104,7 +131,7 @@ final class NodeHash<T> {
   }
 
   // hash code for a frozen node
-  private long hash(long node) throws IOException {
+  private long hash(long node, FST.BytesReader in) throws IOException {
     final int PRIME = 31;
     // System.out.println("hash frozen node=" + node);
     long h = 0;
@@ -133,59 +160,226 @@ final class NodeHash<T> {
       throws IOException {
     // System.out.println("hash: add count=" + count + " vs " + table.size() + " mask=" + mask);
     final long h = hash(nodeIn);
-    long pos = h & mask;
-    int c = 0;
-    while (true) {
-      final long v = table.get(pos);
-      if (v == 0) {
-        // freeze & add
-        final long node = fst.addNode(fstCompiler, nodeIn);
-        // System.out.println("  now freeze node=" + node);
-        assert hash(node) == h : "frozenHash=" + hash(node) + " vs h=" + h;
-        count++;
-        table.set(pos, node);
-        // Rehash at 2/3 occupancy:
-        if (count > 2 * table.size() / 3) {
-          rehash();
-        }
-        return node;
-      } else if (nodesEqual(nodeIn, v)) {
-        // same node is already here
-        return v;
+    final long pos = primary.find(nodeIn, h);
+    long node = primary.addresses.get(pos);
+    if (node != 0) {
+      // same node is already here
+      return node;
+    }
+
+    if (fallback != null) {
+      final long fallbackPos = fallback.find(nodeIn, h);
+      node = fallback.addresses.get(fallbackPos);
+      if (node != 0) {
+        // the node was frozen a while ago, promote it to the primary table
+        primary.copyFrom(pos, fallback, fallbackPos);
       }
+    }
+
+    if (node == 0) {
+      // freeze & add
+      final long startAddress = fstCompiler.bytes.getPosition();
+      node = fst.addNode(fstCompiler, nodeIn);
+      // System.out.println("  now freeze node=" + node);
+      primary.set(pos, node, fstCompiler.bytes, startAddress);
+      assert hash(node, primary.reader(pos, node)) == h
+          : "frozenHash=" + hash(node, primary.reader(pos, node)) + " vs h=" + h;
+    }
 
-      // quadratic probe
-      pos = (pos + (++c)) & mask;
+    primary.count++;
+    // Rehash at 2/3 occupancy:
+    if (primary.count > 2 * primary.addresses.size() / 3) {
+      primary.rehash();
+    }
+    if (ramLimitBytes != Long.MAX_VALUE && primary.ramBytesUsed() > ramLimitBytes / 2) {
+      // the primary table is full, start a new one
+      fallback = primary;
+      primary = new Table();
     }
+    return node;
   }
 
-  // called only by rehash
-  private void addNew(long address) throws IOException {
-    long pos = hash(address) & mask;
-    int c = 0;
-    while (true) {
-      if (table.get(pos) == 0) {
-        table.set(pos, address);
-        break;
+  private byte[] scratchBytes(int length) {
+    if (scratchBytes.length < length) {
+      scratchBytes = new byte[ArrayUtil.oversize(length, Byte.BYTES)];
+    }
+    return scratchBytes;
+  }
+
+  /** A hash table of frozen nodes, and optionally copies of their bytes. */
+  private final class Table {
+    // FST addresses of nodes, 0 for empty slots
+    PagedGrowableWriter addresses;
+    long count;
+    long mask;
+
+    // when nodes are copied: position of the last byte of the copy of each node, ie. the position
+    // that matches its FST address
+    PagedGrowableWriter copiedNodeAddresses;
+    // copies of the bytes of nodes, each followed by its length on 4 bytes
+    final BytesStore copiedNodes;
+    final RelativeBytesReader reader;
+
+    Table() {
+      addresses = new PagedGrowableWriter(16, 1 << 27, 8, PackedInts.COMPACT);
+      mask = 15;
+      if (copyNodes) {
+        copiedNodeAddresses = new PagedGrowableWriter(16, 1 << 27, 8, PackedInts.COMPACT);
+        copiedNodes = new BytesStore(15);
+        // pad, so that no copy starts at 0
+        copiedNodes.writeByte((byte) 0);
+        reader = new RelativeBytesReader(copiedNodes.getReverseReader(false));
+      } else {
+        copiedNodes = null;
+        reader = new RelativeBytesReader(fstReader);
+      }
+    }
+
+    /** Returns a reader that can read the node at the given slot. */
+    FST.BytesReader reader(long pos, long address) {
+      if (copyNodes) {
+        reader.delta = address - copiedNodeAddresses.get(pos);
+      } else {
+        reader.delta = 0;
       }
+      return reader;
+    }
 
-      // quadratic probe
-      pos = (pos + (++c)) & mask;
+    /** Returns the slot of the given node, or the empty slot where it should be added. */
+    long find(FSTCompiler.UnCompiledNode<T> nodeIn, long h) throws IOException {
+      long pos = h & mask;
+      int c = 0;
+      while (addresses.get(pos) != 0 && nodesEqual(nodeIn, this, pos) == false) {
+        // quadratic probe
+        pos = (pos + (++c)) & mask;
+      }
+      return pos;
     }
-  }
 
-  private void rehash() throws IOException {
-    final PagedGrowableWriter oldTable = table;
-
-    table =
-        new PagedGrowableWriter(
-            2 * oldTable.size(), 1 << 30, PackedInts.bitsRequired(count), PackedInts.COMPACT);
-    mask = table.size() - 1;
-    for (long idx = 0; idx < oldTable.size(); idx++) {
-      final long address = oldTable.get(idx);
-      if (address != 0) {
-        addNew(address);
+    /** Sets the node at the given slot, copying it from {@code bytes} if needed. */
+    void set(long pos, long address, BytesStore bytes, long startAddress) {
+      addresses.set(pos, address);
+      if (copyNodes) {
+        final int length = Math.toIntExact(address - startAddress + 1);
+        final byte[] scratch = scratchBytes(length);
+        bytes.copyBytes(startAddress, scratch, 0, length);
+        copy(pos, scratch, length);
       }
     }
+
+    /** Copies the node at slot {@code otherPos} of {@code other} into the given slot. */
+    void copyFrom(long pos, Table other, long otherPos) {
+      final long address = other.addresses.get(otherPos);
+      addresses.set(pos, address);
+      if (copyNodes) {
+        final long copyAddress = other.copiedNodeAddresses.get(otherPos);
+        byte[] scratch = scratchBytes(Integer.BYTES);
+        other.copiedNodes.copyBytes(copyAddress + 1, scratch, 0, Integer.BYTES);
+        final int length =
+            ((scratch[0] & 0xFF) << 24)
+                | ((scratch[1] & 0xFF) << 16)
+                | ((scratch[2] & 0xFF) << 8)
+                | (scratch[3] & 0xFF);
+        scratch = scratchBytes(length);
+        other.copiedNodes.copyBytes(copyAddress - length + 1, scratch, 0, length);
+        copy(pos, scratch, length);
+      }
+    }
+
+    private void copy(long pos, byte[] nodeBytes, int length) {
+      copiedNodes.writeBytes(nodeBytes, 0, length);
+      copiedNodeAddresses.set(pos, copiedNodes.getPosition() - 1);
+      copiedNodes.writeByte((byte) (length >>> 24));
+      copiedNodes.writeByte((byte) (length >>> 16));
+      copiedNodes.writeByte((byte) (length >>> 8));
+      copiedNodes.writeByte((byte) length);
+    }
+
+    long ramBytesUsed() {
+      long ramBytesUsed = addresses.ramBytesUsed();
+      if (copyNodes) {
+        // cheaper than BytesStore#ramBytesUsed, which iterates over all blocks
+        ramBytesUsed += copiedNodeAddresses.ramBytesUsed() + copiedNodes.getPosition();
+      }
+      return ramBytesUsed;
+    }
+
+    void rehash() throws IOException {
+      final PagedGrowableWriter oldAddresses = addresses;
+      final PagedGrowableWriter oldCopiedNodeAddresses = copiedNodeAddresses;
+
+      addresses =
+          new PagedGrowableWriter(
+              2 * oldAddresses.size(), 1 << 30, PackedInts.bitsRequired(count), PackedInts.COMPACT);
+      if (copyNodes) {
+        copiedNodeAddresses =
+            new PagedGrowableWriter(
+                2 * oldAddresses.size(),
+                1 << 30,
+                PackedInts.bitsRequired(copiedNodes.getPosition()),
+                PackedInts.COMPACT);
+      }
+      mask = addresses.size() - 1;
+      for (long idx = 0; idx < oldAddresses.size(); idx++) {
+        final long address = oldAddresses.get(idx);
+        if (address != 0) {
+          final long copiedNodeAddress = copyNodes ? oldCopiedNodeAddresses.get(idx) : 0;
+          reader.delta = copyNodes ? address - copiedNodeAddress : 0;
+          long pos = hash(address, reader) & mask;
+          int c = 0;
+          while (addresses.get(pos) != 0) {
+            // quadratic probe
+            pos = (pos + (++c)) & mask;
+          }
+          addresses.set(pos, address);
+          if (copyNodes) {
+            copiedNodeAddresses.set(pos, copiedNodeAddress);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads bytes from a delegate whose positions are shifted by {@code delta}, so that copies of
+   * nodes can be read as if they were at their address in the FST.
+   */
+  private static final class RelativeBytesReader extends FST.BytesReader {
+    private final FST.BytesReader in;
+    long delta;
+
+    RelativeBytesReader(FST.BytesReader in) {
+      this.in = in;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      return in.readByte();
+    }
+
+    @Override
+    public void readBytes(byte[] b, int offset, int len) throws IOException {
+      in.readBytes(b, offset, len);
+    }
+
+    @Override
+    public void skipBytes(long numBytes) throws IOException {
+      in.skipBytes(numBytes);
+    }
+
+    @Override
+    public long getPosition() {
+      return in.getPosition() + delta;
+    }
+
+    @Override
+    public void setPosition(long pos) {
+      in.setPosition(pos - delta);
+    }
+
+    @Override
+    public boolean reversed() {
+      return in.reversed();
+    }
   }
 }
@@ -471,6 +471,82 @@ public class TestIndexedDISI extends LuceneTestCase {
     }
   }
 
+  public void testSparseSearch() {
+    final int numValues = TestUtil.nextInt(random(), 1, IndexedDISI.MAX_ARRAY_LENGTH);
+    final int[] values = new int[numValues];
+    final byte[] docs = new byte[numValues << 1];
+    for (int i = 0, doc = -1; i < numValues; ++i) {
+      doc += TestUtil.nextInt(random(), 1, (65536 - doc - 1) / (numValues - i));
+      values[i] = doc;
+      docs[i << 1] = (byte) (doc >>> 8);
+      docs[(i << 1) + 1] = (byte) doc;
+      assertEquals(doc, IndexedDISI.sparseDoc(docs, i));
+    }
+    final int iters = atLeast(1000);
+    for (int iter = 0; iter < iters; ++iter) {
+      final int from = TestUtil.nextInt(random(), 0, numValues);
+      final int to = TestUtil.nextInt(random(), from, numValues);
+      final int target =
+          random().nextBoolean()
+              ? random().nextInt(65536)
+              : values[random().nextInt(numValues)] + TestUtil.nextInt(random(), -1, 1);
+      int expected = from;
+      while (expected < to && values[expected] < target) {
+        expected++;
+      }
+      assertEquals(expected, IndexedDISI.sparseSearch(docs, from, to, target));
+    }
+  }
+
+  public void testRepeatedAdvanceExact() throws IOException {
+    try (Directory dir = newDirectory()) {
+      final int maxDoc = TestUtil.nextInt(random(), 1, 300000);
+      final FixedBitSet set = new FixedBitSet(maxDoc);
+      final int numDocs = TestUtil.nextInt(random(), 1, Math.min(maxDoc, 10000));
+      for (int i = 0; i < numDocs; ++i) {
+        set.set(random().nextInt(maxDoc));
+      }
+      final int cardinality = set.cardinality();
+      final byte denseRankPower = rarely() ? -1 : (byte) (random().nextInt(7) + 7);
+      long length;
+      int jumpTableEntryCount;
+      try (IndexOutput out = dir.createOutput("foo", IOContext.DEFAULT)) {
+        jumpTableEntryCount =
+            IndexedDISI.writeBitSet(new BitSetIterator(set, cardinality), out, denseRankPower);
+        length = out.getFilePointer();
+      }
+      try (IndexInput in = dir.openInput("foo", IOContext.DEFAULT)) {
+        IndexedDISI disi =
+            new IndexedDISI(in, 0L, length, jumpTableEntryCount, denseRankPower, cardinality);
+        BitSetIterator disi2 = new BitSetIterator(set, cardinality);
+        int index = -1;
+        for (int target = 0; target < maxDoc; target += TestUtil.nextInt(random(), 1, 1000)) {
+          while (disi2.docID() < target) {
+            disi2.nextDoc();
+            index++;
+          }
+          final boolean exists = disi2.docID() == target;
+          for (int i = 0, iters = TestUtil.nextInt(random(), 1, 3); i < iters; ++i) {
+            assertEquals(exists, disi.advanceExact(target));
+            assertEquals(target, disi.docID());
+            if (exists) {
+              assertEquals(index, disi.index());
+            }
+          }
+          if (exists == false && random().nextBoolean()) {
+            // moving on to the next doc from a missing target
+            assertEquals(disi2.docID(), disi.nextDoc());
+            if (disi2.docID() == DocIdSetIterator.NO_MORE_DOCS) {
+              break;
+            }
+            assertEquals(index, disi.index());
+            target = disi2.docID();
+          }
+        }
+      }
+    }
+  }
+
   public void testRandom() throws IOException {
     try (Directory dir = newDirectory()) {
       int numIters = atLeast(3);
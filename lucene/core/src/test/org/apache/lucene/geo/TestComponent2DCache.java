@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.geo;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestComponent2DCache extends LuceneTestCase {
+
+  private static Polygon polygon(double offset) {
+    return new Polygon(
+        new double[] {offset, offset, offset + 1, offset + 1, offset},
+        new double[] {offset, offset + 1, offset + 1, offset, offset});
+  }
+
+  public void testHitsAndMisses() {
+    Component2DCache cache = new Component2DCache(Component2DCache.DEFAULT_MAX_RAM_BYTES_USED);
+    Component2DCache.Entry e1 = cache.get(polygon(0));
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getCacheSize());
+    assertTrue(cache.ramBytesUsed() > 0);
+
+    // equal geometries share the same tree and predicate
+    Component2DCache.Entry e2 = cache.get(polygon(0));
+    assertSame(e1, e2);
+    assertSame(e1.getComponentPredicate(), e2.getComponentPredicate());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    cache.get(polygon(1));
+    cache.get(polygon(0), polygon(1));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+    assertEquals(3, cache.getCacheSize());
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+  }
+
+  public void testEviction() {
+    Component2DCache cache = new Component2DCache(Long.MAX_VALUE);
+    cache.get(polygon(0));
+    final long entrySize = cache.ramBytesUsed();
+
+    cache = new Component2DCache(entrySize * 10);
+    for (int i = 0; i < 100; i++) {
+      cache.get(polygon(i % 50));
+      assertTrue(cache.ramBytesUsed() <= entrySize * 10);
+    }
+    assertEquals(10, cache.getCacheSize());
+    assertEquals(90, cache.getEvictionCount());
+
+    // the most recently used entry is still cached
+    cache.get(polygon(49));
+    assertEquals(1, cache.getHitCount());
+
+    // entries that are larger than the cache are not cached
+    Component2DCache tinyCache = new Component2DCache(0);
+    tinyCache.get(polygon(0));
+    assertEquals(0, tinyCache.getCacheSize());
+    assertEquals(0, tinyCache.ramBytesUsed());
+  }
+
+  public void testDefaultCache() {
+    Component2DCache defaultCache = Component2DCache.getDefault();
+    Component2DCache cache = new Component2DCache(Component2DCache.DEFAULT_MAX_RAM_BYTES_USED);
+    Component2DCache.setDefault(cache);
+    try {
+      Component2D c1 = Component2DCache.create(polygon(0), polygon(2));
+      Component2D c2 = Component2DCache.create(polygon(0), polygon(2));
+      assertSame(c1, c2);
+      assertSame(
+          Component2DCache.getOrCreate(polygon(0), polygon(2)).getComponentPredicate(),
+          Component2DCache.getOrCreate(polygon(0), polygon(2)).getComponentPredicate());
+      assertEquals(3, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+
+      // invalid geometries are rejected, and not cached
+      expectThrows(
+          IllegalArgumentException.class, () -> Component2DCache.create((LatLonGeometry[]) null));
+      expectThrows(IllegalArgumentException.class, () -> Component2DCache.create(polygon(0), null));
+      assertEquals(1, cache.getCacheSize());
+
+      // the cache can be disabled
+      Component2DCache.setDefault(null);
+      Component2D c3 = Component2DCache.create(polygon(0), polygon(2));
+      assertNotSame(c1, c3);
+      // uncached entries still only build their predicate once
+      Component2DCache.Entry entry = Component2DCache.getOrCreate(polygon(0), polygon(2));
+      assertSame(entry.getComponentPredicate(), entry.getComponentPredicate());
+    } finally {
+      Component2DCache.setDefault(defaultCache);
+    }
+  }
+
+  public void testIllegalMaxRamBytesUsed() {
+    expectThrows(IllegalArgumentException.class, () -> new Component2DCache(-1));
+  }
+}
@@ -377,6 +377,88 @@ public class TestPolygon2D extends LuceneTestCase {
     }
   }
 
+  /** Large polygons relate boxes through a grid of precomputed relations */
+  public void testLargePolygonGrid() {
+    int iters = atLeast(5);
+    for (int i = 0; i < iters; i++) {
+      final int gons = TestUtil.nextInt(random(), Polygon2D.GRID_MIN_EDGES, 1000);
+      final double radiusMeters = TestUtil.nextInt(random(), 1000, 1000000);
+      Polygon polygon;
+      try {
+        polygon = createRegularPolygon(nextLatitude(), nextLongitude(), radiusMeters, gons);
+      } catch (IllegalArgumentException e) {
+        // crosses the dateline or a pole
+        continue;
+      }
+      Component2D impl = Polygon2D.create(polygon);
+
+      for (int j = 0; j < 1000; j++) {
+        double point[] = GeoTestUtil.nextPointNear(polygon);
+        double latitude = point[0];
+        double longitude = point[1];
+        assertEquals(
+            GeoTestUtil.containsSlowly(polygon, latitude, longitude),
+            impl.contains(longitude, latitude));
+      }
+
+      for (int j = 0; j < 100; j++) {
+        Rectangle box = GeoTestUtil.nextBoxNear(polygon);
+        if (box.crossesDateline()) {
+          continue;
+        }
+        final Relation relation = impl.relate(box.minLon, box.maxLon, box.minLat, box.maxLat);
+        for (int k = 0; k < 100; k++) {
+          double point[] = GeoTestUtil.nextPointNear(box);
+          double latitude = point[0];
+          double longitude = point[1];
+          if (latitude >= box.minLat
+              && latitude <= box.maxLat
+              && longitude >= box.minLon
+              && longitude <= box.maxLon) {
+            if (relation == Relation.CELL_INSIDE_QUERY) {
+              assertTrue(impl.contains(longitude, latitude));
+            } else if (relation == Relation.CELL_OUTSIDE_QUERY) {
+              assertFalse(impl.contains(longitude, latitude));
+            }
+          }
+        }
+        // a triangle that spans the whole box
+        final boolean intersects =
+            impl.intersectsTriangle(
+                box.minLon,
+                box.maxLon,
+                box.minLat,
+                box.maxLat,
+                box.minLon,
+                box.minLat,
+                box.maxLon,
+                box.minLat,
+                box.minLon,
+                box.maxLat);
+        final boolean contains =
+            impl.containsTriangle(
+                box.minLon,
+                box.maxLon,
+                box.minLat,
+                box.maxLat,
+                box.minLon,
+                box.minLat,
+                box.maxLon,
+                box.minLat,
+                box.minLon,
+                box.maxLat);
+        if (relation == Relation.CELL_INSIDE_QUERY) {
+          assertTrue(contains);
+        } else if (relation == Relation.CELL_OUTSIDE_QUERY) {
+          assertFalse(intersects);
+        }
+        if (contains) {
+          assertTrue(intersects);
+        }
+      }
+    }
+  }
+
   // targets the polygon directly
   public void testRelateTriangle() {
     for (int i = 0; i < 100; ++i) {
@@ -1482,6 +1482,52 @@ public class TestBinaryDocValuesUpdates extends LuceneTestCase {
     dir.close();
   }
 
+  public void testSparseUpdateGenerations() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    // a single segment that is large enough for a few updates to be written as sparse generations
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    conf.setMaxBufferedDocs(Integer.MAX_VALUE); // manually flush
+    conf.setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    IndexWriter writer = new IndexWriter(dir, conf);
+    final int numDocs = atLeast(500);
+    final long[] values = new long[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(doc(i));
+      values[i] = i + 1;
+    }
+    writer.commit();
+
+    for (int gen = 1; gen <= ReadersAndUpdates.MAX_STACKED_GENS + 1; gen++) {
+      for (int i = 0; i < 3; i++) {
+        int doc = random().nextInt(numDocs);
+        values[doc] = random().nextLong();
+        writer.updateBinaryDocValue(new Term("id", "doc-" + doc), "val", toBytes(values[doc]));
+      }
+      writer.commit();
+      DirectoryReader reader =
+          random().nextBoolean() ? DirectoryReader.open(writer) : DirectoryReader.open(dir);
+      LeafReader leafReader = getOnlyLeafReader(reader);
+      // the field gets fully rewritten once it has too many sparse generations
+      assertEquals(
+          gen <= ReadersAndUpdates.MAX_STACKED_GENS ? gen : 0,
+          StackedDocValuesProducer.getStackedGenCount(leafReader.getFieldInfos().fieldInfo("val")));
+      BinaryDocValues bdv = leafReader.getBinaryDocValues("val");
+      for (int doc = 0; doc < numDocs; doc++) {
+        if (random().nextBoolean()) {
+          assertTrue(bdv.advanceExact(doc));
+        } else {
+          assertEquals(doc, bdv.nextDoc());
+        }
+        assertEquals(values[doc], getValue(bdv));
+      }
+      reader.close();
+    }
+
+    writer.close();
+    dir.close();
+  }
+
   public void testIOContext() throws Exception {
     // LUCENE-5591: make sure we pass an IOContext with an approximate
     // segmentSize in FlushInfo
@@ -16,8 +16,23 @@
  */
 package org.apache.lucene.index;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.analysis.MockAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NamedThreadFactory;
+import org.apache.lucene.util.TestUtil;
 import org.junit.Test;
 
 public class TestCheckIndex extends BaseTestCheckIndex {
@@ -54,4 +69,111 @@ public class TestCheckIndex extends BaseTestCheckIndex {
   public void testObtainsLock() throws IOException {
     testObtainsLock(directory);
   }
+
+  @Test
+  public void testThreadCount() throws IOException {
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    try (IndexWriter writer = new IndexWriter(directory, iwc)) {
+      int numDocs = atLeast(200);
+      for (int i = 0; i < numDocs; i++) {
+        Document doc = new Document();
+        doc.add(newTextField("body", "foo bar " + random().nextInt(50), Field.Store.YES));
+        doc.add(new NumericDocValuesField("dv", random().nextInt()));
+        doc.add(new IntPoint("point", random().nextInt()));
+        writer.addDocument(doc);
+        if (random().nextInt(20) == 0) {
+          writer.commit();
+        }
+      }
+      writer.deleteDocuments(new Term("body", "7"));
+    }
+
+    String[] outputs = new String[2];
+    for (int i = 0; i < outputs.length; i++) {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+      try (CheckIndex checker = new CheckIndex(directory)) {
+        checker.setThreadCount(i == 0 ? 1 : TestUtil.nextInt(random(), 2, 5));
+        checker.setInfoStream(new PrintStream(bos, true, IOUtils.UTF_8));
+        CheckIndex.Status status = checker.checkIndex();
+        assertTrue(status.clean);
+        assertEquals(status.numSegments, status.segmentInfos.size());
+        for (CheckIndex.Status.SegmentInfoStatus segment : status.segmentInfos) {
+          assertNotNull(segment.termIndexStatus);
+          assertNotNull(segment.docValuesStatus);
+          assertNotNull(segment.pointsStatus);
+        }
+      }
+      // only timings may differ
+      outputs[i] = bos.toString(IOUtils.UTF_8).replaceAll("[0-9.]+ sec", "X sec");
+    }
+    assertEquals(outputs[0], outputs[1]);
+
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> {
+          try (CheckIndex checker = new CheckIndex(directory)) {
+            checker.setThreadCount(0);
+          }
+        });
+  }
+
+  @Test
+  public void testFailFastWithExecutor() throws Exception {
+    BaseDirectoryWrapper dir = newDirectory();
+    dir.setCheckIndexOnClose(false);
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    iwc.setUseCompoundFile(false);
+    try (IndexWriter writer = new IndexWriter(dir, iwc)) {
+      int numSegments = TestUtil.nextInt(random(), 2, 10);
+      for (int i = 0; i < numSegments; i++) {
+        Document doc = new Document();
+        doc.add(newTextField("body", "foo bar " + i, Field.Store.YES));
+        doc.add(new NumericDocValuesField("dv", i));
+        writer.addDocument(doc);
+        writer.commit();
+      }
+    }
+    // corrupt the first segment
+    for (String file : dir.listAll()) {
+      if (file.startsWith("_0.") && file.endsWith(".si") == false) {
+        dir.deleteFile(file);
+      }
+    }
+
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("TestCheckIndex"));
+    try (CheckIndex checker = new CheckIndex(dir)) {
+      checker.setFailFast(true);
+      expectThrows(Exception.class, () -> checker.checkIndex(null, executor));
+      // the failed check cancelled its pending tasks and waited for running ones, so tasks that
+      // are still queued are no-ops
+      for (Runnable pending : executor.shutdownNow()) {
+        assertTrue(((Future<?>) pending).isDone());
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+      dir.close();
+    }
+  }
+
+  @Test
+  public void testThreadCountOption() {
+    CheckIndex.Options opts = CheckIndex.parseOptions(new String[] {"path", "-threadCount", "3"});
+    assertEquals(3, opts.threadCount);
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> CheckIndex.parseOptions(new String[] {"path", "-threadCount", "0"}));
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> CheckIndex.parseOptions(new String[] {"path", "-threadCount"}));
+  }
 }
@@ -18,6 +18,8 @@ package org.apache.lucene.index;
 
 import com.carrotsearch.randomizedtesting.generators.RandomStrings;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,12 +27,18 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.MockDirectoryWrapper;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.InfoStream;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
@@ -413,6 +421,101 @@ public class TestConcurrentMergeScheduler extends LuceneTestCase {
         });
   }
 
+  public void testInvalidMaxIntraMergeThreadCount() throws Exception {
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+    assertEquals(0, cms.getMaxIntraMergeThreadCount());
+    assertNull(cms.getIntraMergeExecutor(null));
+    expectThrows(IllegalArgumentException.class, () -> cms.setMaxIntraMergeThreadCount(-1));
+  }
+
+  public void testIntraMergeThreads() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+    cms.setMaxIntraMergeThreadCount(TestUtil.nextInt(random(), 1, 4));
+    if (random().nextBoolean()) {
+      // throttled merges share a single rate limiter across their threads
+      cms.setForceMergeMBPerSec(TestUtil.nextInt(random(), 10, 100));
+    }
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(TestUtil.nextInt(random(), 10, 50));
+    iwc.setMergePolicy(newLogMergePolicy(TestUtil.nextInt(random(), 2, 10)));
+    IndexWriter w = new IndexWriter(dir, iwc);
+
+    FieldType tvType = new FieldType(TextField.TYPE_NOT_STORED);
+    tvType.setStoreTermVectors(true);
+    tvType.setStoreTermVectorPositions(true);
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("id", Integer.toString(i), Field.Store.YES));
+      doc.add(newTextField("body", TestUtil.randomSimpleString(random()), Field.Store.NO));
+      doc.add(new Field("tv", TestUtil.randomSimpleString(random()), tvType));
+      doc.add(new NumericDocValuesField("ndv", i));
+      doc.add(new SortedDocValuesField("sdv", new BytesRef(TestUtil.randomSimpleString(random()))));
+      doc.add(new IntPoint("point", i));
+      w.addDocument(doc);
+      if (random().nextInt(50) == 0) {
+        w.deleteDocuments(new Term("id", Integer.toString(random().nextInt(i + 1))));
+      }
+    }
+    w.forceMerge(1);
+    int expectedNumDocs = w.getDocStats().numDocs;
+    w.close();
+
+    try (DirectoryReader reader = DirectoryReader.open(dir)) {
+      assertEquals(1, reader.leaves().size());
+      assertEquals(expectedNumDocs, reader.numDocs());
+    }
+    TestUtil.checkIndex(dir);
+    dir.close();
+  }
+
+  public void testThrottleController() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwc = newIndexWriterConfig(new MockAnalyzer(random()));
+    ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
+    List<MergeThrottleController.Signals> allSignals = new CopyOnWriteArrayList<>();
+    MergeThrottleController controller =
+        new MergeThrottleController(1) {
+          @Override
+          protected Decision decide(Signals signals) {
+            allSignals.add(signals);
+            // asks for more than allowed, which gets clamped
+            return new Decision(Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+          }
+        };
+    cms.setThrottleController(controller);
+    assertSame(controller, cms.getThrottleController());
+    iwc.setMergeScheduler(cms);
+    iwc.setMaxBufferedDocs(100);
+    IndexWriter w = new IndexWriter(dir, iwc);
+    int numDocs = atLeast(3000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      // incompressible, so that merges write enough to report write times
+      byte[] bytes = new byte[1024];
+      random().nextBytes(bytes);
+      doc.add(new StoredField("bytes", bytes));
+      w.addDocument(doc);
+    }
+    w.forceMerge(1);
+    w.close();
+
+    assertTrue(controller.getUpdateCount() > 0);
+    assertEquals(controller.getUpdateCount(), allSignals.size());
+    for (MergeThrottleController.Signals signals : allSignals) {
+      assertTrue(signals.bytesWritten > 0);
+      assertTrue(signals.writeNanosPerMB >= 0);
+      assertTrue(signals.maxThreadCount <= signals.maxThreadCountLimit);
+    }
+    MergeThrottleController.Decision decision = controller.getLastDecision();
+    assertEquals(allSignals.get(0).maxMBPerSec, decision.mbPerSec, 0d);
+    assertEquals(cms.getMaxThreadCount(), decision.maxThreadCount);
+    assertEquals(decision.mbPerSec, cms.getIORateLimitMBPerSec(), 0d);
+    dir.close();
+  }
+
   public void testLiveMaxMergeCount() throws Exception {
     Directory d = newDirectory();
     IndexWriterConfig iwc = new IndexWriterConfig(new MockAnalyzer(random()));
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.lucene.index.MergePolicy.MergeSpecification;
+import org.apache.lucene.index.MergePolicy.OneMerge;
+import org.apache.lucene.util.Version;
+
+public class TestCostBasedMergePolicy extends BaseMergePolicyTestCase {
+
+  @Override
+  protected CostBasedMergePolicy mergePolicy() {
+    CostBasedMergePolicy mp = new CostBasedMergePolicy();
+    mp.setCostImportance(random().nextDouble() * 4);
+    if (random().nextBoolean()) {
+      mp.addCostSignal(
+          CostBasedMergePolicy.searchHeatSignal(new SegmentHeatTracker()), random().nextDouble());
+    }
+    return mp;
+  }
+
+  @Override
+  protected void assertSegmentInfos(MergePolicy policy, SegmentInfos infos) throws IOException {
+    // costs only re-rank candidate merges, the segment count is bounded like TieredMergePolicy
+    CostBasedMergePolicy mp = (CostBasedMergePolicy) policy;
+    long maxMergedSegmentBytes = (long) (mp.getMaxMergedSegmentMB() * 1024 * 1024);
+    int numSmallSegments = 0;
+    for (SegmentCommitInfo info : infos) {
+      if (info.sizeInBytes() < maxMergedSegmentBytes / 2) {
+        numSmallSegments++;
+      }
+    }
+    assertTrue(numSmallSegments < 100 * mp.getSegmentsPerTier());
+  }
+
+  @Override
+  protected void assertMerge(MergePolicy policy, MergeSpecification merges) {
+    CostBasedMergePolicy mp = (CostBasedMergePolicy) policy;
+    final int mergeFactor = (int) Math.min(mp.getMaxMergeAtOnce(), mp.getSegmentsPerTier());
+    for (OneMerge merge : merges.merges) {
+      assertTrue(merge.segments.size() <= mergeFactor);
+    }
+  }
+
+  public void testInvalidSettings() {
+    CostBasedMergePolicy mp = new CostBasedMergePolicy();
+    expectThrows(IllegalArgumentException.class, () -> mp.setCostImportance(-1));
+    expectThrows(IllegalArgumentException.class, () -> mp.setCostImportance(Double.NaN));
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> mp.addCostSignal(CostBasedMergePolicy.deletesSignal(), -0.5));
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> mp.addCostSignal(CostBasedMergePolicy.deletesSignal(), Double.NaN));
+    assertEquals(CostBasedMergePolicy.DEFAULT_COST_IMPORTANCE, mp.getCostImportance(), 0d);
+  }
+
+  public void testSignals() throws IOException {
+    SegmentCommitInfo info = makeSegmentCommitInfo("_0", 1000, 250, 1, IndexWriter.SOURCE_FLUSH);
+    assertEquals(0.25, CostBasedMergePolicy.deletesSignal().cost(info, 250), 0d);
+    assertEquals(0, CostBasedMergePolicy.docValuesUpdatesSignal().cost(info, 250), 0d);
+    SegmentCommitInfo updated = new SegmentCommitInfo(info.info, 250, 0, 1, -1, 3, info.getId());
+    assertEquals(3, CostBasedMergePolicy.docValuesUpdatesSignal().cost(updated, 250), 0d);
+
+    SegmentHeatTracker tracker = new SegmentHeatTracker();
+    tracker.addHits("_0", 30);
+    tracker.addHits("_1", 10);
+    assertEquals(0.75, CostBasedMergePolicy.searchHeatSignal(tracker).cost(info, 250), 0d);
+  }
+
+  /** Segments that are equally good merge candidates for sizes: the hot ones should win. */
+  public void testPreferHotSegments() throws IOException {
+    SegmentHeatTracker tracker = new SegmentHeatTracker();
+    CostBasedMergePolicy mp = new CostBasedMergePolicy();
+    mp.addCostSignal(CostBasedMergePolicy.searchHeatSignal(tracker), 1);
+    mp.setSegmentsPerTier(10);
+    mp.setMaxMergeAtOnce(10);
+
+    SegmentInfos infos = new SegmentInfos(Version.LATEST.major);
+    for (int i = 0; i < 20; ++i) {
+      // TieredMergePolicy breaks size ties by name
+      String name = "_" + (char) ('a' + i);
+      infos.add(makeSegmentCommitInfo(name, 1000, 0, 1, IndexWriter.SOURCE_FLUSH));
+      if (i >= 10) {
+        tracker.addHits(name, 100);
+      }
+    }
+
+    MergeSpecification spec =
+        mp.findMerges(
+            MergeTrigger.EXPLICIT, infos, new MockMergeContext(SegmentCommitInfo::getDelCount));
+    assertNotNull(spec);
+    for (SegmentCommitInfo info : spec.merges.get(0).segments) {
+      assertTrue(info.info.name, tracker.getHeat(info.info.name) > 0);
+    }
+
+    // without cost, TieredMergePolicy picks the first candidate
+    mp.setCostImportance(0);
+    spec =
+        mp.findMerges(
+            MergeTrigger.EXPLICIT, infos, new MockMergeContext(SegmentCommitInfo::getDelCount));
+    assertNotNull(spec);
+    for (SegmentCommitInfo info : spec.merges.get(0).segments) {
+      assertEquals(info.info.name, 0, tracker.getHeat(info.info.name), 0d);
+    }
+  }
+
+  public void testSimulatorWithoutCostMatchesTiered() throws IOException {
+    List<MergePolicySimulator.Event> history = randomHistory(random());
+    long seed = random().nextLong();
+
+    TieredMergePolicy tmp = new TieredMergePolicy();
+    MergePolicySimulator.Result expected =
+        new MergePolicySimulator(new Random(seed)).replay(tmp, history);
+
+    CostBasedMergePolicy mp = new CostBasedMergePolicy();
+    mp.setCostImportance(0);
+    MergePolicySimulator.Result actual =
+        new MergePolicySimulator(new Random(seed)).replay(mp, history);
+
+    assertEquals(expected.flushBytesWritten, actual.flushBytesWritten);
+    assertEquals(expected.mergeBytesWritten, actual.mergeBytesWritten);
+    assertEquals(expected.numMerges, actual.numMerges);
+    assertEquals(expected.searchCost, actual.searchCost, 0d);
+    assertEquals(expected.finalSegmentCount, actual.finalSegmentCount);
+  }
+
+  public void testSimulatorWithHeat() throws IOException {
+    List<MergePolicySimulator.Event> history = randomHistory(random());
+    SegmentHeatTracker tracker = new SegmentHeatTracker();
+    CostBasedMergePolicy mp = new CostBasedMergePolicy();
+    mp.addCostSignal(CostBasedMergePolicy.searchHeatSignal(tracker), 1);
+    MergePolicySimulator.Result result =
+        new MergePolicySimulator(random()).setHeatTracker(tracker).replay(mp, history);
+    assertTrue(result.toString(), result.numMerges > 0);
+    assertTrue(result.toString(), result.getWriteAmplification() >= 1);
+    assertTrue(tracker.getTotalHits() > 0);
+  }
+
+  private static List<MergePolicySimulator.Event> randomHistory(Random random) {
+    List<MergePolicySimulator.Event> history = new ArrayList<>();
+    int numFlushes = atLeast(random, 200);
+    for (int i = 0; i < numFlushes; ++i) {
+      history.add(MergePolicySimulator.Event.flush(1000, 0.5 + random.nextDouble()));
+      if (random.nextInt(5) == 0) {
+        history.add(MergePolicySimulator.Event.deletes(random.nextInt(500)));
+      }
+      if (random.nextInt(10) == 0) {
+        history.add(MergePolicySimulator.Event.docValuesUpdates(1 + random.nextInt(3)));
+      }
+      history.add(MergePolicySimulator.Event.search(1000, random.nextInt(4)));
+    }
+    return history;
+  }
+}
@@ -1896,6 +1896,135 @@ public class TestNumericDocValuesUpdates extends LuceneTestCase {
     dir.close();
   }
 
+  public void testSparseUpdateGenerations() throws Exception {
+    Directory dir = newDirectory();
+    IndexWriterConfig conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    // a single segment that is large enough for a few updates to be written as sparse generations
+    conf.setMergePolicy(NoMergePolicy.INSTANCE);
+    conf.setMaxBufferedDocs(Integer.MAX_VALUE); // manually flush
+    conf.setRAMBufferSizeMB(IndexWriterConfig.DISABLE_AUTO_FLUSH);
+    IndexWriter writer = new IndexWriter(dir, conf);
+    final int numDocs = atLeast(500);
+    final Long[] values = new Long[numDocs];
+    for (int i = 0; i < numDocs; i++) {
+      writer.addDocument(doc(i));
+      values[i] = i + 1L;
+    }
+    writer.commit();
+
+    for (int gen = 1; gen <= ReadersAndUpdates.MAX_STACKED_GENS + 1; gen++) {
+      for (int i = 0; i < 3; i++) {
+        int doc = random().nextInt(numDocs);
+        values[doc] = random().nextLong();
+        writer.updateNumericDocValue(new Term("id", "doc-" + doc), "val", values[doc]);
+      }
+      writer.commit();
+      DirectoryReader reader = DirectoryReader.open(dir);
+      // the field gets fully rewritten once it has too many sparse generations
+      assertEquals(
+          gen <= ReadersAndUpdates.MAX_STACKED_GENS ? gen : 0,
+          StackedDocValuesProducer.getStackedGenCount(
+              getOnlyLeafReader(reader).getFieldInfos().fieldInfo("val")));
+      assertValues(getOnlyLeafReader(reader), values);
+      reader.close();
+    }
+
+    // stack a few more generations
+    for (int gen = 1; gen <= 3; gen++) {
+      int doc = random().nextInt(numDocs);
+      values[doc] = random().nextLong();
+      writer.updateNumericDocValue(new Term("id", "doc-" + doc), "val", values[doc]);
+      writer.commit();
+    }
+    DirectoryReader reader = DirectoryReader.open(writer);
+    assertEquals(
+        3,
+        StackedDocValuesProducer.getStackedGenCount(
+            getOnlyLeafReader(reader).getFieldInfos().fieldInfo("val")));
+    assertValues(getOnlyLeafReader(reader), values);
+    reader.close();
+
+    // resetting values requires a full rewrite
+    int doc = random().nextInt(numDocs);
+    values[doc] = null;
+    writer.updateDocValues(new Term("id", "doc-" + doc), new NumericDocValuesField("val", null));
+    reader = DirectoryReader.open(writer);
+    assertEquals(
+        0,
+        StackedDocValuesProducer.getStackedGenCount(
+            getOnlyLeafReader(reader).getFieldInfos().fieldInfo("val")));
+    assertValues(getOnlyLeafReader(reader), values);
+    reader.close();
+
+    // updating a large fraction of the docs also requires a full rewrite
+    for (int i = 0; i < numDocs / 2; i++) {
+      doc = random().nextInt(numDocs);
+      values[doc] = random().nextLong();
+      writer.updateNumericDocValue(new Term("id", "doc-" + doc), "val", values[doc]);
+    }
+    reader = DirectoryReader.open(writer);
+    assertEquals(
+        0,
+        StackedDocValuesProducer.getStackedGenCount(
+            getOnlyLeafReader(reader).getFieldInfos().fieldInfo("val")));
+    assertValues(getOnlyLeafReader(reader), values);
+    reader.close();
+
+    // merges compact sparse generations
+    doc = random().nextInt(numDocs);
+    values[doc] = random().nextLong();
+    writer.updateNumericDocValue(new Term("id", "doc-" + doc), "val", values[doc]);
+    writer.close();
+    conf = newIndexWriterConfig(new MockAnalyzer(random()));
+    writer = new IndexWriter(dir, conf);
+    writer.addDocument(new Document());
+    writer.forceMerge(1);
+    reader = DirectoryReader.open(writer);
+    assertEquals(
+        0,
+        StackedDocValuesProducer.getStackedGenCount(
+            getOnlyLeafReader(reader).getFieldInfos().fieldInfo("val")));
+    assertValues(getOnlyLeafReader(reader), values);
+    reader.close();
+
+    writer.close();
+    dir.close();
+  }
+
+  private static void assertValues(LeafReader reader, Long[] values) throws IOException {
+    Map<String, Long> expected = new HashMap<>();
+    for (int i = 0; i < values.length; i++) {
+      expected.put("doc-" + i, values[i]);
+    }
+    Map<Integer, String> ids = new HashMap<>();
+    TermsEnum termsEnum = reader.terms("id").iterator();
+    PostingsEnum postings = null;
+    while (termsEnum.next() != null) {
+      postings = termsEnum.postings(postings, PostingsEnum.NONE);
+      ids.put(postings.nextDoc(), termsEnum.term().utf8ToString());
+    }
+    NumericDocValues ndv = reader.getNumericDocValues("val");
+    boolean advanceExact = random().nextBoolean();
+    for (int doc = 0; doc < reader.maxDoc(); doc++) {
+      Long value = expected.get(ids.get(doc));
+      boolean hasValue;
+      if (advanceExact) {
+        hasValue = ndv.advanceExact(doc);
+      } else {
+        if (ndv.docID() < doc) {
+          ndv.nextDoc();
+        }
+        hasValue = ndv.docID() == doc;
+      }
+      if (value == null) {
+        assertFalse(hasValue);
+      } else {
+        assertTrue(hasValue);
+        assertEquals(value.longValue(), ndv.longValue());
+      }
+    }
+  }
+
   public void testIOContext() throws Exception {
     // LUCENE-5591: make sure we pass an IOContext with an approximate
     // segmentSize in FlushInfo
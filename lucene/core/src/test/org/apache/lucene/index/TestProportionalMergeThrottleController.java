@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import org.apache.lucene.index.MergeThrottleController.Decision;
+import org.apache.lucene.index.MergeThrottleController.Signals;
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestProportionalMergeThrottleController extends LuceneTestCase {
+
+  private static Signals signals(
+      double mbPerSec, int maxThreadCount, boolean backlog, long bytesWritten, long writeNS) {
+    return new Signals(mbPerSec, 5, 100, maxThreadCount, 4, 2, backlog, bytesWritten, writeNS, 1);
+  }
+
+  public void testNoSignal() {
+    ProportionalMergeThrottleController controller = new ProportionalMergeThrottleController();
+    // behaves like the default heuristic: +20% on backlog, -10% otherwise
+    Decision decision = controller.update(signals(20, 2, true, 0, 0));
+    assertEquals(24, decision.mbPerSec, 1e-9);
+    assertEquals(3, decision.maxThreadCount);
+    decision = controller.update(signals(20, 2, false, 0, 0));
+    assertEquals(18, decision.mbPerSec, 1e-9);
+    assertEquals(2, decision.maxThreadCount);
+    // never below the floor, and no fewer threads without a signal
+    decision = controller.update(signals(5, 2, false, 0, 0));
+    assertEquals(5, decision.mbPerSec, 1e-9);
+    assertEquals(2, decision.maxThreadCount);
+
+    assertEquals(3, controller.getUpdateCount());
+    assertEquals(1, controller.getRateIncreaseCount());
+    assertEquals(1, controller.getRateDecreaseCount());
+    assertEquals(1, controller.getThreadCountChangeCount());
+    assertNotNull(controller.getLastSignals());
+    assertSame(decision, controller.getLastDecision());
+  }
+
+  public void testSearchLatency() {
+    ProportionalMergeThrottleController controller =
+        new ProportionalMergeThrottleController(100, 0.5);
+    double[] latency = new double[] {150};
+    controller.setSearchLatencyProbe(() -> latency[0], 100);
+
+    // 50% above target: slow down by 25%, even if merges fall behind
+    Decision decision = controller.update(signals(20, 2, true, 0, 0));
+    assertEquals(15, decision.mbPerSec, 1e-9);
+    assertEquals(2, decision.maxThreadCount);
+
+    // at the floor: run fewer merges at once
+    decision = controller.update(signals(5, 2, false, 0, 0));
+    assertEquals(5, decision.mbPerSec, 1e-9);
+    assertEquals(1, decision.maxThreadCount);
+    decision = controller.update(signals(5, 1, false, 0, 0));
+    assertEquals(1, decision.maxThreadCount);
+
+    // below target and no backlog: leave things as they are
+    latency[0] = 50;
+    decision = controller.update(signals(20, 1, false, 0, 0));
+    assertEquals(20, decision.mbPerSec, 1e-9);
+    assertEquals(1, decision.maxThreadCount);
+
+    // below target with a backlog: speed up, then allow more merges at the ceiling
+    decision = controller.update(signals(20, 1, true, 0, 0));
+    assertEquals(25, decision.mbPerSec, 1e-9);
+    assertEquals(1, decision.maxThreadCount);
+    decision = controller.update(signals(100, 1, true, 0, 0));
+    assertEquals(100, decision.mbPerSec, 1e-9);
+    assertEquals(2, decision.maxThreadCount);
+
+    // no measurement: fall back to the backlog
+    latency[0] = Double.NaN;
+    decision = controller.update(signals(20, 2, false, 0, 0));
+    assertEquals(18, decision.mbPerSec, 1e-9);
+  }
+
+  public void testWriteLatency() {
+    ProportionalMergeThrottleController controller =
+        new ProportionalMergeThrottleController(100, 1);
+    controller.setTargetWriteMSPerMB(10);
+    // 2 MB written in 40 msec: 20 msec per MB, twice the target
+    Decision decision = controller.update(signals(50, 2, false, 2 * 1024 * 1024, 40_000_000));
+    assertEquals(5, decision.mbPerSec, 1e-9);
+    assertEquals(1, decision.maxThreadCount);
+    // 2 MB written in 10 msec: below target, and merges fall behind
+    decision = controller.update(signals(50, 1, true, 2 * 1024 * 1024, 10_000_000));
+    assertEquals(75, decision.mbPerSec, 1e-9);
+    // nothing written: no signal
+    decision = controller.update(signals(50, 1, false, 0, 0));
+    assertEquals(40, decision.mbPerSec, 1e-9);
+  }
+
+  public void testIllegalArguments() {
+    expectThrows(
+        IllegalArgumentException.class, () -> new ProportionalMergeThrottleController(0, 0.5));
+    expectThrows(
+        IllegalArgumentException.class, () -> new ProportionalMergeThrottleController(100, 0));
+    expectThrows(
+        IllegalArgumentException.class, () -> new ProportionalMergeThrottleController(100, 1.5));
+    ProportionalMergeThrottleController controller = new ProportionalMergeThrottleController();
+    expectThrows(
+        IllegalArgumentException.class, () -> controller.setSearchLatencyProbe(() -> 1, 0));
+    expectThrows(IllegalArgumentException.class, () -> controller.setTargetWriteMSPerMB(-1));
+    controller.setSearchLatencyProbe(null, 0);
+    controller.setTargetWriteMSPerMB(Double.NaN);
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestSegmentHeatTracker extends LuceneTestCase {
+
+  public void testAddHits() {
+    SegmentHeatTracker tracker = new SegmentHeatTracker();
+    assertEquals(0, tracker.getHeat("_0"), 0d);
+    tracker.addHits("_0", 3);
+    tracker.addHits("_1", 1);
+    tracker.addHits("_0", 0);
+    assertEquals(3, tracker.getHits("_0"));
+    assertEquals(1, tracker.getHits("_1"));
+    assertEquals(0, tracker.getHits("_2"));
+    assertEquals(4, tracker.getTotalHits());
+    assertEquals(0.75, tracker.getHeat("_0"), 0d);
+    assertEquals(0.25, tracker.getHeat("_1"), 0d);
+    expectThrows(IllegalArgumentException.class, () -> tracker.addHits("_0", -1));
+  }
+
+  public void testDecay() {
+    SegmentHeatTracker tracker = new SegmentHeatTracker();
+    tracker.addHits("_0", 100);
+    tracker.addHits("_1", 1);
+    tracker.decay(0.5);
+    assertEquals(50, tracker.getHits("_0"));
+    assertEquals(0, tracker.getHits("_1"));
+    assertEquals(50, tracker.getTotalHits());
+    assertEquals(1, tracker.getHeat("_0"), 0d);
+    tracker.decay(0);
+    assertEquals(0, tracker.getTotalHits());
+    assertEquals(0, tracker.getHeat("_0"), 0d);
+    expectThrows(IllegalArgumentException.class, () -> tracker.decay(1));
+    expectThrows(IllegalArgumentException.class, () -> tracker.decay(-0.1));
+    expectThrows(IllegalArgumentException.class, () -> tracker.decay(Double.NaN));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.automaton.Automata;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.RegExp;
+
+public class TestAutomatonCache extends LuceneTestCase {
+
+  private static AutomatonCache.Entry compile(String s) {
+    Automaton automaton = Automata.makeString(s);
+    return new AutomatonCache.Entry(automaton, new CompiledAutomaton(automaton));
+  }
+
+  public void testHitsAndMisses() {
+    AutomatonCache cache = new AutomatonCache(AutomatonCache.DEFAULT_MAX_RAM_BYTES_USED);
+    AtomicInteger compilations = new AtomicInteger();
+    AutomatonCache.Entry e1 =
+        cache.get(
+            Arrays.asList("foo"),
+            () -> {
+              compilations.incrementAndGet();
+              return compile("foo");
+            });
+    assertEquals(1, compilations.get());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getCacheSize());
+    assertTrue(cache.ramBytesUsed() > 0);
+
+    AutomatonCache.Entry e2 =
+        cache.get(
+            Arrays.asList("foo"),
+            () -> {
+              compilations.incrementAndGet();
+              return compile("foo");
+            });
+    assertSame(e1, e2);
+    assertEquals(1, compilations.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+
+    cache.get(Arrays.asList("bar"), () -> compile("bar"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.getCacheSize());
+
+    cache.clear();
+    assertEquals(0, cache.getCacheSize());
+    assertEquals(0, cache.ramBytesUsed());
+  }
+
+  public void testEviction() {
+    long entrySize = compile("a").ramBytesUsed();
+    AutomatonCache cache = new AutomatonCache(entrySize * 10);
+    for (int i = 0; i < 100; i++) {
+      String s = Character.toString((char) ('a' + (i % 26)));
+      cache.get(Arrays.asList(i), () -> compile(s));
+      assertTrue(cache.ramBytesUsed() <= entrySize * 10);
+    }
+    assertTrue(cache.getCacheSize() < 10);
+    assertEquals(100 - cache.getCacheSize(), cache.getEvictionCount());
+
+    // the most recently used entry is still cached
+    cache.get(Arrays.asList(99), () -> compile("z"));
+    assertEquals(1, cache.getHitCount());
+
+    // entries that are larger than the cache are not cached
+    AutomatonCache tinyCache = new AutomatonCache(0);
+    tinyCache.get(Arrays.asList("foo"), () -> compile("foo"));
+    assertEquals(0, tinyCache.getCacheSize());
+    assertEquals(0, tinyCache.ramBytesUsed());
+  }
+
+  public void testQueriesShareCompiledAutomata() {
+    AutomatonCache defaultCache = AutomatonCache.getDefault();
+    AutomatonCache cache = new AutomatonCache(AutomatonCache.DEFAULT_MAX_RAM_BYTES_USED);
+    AutomatonCache.setDefault(cache);
+    try {
+      RegexpQuery q1 = new RegexpQuery(new Term("field", "fo+[a-c]"));
+      RegexpQuery q2 = new RegexpQuery(new Term("other_field", "fo+[a-c]"));
+      assertSame(q1.compiled, q2.compiled);
+      assertEquals(1, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+      assertFalse(q1.equals(q2));
+      assertEquals(q1, new RegexpQuery(new Term("field", "fo+[a-c]")));
+
+      // different flags produce different automata
+      RegexpQuery q3 = new RegexpQuery(new Term("field", "fo+[a-c]"), RegExp.NONE);
+      assertNotSame(q1.compiled, q3.compiled);
+
+      WildcardQuery w1 = new WildcardQuery(new Term("field", "fo*"));
+      WildcardQuery w2 = new WildcardQuery(new Term("field", "fo*"));
+      assertSame(w1.compiled, w2.compiled);
+      WildcardQuery w3 = new WildcardQuery(new Term("field", "fo*"), 10000, false);
+      assertNotSame(w1.compiled, w3.compiled);
+      assertNotNull(w3.compiled.nfa);
+
+      // the cache can be disabled
+      AutomatonCache.setDefault(null);
+      RegexpQuery q4 = new RegexpQuery(new Term("field", "fo+[a-c]"));
+      assertNotSame(q1.compiled, q4.compiled);
+      assertEquals(q1, q4);
+    } finally {
+      AutomatonCache.setDefault(defaultCache);
+    }
+  }
+
+  public void testIllegalMaxRamBytesUsed() {
+    expectThrows(IllegalArgumentException.class, () -> new AutomatonCache(-1));
+  }
+}
@@ -563,7 +563,14 @@ public class TestDisjunctionMaxQuery extends LuceneTestCase {
           }
         }
       }
-      float tieBreaker = random().nextFloat();
+      // with a tie-breaker of 0, clauses skip documents whose max score can't be competitive
+      // without verifying matches, so these documents may report partial scores
+      float tieBreaker;
+      if (random().nextInt(3) == 0) {
+        tieBreaker = 1;
+      } else {
+        tieBreaker = Math.nextUp(random().nextFloat());
+      }
       Query query = new DisjunctionMaxQuery(clauses, tieBreaker);
       CheckHits.checkTopScores(random(), query, searcher);
 
@@ -46,7 +46,7 @@ import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.ByteRunnable;
 import org.apache.lucene.util.automaton.LevenshteinAutomata;
 import org.apache.lucene.util.automaton.Operations;
 
@@ -832,9 +832,9 @@ public class TestFuzzyQuery extends LuceneTestCase {
         new QueryVisitor() {
           @Override
           public void consumeTermsMatching(
-              Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+              Query query, String field, Supplier<ByteRunnable> automaton) {
             visited.set(true);
-            ByteRunAutomaton a = automaton.get();
+            ByteRunnable a = automaton.get();
             assertMatches(a, "blob");
             assertMatches(a, "bolb");
             assertMatches(a, "blobby");
@@ -844,12 +844,12 @@ public class TestFuzzyQuery extends LuceneTestCase {
     assertTrue(visited.get());
   }
 
-  private static void assertMatches(ByteRunAutomaton automaton, String text) {
+  private static void assertMatches(ByteRunnable automaton, String text) {
     BytesRef b = new BytesRef(text);
     assertTrue(automaton.run(b.bytes, b.offset, b.length));
   }
 
-  private static void assertNoMatches(ByteRunAutomaton automaton, String text) {
+  private static void assertNoMatches(ByteRunnable automaton, String text) {
     BytesRef b = new BytesRef(text);
     assertFalse(automaton.run(b.bytes, b.offset, b.length));
   }
@@ -22,7 +22,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -33,6 +35,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
@@ -185,6 +188,45 @@ public class TestIndexSearcher extends LuceneTestCase {
     dir.close();
   }
 
+  public void testLeafHitsListener() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      if (random().nextBoolean()) {
+        doc.add(new StringField("foo", "bar", Store.NO));
+      }
+      w.addDocument(doc);
+      if (rarely()) {
+        w.commit();
+      }
+    }
+    final IndexReader reader = w.getReader();
+    w.close();
+    final IndexSearcher searcher = newSearcher(reader);
+    final AtomicLong totalHits = new AtomicLong();
+    final Set<Object> leaves = ConcurrentHashMap.newKeySet();
+    searcher.setLeafHitsListener(
+        (context, hitCount) -> {
+          assertTrue(hitCount >= 0);
+          assertTrue(leaves.add(context.id()));
+          totalHits.addAndGet(hitCount);
+        });
+    final Query query = new TermQuery(new Term("foo", "bar"));
+    final TotalHitCountCollector collector = new TotalHitCountCollector();
+    searcher.search(query, collector);
+    assertEquals(collector.getTotalHits(), totalHits.get());
+
+    searcher.setLeafHitsListener(null);
+    assertNull(searcher.getLeafHitsListener());
+    totalHits.set(0);
+    searcher.search(query, new TotalHitCountCollector());
+    assertEquals(0, totalHits.get());
+    reader.close();
+    dir.close();
+  }
+
   public void testGetQueryCache() throws IOException {
     IndexSearcher searcher = new IndexSearcher(new MultiReader());
     assertEquals(IndexSearcher.getDefaultQueryCache(), searcher.getQueryCache());
@@ -61,6 +61,7 @@ import org.apache.lucene.index.SerialMergeScheduler;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Constants;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
@@ -530,6 +531,61 @@ public class TestLRUQueryCache extends LuceneTestCase {
     dir.close();
   }
 
+  private static class AccountableDummyQuery extends DummyQuery implements Accountable {
+
+    private final long ramBytesUsed;
+
+    AccountableDummyQuery(long ramBytesUsed) {
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+  }
+
+  public void testRamBytesUsedAccountableQueries() throws IOException {
+    final LRUQueryCache queryCache =
+        new LRUQueryCache(1000000, 10000000, context -> true, Float.POSITIVE_INFINITY);
+
+    Directory dir = newDirectory();
+    final RandomIndexWriter w = new RandomIndexWriter(random(), dir);
+    Document doc = new Document();
+    final int numDocs = atLeast(10);
+    for (int i = 0; i < numDocs; ++i) {
+      w.addDocument(doc);
+    }
+    final DirectoryReader reader = w.getReader();
+    final IndexSearcher searcher = new IndexSearcher(reader);
+    searcher.setQueryCache(queryCache);
+    searcher.setQueryCachingPolicy(ALWAYS_CACHE);
+
+    // make sure per-segment caches are created
+    searcher.search(new ConstantScoreQuery(new DummyQuery()), 1);
+
+    long ramBytesUsed = queryCache.ramBytesUsed();
+    searcher.search(new ConstantScoreQuery(new DummyQuery()), 1);
+    final long dummyQueryRamBytesUsed = queryCache.ramBytesUsed() - ramBytesUsed;
+
+    // queries that know their memory usage are accounted for it, once for all segments
+    final AccountableDummyQuery query = new AccountableDummyQuery(1 << 20);
+    ramBytesUsed = queryCache.ramBytesUsed();
+    searcher.search(new ConstantScoreQuery(query), 1);
+    assertEquals(
+        dummyQueryRamBytesUsed - QUERY_DEFAULT_RAM_BYTES_USED + query.ramBytesUsed(),
+        queryCache.ramBytesUsed() - ramBytesUsed);
+    queryCache.assertConsistent();
+
+    queryCache.clearQuery(query);
+    assertEquals(ramBytesUsed, queryCache.ramBytesUsed());
+    queryCache.assertConsistent();
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
   public void testOnUse() throws IOException {
     final LRUQueryCache queryCache =
         new LRUQueryCache(
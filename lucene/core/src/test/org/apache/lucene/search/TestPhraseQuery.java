@@ -907,6 +907,76 @@ public class TestPhraseQuery extends LuceneTestCase {
         mergedImpacts.getImpacts());
   }
 
+  public void testSumImpacts() throws IOException {
+    DummyImpactsEnum impacts1 = new DummyImpactsEnum(1000);
+    DummyImpactsEnum impacts2 = new DummyImpactsEnum(2000);
+    ImpactsSource summedImpacts =
+        SloppyPhraseMatcher.sumImpacts(new ImpactsEnum[] {impacts1, impacts2});
+
+    impacts1.reset(
+        new Impact[][] {
+          new Impact[] {new Impact(3, 10), new Impact(5, 12), new Impact(8, 13)},
+          new Impact[] {new Impact(3, 10), new Impact(5, 11), new Impact(8, 13), new Impact(12, 14)}
+        },
+        new int[] {110, 945});
+
+    impacts2.reset(
+        new Impact[][] {
+          new Impact[] {new Impact(2, 9), new Impact(6, 13)},
+          new Impact[] {new Impact(4, 9), new Impact(7, 12), new Impact(9, 14)}
+        },
+        new int[] {200, 1000});
+    assertEquals(
+        new Impact[][] {
+          new Impact[] {new Impact(2, 9), new Impact(5, 10), new Impact(7, 12), new Impact(14, 13)},
+          new Impact[] {
+            new Impact(4, 9),
+            new Impact(7, 10),
+            new Impact(9, 11),
+            new Impact(12, 12),
+            new Impact(15, 13),
+            new Impact(21, 14)
+          }
+        },
+        new int[] {110, 945},
+        summedImpacts.getImpacts());
+
+    // impacts2 doesn't cover the second level of impacts1, so there is no bound
+    impacts2.reset(
+        new Impact[][] {
+          new Impact[] {new Impact(2, 9), new Impact(6, 13)},
+          new Impact[] {new Impact(4, 9), new Impact(7, 12), new Impact(9, 14)}
+        },
+        new int[] {200, 900});
+    assertEquals(
+        new Impact[][] {
+          new Impact[] {new Impact(2, 9), new Impact(5, 10), new Impact(7, 12), new Impact(14, 13)},
+          new Impact[] {new Impact(Integer.MAX_VALUE, 1)}
+        },
+        new int[] {110, 945},
+        summedImpacts.getImpacts());
+
+    // Sum with dummy impacts
+    impacts2.reset(
+        new Impact[][] {new Impact[] {new Impact(Integer.MAX_VALUE, 1)}}, new int[] {5000});
+    assertEquals(
+        new Impact[][] {
+          new Impact[] {new Impact(Integer.MAX_VALUE, 1)},
+          new Impact[] {new Impact(Integer.MAX_VALUE, 1)}
+        },
+        new int[] {110, 945},
+        summedImpacts.getImpacts());
+
+    // Make sure negative norms are treated as unsigned
+    impacts1.reset(
+        new Impact[][] {new Impact[] {new Impact(3, 10), new Impact(5, -10)}}, new int[] {110});
+    impacts2.reset(new Impact[][] {new Impact[] {new Impact(2, -20)}}, new int[] {200});
+    assertEquals(
+        new Impact[][] {new Impact[] {new Impact(3, 10), new Impact(5, -20), new Impact(7, -10)}},
+        new int[] {110},
+        summedImpacts.getImpacts());
+  }
+
   private static void assertEquals(Impact[][] impacts, int[] docIdUpTo, Impacts actual) {
     assertEquals(impacts.length, actual.numLevels());
     for (int i = 0; i < impacts.length; ++i) {
@@ -1025,7 +1095,12 @@ public class TestPhraseQuery extends LuceneTestCase {
 
     for (String firstTerm : new String[] {"a", "b", "c"}) {
       for (String secondTerm : new String[] {"a", "b", "c"}) {
-        Query query = new PhraseQuery("foo", new BytesRef(firstTerm), new BytesRef(secondTerm));
+        Query query =
+            new PhraseQuery(
+                random().nextBoolean() ? 0 : random().nextInt(3),
+                "foo",
+                new BytesRef(firstTerm),
+                new BytesRef(secondTerm));
 
         TopScoreDocCollector collector1 =
             TopScoreDocCollector.create(10, null, Integer.MAX_VALUE); // COMPLETE
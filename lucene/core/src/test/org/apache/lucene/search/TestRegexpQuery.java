@@ -20,18 +20,23 @@ import static org.apache.lucene.util.automaton.Operations.DEFAULT_MAX_DETERMINIZ
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.automaton.AutomatonProvider;
+import org.apache.lucene.util.automaton.ByteRunnable;
 import org.apache.lucene.util.automaton.Operations;
 import org.apache.lucene.util.automaton.RegExp;
+import org.apache.lucene.util.automaton.TooComplexToDeterminizeException;
 
 /** Some simple regex tests, mostly converted from contrib's TestRegexQuery. */
 public class TestRegexpQuery extends LuceneTestCase {
@@ -178,4 +183,32 @@ public class TestRegexpQuery extends LuceneTestCase {
   public void testBacktracking() throws IOException {
     assertEquals(1, regexQueryNrHits("4934[314]"));
   }
+
+  /** Visiting a lazily determinized query must not determinize its automaton up-front. */
+  public void testVisitLazy() throws IOException {
+    final String regexp = "[ac]*a[ac]{50}";
+    expectThrows(
+        TooComplexToDeterminizeException.class,
+        () -> new RegexpQuery(newTerm(regexp), RegExp.NONE, DEFAULT_MAX_DETERMINIZED_STATES));
+    RegexpQuery query =
+        new RegexpQuery(
+            newTerm(regexp), RegExp.NONE, 0, name -> null, DEFAULT_MAX_DETERMINIZED_STATES, false);
+    assertEquals(0, searcher.count(query));
+
+    AtomicBoolean visited = new AtomicBoolean();
+    query.visit(
+        new QueryVisitor() {
+          @Override
+          public void consumeTermsMatching(
+              Query query, String field, Supplier<ByteRunnable> automaton) {
+            visited.set(true);
+            ByteRunnable a = automaton.get();
+            BytesRef match = new BytesRef("ca" + "c".repeat(50));
+            assertTrue(a.run(match.bytes, match.offset, match.length));
+            BytesRef noMatch = new BytesRef("c".repeat(51));
+            assertFalse(a.run(noMatch.bytes, noMatch.offset, noMatch.length));
+          }
+        });
+    assertTrue(visited.get());
+  }
 }
@@ -41,6 +41,7 @@ import org.apache.lucene.util.UnicodeUtil;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.automaton.AutomatonTestUtil;
 import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
 import org.apache.lucene.util.automaton.RegExp;
 
 /**
@@ -166,6 +167,31 @@ public class TestRegexpRandom2 extends LuceneTestCase {
     }
   }
 
+  /** test a bunch of random regular expressions that get determinized lazily */
+  public void testLazyRegexps() throws Exception {
+    int num = atLeast(100);
+    for (int i = 0; i < num; i++) {
+      String reg = AutomatonTestUtil.randomRegexp(random());
+      if (VERBOSE) {
+        System.out.println("TEST: regexp='" + reg + "'");
+      }
+      RegexpQuery lazy =
+          new RegexpQuery(
+              new Term(fieldName, reg),
+              RegExp.NONE,
+              0,
+              name -> null,
+              Operations.DEFAULT_MAX_DETERMINIZED_STATES,
+              false);
+      DumbRegexpQuery dumb = new DumbRegexpQuery(new Term(fieldName, reg), RegExp.NONE);
+
+      TopDocs lazyDocs = searcher1.search(lazy, 25);
+      TopDocs dumbDocs = searcher2.search(dumb, 25);
+
+      CheckHits.checkEqual(lazy, lazyDocs.scoreDocs, dumbDocs.scoreDocs);
+    }
+  }
+
   /** check that the # of hits is the same as from a very simple regexpquery implementation. */
   protected void assertSame(String regexp) throws IOException {
     RegexpQuery smart = new RegexpQuery(new Term(fieldName, regexp), RegExp.NONE);
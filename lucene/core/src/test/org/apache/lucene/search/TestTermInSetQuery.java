@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
@@ -33,6 +34,7 @@ import org.apache.lucene.index.FilterDirectoryReader;
 import org.apache.lucene.index.FilterLeafReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
@@ -44,7 +46,7 @@ import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.RamUsageTester;
 import org.apache.lucene.util.TestUtil;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.ByteRunnable;
 
 public class TestTermInSetQuery extends LuceneTestCase {
 
@@ -103,6 +105,49 @@ public class TestTermInSetQuery extends LuceneTestCase {
     }
   }
 
+  /** Query terms that are missing from the index or sort before/after all indexed terms. */
+  public void testDuelWithMissingTerms() throws IOException {
+    final String field = "f";
+    Directory dir = newDirectory();
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+    final int numDocs = atLeast(200);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      // only index odd ids in [100, 100 + 2 * numDocs)
+      doc.add(new StringField(field, String.format(Locale.ROOT, "%06d", 101 + 2 * i), Store.NO));
+      iw.addDocument(doc);
+    }
+    iw.commit();
+    final IndexReader reader = iw.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    iw.close();
+
+    for (int i = 0; i < 100; ++i) {
+      final int numQueryTerms =
+          TestUtil.nextInt(random(), 1, 1 << TestUtil.nextInt(random(), 1, 10));
+      List<BytesRef> queryTerms = new ArrayList<>();
+      for (int j = 0; j < numQueryTerms; ++j) {
+        final int id = random().nextInt(2 * numDocs + 200);
+        queryTerms.add(new BytesRef(String.format(Locale.ROOT, "%06d", id)));
+      }
+      if (random().nextBoolean()) {
+        queryTerms.add(new BytesRef(""));
+      }
+      if (random().nextBoolean()) {
+        queryTerms.add(new BytesRef("a"));
+      }
+      final BooleanQuery.Builder bq = new BooleanQuery.Builder();
+      for (BytesRef t : queryTerms) {
+        bq.add(new TermQuery(new Term(field, t)), Occur.SHOULD);
+      }
+      final Query q1 = new ConstantScoreQuery(bq.build());
+      final Query q2 = new TermInSetQuery(field, queryTerms);
+      assertSameMatches(searcher, q1, q2, false);
+    }
+
+    IOUtils.close(reader, dir);
+  }
+
   private void assertSameMatches(IndexSearcher searcher, Query q1, Query q2, boolean scores)
       throws IOException {
     final int maxDoc = searcher.getIndexReader().maxDoc();
@@ -303,6 +348,38 @@ public class TestTermInSetQuery extends LuceneTestCase {
     assertTrue(policy.shouldCache(query));
   }
 
+  public void testIsCacheable() throws IOException {
+    Directory dir = newDirectory();
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+    // large enough for a bit set over the index to take more memory than the query
+    final int numDocs = TestUtil.nextInt(random(), 10_000, 20_000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StringField("id", Integer.toString(i), Store.NO));
+      iw.addDocument(doc);
+    }
+    final IndexReader reader = iw.getReader();
+    final IndexSearcher searcher = newSearcher(reader);
+    iw.close();
+    final LeafReaderContext context = reader.leaves().get(0);
+
+    TermInSetQuery small = new TermInSetQuery("id", new BytesRef("1"), new BytesRef("2"));
+    assertTrue(small.ramBytesUsed() <= reader.maxDoc() / Byte.SIZE);
+    Weight weight = small.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    assertTrue(weight.isCacheable(context));
+
+    // queries that take more memory than a bit set over the whole index are not cached
+    List<BytesRef> terms = new ArrayList<>();
+    while (terms.size() <= reader.maxDoc()) {
+      terms.add(new BytesRef(Integer.toString(terms.size())));
+    }
+    TermInSetQuery large = new TermInSetQuery("id", terms);
+    weight = large.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1f);
+    assertFalse(weight.isCacheable(context));
+
+    IOUtils.close(reader, dir);
+  }
+
   public void testVisitor() {
     // singleton reports back to consumeTerms()
     TermInSetQuery singleton = new TermInSetQuery("field", new BytesRef("term1"));
@@ -316,7 +393,7 @@ public class TestTermInSetQuery extends LuceneTestCase {
 
           @Override
           public void consumeTermsMatching(
-              Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+              Query query, String field, Supplier<ByteRunnable> automaton) {
             fail("Singleton TermInSetQuery should not try to build ByteRunAutomaton");
           }
         });
@@ -336,8 +413,8 @@ public class TestTermInSetQuery extends LuceneTestCase {
 
           @Override
           public void consumeTermsMatching(
-              Query query, String field, Supplier<ByteRunAutomaton> automaton) {
-            ByteRunAutomaton a = automaton.get();
+              Query query, String field, Supplier<ByteRunnable> automaton) {
+            ByteRunnable a = automaton.get();
             BytesRef test = new BytesRef("nonmatching");
             assertFalse(a.run(test.bytes, test.offset, test.length));
             for (BytesRef term : terms) {
@@ -29,6 +29,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
+import org.apache.lucene.util.automaton.Operations;
 
 /**
  * Create an index with terms from 000-999. Generates random wildcards according to patterns, and
@@ -92,7 +93,14 @@ public class TestWildcardRandom extends LuceneTestCase {
     if (VERBOSE) {
       System.out.println("TEST: run wildcard pattern=" + pattern + " filled=" + filledPattern);
     }
-    Query wq = new WildcardQuery(new Term("field", filledPattern));
+    Term term = new Term("field", filledPattern);
+    Query wq;
+    if (random().nextBoolean()) {
+      wq = new WildcardQuery(term);
+    } else {
+      // determinize lazily
+      wq = new WildcardQuery(term, Operations.DEFAULT_MAX_DETERMINIZED_STATES, false);
+    }
     TopDocs docs = searcher.search(wq, 25);
     assertEquals("Incorrect hits for pattern: " + pattern, numHits, docs.totalHits.value);
   }
@@ -17,9 +17,20 @@
 package org.apache.lucene.store;
 
 import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.apache.lucene.mockfile.FilterPath;
+import org.apache.lucene.mockfile.LeakFS;
+import org.apache.lucene.util.TestUtil;
 import org.junit.Ignore;
 
 /** Tests MMapDirectory */
@@ -31,6 +42,18 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
   protected Directory getDirectory(Path path) throws IOException {
     MMapDirectory m = new MMapDirectory(path);
     m.setPreload(random().nextBoolean());
+    m.setPrefetch(random().nextBoolean());
+    switch (random().nextInt(3)) {
+      case 0:
+        break;
+      case 1:
+        m.setReadAdvice(MMapDirectory.BASED_ON_FILE_EXTENSION_AND_CONTEXT);
+        break;
+      default:
+        MMapDirectory.ReadAdvice[] values = MMapDirectory.ReadAdvice.values();
+        m.setReadAdvice((name, context) -> values[Math.floorMod(name.hashCode(), values.length)]);
+        break;
+    }
     return m;
   }
 
@@ -40,6 +63,109 @@ public class TestMmapDirectory extends BaseDirectoryTestCase {
     assumeTrue(MMapDirectory.UNMAP_NOT_SUPPORTED_REASON, MMapDirectory.UNMAP_SUPPORTED);
   }
 
+  public void testBasedOnFileExtensionAndContext() {
+    BiFunction<String, IOContext, MMapDirectory.ReadAdvice> advice =
+        MMapDirectory.BASED_ON_FILE_EXTENSION_AND_CONTEXT;
+    IOContext merge = new IOContext(new MergeInfo(10, 1024, false, 1));
+    assertEquals(
+        MMapDirectory.ReadAdvice.PRELOAD, advice.apply("_0_Lucene90_0.tip", IOContext.READ));
+    assertEquals(MMapDirectory.ReadAdvice.PRELOAD, advice.apply("_0.nvd", IOContext.DEFAULT));
+    assertEquals(MMapDirectory.ReadAdvice.RANDOM, advice.apply("_0.fdt", IOContext.READ));
+    assertEquals(MMapDirectory.ReadAdvice.NORMAL, advice.apply("_0.cfs", IOContext.READ));
+    assertEquals(MMapDirectory.ReadAdvice.NORMAL, advice.apply("segments_1", IOContext.READONCE));
+    assertEquals(MMapDirectory.ReadAdvice.SEQUENTIAL, advice.apply("_0.fdt", merge));
+    assertEquals(MMapDirectory.ReadAdvice.SEQUENTIAL, advice.apply("_0.tip", merge));
+  }
+
+  public void testReadAdvice() throws IOException {
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testReadAdvice"))) {
+      assertSame(MMapDirectory.NORMAL_READ_ADVICE, dir.getReadAdvice());
+      expectThrows(NullPointerException.class, () -> dir.setReadAdvice(null));
+      dir.setReadAdvice(MMapDirectory.BASED_ON_FILE_EXTENSION_AND_CONTEXT);
+      dir.setPreload(true);
+      byte[] bytes = new byte[TestUtil.nextInt(random(), 1, 100_000)];
+      random().nextBytes(bytes);
+      for (String name : new String[] {"_0.tip", "_0.fdt", "_0.doc"}) {
+        try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+          out.writeBytes(bytes, bytes.length);
+        }
+      }
+
+      IOContext merge = new IOContext(new MergeInfo(10, bytes.length, false, 1));
+      for (String name : new String[] {"_0.tip", "_0.fdt", "_0.doc"}) {
+        for (IOContext context : new IOContext[] {IOContext.READ, merge}) {
+          try (IndexInput in = dir.openInput(name, context)) {
+            if (context == merge) {
+              assertTrue(in instanceof NIOFSDirectory.NIOFSIndexInput);
+            } else {
+              assertTrue(in instanceof ByteBufferIndexInput);
+            }
+            assertEquals(bytes.length, in.length());
+            byte[] read = new byte[bytes.length];
+            in.readBytes(read, 0, read.length);
+            assertArrayEquals(bytes, read);
+          }
+        }
+      }
+    }
+  }
+
+  public void testPrefetchOpensFileOnce() throws IOException {
+    Path path = createTempDir("testPrefetchOpensFileOnce").toRealPath();
+    final AtomicInteger opens = new AtomicInteger();
+    final LeakFS leakFS =
+        new LeakFS(path.getFileSystem()) {
+          @Override
+          public FileChannel newFileChannel(
+              Path path, Set<? extends OpenOption> options, FileAttribute<?>... attrs)
+              throws IOException {
+            opens.incrementAndGet();
+            return super.newFileChannel(path, options, attrs);
+          }
+        };
+    FileSystem fs = leakFS.getFileSystem(URI.create("file:///"));
+    Path wrapped = new FilterPath(path, fs);
+    try (Directory dir = new MMapDirectory(wrapped)) {
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        out.writeBytes(new byte[100], 100);
+      }
+    }
+    FilePrefetcher prefetcher = FilePrefetcher.forPath(wrapped.resolve("test.bin"), Runnable::run);
+    FilePrefetcher slice = prefetcher.slice(50);
+    opens.set(0);
+    prefetcher.prefetch(0, 100);
+    slice.prefetch(0, 50);
+    assertEquals(1, opens.get());
+    // the file is closed with the prefetcher, prefetches are dropped after that
+    prefetcher.close();
+    slice.prefetch(0, 50);
+    assertEquals(1, opens.get());
+    // fails on leaked file handles
+    fs.close();
+  }
+
+  public void testPrefetchOutOfBounds() throws IOException {
+    try (MMapDirectory dir = new MMapDirectory(createTempDir("testPrefetchOutOfBounds"))) {
+      assertFalse(dir.getPrefetch());
+      dir.setPrefetch(true);
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        out.writeBytes(new byte[100], 100);
+      }
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(-1, 10));
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(10, -1));
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(101, 1));
+        IndexInput slice = in.slice("slice", 50, 20);
+        expectThrows(IllegalArgumentException.class, () -> slice.prefetch(21, 1));
+        // lengths that go beyond the end of the input are truncated
+        in.prefetch(90, 1000);
+        slice.prefetch(10, 1000);
+        assertEquals(0, in.getFilePointer());
+        assertEquals(0, slice.getFilePointer());
+      }
+    }
+  }
+
   @Ignore(
       "This test is for JVM testing purposes. There are no guarantees that it may not fail with SIGSEGV!")
   public void testAceWithThreads() throws Exception {
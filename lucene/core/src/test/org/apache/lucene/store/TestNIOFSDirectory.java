@@ -33,7 +33,9 @@ public class TestNIOFSDirectory extends BaseDirectoryTestCase {
 
   @Override
   protected Directory getDirectory(Path path) throws IOException {
-    return new NIOFSDirectory(path);
+    NIOFSDirectory dir = new NIOFSDirectory(path);
+    dir.setPrefetch(random().nextBoolean());
+    return dir;
   }
 
   public void testHandleExceptionInConstructor() throws Exception {
@@ -63,4 +65,26 @@ public class TestNIOFSDirectory extends BaseDirectoryTestCase {
       assertEquals("simulated", error.getMessage());
     }
   }
+
+  public void testPrefetchOutOfBounds() throws IOException {
+    try (NIOFSDirectory dir = new NIOFSDirectory(createTempDir("testPrefetchOutOfBounds"))) {
+      assertFalse(dir.getPrefetch());
+      dir.setPrefetch(true);
+      try (IndexOutput out = dir.createOutput("test.bin", IOContext.DEFAULT)) {
+        out.writeBytes(new byte[100], 100);
+      }
+      try (IndexInput in = dir.openInput("test.bin", IOContext.DEFAULT)) {
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(-1, 10));
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(10, -1));
+        expectThrows(IllegalArgumentException.class, () -> in.prefetch(101, 1));
+        IndexInput slice = in.slice("slice", 50, 20);
+        expectThrows(IllegalArgumentException.class, () -> slice.prefetch(21, 1));
+        // lengths that go beyond the end of the input are truncated
+        in.prefetch(90, 1000);
+        slice.prefetch(10, 1000);
+        assertEquals(0, in.getFilePointer());
+        assertEquals(0, slice.getFilePointer());
+      }
+    }
+  }
 }
@@ -19,7 +19,11 @@ package org.apache.lucene.store;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
@@ -33,6 +37,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.LineFileDocs;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
@@ -45,12 +50,17 @@ public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
     return new NRTCachingDirectory(
         new ByteBuffersDirectory(),
         .1 + 2.0 * random().nextDouble(),
-        .1 + 5.0 * random().nextDouble());
+        .1 + 5.0 * random().nextDouble(),
+        random().nextBoolean() ? null : Runnable::run);
   }
 
   public void testNRTAndCommit() throws Exception {
     Directory dir = newDirectory();
-    NRTCachingDirectory cachedDir = new NRTCachingDirectory(dir, 2.0, 25.0);
+    ExecutorService executor =
+        random().nextBoolean()
+            ? null
+            : Executors.newFixedThreadPool(2, new NamedThreadFactory("TestNRTCachingDirectory"));
+    NRTCachingDirectory cachedDir = new NRTCachingDirectory(dir, 2.0, 25.0, executor);
     MockAnalyzer analyzer = new MockAnalyzer(random());
     analyzer.setMaxTokenLength(TestUtil.nextInt(random(), 1, IndexWriter.MAX_TERM_LENGTH));
     IndexWriterConfig conf = newIndexWriterConfig(analyzer);
@@ -107,6 +117,10 @@ public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
     r.close();
     cachedDir.close();
     docs.close();
+    if (executor != null) {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
   }
 
   // NOTE: not a test; just here to make sure the code frag
@@ -167,4 +181,62 @@ public class TestNRTCachingDirectory extends BaseDirectoryTestCase {
 
     dir.close();
   }
+
+  public void testAdmission() throws IOException {
+    try (NRTCachingDirectory nrtDir = new NRTCachingDirectory(new ByteBuffersDirectory(), 1, 2)) {
+      IOContext flush = new IOContext(new FlushInfo(10, 1024));
+      IOContext smallMerge = new IOContext(new MergeInfo(10, 1024, false, -1));
+      IOContext bigMerge = new IOContext(new MergeInfo(10, 2 << 20, false, -1));
+      IOContext forceMerge = new IOContext(new MergeInfo(10, 1024, false, 1));
+      IOContext addIndexes = new IOContext(new MergeInfo(10, 1024, true, -1));
+      assertTrue(nrtDir.doCacheWrite("_0.cfs", flush));
+      assertTrue(nrtDir.doCacheWrite("_1.cfs", smallMerge));
+      assertFalse(nrtDir.doCacheWrite("_2.cfs", bigMerge));
+      assertFalse(nrtDir.doCacheWrite("_3.cfs", forceMerge));
+      assertFalse(nrtDir.doCacheWrite("_4.cfs", addIndexes));
+      assertFalse(nrtDir.doCacheWrite("_5.cfs", IOContext.DEFAULT));
+
+      // deleted files release their space in the cache
+      try (IndexOutput out = nrtDir.createOutput("_0.cfs", flush)) {
+        out.writeBytes(new byte[1024], 1024);
+      }
+      assertEquals(1024, nrtDir.ramBytesUsed());
+      nrtDir.deleteFile("_0.cfs");
+      assertEquals(0, nrtDir.ramBytesUsed());
+      assertEquals(0, nrtDir.listCachedFiles().length);
+    }
+  }
+
+  public void testUncacheInBackground() throws IOException {
+    List<Runnable> tasks = new ArrayList<>();
+    Directory delegate = new ByteBuffersDirectory();
+    try (NRTCachingDirectory nrtDir = new NRTCachingDirectory(delegate, 1, 2, tasks::add)) {
+      IOContext flush = new IOContext(new FlushInfo(10, 1024));
+      IOContext merge = new IOContext(new MergeInfo(10, 1024, false, -1));
+      for (String name : new String[] {"_0.cfs", "_1.cfs"}) {
+        try (IndexOutput out = nrtDir.createOutput(name, name.equals("_0.cfs") ? flush : merge)) {
+          out.writeInt(42);
+        }
+      }
+      assertArrayEquals(new String[] {"_0.cfs", "_1.cfs"}, nrtDir.listCachedFiles());
+
+      // only the merged file is copied to the delegate
+      assertEquals(1, tasks.size());
+      tasks.get(0).run();
+      assertArrayEquals(new String[] {"_0.cfs"}, nrtDir.listCachedFiles());
+      assertArrayEquals(new String[] {"_1.cfs"}, delegate.listAll());
+      assertArrayEquals(new String[] {"_0.cfs", "_1.cfs"}, nrtDir.listAll());
+      assertEquals(4, nrtDir.fileLength("_1.cfs"));
+      try (IndexInput in = nrtDir.openInput("_1.cfs", IOContext.READ)) {
+        assertEquals(42, in.readInt());
+      }
+
+      // running the task again, or after the file was synced or deleted, is a no-op
+      tasks.get(0).run();
+      nrtDir.sync(Collections.singleton("_1.cfs"));
+      nrtDir.deleteFile("_1.cfs");
+      tasks.get(0).run();
+      assertArrayEquals(new String[] {"_0.cfs"}, nrtDir.listAll());
+    }
+  }
 }
@@ -161,6 +161,111 @@ public class TestOfflineSorter extends LuceneTestCase {
     }
   }
 
+  public void testCompressedTempFiles() throws Exception {
+    // Sort 5 mb worth of data with 1mb buffer, with compressed intermediate files.
+    try (Directory dir = newFSDirectory(createTempDir())) {
+      ExecutorService exec = randomExecutorServiceOrNull();
+      SortInfo sortInfo =
+          checkSort(
+              dir,
+              new OfflineSorter(
+                  dir,
+                  "foo",
+                  OfflineSorter.DEFAULT_COMPARATOR,
+                  BufferSize.megabytes(1),
+                  TestUtil.nextInt(random(), 2, 10),
+                  -1,
+                  exec,
+                  TestUtil.nextInt(random(), 1, 4),
+                  true),
+              generateRandom((int) OfflineSorter.MB * 5));
+      if (exec != null) {
+        exec.shutdownNow();
+      }
+      assertTrue(sortInfo.mergeRounds > 0);
+    }
+  }
+
+  public void testCompressedTempFilesEmptyLastPartition() throws Exception {
+    // Fixed length values that exactly fill 2 partitions: the end of the input is only detected
+    // after the last partition was written compressed
+    int valueLength = 4;
+    int count = 2 * (int) (OfflineSorter.MB / valueLength);
+    byte[][] data = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      data[i] = new byte[valueLength];
+      random().nextBytes(data[i]);
+    }
+    try (Directory dir = newDirectory()) {
+      SortInfo sortInfo =
+          checkSort(
+              dir,
+              new OfflineSorter(
+                  dir,
+                  "foo",
+                  OfflineSorter.DEFAULT_COMPARATOR,
+                  BufferSize.megabytes(1),
+                  random().nextBoolean() ? 2 : OfflineSorter.MAX_TEMPFILES,
+                  valueLength,
+                  null,
+                  0,
+                  true),
+              data);
+      assertEquals(2, sortInfo.tempMergeFiles - sortInfo.mergeRounds);
+    }
+  }
+
+  /** Make sure corruption on a compressed temp file (partition) is caught. */
+  public void testBitFlippedOnCompressedPartition() throws Exception {
+
+    try (Directory dir0 = newMockDirectory()) {
+
+      Directory dir =
+          new FilterDirectory(dir0) {
+
+            boolean corrupted;
+
+            @Override
+            public IndexOutput createTempOutput(String prefix, String suffix, IOContext context)
+                throws IOException {
+              IndexOutput out = in.createTempOutput(prefix, suffix, context);
+              if (corrupted == false && suffix.equals("sort")) {
+                corrupted = true;
+                return new CorruptingIndexOutput(dir0, 544677, out);
+              } else {
+                return out;
+              }
+            }
+          };
+
+      IndexOutput unsorted = dir.createTempOutput("unsorted", "tmp", IOContext.DEFAULT);
+      writeAll(unsorted, generateRandom((int) (OfflineSorter.MB * 3)));
+
+      Exception e =
+          expectThrows(
+              Exception.class,
+              () -> {
+                new OfflineSorter(
+                        dir,
+                        "foo",
+                        OfflineSorter.DEFAULT_COMPARATOR,
+                        BufferSize.megabytes(1),
+                        10,
+                        -1,
+                        null,
+                        0,
+                        true)
+                    .sort(unsorted.getName());
+              });
+      // the corruption may confuse decompression, in which case the checksum is verified too
+      boolean corrupt = e instanceof CorruptIndexException;
+      for (Throwable suppressed : e.getSuppressed()) {
+        corrupt |= suppressed instanceof CorruptIndexException;
+      }
+      assertTrue(corrupt);
+    }
+  }
+
   private byte[][] generateRandom(int howMuchDataInBytes) {
     ArrayList<byte[]> data = new ArrayList<>();
     while (howMuchDataInBytes > 0) {
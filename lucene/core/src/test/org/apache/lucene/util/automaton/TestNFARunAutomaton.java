@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.util.automaton;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
+
+public class TestNFARunAutomaton extends LuceneTestCase {
+
+  private static Automaton toNFA(Automaton a) {
+    return Operations.removeDeadStates(new UTF32ToUTF8().convert(a));
+  }
+
+  private static Automaton determinizeOrNull(Automaton a) {
+    try {
+      return Operations.determinize(a, Operations.DEFAULT_MAX_DETERMINIZED_STATES);
+    } catch (TooComplexToDeterminizeException e) {
+      return null;
+    }
+  }
+
+  public void testRandomRegexps() {
+    for (int iter = 0; iter < 100 * RANDOM_MULTIPLIER; iter++) {
+      String regexp = AutomatonTestUtil.randomRegexp(random());
+      Automaton a =
+          new RegExp(regexp, RegExp.NONE)
+              .toAutomaton(null, Operations.DEFAULT_MAX_DETERMINIZED_STATES, false);
+      Automaton dfa = determinizeOrNull(a);
+      if (dfa == null) {
+        continue;
+      }
+      ByteRunAutomaton expected = new ByteRunAutomaton(dfa);
+      NFARunAutomaton actual = new NFARunAutomaton(toNFA(a));
+
+      AutomatonTestUtil.RandomAcceptedStrings accepted = null;
+      if (dfa.getNumStates() > 0 && Operations.isEmpty(dfa) == false) {
+        accepted = new AutomatonTestUtil.RandomAcceptedStrings(dfa);
+      }
+      for (int i = 0; i < 100; i++) {
+        final String s;
+        if (accepted != null && random().nextBoolean()) {
+          int[] codePoints = accepted.getRandomAcceptedString(random());
+          s = new String(codePoints, 0, codePoints.length);
+        } else {
+          s = TestUtil.randomUnicodeString(random());
+        }
+        BytesRef bytes = new BytesRef(s);
+        assertEquals(
+            "regexp=" + regexp + " input=" + s,
+            expected.run(bytes.bytes, bytes.offset, bytes.length),
+            actual.run(bytes.bytes, bytes.offset, bytes.length));
+      }
+    }
+  }
+
+  public void testTransitionsMatchLanguage() {
+    for (int iter = 0; iter < 50 * RANDOM_MULTIPLIER; iter++) {
+      String regexp = AutomatonTestUtil.randomRegexp(random());
+      Automaton a =
+          new RegExp(regexp, RegExp.NONE)
+              .toAutomaton(null, Operations.DEFAULT_MAX_DETERMINIZED_STATES, false);
+      Automaton nfa = toNFA(a);
+      Automaton dfa = determinizeOrNull(nfa);
+      if (dfa == null) {
+        continue;
+      }
+      Automaton rebuilt = rebuild(new NFARunAutomaton(nfa));
+      assertTrue(rebuilt.isDeterministic());
+      assertTrue("regexp=" + regexp, Operations.sameLanguage(dfa, rebuilt));
+    }
+  }
+
+  public void testTooComplexToDeterminize() {
+    // the DFA of this regexp needs 2^20 states
+    Automaton a =
+        new RegExp("(a|b)*a(a|b){20}", RegExp.NONE)
+            .toAutomaton(null, Operations.DEFAULT_MAX_DETERMINIZED_STATES, false);
+    expectThrows(
+        TooComplexToDeterminizeException.class,
+        () -> Operations.determinize(a, Operations.DEFAULT_MAX_DETERMINIZED_STATES));
+
+    NFARunAutomaton runAutomaton = new NFARunAutomaton(toNFA(a));
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      sb.append(random().nextBoolean() ? 'a' : 'b');
+    }
+    BytesRef input = new BytesRef(sb.toString());
+    boolean expected = sb.charAt(sb.length() - 21) == 'a';
+    assertEquals(expected, runAutomaton.run(input.bytes, input.offset, input.length));
+    // only states that were visited got computed
+    assertTrue(runAutomaton.getSize() <= 101);
+  }
+
+  /** Explore all states of the given run automaton to build the equivalent {@link Automaton}. */
+  private static Automaton rebuild(NFARunAutomaton runAutomaton) {
+    Automaton.Builder builder = new Automaton.Builder();
+    Map<Integer, Integer> states = new HashMap<>();
+    states.put(0, builder.createState());
+    Transition t = new Transition();
+    for (int state = 0; state < runAutomaton.getSize(); state++) {
+      // getSize() grows as new states get discovered
+      int src = states.computeIfAbsent(state, s -> builder.createState());
+      builder.setAccept(src, runAutomaton.isAccept(state));
+      int numTransitions = runAutomaton.initTransition(state, t);
+      for (int i = 0; i < numTransitions; i++) {
+        runAutomaton.getNextTransition(t);
+        int dest = states.computeIfAbsent(t.dest, s -> builder.createState());
+        builder.addTransition(src, dest, t.min, t.max);
+      }
+    }
+    return builder.finish();
+  }
+}
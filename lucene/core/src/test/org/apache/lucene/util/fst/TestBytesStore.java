@@ -17,6 +17,7 @@
 package org.apache.lucene.util.fst;
 
 import java.util.Arrays;
+import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
@@ -236,6 +237,34 @@ public class TestBytesStore extends LuceneTestCase {
     }
   }
 
+  public void testReleaseCompleteBlocks() throws Exception {
+    final int numBytes = TestUtil.nextInt(random(), 1, 20000);
+    final byte[] expected = new byte[numBytes];
+    random().nextBytes(expected);
+    final int blockBits = TestUtil.nextInt(random(), 4, 10);
+    final BytesStore bytes = new BytesStore(blockBits);
+    final ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+
+    int upto = 0;
+    while (upto < numBytes) {
+      final int len = Math.min(numBytes - upto, TestUtil.nextInt(random(), 1, 100));
+      bytes.writeBytes(expected, upto, len);
+      upto += len;
+      bytes.releaseCompleteBlocks(out);
+      // only complete blocks get released
+      assertEquals(upto >> blockBits, out.size() >> blockBits);
+      assertTrue(out.size() <= upto);
+      assertEquals(upto, bytes.getPosition());
+    }
+    assertEquals(numBytes >= 1 << blockBits, bytes.hasReleasedBlocks());
+
+    bytes.finish();
+    bytes.releaseCompleteBlocks(out);
+    assertTrue(bytes.hasReleasedBlocks());
+    assertEquals(numBytes, bytes.getPosition());
+    assertArrayEquals(expected, out.toArrayCopy());
+  }
+
   private void verify(BytesStore bytes, byte[] expected, int totalLength) throws Exception {
     assertEquals(totalLength, bytes.getPosition());
     if (totalLength == 0) {
@@ -1790,4 +1790,158 @@ public class TestFSTs extends LuceneTestCase {
     assertEquals(5, (long) Util.get(fst, ac));
     assertEquals(7, (long) Util.get(fst, bd));
   }
+
+  private static List<BytesRef> randomSortedTerms(int numTerms) {
+    Set<BytesRef> terms = new TreeSet<>();
+    while (terms.size() < numTerms) {
+      // use a small alphabet most of the time so that there are many shared suffixes
+      int alphabetSize = random().nextBoolean() ? 4 : 26;
+      byte[] bytes = new byte[TestUtil.nextInt(random(), 1, 12)];
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = (byte) ('a' + random().nextInt(alphabetSize));
+      }
+      terms.add(new BytesRef(bytes));
+    }
+    return new ArrayList<>(terms);
+  }
+
+  private static FST<Long> buildFST(List<BytesRef> terms, FSTCompiler.Builder<Long> builder)
+      throws IOException {
+    FSTCompiler<Long> fstCompiler = builder.build();
+    IntsRefBuilder scratch = new IntsRefBuilder();
+    for (int i = 0; i < terms.size(); i++) {
+      fstCompiler.add(Util.toIntsRef(terms.get(i), scratch), (long) i);
+    }
+    return fstCompiler.compile();
+  }
+
+  private static void assertFSTContent(List<BytesRef> terms, FST<Long> fst) throws IOException {
+    for (int i = 0; i < terms.size(); i++) {
+      assertEquals(Long.valueOf(i), Util.get(fst, terms.get(i)));
+    }
+    BytesRefFSTEnum<Long> fstEnum = new BytesRefFSTEnum<>(fst);
+    for (int i = 0; i < terms.size(); i++) {
+      InputOutput<Long> io = fstEnum.next();
+      assertNotNull(io);
+      assertEquals(terms.get(i), io.input);
+      assertEquals(Long.valueOf(i), io.output);
+    }
+    assertNull(fstEnum.next());
+  }
+
+  public void testBoundedSuffixHash() throws Exception {
+    List<BytesRef> terms = randomSortedTerms(atLeast(10000));
+    PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+
+    FST<Long> minimal = buildFST(terms, new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs));
+    assertFSTContent(terms, minimal);
+
+    FST<Long> bounded =
+        buildFST(
+            terms,
+            new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs).suffixRAMLimitMB(0.001));
+    assertFSTContent(terms, bounded);
+    // some suffixes can no longer be shared
+    assertTrue(bounded.ramBytesUsed() >= minimal.ramBytesUsed());
+
+    expectThrows(
+        IllegalArgumentException.class,
+        () -> new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs).suffixRAMLimitMB(0));
+  }
+
+  public void testStreamToDataOutput() throws Exception {
+    List<BytesRef> terms = randomSortedTerms(atLeast(10000));
+    PositiveIntOutputs outputs = PositiveIntOutputs.getSingleton();
+    int bytesPageBits = TestUtil.nextInt(random(), 4, 15);
+
+    // build in heap as a reference
+    FST<Long> reference =
+        buildFST(
+            terms,
+            new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs).bytesPageBits(bytesPageBits));
+    try (IndexOutput metaOut = dir.createOutput("reference_meta", IOContext.DEFAULT);
+        IndexOutput dataOut = dir.createOutput("reference_data", IOContext.DEFAULT)) {
+      reference.save(metaOut, dataOut);
+    }
+
+    final boolean bounded = random().nextBoolean();
+    FSTCompiler.Builder<Long> builder =
+        new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, outputs).bytesPageBits(bytesPageBits);
+    if (bounded) {
+      builder.suffixRAMLimitMB(0.01);
+    }
+    try (IndexOutput dataOut = dir.createOutput("data", IOContext.DEFAULT);
+        IndexOutput metaOut = dir.createOutput("meta", IOContext.DEFAULT)) {
+      FST<Long> fst = buildFST(terms, builder.dataOutput(dataOut));
+      // FST bytes are no longer in heap
+      assertTrue(fst.ramBytesUsed() < reference.ramBytesUsed());
+      expectThrows(IllegalStateException.class, fst::getBytesReader);
+      expectThrows(IllegalStateException.class, () -> fst.save(metaOut, dataOut));
+      fst.saveMetadata(metaOut);
+    }
+
+    try (IndexInput metaIn = dir.openInput("meta", IOContext.DEFAULT);
+        IndexInput dataIn = dir.openInput("data", IOContext.DEFAULT)) {
+      FST<Long> fst = new FST<>(metaIn, dataIn, outputs, new OffHeapFSTStore());
+      assertFSTContent(terms, fst);
+
+      if (bounded == false) {
+        // streaming doesn't change the FST
+        try (IndexInput referenceDataIn = dir.openInput("reference_data", IOContext.DEFAULT)) {
+          assertEquals(referenceDataIn.length(), dataIn.length());
+          byte[] expected = new byte[(int) referenceDataIn.length()];
+          referenceDataIn.readBytes(expected, 0, expected.length);
+          byte[] actual = new byte[(int) dataIn.length()];
+          dataIn.seek(0);
+          dataIn.readBytes(actual, 0, actual.length);
+          assertArrayEquals(expected, actual);
+        }
+      }
+    }
+  }
+
+  /** Checks findTargetArc against a scan of all arcs, including nodes with variable length arcs. */
+  public void testFindTargetArc() throws Exception {
+    List<BytesRef> terms = randomSortedTerms(atLeast(1000));
+    FST<Long> fst =
+        buildFST(
+            terms,
+            new FSTCompiler.Builder<>(FST.INPUT_TYPE.BYTE1, PositiveIntOutputs.getSingleton())
+                .allowFixedLengthArcs(random().nextBoolean()));
+    FST.BytesReader in = fst.getBytesReader();
+    List<FST.Arc<Long>> queue = new ArrayList<>();
+    queue.add(fst.getFirstArc(new FST.Arc<>()));
+    Set<Long> visited = new HashSet<>();
+    while (queue.isEmpty() == false) {
+      FST.Arc<Long> follow = queue.remove(queue.size() - 1);
+      if (FST.targetHasArcs(follow) == false || visited.add(follow.target()) == false) {
+        continue;
+      }
+      Map<Integer, FST.Arc<Long>> arcs = new TreeMap<>();
+      FST.Arc<Long> arc = fst.readFirstRealTargetArc(follow.target(), new FST.Arc<>(), in);
+      while (true) {
+        arcs.put(arc.label(), new FST.Arc<Long>().copyFrom(arc));
+        queue.add(new FST.Arc<Long>().copyFrom(arc));
+        if (arc.isLast()) {
+          break;
+        }
+        fst.readNextRealArc(arc, in);
+      }
+      for (int label = 'a' - 1; label <= 'z' + 1; label++) {
+        FST.Arc<Long> expected = arcs.get(label);
+        FST.Arc<Long> actual = fst.findTargetArc(label, follow, new FST.Arc<>(), in);
+        if (expected == null) {
+          assertNull(actual);
+        } else {
+          assertNotNull(actual);
+          assertEquals(expected.label(), actual.label());
+          assertEquals(expected.output(), actual.output());
+          assertEquals(expected.nextFinalOutput(), actual.nextFinalOutput());
+          assertEquals(expected.target(), actual.target());
+          assertEquals(expected.isFinal(), actual.isFinal());
+          assertEquals(expected.isLast(), actual.isLast());
+        }
+      }
+    }
+  }
 }
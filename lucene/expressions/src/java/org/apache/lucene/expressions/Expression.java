@@ -91,6 +91,41 @@ public abstract class Expression {
    */
   public abstract double evaluate(DoubleValues[] functionValues);
 
+  /**
+   * Evaluates the expression for a block of documents at once.
+   *
+   * <p>{@code values[i][j]} holds the value of {@link #variables}[i] for the j-th document of the
+   * block, and the computed value for that document is written to {@code result[j]}. Expressions
+   * compiled by {@link JavascriptCompiler} implement this as a tight loop over the columns; the
+   * default implementation calls {@link #evaluate(DoubleValues[])} once per document.
+   *
+   * @param values one column of values per element of {@link #variables}
+   * @param count number of documents in the block
+   * @param result receives the computed value for each document of the block
+   */
+  public void evaluate(double[][] values, int count, double[] result) {
+    final int[] upto = new int[1];
+    final DoubleValues[] functionValues = new DoubleValues[values.length];
+    for (int i = 0; i < values.length; i++) {
+      final double[] column = values[i];
+      functionValues[i] =
+          new DoubleValues() {
+            @Override
+            public double doubleValue() {
+              return column[upto[0]];
+            }
+
+            @Override
+            public boolean advanceExact(int doc) {
+              throw new UnsupportedOperationException();
+            }
+          };
+    }
+    for (upto[0] = 0; upto[0] < count; upto[0]++) {
+      result[upto[0]] = evaluate(functionValues);
+    }
+  }
+
   /**
    * Get a DoubleValuesSource which can compute the value of this expression in the context of the
    * given bindings.
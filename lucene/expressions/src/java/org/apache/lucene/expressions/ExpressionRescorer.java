@@ -17,49 +17,95 @@
 package org.apache.lucene.expressions;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
-import org.apache.lucene.search.DoubleValues;
 import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Rescorer;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortRescorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.util.ArrayUtil;
 
 /**
  * A {@link Rescorer} that uses an expression to re-score first pass hits. Functionally this is the
  * same as {@link SortRescorer} (if you build the {@link Sort} using {@link
  * Expression#getSortField}), except for the explain method which gives more detail by showing the
- * value of each variable.
+ * value of each variable. Hits are rescored segment by segment, loading the values of the variables
+ * for blocks of hits at once and evaluating the expression over these blocks.
  *
  * @lucene.experimental
  */
 class ExpressionRescorer extends SortRescorer {
 
+  private final Sort sort;
   private final Expression expression;
   private final Bindings bindings;
 
   /** Uses the provided {@link Expression} to assign second pass scores. */
   public ExpressionRescorer(Expression expression, Bindings bindings) {
-    super(new Sort(expression.getSortField(bindings, true)));
+    this(new Sort(expression.getSortField(bindings, true)), expression, bindings);
+  }
+
+  private ExpressionRescorer(Sort sort, Expression expression, Bindings bindings) {
+    super(sort);
+    this.sort = sort;
     this.expression = expression;
     this.bindings = bindings;
   }
 
-  private static DoubleValues scores(int doc, float score) {
-    return new DoubleValues() {
-      @Override
-      public double doubleValue() throws IOException {
-        return score;
-      }
+  @Override
+  public TopDocs rescore(IndexSearcher searcher, TopDocs firstPassTopDocs, int topN)
+      throws IOException {
+    // Copy ScoreDoc[] and sort by ascending docID:
+    ScoreDoc[] hits = firstPassTopDocs.scoreDocs.clone();
+    Arrays.sort(hits, Comparator.comparingInt(sd -> sd.doc));
 
-      @Override
-      public boolean advanceExact(int target) throws IOException {
-        assert doc == target;
-        return true;
+    ExpressionValueSource valueSource =
+        (ExpressionValueSource) expression.getDoubleValuesSource(bindings).rewrite(searcher);
+    List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+    int[] docs = new int[hits.length];
+    float[] scores = new float[hits.length];
+    double[] values = new double[hits.length];
+
+    FieldDoc[] rescored = new FieldDoc[hits.length];
+    int hitUpto = 0;
+    while (hitUpto < hits.length) {
+      LeafReaderContext readerContext = leaves.get(ReaderUtil.subIndex(hits[hitUpto].doc, leaves));
+      int endDoc = readerContext.docBase + readerContext.reader().maxDoc();
+      int count = 0;
+      for (int i = hitUpto; i < hits.length && hits[i].doc < endDoc; ++i) {
+        docs[count] = hits[i].doc - readerContext.docBase;
+        scores[count] = hits[i].score;
+        count++;
       }
-    };
+      valueSource.evaluate(readerContext, docs, scores, count, values);
+      for (int i = 0; i < count; ++i) {
+        ScoreDoc hit = hits[hitUpto + i];
+        rescored[hitUpto + i] = new FieldDoc(hit.doc, hit.score, new Object[] {values[i]});
+      }
+      hitUpto += count;
+    }
+
+    // Same order as the reversed sort field: descending value, then ascending docID
+    Arrays.sort(
+        rescored,
+        (a, b) -> {
+          int cmp = Double.compare((Double) b.fields[0], (Double) a.fields[0]);
+          return cmp != 0 ? cmp : Integer.compare(a.doc, b.doc);
+        });
+    if (topN < rescored.length) {
+      rescored = ArrayUtil.copyOfSubArray(rescored, 0, topN);
+    }
+    return new TopFieldDocs(
+        new TotalHits(hits.length, TotalHits.Relation.EQUAL_TO), rescored, sort.getSort());
   }
 
   @Override
@@ -87,6 +87,76 @@ class ExpressionValueSource extends DoubleValuesSource {
     return new ExpressionFunctionValues(expression, externalValues);
   }
 
+  /** Number of documents whose variables are loaded and evaluated at once by {@link #evaluate}. */
+  static final int BLOCK_SIZE = 256;
+
+  /**
+   * Computes the value of the expression for {@code count} documents of a segment. Documents must
+   * be given in increasing order. Variables are loaded column by column into primitive arrays in
+   * blocks of {@link #BLOCK_SIZE} documents, which are then evaluated at once with {@link
+   * Expression#evaluate(double[][], int, double[])}.
+   *
+   * @param readerContext the segment
+   * @param docs segment-relative doc ids, in increasing order
+   * @param scores score of each document, used by score-dependent variables
+   * @param count number of documents
+   * @param result receives the value of the expression for each document
+   */
+  void evaluate(
+      LeafReaderContext readerContext, int[] docs, float[] scores, int count, double[] result)
+      throws IOException {
+    final BlockScores blockScores = new BlockScores(scores);
+    final DoubleValues[] externalValues = new DoubleValues[variables.length];
+    for (int i = 0; i < variables.length; ++i) {
+      externalValues[i] = variables[i].getValues(readerContext, blockScores);
+      if (externalValues[i] == null) {
+        throw new RuntimeException(
+            "Unrecognized variable ("
+                + expression.variables[i]
+                + ") referenced in expression ("
+                + expression.sourceText
+                + ").");
+      }
+    }
+
+    final int blockSize = Math.min(count, BLOCK_SIZE);
+    final double[][] columns = new double[variables.length][blockSize];
+    final double[] block = new double[blockSize];
+    for (int start = 0; start < count; start += blockSize) {
+      final int end = Math.min(count, start + blockSize);
+      for (int i = 0; i < externalValues.length; ++i) {
+        final DoubleValues values = externalValues[i];
+        final double[] column = columns[i];
+        for (int j = start; j < end; ++j) {
+          blockScores.upto = j;
+          column[j - start] = values.advanceExact(docs[j]) ? values.doubleValue() : 0;
+        }
+      }
+      expression.evaluate(columns, end - start, block);
+      System.arraycopy(block, 0, result, start, end - start);
+    }
+  }
+
+  /** Exposes the score of the document that is currently being loaded by {@link #evaluate}. */
+  private static class BlockScores extends DoubleValues {
+    final float[] scores;
+    int upto;
+
+    BlockScores(float[] scores) {
+      this.scores = scores;
+    }
+
+    @Override
+    public double doubleValue() {
+      return scores[upto];
+    }
+
+    @Override
+    public boolean advanceExact(int doc) {
+      return true;
+    }
+  }
+
   static DoubleValues zeroWhenUnpositioned(DoubleValues in) {
     return new DoubleValues() {
 
@@ -97,10 +97,13 @@ public final class JavascriptCompiler {
 
   static final Type EXPRESSION_TYPE = Type.getType(Expression.class);
   static final Type FUNCTION_VALUES_TYPE = Type.getType(DoubleValues.class);
+  static final Type DOUBLE_ARRAY_TYPE = Type.getType(double[].class);
 
   private static final org.objectweb.asm.commons.Method
       EXPRESSION_CTOR = getAsmMethod(void.class, "<init>", String.class, String[].class),
-      EVALUATE_METHOD = getAsmMethod(double.class, "evaluate", DoubleValues[].class);
+      EVALUATE_METHOD = getAsmMethod(double.class, "evaluate", DoubleValues[].class),
+      EVALUATE_BLOCK_METHOD =
+          getAsmMethod(void.class, "evaluate", double[][].class, int.class, double[].class);
 
   static final org.objectweb.asm.commons.Method DOUBLE_VAL_METHOD =
       getAsmMethod(double.class, "doubleValue");
@@ -271,7 +274,47 @@ public final class JavascriptCompiler {
 
     final GeneratorAdapter gen =
         new GeneratorAdapter(Opcodes.ACC_PUBLIC, EVALUATE_METHOD, null, null, classWriter);
+    generateExpression(parseTree, gen, externalsMap, -1);
+    gen.returnValue();
+    gen.endMethod();
+
+    // the block variant evaluates the same tree in a counted loop, reading every variable from
+    // its column: for (int i = 0; i < count; i++) result[i] = <expression with values[v][i]>
+    final GeneratorAdapter block =
+        new GeneratorAdapter(Opcodes.ACC_PUBLIC, EVALUATE_BLOCK_METHOD, null, null, classWriter);
+    final int index = block.newLocal(Type.INT_TYPE);
+    final Label loop = new Label();
+    final Label end = new Label();
+    block.push(0);
+    block.storeLocal(index);
+    block.mark(loop);
+    block.loadLocal(index);
+    block.loadArg(1);
+    block.ifICmp(GeneratorAdapter.GE, end);
+    block.loadArg(2);
+    block.loadLocal(index);
+    generateExpression(parseTree, block, externalsMap, index);
+    block.arrayStore(Type.DOUBLE_TYPE);
+    block.iinc(index, 1);
+    block.goTo(loop);
+    block.mark(end);
+    block.returnValue();
+    block.endMethod();
+
+    classWriter.visitEnd();
+  }
 
+  /**
+   * Emits the bytecode computing the value of the expression onto the stack of {@code gen}. If
+   * {@code blockIndex} is negative, variables are read from the {@link DoubleValues} array passed
+   * as first argument, otherwise from the column array passed as first argument, at the position
+   * held by the local variable {@code blockIndex}.
+   */
+  private void generateExpression(
+      final ParseTree parseTree,
+      final GeneratorAdapter gen,
+      final Map<String, Integer> externalsMap,
+      final int blockIndex) {
     // to completely hide the ANTLR visitor we use an anonymous impl:
     new JavascriptBaseVisitor<Void>() {
       private final Deque<Type> typeStack = new ArrayDeque<>();
@@ -360,8 +403,14 @@ public final class JavascriptCompiler {
 
             gen.loadArg(0);
             gen.push(index);
-            gen.arrayLoad(FUNCTION_VALUES_TYPE);
-            gen.invokeVirtual(FUNCTION_VALUES_TYPE, DOUBLE_VAL_METHOD);
+            if (blockIndex < 0) {
+              gen.arrayLoad(FUNCTION_VALUES_TYPE);
+              gen.invokeVirtual(FUNCTION_VALUES_TYPE, DOUBLE_VAL_METHOD);
+            } else {
+              gen.arrayLoad(DOUBLE_ARRAY_TYPE);
+              gen.loadLocal(blockIndex);
+              gen.arrayLoad(Type.DOUBLE_TYPE);
+            }
             gen.cast(Type.DOUBLE_TYPE, typeStack.peek());
           } else {
             throw new ParseException(
@@ -672,11 +721,6 @@ public final class JavascriptCompiler {
         }
       }
     }.visit(parseTree);
-
-    gen.returnValue();
-    gen.endMethod();
-
-    classWriter.visitEnd();
   }
 
   static String normalizeQuotes(String text) {
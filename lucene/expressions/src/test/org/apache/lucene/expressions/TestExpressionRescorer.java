@@ -25,14 +25,18 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Rescorer;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortRescorer;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.similarities.ClassicSimilarity;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 public class TestExpressionRescorer extends LuceneTestCase {
   IndexSearcher searcher;
@@ -120,4 +124,47 @@ public class TestExpressionRescorer extends LuceneTestCase {
     assertTrue(expl.contains("= first pass score"));
     assertTrue(expl.contains("body:contents in"));
   }
+
+  public void testSameAsSortRescorer() throws Exception {
+    Directory dir = newDirectory();
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir);
+    int numDocs = atLeast(500);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newTextField("body", random().nextBoolean() ? "a b" : "a c c", Field.Store.NO));
+      if (random().nextInt(5) != 0) {
+        doc.add(new NumericDocValuesField("popularity", random().nextInt(100)));
+      }
+      iw.addDocument(doc);
+    }
+    IndexReader reader = iw.getReader();
+    iw.close();
+    IndexSearcher searcher = newSearcher(reader);
+
+    SimpleBindings bindings = new SimpleBindings();
+    bindings.add("popularity", DoubleValuesSource.fromIntField("popularity"));
+    bindings.add("_score", DoubleValuesSource.SCORES);
+    bindings.add(
+        "boost", JavascriptCompiler.compile("popularity / 10").getDoubleValuesSource(bindings));
+    Expression e = JavascriptCompiler.compile("popularity > 50 ? sqrt(_score) + boost : _score");
+
+    TopDocs hits = searcher.search(new TermQuery(new Term("body", "a")), numDocs);
+    int topN = TestUtil.nextInt(random(), 1, numDocs);
+    TopDocs expected =
+        new SortRescorer(new Sort(e.getSortField(bindings, true))).rescore(searcher, hits, topN);
+    TopDocs actual = e.getRescorer(bindings).rescore(searcher, hits, topN);
+
+    assertEquals(expected.totalHits, actual.totalHits);
+    assertEquals(expected.scoreDocs.length, actual.scoreDocs.length);
+    for (int i = 0; i < expected.scoreDocs.length; i++) {
+      FieldDoc expectedDoc = (FieldDoc) expected.scoreDocs[i];
+      FieldDoc actualDoc = (FieldDoc) actual.scoreDocs[i];
+      assertEquals(expectedDoc.doc, actualDoc.doc);
+      assertEquals(expectedDoc.score, actualDoc.score, 0f);
+      assertArrayEquals(expectedDoc.fields, actualDoc.fields);
+    }
+
+    reader.close();
+    dir.close();
+  }
 }
@@ -18,7 +18,9 @@ package org.apache.lucene.expressions.js;
 
 import java.text.ParseException;
 import org.apache.lucene.expressions.Expression;
+import org.apache.lucene.search.DoubleValues;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.TestUtil;
 
 public class TestJavascriptCompiler extends LuceneTestCase {
 
@@ -236,4 +238,43 @@ public class TestJavascriptCompiler extends LuceneTestCase {
     x = JavascriptCompiler.compile("foo['\\\\'][\"\\\\\"]");
     assertEquals("foo['\\\\']['\\\\']", x.variables[0]);
   }
+
+  public void testBlockEvaluation() throws Exception {
+    String[] sources = {
+      "a + b * 2", "sqrt(a) + ln(b + 1)", "a > b ? a : -b", "(a & 7) | (b << 2)", "!a || b > 3", "1"
+    };
+    for (String source : sources) {
+      Expression expr = JavascriptCompiler.compile(source);
+      int count = TestUtil.nextInt(random(), 1, 100);
+      double[][] columns = new double[expr.variables.length][count];
+      for (double[] column : columns) {
+        for (int i = 0; i < count; i++) {
+          column[i] = random().nextInt(20);
+        }
+      }
+      double[] result = new double[count];
+      expr.evaluate(columns, count, result);
+      for (int i = 0; i < count; i++) {
+        DoubleValues[] functionValues = new DoubleValues[columns.length];
+        for (int j = 0; j < columns.length; j++) {
+          functionValues[j] = constant(columns[j][i]);
+        }
+        assertEquals(source, expr.evaluate(functionValues), result[i], 0d);
+      }
+    }
+  }
+
+  private static DoubleValues constant(double value) {
+    return new DoubleValues() {
+      @Override
+      public double doubleValue() {
+        return value;
+      }
+
+      @Override
+      public boolean advanceExact(int doc) {
+        return true;
+      }
+    };
+  }
 }
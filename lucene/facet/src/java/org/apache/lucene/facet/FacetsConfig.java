@@ -28,6 +28,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
@@ -65,6 +66,8 @@ public class FacetsConfig {
   // int/float/bytes in a single indexed field:
   private final Map<String, String> assocDimTypes = new ConcurrentHashMap<>();
 
+  private volatile boolean sortedNumericOrdinals;
+
   /**
    * Holds the configuration for one dimension
    *
@@ -178,6 +181,22 @@ public class FacetsConfig {
     ft.requireDimensionDrillDown = v;
   }
 
+  /**
+   * Pass {@code true} to index the ordinals of taxonomy based {@link FacetField}s as one {@link
+   * SortedNumericDocValuesField} value per ordinal, instead of a single {@link
+   * BinaryDocValuesField} holding the delta-encoded ordinals. This lets counting decode ordinals in
+   * bulk through the doc-values codec. All documents of an index must be built with the same
+   * setting; default is false. Association facets are not affected.
+   */
+  public void setSortedNumericOrdinals(boolean v) {
+    sortedNumericOrdinals = v;
+  }
+
+  /** Returns true if ordinals are indexed as sorted numeric doc values. */
+  public boolean getSortedNumericOrdinals() {
+    return sortedNumericOrdinals;
+  }
+
   /** Returns map of field name to {@link DimConfig}. */
   public Map<String, DimConfig> getDimConfigs() {
     return fieldTypes;
@@ -384,7 +403,21 @@ public class FacetsConfig {
 
       // Facet counts:
       // DocValues are considered stored fields:
-      doc.add(new BinaryDocValuesField(indexFieldName, dedupAndEncode(ordinals.get())));
+      if (sortedNumericOrdinals) {
+        IntsRef ords = ordinals.get();
+        Arrays.sort(ords.ints, ords.offset, ords.offset + ords.length);
+        int lastOrd = -1;
+        for (int i = 0; i < ords.length; i++) {
+          int ord = ords.ints[ords.offset + i];
+          // ord could be == lastOrd, so we must dedup:
+          if (ord > lastOrd) {
+            doc.add(new SortedNumericDocValuesField(indexFieldName, ord));
+            lastOrd = ord;
+          }
+        }
+      } else {
+        doc.add(new BinaryDocValuesField(indexFieldName, dedupAndEncode(ordinals.get())));
+      }
     }
   }
 
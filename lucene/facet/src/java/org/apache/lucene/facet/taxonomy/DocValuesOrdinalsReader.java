@@ -20,12 +20,18 @@ import java.io.IOException;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IntsRef;
 
-/** Decodes ordinals previously indexed into a BinaryDocValues field */
+/**
+ * Decodes ordinals previously indexed into a BinaryDocValues field, or into a
+ * SortedNumericDocValues field if {@link FacetsConfig#setSortedNumericOrdinals} was used.
+ */
 public class DocValuesOrdinalsReader extends OrdinalsReader {
   private final String field;
 
@@ -41,6 +47,11 @@ public class DocValuesOrdinalsReader extends OrdinalsReader {
 
   @Override
   public OrdinalsSegmentReader getReader(LeafReaderContext context) throws IOException {
+    FieldInfo fieldInfo = context.reader().getFieldInfos().fieldInfo(field);
+    if (fieldInfo != null && fieldInfo.getDocValuesType() == DocValuesType.SORTED_NUMERIC) {
+      return getSortedNumericReader(context.reader().getSortedNumericDocValues(field));
+    }
+
     BinaryDocValues values0 = context.reader().getBinaryDocValues(field);
     if (values0 == null) {
       values0 = DocValues.emptyBinary();
@@ -73,6 +84,35 @@ public class DocValuesOrdinalsReader extends OrdinalsReader {
     };
   }
 
+  /** Reads ordinals indexed with {@link FacetsConfig#setSortedNumericOrdinals}. */
+  private static OrdinalsSegmentReader getSortedNumericReader(SortedNumericDocValues values) {
+    return new OrdinalsSegmentReader() {
+
+      private int lastDocID;
+
+      @Override
+      public void get(int docID, IntsRef ordinals) throws IOException {
+        if (docID < lastDocID) {
+          throw new AssertionError(
+              "docs out of order: lastDocID=" + lastDocID + " vs docID=" + docID);
+        }
+        lastDocID = docID;
+        ordinals.offset = 0;
+        ordinals.length = 0;
+        if (values.advanceExact(docID)) {
+          int count = values.docValueCount();
+          if (ordinals.ints.length < count) {
+            ordinals.ints = ArrayUtil.grow(ordinals.ints, count);
+          }
+          for (int i = 0; i < count; i++) {
+            ordinals.ints[i] = (int) values.nextValue();
+          }
+          ordinals.length = count;
+        }
+      }
+    };
+  }
+
   @Override
   public String getIndexFieldName() {
     return field;
@@ -17,22 +17,38 @@
 package org.apache.lucene.facet.taxonomy;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import org.apache.lucene.facet.FacetsCollector;
 import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
 import org.apache.lucene.facet.FacetsConfig;
 import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.FieldInfo;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.search.ConjunctionDISI;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.ThreadInterruptedException;
 
 /**
- * Computes facets counts, assuming the default encoding into DocValues was used.
+ * Computes facets counts, assuming the default encoding into DocValues was used. Ordinals indexed
+ * as sorted numeric doc values (see {@link FacetsConfig#setSortedNumericOrdinals}) are supported
+ * too.
  *
  * @lucene.experimental
  */
@@ -52,8 +68,47 @@ public class FastTaxonomyFacetCounts extends IntTaxonomyFacets {
   public FastTaxonomyFacetCounts(
       String indexFieldName, TaxonomyReader taxoReader, FacetsConfig config, FacetsCollector fc)
       throws IOException {
+    this(indexFieldName, taxoReader, config, fc, null);
+  }
+
+  /**
+   * Create {@code FastTaxonomyFacetCounts}, counting the segments of {@code fc} concurrently on the
+   * provided {@link Executor}, typically {@link IndexSearcher#getExecutor()}. Each concurrently
+   * running task counts into its own {@code int[]}, which are summed once all segments are counted.
+   * If {@code executor} is null, segments are counted sequentially by the calling thread.
+   */
+  public FastTaxonomyFacetCounts(
+      String indexFieldName,
+      TaxonomyReader taxoReader,
+      FacetsConfig config,
+      FacetsCollector fc,
+      Executor executor)
+      throws IOException {
     super(indexFieldName, taxoReader, config, fc);
-    count(fc.getMatchingDocs());
+    List<MatchingDocs> matchingDocs = fc.getMatchingDocs();
+    if (executor == null) {
+      for (MatchingDocs hits : matchingDocs) {
+        countOneSegment(hits.context.reader(), hits.bits.iterator(), null);
+      }
+    } else {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      Queue<int[]> countsPool = new ConcurrentLinkedQueue<>();
+      for (MatchingDocs hits : matchingDocs) {
+        tasks.add(
+            () -> {
+              int[] counts = borrowCounts(countsPool);
+              try {
+                countOneSegment(hits.context.reader(), hits.bits.iterator(), counts);
+              } finally {
+                countsPool.add(counts);
+              }
+              return null;
+            });
+      }
+      runAll(tasks, executor);
+      merge(countsPool);
+    }
+    rollup();
   }
 
   /**
@@ -64,75 +119,153 @@ public class FastTaxonomyFacetCounts extends IntTaxonomyFacets {
   public FastTaxonomyFacetCounts(
       String indexFieldName, IndexReader reader, TaxonomyReader taxoReader, FacetsConfig config)
       throws IOException {
-    super(indexFieldName, taxoReader, config, null);
-    countAll(reader);
+    this(indexFieldName, reader, taxoReader, config, null);
   }
 
-  private final void count(List<MatchingDocs> matchingDocs) throws IOException {
-    for (MatchingDocs hits : matchingDocs) {
-      BinaryDocValues dv = hits.context.reader().getBinaryDocValues(indexFieldName);
-      if (dv == null) { // this reader does not have DocValues for the requested category list
-        continue;
+  /**
+   * Create {@code FastTaxonomyFacetCounts}, counting all non-deleted documents in the index with
+   * the segments counted concurrently on the provided {@link Executor}. If {@code executor} is
+   * null, segments are counted sequentially by the calling thread.
+   */
+  public FastTaxonomyFacetCounts(
+      String indexFieldName,
+      IndexReader reader,
+      TaxonomyReader taxoReader,
+      FacetsConfig config,
+      Executor executor)
+      throws IOException {
+    super(indexFieldName, taxoReader, config, null);
+    if (executor == null) {
+      for (LeafReaderContext context : reader.leaves()) {
+        countOneSegment(context.reader(), null, null);
       }
+    } else {
+      List<Callable<Void>> tasks = new ArrayList<>();
+      Queue<int[]> countsPool = new ConcurrentLinkedQueue<>();
+      for (LeafReaderContext context : reader.leaves()) {
+        tasks.add(
+            () -> {
+              int[] counts = borrowCounts(countsPool);
+              try {
+                countOneSegment(context.reader(), null, counts);
+              } finally {
+                countsPool.add(counts);
+              }
+              return null;
+            });
+      }
+      runAll(tasks, executor);
+      merge(countsPool);
+    }
+    rollup();
+  }
+
+  /**
+   * Counts the ordinals of the given hits, or of all live docs if {@code hits} is null, into {@code
+   * counts}, or through {@link #increment(int)} if {@code counts} is null.
+   */
+  private void countOneSegment(LeafReader reader, DocIdSetIterator hits, int[] counts)
+      throws IOException {
+    FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(indexFieldName);
+    if (fieldInfo == null) { // this reader does not have DocValues for the requested category list
+      return;
+    }
 
+    Bits liveDocs = hits == null ? reader.getLiveDocs() : null;
+
+    if (fieldInfo.getDocValuesType() == DocValuesType.SORTED_NUMERIC) {
+      SortedNumericDocValues dv = reader.getSortedNumericDocValues(indexFieldName);
       DocIdSetIterator it =
-          ConjunctionDISI.intersectIterators(Arrays.asList(hits.bits.iterator(), dv));
+          hits == null ? dv : ConjunctionDISI.intersectIterators(Arrays.asList(hits, dv));
 
       for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
-        final BytesRef bytesRef = dv.binaryValue();
-        byte[] bytes = bytesRef.bytes;
-        int end = bytesRef.offset + bytesRef.length;
-        int ord = 0;
-        int offset = bytesRef.offset;
-        int prev = 0;
-        while (offset < end) {
-          byte b = bytes[offset++];
-          if (b >= 0) {
-            prev = ord = ((ord << 7) | b) + prev;
+        if (liveDocs != null && liveDocs.get(doc) == false) {
+          continue;
+        }
+        for (int i = dv.docValueCount(); i > 0; i--) {
+          int ord = (int) dv.nextValue();
+          if (counts == null) {
             increment(ord);
-            ord = 0;
           } else {
-            ord = (ord << 7) | (b & 0x7F);
+            counts[ord]++;
           }
         }
       }
+      return;
     }
 
-    rollup();
-  }
+    BinaryDocValues dv = reader.getBinaryDocValues(indexFieldName);
+    if (dv == null) { // this reader does not have DocValues for the requested category list
+      return;
+    }
 
-  private final void countAll(IndexReader reader) throws IOException {
-    for (LeafReaderContext context : reader.leaves()) {
-      BinaryDocValues dv = context.reader().getBinaryDocValues(indexFieldName);
-      if (dv == null) { // this reader does not have DocValues for the requested category list
+    DocIdSetIterator it =
+        hits == null ? dv : ConjunctionDISI.intersectIterators(Arrays.asList(hits, dv));
+
+    for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+      if (liveDocs != null && liveDocs.get(doc) == false) {
         continue;
       }
-
-      Bits liveDocs = context.reader().getLiveDocs();
-
-      for (int doc = dv.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = dv.nextDoc()) {
-        if (liveDocs != null && liveDocs.get(doc) == false) {
-          continue;
-        }
-        final BytesRef bytesRef = dv.binaryValue();
-        byte[] bytes = bytesRef.bytes;
-        int end = bytesRef.offset + bytesRef.length;
-        int ord = 0;
-        int offset = bytesRef.offset;
-        int prev = 0;
-        while (offset < end) {
-          byte b = bytes[offset++];
-          if (b >= 0) {
-            prev = ord = ((ord << 7) | b) + prev;
+      final BytesRef bytesRef = dv.binaryValue();
+      byte[] bytes = bytesRef.bytes;
+      int end = bytesRef.offset + bytesRef.length;
+      int ord = 0;
+      int offset = bytesRef.offset;
+      int prev = 0;
+      while (offset < end) {
+        byte b = bytes[offset++];
+        if (b >= 0) {
+          prev = ord = ((ord << 7) | b) + prev;
+          if (counts == null) {
             increment(ord);
-            ord = 0;
           } else {
-            ord = (ord << 7) | (b & 0x7F);
+            counts[ord]++;
           }
+          ord = 0;
+        } else {
+          ord = (ord << 7) | (b & 0x7F);
         }
       }
     }
+  }
 
-    rollup();
+  /** Takes a per-task counts array from the pool, or allocates a new one if none is free. */
+  private int[] borrowCounts(Queue<int[]> countsPool) {
+    int[] counts = countsPool.poll();
+    if (counts == null) {
+      counts = new int[taxoReader.getSize()];
+    }
+    return counts;
+  }
+
+  /** Sums the per-task counts into this instance's values. */
+  private void merge(Queue<int[]> countsPool) {
+    for (int[] counts : countsPool) {
+      for (int ord = 0; ord < counts.length; ord++) {
+        if (counts[ord] != 0) {
+          increment(ord, counts[ord]);
+        }
+      }
+    }
+  }
+
+  private static void runAll(List<Callable<Void>> tasks, Executor executor) throws IOException {
+    List<FutureTask<Void>> futures = new ArrayList<>(tasks.size());
+    for (Callable<Void> task : tasks) {
+      FutureTask<Void> future = new FutureTask<>(task);
+      futures.add(future);
+      executor.execute(future);
+    }
+    for (FutureTask<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        throw new ThreadInterruptedException(e);
+      } catch (ExecutionException ee) {
+        // Theoretically cause can be null; guard against that.
+        Throwable cause = ee.getCause();
+        throw IOUtils.rethrowAlways(cause != null ? cause : ee);
+      }
+    }
   }
 }
@@ -17,6 +17,7 @@
 package org.apache.lucene.facet.taxonomy;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import org.apache.lucene.facet.FacetsConfig;
@@ -26,7 +27,10 @@ import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter.Ordina
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.FilterBinaryDocValues;
 import org.apache.lucene.index.FilterLeafReader;
+import org.apache.lucene.index.FilterSortedNumericDocValues;
 import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.IntsRef;
 
@@ -35,7 +39,8 @@ import org.apache.lucene.util.IntsRef;
  * on an ordinal map. You should use this code in conjunction with merging taxonomies - after you
  * merge taxonomies, you receive an {@link OrdinalMap} which maps the 'old' ordinals to the 'new'
  * ones. You can use that map to re-map the doc values which contain the facets information
- * (ordinals) either before or while merging the indexes.
+ * (ordinals) either before or while merging the indexes. Ordinals indexed as sorted numeric doc
+ * values (see {@link FacetsConfig#setSortedNumericOrdinals}) are re-mapped as well.
  *
  * <p>For re-mapping the ordinals during index merge, do the following:
  *
@@ -107,6 +112,55 @@ public class OrdinalMappingLeafReader extends FilterLeafReader {
     }
   }
 
+  private class OrdinalMappingSortedNumericDocValues extends FilterSortedNumericDocValues {
+
+    private int[] ordinals = new int[32];
+    private int count;
+    private int upto;
+    private int loadedDocID = -1;
+
+    OrdinalMappingSortedNumericDocValues(SortedNumericDocValues in) {
+      super(in);
+    }
+
+    // re-maps the ordinals of the current doc, which may change their order and create duplicates
+    private void load() throws IOException {
+      if (loadedDocID == docID()) {
+        return;
+      }
+      int numValues = in.docValueCount();
+      ordinals = ArrayUtil.grow(ordinals, numValues);
+      for (int i = 0; i < numValues; i++) {
+        ordinals[i] = ordinalMap[(int) in.nextValue()];
+      }
+      Arrays.sort(ordinals, 0, numValues);
+      count = 0;
+      for (int i = 0; i < numValues; i++) {
+        if (count == 0 || ordinals[i] != ordinals[count - 1]) {
+          ordinals[count++] = ordinals[i];
+        }
+      }
+      upto = 0;
+      loadedDocID = docID();
+    }
+
+    @Override
+    public int docValueCount() {
+      try {
+        load();
+      } catch (IOException e) {
+        throw new RuntimeException("error reading category ordinals for doc " + docID(), e);
+      }
+      return count;
+    }
+
+    @Override
+    public long nextValue() throws IOException {
+      load();
+      return ordinals[upto++];
+    }
+  }
+
   private final int[] ordinalMap;
   private final InnerFacetsConfig facetsConfig;
   private final Set<String> facetFields;
@@ -153,6 +207,16 @@ public class OrdinalMappingLeafReader extends FilterLeafReader {
     }
   }
 
+  @Override
+  public SortedNumericDocValues getSortedNumericDocValues(String field) throws IOException {
+    SortedNumericDocValues values = in.getSortedNumericDocValues(field);
+    if (values != null && facetFields.contains(field)) {
+      return new OrdinalMappingSortedNumericDocValues(values);
+    } else {
+      return values;
+    }
+  }
+
   @Override
   public CacheHelper getCoreCacheHelper() {
     return null;
@@ -58,6 +58,16 @@ public class TestOrdinalMappingLeafReader extends FacetTestCase {
 
   @Test
   public void testTaxonomyMergeUtils() throws Exception {
+    doTestTaxonomyMergeUtils();
+  }
+
+  @Test
+  public void testTaxonomyMergeUtilsSortedNumericOrdinals() throws Exception {
+    facetConfig.setSortedNumericOrdinals(true);
+    doTestTaxonomyMergeUtils();
+  }
+
+  private void doTestTaxonomyMergeUtils() throws Exception {
     Directory srcIndexDir = newDirectory();
     Directory srcTaxoDir = newDirectory();
     buildIndexWithFacets(srcIndexDir, srcTaxoDir, true);
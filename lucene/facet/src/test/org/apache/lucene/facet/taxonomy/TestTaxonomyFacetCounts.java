@@ -26,6 +26,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
@@ -41,6 +45,7 @@ import org.apache.lucene.facet.LabelAndValue;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyReader;
 import org.apache.lucene.facet.taxonomy.directory.DirectoryTaxonomyWriter;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.NoMergePolicy;
@@ -55,6 +60,7 @@ import org.apache.lucene.search.similarities.PerFieldSimilarityWrapper;
 import org.apache.lucene.search.similarities.Similarity;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.NamedThreadFactory;
 import org.apache.lucene.util.TestUtil;
 
 public class TestTaxonomyFacetCounts extends FacetTestCase {
@@ -699,6 +705,7 @@ public class TestTaxonomyFacetCounts extends FacetTestCase {
     RandomIndexWriter w = new RandomIndexWriter(random(), indexDir);
     DirectoryTaxonomyWriter tw = new DirectoryTaxonomyWriter(taxoDir);
     FacetsConfig config = new FacetsConfig();
+    config.setSortedNumericOrdinals(random().nextBoolean());
     int numDocs = atLeast(1000);
     int numDims = TestUtil.nextInt(random(), 1, 7);
     List<TestDoc> testDocs = getRandomDocs(tokens, numDocs, numDims);
@@ -853,4 +860,59 @@ public class TestTaxonomyFacetCounts extends FacetTestCase {
           indexFieldName, searcher.getIndexReader(), taxoReader, config);
     }
   }
+
+  public void testConcurrentCounting() throws Exception {
+    Directory indexDir = newDirectory();
+    Directory taxoDir = newDirectory();
+
+    RandomIndexWriter w = new RandomIndexWriter(random(), indexDir);
+    DirectoryTaxonomyWriter tw = new DirectoryTaxonomyWriter(taxoDir);
+    FacetsConfig config = new FacetsConfig();
+    config.setSortedNumericOrdinals(random().nextBoolean());
+    config.setHierarchical("a", true);
+    config.setMultiValued("b", true);
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; i++) {
+      Document doc = new Document();
+      doc.add(newStringField("content", random().nextBoolean() ? "x" : "y", Field.Store.NO));
+      doc.add(new FacetField("a", "a" + random().nextInt(5), "b" + random().nextInt(5)));
+      for (int j = random().nextInt(4); j > 0; j--) {
+        doc.add(new FacetField("b", "b" + random().nextInt(100)));
+      }
+      w.addDocument(config.build(tw, doc));
+      if (random().nextInt(100) == 0) {
+        w.deleteDocuments(new Term("content", "y"));
+      }
+    }
+
+    IndexSearcher searcher = newSearcher(w.getReader());
+    TaxonomyReader tr = new DirectoryTaxonomyReader(tw);
+    ExecutorService executor =
+        new ThreadPoolExecutor(
+            1,
+            TestUtil.nextInt(random(), 2, 6),
+            Long.MAX_VALUE,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new NamedThreadFactory("TestTaxonomyFacetCounts"));
+    try {
+      FacetsCollector fc = new FacetsCollector();
+      searcher.search(new TermQuery(new Term("content", "x")), fc);
+      String field = FacetsConfig.DEFAULT_INDEX_FIELD_NAME;
+      assertEquals(
+          new FastTaxonomyFacetCounts(field, tr, config, fc).getAllDims(10),
+          new FastTaxonomyFacetCounts(field, tr, config, fc, executor).getAllDims(10));
+
+      IndexReader reader = searcher.getIndexReader();
+      assertEquals(
+          new FastTaxonomyFacetCounts(field, reader, tr, config).getAllDims(10),
+          new FastTaxonomyFacetCounts(field, reader, tr, config, executor).getAllDims(10));
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    w.close();
+    IOUtils.close(tw, searcher.getIndexReader(), tr, indexDir, taxoDir);
+  }
 }
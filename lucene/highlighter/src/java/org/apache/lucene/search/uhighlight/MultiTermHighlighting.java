@@ -26,7 +26,7 @@ import org.apache.lucene.search.FuzzyQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
 import org.apache.lucene.search.spans.SpanQuery;
-import org.apache.lucene.util.automaton.ByteRunAutomaton;
+import org.apache.lucene.util.automaton.ByteRunnable;
 
 /**
  * Support for highlighting multi-term queries.
@@ -80,8 +80,7 @@ final class MultiTermHighlighting {
     }
 
     @Override
-    public void consumeTermsMatching(
-        Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+    public void consumeTermsMatching(Query query, String field, Supplier<ByteRunnable> automaton) {
       runAutomata.add(LabelledCharArrayMatcher.wrap(query.toString(), automaton.get()));
     }
   }
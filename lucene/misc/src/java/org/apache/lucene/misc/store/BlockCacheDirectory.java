@@ -0,0 +1,567 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.misc.store;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+
+/**
+ * A {@link FilterDirectory} that caches fixed-size blocks of the files that it reads in a
+ * size-bounded cache of direct {@link ByteBuffer}s, which is shared by all {@link IndexInput}s,
+ * clones and slices of a file. It is meant to wrap directories that issue a system call for every
+ * buffer refill, like {@link org.apache.lucene.store.NIOFSDirectory} or {@link DirectIODirectory},
+ * on storage where every read has a high latency, eg. network block storage: once a block is
+ * cached, reads are served from memory without relying on the OS page cache.
+ *
+ * <p>When the cache is full, blocks are evicted with a CLOCK algorithm: every time a cached block
+ * is read, it gets as many chances to survive a sweep as the priority of the extension of its file.
+ * Blocks that were just read from the wrapped directory get one chance less, so that a scan of a
+ * large file does not evict blocks that are read repeatedly. Blocks of files with a high priority,
+ * like the terms index, stay cached longer than blocks of files with a low priority, like stored
+ * fields. Files whose extension has priority {@code 0} are not cached. See {@link #setPriority}.
+ *
+ * <p>Files that are opened with a {@link IOContext.Context#MERGE merge} context or {@link
+ * IOContext#READONCE} are read directly from the wrapped directory, so that merges don't evict the
+ * blocks that searches need. Files that are written, renamed or deleted through this directory are
+ * removed from the cache.
+ *
+ * <p>Evicted blocks are not reused, since other threads may still be reading them: they are freed
+ * by the garbage collector, which means that the direct memory that this directory consumes may
+ * temporarily exceed the cache size.
+ *
+ * @lucene.experimental
+ */
+public class BlockCacheDirectory extends FilterDirectory {
+
+  /** Default size of cached blocks (64 KB). */
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  /** Maximum priority of an extension. */
+  public static final int MAX_PRIORITY = 3;
+
+  /** Priority of extensions that have no configured priority. */
+  public static final int DEFAULT_PRIORITY = 2;
+
+  private static final Map<String, Integer> DEFAULT_PRIORITIES = new HashMap<>();
+
+  static {
+    // terms index, points index, norms: hit by most searches
+    DEFAULT_PRIORITIES.put("tip", 3);
+    DEFAULT_PRIORITIES.put("kdi", 3);
+    DEFAULT_PRIORITIES.put("nvd", 3);
+    // stored fields, term vectors, payloads, vectors: only read for some hits
+    DEFAULT_PRIORITIES.put("fdt", 1);
+    DEFAULT_PRIORITIES.put("tvd", 1);
+    DEFAULT_PRIORITIES.put("pay", 1);
+    DEFAULT_PRIORITIES.put("vec", 1);
+  }
+
+  private final int blockShift;
+  private final int blockSize;
+  private final long maxCacheBytes;
+  private final Map<String, Integer> priorities = new ConcurrentHashMap<>(DEFAULT_PRIORITIES);
+
+  private final Map<String, CachedFile> files = new ConcurrentHashMap<>();
+  private final Map<BlockKey, Block> blocks = new ConcurrentHashMap<>();
+  // guards the clock and cachedBytes, reads of cached blocks don't take it
+  private final Object lock = new Object();
+  private final ArrayDeque<Block> clock = new ArrayDeque<>();
+  private long cachedBytes;
+  private final AtomicLong nextFileId = new AtomicLong();
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  private volatile boolean isOpen = true;
+
+  /**
+   * Create a new BlockCacheDirectory that caches up to {@code maxCacheMB} MB of blocks of {@link
+   * #DEFAULT_BLOCK_SIZE} bytes.
+   */
+  public BlockCacheDirectory(Directory in, double maxCacheMB) {
+    this(in, DEFAULT_BLOCK_SIZE, maxCacheMB);
+  }
+
+  /**
+   * Create a new BlockCacheDirectory.
+   *
+   * @param in the directory to read from
+   * @param blockSize the size of cached blocks, must be a power of 2
+   * @param maxCacheMB the maximum size of the cache, must be at least one block
+   */
+  public BlockCacheDirectory(Directory in, int blockSize, double maxCacheMB) {
+    super(in);
+    if (blockSize <= 0 || Integer.bitCount(blockSize) != 1) {
+      throw new IllegalArgumentException("blockSize must be a power of 2; got: " + blockSize);
+    }
+    final long maxCacheBytes = (long) (maxCacheMB * 1024 * 1024);
+    if (maxCacheBytes < blockSize) {
+      throw new IllegalArgumentException(
+          "maxCacheMB must hold at least one block of " + blockSize + " bytes; got: " + maxCacheMB);
+    }
+    this.blockShift = Integer.numberOfTrailingZeros(blockSize);
+    this.blockSize = blockSize;
+    this.maxCacheBytes = maxCacheBytes;
+  }
+
+  /**
+   * Sets the priority of files with the given extension, between {@code 0}, which disables caching,
+   * and {@link #MAX_PRIORITY}. This only applies to files that are opened after this call.
+   */
+  public void setPriority(String extension, int priority) {
+    if (priority < 0 || priority > MAX_PRIORITY) {
+      throw new IllegalArgumentException(
+          "priority must be in [0, " + MAX_PRIORITY + "]; got: " + priority);
+    }
+    priorities.put(extension, priority);
+  }
+
+  /** Returns the priority of files with the given extension. */
+  public int getPriority(String extension) {
+    return priorities.getOrDefault(extension, DEFAULT_PRIORITY);
+  }
+
+  /** Returns the size of cached blocks. */
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  /** Returns the number of reads of a block that were served by the cache. */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /** Returns the number of reads of a block that had to go to the wrapped directory. */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** Returns the ratio of reads of a block that were served by the cache, or 0 if none. */
+  public double getHitRate() {
+    final long hits = getHitCount();
+    final long total = hits + getMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  /** Returns the number of blocks that were evicted from the cache. */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** Returns the number of bytes that are currently cached. */
+  public long getCachedBytes() {
+    synchronized (lock) {
+      return cachedBytes;
+    }
+  }
+
+  @Override
+  protected void ensureOpen() throws AlreadyClosedException {
+    if (isOpen == false) {
+      throw new AlreadyClosedException("this Directory is closed");
+    }
+  }
+
+  @Override
+  public IndexInput openInput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    final String extension = IndexFileNames.getExtension(name);
+    final int priority = extension == null ? DEFAULT_PRIORITY : getPriority(extension);
+    if (priority == 0 || context.context == IOContext.Context.MERGE || context.readOnce) {
+      return in.openInput(name, context);
+    }
+    final IndexInput delegate = in.openInput(name, context);
+    final CachedFile file =
+        files.computeIfAbsent(
+            name, n -> new CachedFile(n, nextFileId.getAndIncrement(), delegate.length()));
+    if (file.length != delegate.length()) {
+      // should not happen: files are write-once and we invalidate on write/delete/rename
+      invalidate(name);
+      delegate.close();
+      throw new IllegalStateException("cached length of " + name + " is stale");
+    }
+    return new BlockCacheIndexInput(
+        "BlockCacheIndexInput(" + delegate.toString() + ")", file, priority, delegate);
+  }
+
+  @Override
+  public IndexOutput createOutput(String name, IOContext context) throws IOException {
+    ensureOpen();
+    invalidate(name);
+    return super.createOutput(name, context);
+  }
+
+  @Override
+  public void deleteFile(String name) throws IOException {
+    invalidate(name);
+    super.deleteFile(name);
+  }
+
+  @Override
+  public void rename(String source, String dest) throws IOException {
+    invalidate(source);
+    invalidate(dest);
+    super.rename(source, dest);
+  }
+
+  @Override
+  public void close() throws IOException {
+    isOpen = false;
+    try {
+      super.close();
+    } finally {
+      synchronized (lock) {
+        files.clear();
+        blocks.clear();
+        clock.clear();
+        cachedBytes = 0;
+      }
+    }
+  }
+
+  private void invalidate(String name) {
+    final CachedFile file = files.remove(name);
+    if (file == null) {
+      return;
+    }
+    synchronized (lock) {
+      for (Iterator<Block> it = clock.iterator(); it.hasNext(); ) {
+        Block block = it.next();
+        if (block.key.fileId == file.id) {
+          it.remove();
+          blocks.remove(block.key, block);
+          cachedBytes -= block.buffer.capacity();
+        }
+      }
+    }
+  }
+
+  /** Returns the block at the given index, reading it from {@code input} if it is not cached. */
+  private Block getBlock(BlockCacheIndexInput input, long blockIndex) throws IOException {
+    final BlockKey key = new BlockKey(input.file.id, blockIndex);
+    Block block = blocks.get(key);
+    if (block != null) {
+      hitCount.increment();
+      block.credits = input.priority;
+      return block;
+    }
+    missCount.increment();
+    final long blockStart = blockIndex << blockShift;
+    final int length = (int) Math.min(blockSize, input.file.length - blockStart);
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+    input.readBlock(blockStart, buffer);
+    block = new Block(key, buffer, input.priority - 1);
+    return cache(block, input.file);
+  }
+
+  private Block cache(Block block, CachedFile file) {
+    synchronized (lock) {
+      if (files.get(file.name) != file) {
+        // the file was invalidated while we were reading it, don't cache
+        return block;
+      }
+      final Block existing = blocks.putIfAbsent(block.key, block);
+      if (existing != null) {
+        // another thread read the same block concurrently
+        return existing;
+      }
+      clock.addLast(block);
+      cachedBytes += block.buffer.capacity();
+      while (cachedBytes > maxCacheBytes) {
+        final Block candidate = clock.pollFirst();
+        if (candidate.credits > 0) {
+          candidate.credits--;
+          clock.addLast(candidate);
+        } else {
+          blocks.remove(candidate.key, candidate);
+          cachedBytes -= candidate.buffer.capacity();
+          evictionCount.increment();
+        }
+      }
+      return block;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+        + "(blockSize="
+        + blockSize
+        + ", maxCacheBytes="
+        + maxCacheBytes
+        + ", "
+        + in
+        + ")";
+  }
+
+  /** Reads blocks from the cache, and from a clone of the wrapped input on cache misses. */
+  private final class BlockCacheIndexInput extends IndexInput {
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    final CachedFile file;
+    final int priority;
+    // the input of the wrapped directory, shared by all clones and slices
+    private final IndexInput delegate;
+    private final boolean isClone;
+    private final long offset;
+    private final long length;
+    // private clone of the delegate to read missing blocks, created lazily
+    private IndexInput reader;
+    private byte[] copyBuffer;
+    // view of the current block, or null after a seek outside of the current block
+    private ByteBuffer curBuf;
+    // file pointer of the first byte of the current block
+    private long curBufStart;
+    // file pointer if curBuf is null
+    private long pos;
+
+    BlockCacheIndexInput(
+        String resourceDescription, CachedFile file, int priority, IndexInput delegate) {
+      this(resourceDescription, file, priority, delegate, false, 0L, file.length);
+    }
+
+    private BlockCacheIndexInput(
+        String resourceDescription,
+        CachedFile file,
+        int priority,
+        IndexInput delegate,
+        boolean isClone,
+        long offset,
+        long length) {
+      super(resourceDescription);
+      this.file = file;
+      this.priority = priority;
+      this.delegate = delegate;
+      this.isClone = isClone;
+      this.offset = offset;
+      this.length = length;
+      this.pos = offset;
+    }
+
+    void readBlock(long blockStart, ByteBuffer buffer) throws IOException {
+      if (reader == null) {
+        reader = delegate.clone();
+        copyBuffer = new byte[Math.min(COPY_BUFFER_SIZE, blockSize)];
+      }
+      reader.seek(blockStart);
+      while (buffer.hasRemaining()) {
+        final int len = Math.min(buffer.remaining(), copyBuffer.length);
+        reader.readBytes(copyBuffer, 0, len);
+        buffer.put(copyBuffer, 0, len);
+      }
+      buffer.flip();
+    }
+
+    /** Make {@code curBuf} a view of the block that contains the current file pointer. */
+    private void nextBlock() throws IOException {
+      final long filePointer = curBuf == null ? pos : curBufStart + curBuf.position();
+      if (filePointer >= offset + length) {
+        throw new EOFException("read past EOF: " + this);
+      }
+      if (isOpen == false) {
+        throw new AlreadyClosedException("Already closed: " + this);
+      }
+      final long blockIndex = filePointer >>> blockShift;
+      final ByteBuffer buffer = getBlock(this, blockIndex).buffer.duplicate();
+      final long blockStart = blockIndex << blockShift;
+      buffer.limit((int) Math.min(buffer.limit(), offset + length - blockStart));
+      buffer.position((int) (filePointer - blockStart));
+      curBuf = buffer;
+      curBufStart = blockStart;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+      if (curBuf == null || curBuf.hasRemaining() == false) {
+        nextBlock();
+      }
+      return curBuf.get();
+    }
+
+    @Override
+    public void readBytes(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (curBuf == null || curBuf.hasRemaining() == false) {
+          nextBlock();
+        }
+        final int n = Math.min(len, curBuf.remaining());
+        curBuf.get(b, off, n);
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public short readShort() throws IOException {
+      if (curBuf != null && curBuf.remaining() >= Short.BYTES) {
+        return curBuf.getShort();
+      }
+      return super.readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+      if (curBuf != null && curBuf.remaining() >= Integer.BYTES) {
+        return curBuf.getInt();
+      }
+      return super.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+      if (curBuf != null && curBuf.remaining() >= Long.BYTES) {
+        return curBuf.getLong();
+      }
+      return super.readLong();
+    }
+
+    @Override
+    public long getFilePointer() {
+      return (curBuf == null ? pos : curBufStart + curBuf.position()) - offset;
+    }
+
+    @Override
+    public void seek(long pos) throws IOException {
+      if (pos < 0 || pos > length) {
+        throw new EOFException("seek past EOF: pos=" + pos + " vs length=" + length + ": " + this);
+      }
+      final long filePointer = offset + pos;
+      if (curBuf != null
+          && filePointer >= curBufStart
+          && filePointer < curBufStart + curBuf.limit()) {
+        curBuf.position((int) (filePointer - curBufStart));
+      } else {
+        curBuf = null;
+        this.pos = filePointer;
+      }
+    }
+
+    @Override
+    public long length() {
+      return length;
+    }
+
+    @Override
+    public BlockCacheIndexInput clone() {
+      final BlockCacheIndexInput clone = slice(toString(), offset, length, true);
+      try {
+        clone.seek(getFilePointer());
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+      return clone;
+    }
+
+    @Override
+    public IndexInput slice(String sliceDescription, long offset, long length) {
+      if (offset < 0 || length < 0 || offset + length > this.length) {
+        throw new IllegalArgumentException(
+            "slice() "
+                + sliceDescription
+                + " out of bounds: offset="
+                + offset
+                + ",length="
+                + length
+                + ",fileLength="
+                + this.length
+                + ": "
+                + this);
+      }
+      return slice(getFullSliceDescription(sliceDescription), this.offset + offset, length, true);
+    }
+
+    private BlockCacheIndexInput slice(
+        String resourceDescription, long offset, long length, boolean isClone) {
+      return new BlockCacheIndexInput(
+          resourceDescription, file, priority, delegate, isClone, offset, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      // clones and slices don't own the delegate
+      if (isClone == false) {
+        delegate.close();
+      }
+    }
+  }
+
+  private static final class CachedFile {
+    final String name;
+    final long id;
+    final long length;
+
+    CachedFile(String name, long id, long length) {
+      this.name = name;
+      this.id = id;
+      this.length = length;
+    }
+  }
+
+  private static final class BlockKey {
+    final long fileId;
+    final long blockIndex;
+
+    BlockKey(long fileId, long blockIndex) {
+      this.fileId = fileId;
+      this.blockIndex = blockIndex;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == null || obj.getClass() != BlockKey.class) {
+        return false;
+      }
+      BlockKey that = (BlockKey) obj;
+      return fileId == that.fileId && blockIndex == that.blockIndex;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(fileId) * 31 + Long.hashCode(blockIndex);
+    }
+  }
+
+  private static final class Block {
+    final BlockKey key;
+    // read-only once cached
+    final ByteBuffer buffer;
+    // number of sweeps this block survives, reset on every hit
+    volatile int credits;
+
+    Block(BlockKey key, ByteBuffer buffer, int credits) {
+      this.key = key;
+      this.buffer = buffer;
+      this.credits = credits;
+    }
+  }
+}
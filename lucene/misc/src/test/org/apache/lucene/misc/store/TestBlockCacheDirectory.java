@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.misc.store;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.lucene.store.BaseDirectoryTestCase;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.MergeInfo;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.util.TestUtil;
+
+public class TestBlockCacheDirectory extends BaseDirectoryTestCase {
+
+  @Override
+  protected Directory getDirectory(Path path) throws IOException {
+    int blockSize = 1 << TestUtil.nextInt(random(), 4, 16);
+    double maxCacheMB = (double) blockSize * TestUtil.nextInt(random(), 1, 100) / 1024 / 1024;
+    BlockCacheDirectory dir =
+        new BlockCacheDirectory(new NIOFSDirectory(path), blockSize, maxCacheMB);
+    if (random().nextBoolean()) {
+      dir.setPriority("fdt", random().nextInt(BlockCacheDirectory.MAX_PRIORITY + 1));
+    }
+    return dir;
+  }
+
+  public void testInvalidArguments() throws IOException {
+    try (Directory in = new NIOFSDirectory(createTempDir())) {
+      expectThrows(IllegalArgumentException.class, () -> new BlockCacheDirectory(in, 1000, 1));
+      expectThrows(IllegalArgumentException.class, () -> new BlockCacheDirectory(in, 0, 1));
+      expectThrows(IllegalArgumentException.class, () -> new BlockCacheDirectory(in, 1 << 20, 0.5));
+      BlockCacheDirectory dir = new BlockCacheDirectory(in, 1);
+      expectThrows(IllegalArgumentException.class, () -> dir.setPriority("tim", -1));
+      expectThrows(
+          IllegalArgumentException.class,
+          () -> dir.setPriority("tim", BlockCacheDirectory.MAX_PRIORITY + 1));
+    }
+  }
+
+  public void testHitsAndMisses() throws IOException {
+    try (BlockCacheDirectory dir =
+        new BlockCacheDirectory(new NIOFSDirectory(createTempDir()), 1024, 1)) {
+      writeFile(dir, "_0.tim", 10 * 1024);
+
+      try (IndexInput in = dir.openInput("_0.tim", IOContext.READ)) {
+        in.seek(5000);
+        assertEquals((byte) 5000, in.readByte());
+        assertEquals(0, dir.getHitCount());
+        assertEquals(1, dir.getMissCount());
+        assertEquals(1024, dir.getCachedBytes());
+
+        // clones and slices share cached blocks
+        IndexInput clone = in.clone();
+        assertEquals(5001, clone.getFilePointer());
+        assertEquals((byte) 5001, clone.readByte());
+        IndexInput slice = in.slice("slice", 4096, 2048);
+        slice.seek(1000);
+        assertEquals((byte) 5096, slice.readByte());
+        assertEquals(2, dir.getHitCount());
+        assertEquals(1, dir.getMissCount());
+        assertEquals(2. / 3, dir.getHitRate(), 0d);
+
+        // the last block is shorter
+        slice.seek(2048);
+        expectThrows(EOFException.class, slice::readByte);
+        in.seek(10 * 1024 - 1);
+        assertEquals((byte) (10 * 1024 - 1), in.readByte());
+        assertEquals(2048, dir.getCachedBytes());
+      }
+
+      // merges bypass the cache
+      try (IndexInput in =
+          dir.openInput("_0.tim", new IOContext(new MergeInfo(1, 10 * 1024, false, 1)))) {
+        byte[] bytes = new byte[10 * 1024];
+        in.readBytes(bytes, 0, bytes.length);
+      }
+      assertEquals(2, dir.getHitCount());
+      assertEquals(2, dir.getMissCount());
+
+      // files are invalidated when deleted
+      dir.deleteFile("_0.tim");
+      assertEquals(0, dir.getCachedBytes());
+      writeFile(dir, "_0.tim", 1024);
+      try (IndexInput in = dir.openInput("_0.tim", IOContext.READ)) {
+        assertEquals(1024, in.length());
+        in.seek(100);
+        assertEquals((byte) 100, in.readByte());
+      }
+      assertEquals(3, dir.getMissCount());
+    }
+  }
+
+  public void testPriorities() throws IOException {
+    try (BlockCacheDirectory dir =
+        new BlockCacheDirectory(new NIOFSDirectory(createTempDir()), 1024, 4. / 1024)) {
+      dir.setPriority("nocache", 0);
+      writeFile(dir, "_0.tip", 1024);
+      writeFile(dir, "_0.fdt", 10 * 1024);
+      writeFile(dir, "_0.nocache", 1024);
+
+      try (IndexInput tip = dir.openInput("_0.tip", IOContext.READ);
+          IndexInput fdt = dir.openInput("_0.fdt", IOContext.READ)) {
+        tip.readByte();
+        // reading lots of stored fields doesn't evict the terms index
+        for (int i = 0; i < 10; ++i) {
+          fdt.seek(i * 1024);
+          fdt.readByte();
+        }
+        assertTrue(dir.getEvictionCount() > 0);
+        assertEquals(4 * 1024, dir.getCachedBytes());
+        long hits = dir.getHitCount();
+        IndexInput clone = tip.clone();
+        clone.seek(0);
+        clone.readByte();
+        assertEquals(hits + 1, dir.getHitCount());
+      }
+
+      long misses = dir.getMissCount();
+      try (IndexInput in = dir.openInput("_0.nocache", IOContext.READ)) {
+        in.readByte();
+      }
+      assertEquals(misses, dir.getMissCount());
+    }
+  }
+
+  private static void writeFile(Directory dir, String name, int length) throws IOException {
+    try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+      for (int i = 0; i < length; ++i) {
+        out.writeByte((byte) i);
+      }
+    }
+  }
+}
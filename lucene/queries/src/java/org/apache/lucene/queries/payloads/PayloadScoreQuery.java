@@ -286,5 +286,11 @@ public class PayloadScoreQuery extends SpanQuery {
       }
       return getPayloadScore();
     }
+
+    @Override
+    public float getMaxScore(int upTo) throws IOException {
+      // payload functions are not bounded
+      return Float.POSITIVE_INFINITY;
+    }
   }
 }
@@ -51,6 +51,9 @@ public abstract class CopyJob implements Comparable<CopyJob> {
 
   public final String reason;
 
+  /** Total size of all files referenced by this job, regardless of which ones need copying */
+  public final long sizeInBytes;
+
   protected final List<Map.Entry<String, FileMetaData>> toCopy;
 
   protected long totBytes;
@@ -80,6 +83,14 @@ public abstract class CopyJob implements Comparable<CopyJob> {
     this.highPriority = highPriority;
     this.onceDone = onceDone;
 
+    long sizeInBytes = 0;
+    if (files != null) {
+      for (FileMetaData metaData : files.values()) {
+        sizeInBytes += metaData.length;
+      }
+    }
+    this.sizeInBytes = sizeInBytes;
+
     // Exceptions in here are bad:
     try {
       this.toCopy = dest.getFilesToCopy(this.files);
@@ -89,6 +100,22 @@ public abstract class CopyJob implements Comparable<CopyJob> {
     }
   }
 
+  /**
+   * Higher priority first, then smaller jobs, so that e.g. pre-copying a small merged segment does
+   * not wait behind a huge one, and then "first come first serve" order.
+   */
+  @Override
+  public int compareTo(CopyJob other) {
+    if (highPriority != other.highPriority) {
+      return highPriority ? -1 : 1;
+    }
+    int cmp = Long.compare(sizeInBytes, other.sizeInBytes);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return Long.compare(ord, other.ord);
+  }
+
   /** Callback invoked by CopyJob once all files have (finally) finished copying */
   public interface OnceDone {
     public void run(CopyJob job) throws IOException;
@@ -222,6 +249,21 @@ public abstract class CopyJob implements Comparable<CopyJob> {
    */
   public abstract void runBlocking() throws Exception;
 
+  /**
+   * Does some of the copying, and returns true once the job is done or was cancelled. Jobs that run
+   * on the threads of a {@link ReplicaNode} are visited repeatedly in {@link #compareTo} order, so
+   * that implementations that copy a bit at a time let higher priority jobs preempt them. The
+   * default implementation copies everything at once with {@link #runBlocking}.
+   */
+  public boolean visit() throws IOException {
+    try {
+      runBlocking();
+    } catch (Exception e) {
+      throw IOUtils.rethrowAlways(e);
+    }
+    return true;
+  }
+
   public void cancel(String reason, Throwable exc) throws IOException {
     if (this.exc != null) {
       // Already cancelled
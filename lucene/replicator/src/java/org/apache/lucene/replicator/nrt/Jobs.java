@@ -23,26 +23,42 @@ import java.util.PriorityQueue;
 import org.apache.lucene.store.AlreadyClosedException;
 
 /**
- * Runs CopyJob(s) in background thread; each ReplicaNode has an instance of this running. At a
- * given there could be one NRT copy job running, and multiple pre-warm merged segments jobs.
+ * Runs CopyJob(s) in background threads; each ReplicaNode that uses the default {@link
+ * ReplicaNode#launch} has an instance of this running. At a given time there could be one NRT copy
+ * job running, and multiple pre-warm merged segments jobs, and up to threadCount jobs are copying
+ * files concurrently. Jobs are visited in {@link CopyJob#compareTo} order.
  */
-class Jobs extends Thread implements Closeable {
+class Jobs implements Closeable {
 
   private final PriorityQueue<CopyJob> queue = new PriorityQueue<>();
 
   private final Node node;
 
-  public Jobs(Node node) {
+  private final Thread[] threads;
+
+  Jobs(Node node, String name, int threadCount) {
     this.node = node;
+    threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] = new Thread(this::run, threadCount == 1 ? name : name + i);
+      threads[i].setDaemon(true);
+    }
   }
 
   private boolean finish;
 
+  /** Starts all threads copying files */
+  void start() {
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
   /**
    * Returns null if we are closing, else, returns the top job or waits for one to arrive if the
    * queue is empty.
    */
-  private synchronized SimpleCopyJob getNextJob() {
+  private synchronized CopyJob getNextJob() {
     while (true) {
       if (finish) {
         return null;
@@ -53,21 +69,20 @@ class Jobs extends Thread implements Closeable {
           throw new RuntimeException(ie);
         }
       } else {
-        return (SimpleCopyJob) queue.poll();
+        return queue.poll();
       }
     }
   }
 
-  @Override
-  public void run() {
+  private void run() {
     while (true) {
-      SimpleCopyJob topJob = getNextJob();
+      CopyJob topJob = getNextJob();
       if (topJob == null) {
         assert finish;
         break;
       }
 
-      this.setName("jobs o" + topJob.ord);
+      Thread.currentThread().setName("jobs o" + topJob.ord);
 
       assert topJob != null;
 
@@ -99,8 +114,15 @@ class Jobs extends Thread implements Closeable {
       if (result == false) {
         // Job isn't done yet; put it back:
         synchronized (this) {
-          queue.offer(topJob);
+          if (finish == false) {
+            queue.offer(topJob);
+            // another thread may be waiting while we were visiting this job:
+            notify();
+            continue;
+          }
         }
+        // We are closing: cancel the job below, with all other pending jobs
+        cancelJob(topJob);
       } else {
         // Job finished, now notify caller:
         try {
@@ -113,29 +135,25 @@ class Jobs extends Thread implements Closeable {
     }
 
     node.message("top: jobs now exit run thread");
+  }
 
-    synchronized (this) {
-      // Gracefully cancel any jobs we didn't finish:
-      while (queue.isEmpty() == false) {
-        SimpleCopyJob job = (SimpleCopyJob) queue.poll();
-        node.message("top: Jobs: now cancel job=" + job);
-        try {
-          job.cancel("jobs closing", null);
-        } catch (Throwable t) {
-          node.message("ignore exception calling cancel");
-          t.printStackTrace(System.out);
-        }
-        try {
-          job.onceDone.run(job);
-        } catch (Throwable t) {
-          node.message("ignore exception calling OnceDone");
-          t.printStackTrace(System.out);
-        }
-      }
+  private void cancelJob(CopyJob job) {
+    node.message("top: Jobs: now cancel job=" + job);
+    try {
+      job.cancel("jobs closing", null);
+    } catch (Throwable t) {
+      node.message("ignore exception calling cancel");
+      t.printStackTrace(System.out);
+    }
+    try {
+      job.onceDone.run(job);
+    } catch (Throwable t) {
+      node.message("ignore exception calling OnceDone");
+      t.printStackTrace(System.out);
     }
   }
 
-  public synchronized void launch(CopyJob job) {
+  synchronized void launch(CopyJob job) {
     if (finish == false) {
       queue.offer(job);
       notify();
@@ -145,7 +163,7 @@ class Jobs extends Thread implements Closeable {
   }
 
   /** Cancels any existing jobs that are copying the same file names as this one */
-  public synchronized void cancelConflictingJobs(CopyJob newJob) throws IOException {
+  synchronized void cancelConflictingJobs(CopyJob newJob) throws IOException {
     for (CopyJob job : queue) {
       if (job.conflicts(newJob)) {
         node.message(
@@ -156,13 +174,24 @@ class Jobs extends Thread implements Closeable {
   }
 
   @Override
-  public synchronized void close() {
-    finish = true;
-    notify();
+  public void close() {
+    synchronized (this) {
+      finish = true;
+      notifyAll();
+    }
     try {
-      join();
+      for (Thread thread : threads) {
+        thread.join();
+      }
     } catch (InterruptedException ie) {
       throw new RuntimeException(ie);
     }
+
+    synchronized (this) {
+      // Gracefully cancel any jobs we didn't finish:
+      while (queue.isEmpty() == false) {
+        cancelJob(queue.poll());
+      }
+    }
   }
 }
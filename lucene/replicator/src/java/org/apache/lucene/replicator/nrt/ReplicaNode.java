@@ -49,6 +49,8 @@ import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.Lock;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.Version;
 
@@ -83,6 +85,17 @@ public abstract class ReplicaNode extends Node {
   /** Primary gen last time we successfully replicated: */
   protected long lastPrimaryGen;
 
+  /** Throttles all incoming file copies, or null if copies are not throttled */
+  private volatile RateLimiter copyRateLimiter;
+
+  /** Number of threads that run copy jobs with the default {@link #launch} */
+  private int copyThreadCount = 1;
+
+  /** Runs copy jobs with the default {@link #launch}, created on the first launched job */
+  private Jobs copyJobs;
+
+  private boolean copyJobsClosed;
+
   public ReplicaNode(
       int id, Directory dir, SearcherFactory searcherFactory, PrintStream printStream)
       throws IOException {
@@ -522,8 +535,50 @@ public abstract class ReplicaNode extends Node {
       CopyJob.OnceDone onceDone)
       throws IOException;
 
-  /** Runs this job async'd */
-  protected abstract void launch(CopyJob job);
+  /**
+   * Runs this job async'd. By default, jobs run on {@link #getCopyThreadCount} background threads,
+   * in {@link CopyJob#compareTo} order.
+   */
+  protected void launch(CopyJob job) {
+    getCopyJobs().launch(job);
+  }
+
+  private synchronized Jobs getCopyJobs() {
+    if (copyJobs == null) {
+      if (copyJobsClosed) {
+        throw new AlreadyClosedException("this node is closed");
+      }
+      message("top: will copy files with " + copyThreadCount + " threads");
+      copyJobs = new Jobs(this, "R" + id + ".copyJobs", copyThreadCount);
+      copyJobs.start();
+    }
+    return copyJobs;
+  }
+
+  /**
+   * Sets how many copy jobs may copy files concurrently, e.g. an NRT point and several pre-copied
+   * merged segments. Each job copies its files sequentially. Default is 1. This must be called
+   * before the first job is launched.
+   */
+  public synchronized void setCopyThreadCount(int copyThreadCount) {
+    if (copyThreadCount < 1) {
+      throw new IllegalArgumentException(
+          "copyThreadCount must be at least 1, got " + copyThreadCount);
+    }
+    if (copyJobs != null || copyJobsClosed) {
+      throw new IllegalStateException("copy jobs were already started");
+    }
+    this.copyThreadCount = copyThreadCount;
+  }
+
+  /**
+   * Returns how many copy jobs may copy files concurrently.
+   *
+   * @see #setCopyThreadCount
+   */
+  public synchronized int getCopyThreadCount() {
+    return copyThreadCount;
+  }
 
   /**
    * Tell primary we (replica) just started, so primary can tell us to warm any already warming
@@ -680,6 +735,23 @@ public abstract class ReplicaNode extends Node {
   public void close() throws IOException {
     message("top: now close");
 
+    final Jobs copyJobs;
+    synchronized (this) {
+      copyJobs = this.copyJobs;
+      copyJobsClosed = true;
+    }
+    if (copyJobs != null) {
+      // Can't be sync'd when calling jobs since it can lead to deadlock:
+      copyJobs.close();
+      message("top: jobs closed");
+      synchronized (mergeCopyJobs) {
+        for (CopyJob job : mergeCopyJobs) {
+          message("top: cancel merge copy job " + job);
+          job.cancel("jobs closing", null);
+        }
+      }
+    }
+
     synchronized (this) {
       state = "closing";
       if (curNRTCopy != null) {
@@ -831,9 +903,31 @@ public abstract class ReplicaNode extends Node {
     return job;
   }
 
+  /**
+   * Sets the {@link RateLimiter} that throttles the bytes written by all file copies, or null to
+   * not throttle copies. Since the same instance is shared by all copy jobs, this bounds the total
+   * bandwidth used to copy files, no matter how many jobs copy concurrently. This only applies to
+   * files copies that start after this call.
+   */
+  public void setCopyRateLimiter(RateLimiter copyRateLimiter) {
+    this.copyRateLimiter = copyRateLimiter;
+  }
+
+  /**
+   * Returns the {@link RateLimiter} that throttles file copies, or null if they aren't throttled
+   */
+  public RateLimiter getCopyRateLimiter() {
+    return copyRateLimiter;
+  }
+
   public IndexOutput createTempOutput(String prefix, String suffix, IOContext ioContext)
       throws IOException {
-    return dir.createTempOutput(prefix, suffix, IOContext.DEFAULT);
+    IndexOutput out = dir.createTempOutput(prefix, suffix, IOContext.DEFAULT);
+    RateLimiter rateLimiter = copyRateLimiter;
+    if (rateLimiter != null) {
+      out = new RateLimitedIndexOutput(rateLimiter, out);
+    }
+    return out;
   }
 
   /**
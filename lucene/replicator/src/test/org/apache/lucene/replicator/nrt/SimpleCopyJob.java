@@ -130,21 +130,6 @@ class SimpleCopyJob extends CopyJob {
     return files.keySet();
   }
 
-  /** Higher priority and then "first come first serve" order. */
-  @Override
-  public int compareTo(CopyJob _other) {
-    SimpleCopyJob other = (SimpleCopyJob) _other;
-    if (highPriority != other.highPriority) {
-      return highPriority ? -1 : 1;
-    } else if (ord < other.ord) {
-      return -1;
-    } else if (ord > other.ord) {
-      return 1;
-    } else {
-      return 0;
-    }
-  }
-
   @Override
   public void finish() throws IOException {
     dest.message(
@@ -180,7 +165,8 @@ class SimpleCopyJob extends CopyJob {
   }
 
   /** Do an iota of work; returns true if all copying is done */
-  synchronized boolean visit() throws IOException {
+  @Override
+  public synchronized boolean visit() throws IOException {
     if (exc != null) {
       // We were externally cancelled:
       return true;
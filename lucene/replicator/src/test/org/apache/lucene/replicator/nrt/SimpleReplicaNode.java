@@ -44,16 +44,12 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.IOContext;
-import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.MockDirectoryWrapper;
-import org.apache.lucene.store.RateLimitedIndexOutput;
 import org.apache.lucene.store.RateLimiter;
 import org.apache.lucene.util.LuceneTestCase;
 
 class SimpleReplicaNode extends ReplicaNode {
   final int tcpPort;
-  final Jobs jobs;
 
   // Rate limits incoming bytes/sec when fetching files:
   final RateLimiter fetchRateLimiter;
@@ -82,34 +78,13 @@ class SimpleReplicaNode extends ReplicaNode {
     double mbPerSec = 5 * (1.0 + 3 * random.nextDouble());
     message(String.format(Locale.ROOT, "top: will rate limit file fetch to %.2f MB/sec", mbPerSec));
     fetchRateLimiter = new RateLimiter.SimpleRateLimiter(mbPerSec);
+    setCopyRateLimiter(fetchRateLimiter);
     this.curPrimaryTCPPort = primaryTCPPort;
 
-    start(curPrimaryGen);
-
-    // Handles fetching files from primary:
-    jobs = new Jobs(this);
-    jobs.setName("R" + id + ".copyJobs");
-    jobs.setDaemon(true);
-    jobs.start();
-  }
+    // Handles fetching files from primary, with 1 - 3 concurrent copy jobs:
+    setCopyThreadCount(1 + this.random.nextInt(3));
 
-  @Override
-  protected void launch(CopyJob job) {
-    jobs.launch(job);
-  }
-
-  @Override
-  public void close() throws IOException {
-    // Can't be sync'd when calling jobs since it can lead to deadlock:
-    jobs.close();
-    message("top: jobs closed");
-    synchronized (mergeCopyJobs) {
-      for (CopyJob job : mergeCopyJobs) {
-        message("top: cancel merge copy job " + job);
-        job.cancel("jobs closing", null);
-      }
-    }
-    super.close();
+    start(curPrimaryGen);
   }
 
   @Override
@@ -388,11 +363,4 @@ class SimpleReplicaNode extends ReplicaNode {
       message("ignoring exc " + t + " sending new_replica to primary tcpPort=" + curPrimaryTCPPort);
     }
   }
-
-  @Override
-  public IndexOutput createTempOutput(String prefix, String suffix, IOContext ioContext)
-      throws IOException {
-    return new RateLimitedIndexOutput(
-        fetchRateLimiter, super.createTempOutput(prefix, suffix, ioContext));
-  }
 }
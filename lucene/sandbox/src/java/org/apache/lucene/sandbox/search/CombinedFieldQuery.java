@@ -26,7 +26,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import org.apache.lucene.index.Impact;
+import org.apache.lucene.index.Impacts;
+import org.apache.lucene.index.ImpactsEnum;
+import org.apache.lucene.index.ImpactsSource;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
@@ -41,6 +46,7 @@ import org.apache.lucene.search.DisiWrapper;
 import org.apache.lucene.search.DisjunctionDISIApproximation;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.ImpactsDISI;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.LeafSimScorer;
 import org.apache.lucene.search.Matches;
@@ -283,12 +289,14 @@ public final class CombinedFieldQuery extends Query implements Accountable {
     private final IndexSearcher searcher;
     private final TermStates termStates[];
     private final Similarity.SimScorer simWeight;
+    private final ScoreMode scoreMode;
 
     CombinedFieldWeight(Query query, IndexSearcher searcher, ScoreMode scoreMode, float boost)
         throws IOException {
       super(query);
       assert scoreMode.needsScores();
       this.searcher = searcher;
+      this.scoreMode = scoreMode;
       long docFreq = 0;
       long totalTermFreq = 0;
       termStates = new TermStates[fieldTerms.length];
@@ -376,7 +384,12 @@ public final class CombinedFieldQuery extends Query implements Accountable {
         if (state != null) {
           TermsEnum termsEnum = context.reader().terms(fieldTerms[i].field()).iterator();
           termsEnum.seekExact(fieldTerms[i].bytes(), state);
-          PostingsEnum postingsEnum = termsEnum.postings(null, PostingsEnum.FREQS);
+          final PostingsEnum postingsEnum;
+          if (scoreMode == ScoreMode.TOP_SCORES) {
+            postingsEnum = termsEnum.impacts(PostingsEnum.FREQS);
+          } else {
+            postingsEnum = termsEnum.postings(null, PostingsEnum.FREQS);
+          }
           iterators.add(postingsEnum);
           fields.add(fieldAndWeights.get(fieldTerms[i].field()));
         }
@@ -392,8 +405,9 @@ public final class CombinedFieldQuery extends Query implements Accountable {
             new LeafSimScorer(simWeight, context.reader(), fields.get(0).field, true);
         return new TermScorer(this, iterators.get(0), scoringSimScorer);
       }
+      // norms of all fields are summed, like in explain(), regardless of which terms match
       final MultiNormsLeafSimScorer scoringSimScorer =
-          new MultiNormsLeafSimScorer(simWeight, context.reader(), fields, true);
+          new MultiNormsLeafSimScorer(simWeight, context.reader(), fieldAndWeights.values(), true);
       LeafSimScorer nonScoringSimScorer =
           new LeafSimScorer(simWeight, context.reader(), "pseudo_field", false);
       // we use termscorers + disjunction as an impl detail
@@ -407,7 +421,57 @@ public final class CombinedFieldQuery extends Query implements Accountable {
       // Even though it is called approximation, it is accurate since none of
       // the sub iterators are two-phase iterators.
       DocIdSetIterator iterator = new DisjunctionDISIApproximation(queue);
-      return new CombinedFieldScorer(this, queue, iterator, scoringSimScorer);
+      ImpactsDISI impactsDisi = null;
+      if (scoreMode == ScoreMode.TOP_SCORES) {
+        ImpactsSource impactsSource = mergeImpacts(context.reader(), iterators, fields);
+        iterator = impactsDisi = new ImpactsDISI(iterator, impactsSource, simWeight);
+      }
+      return new CombinedFieldScorer(this, queue, iterator, impactsDisi, scoringSimScorer);
+    }
+
+    /**
+     * Merge impacts of all terms on all fields. Norms are only taken into account for fields that
+     * have norms, with the same weights as {@link MultiNormsLeafSimScorer}.
+     */
+    private ImpactsSource mergeImpacts(
+        LeafReader reader, List<PostingsEnum> iterators, List<FieldAndWeight> fields)
+        throws IOException {
+      List<FieldAndWeight> normFields = new ArrayList<>();
+      for (FieldAndWeight field : fieldAndWeights.values()) {
+        if (reader.getNormValues(field.field) != null) {
+          normFields.add(field);
+        }
+      }
+      // terms are grouped by field
+      List<List<ImpactsEnum>> impactsPerField = new ArrayList<>();
+      List<Float> weights = new ArrayList<>();
+      List<Float> lengthWeights = new ArrayList<>();
+      for (int i = 0; i < iterators.size(); ++i) {
+        FieldAndWeight field = fields.get(i);
+        if (i == 0 || fields.get(i - 1) != field) {
+          impactsPerField.add(new ArrayList<>());
+          weights.add(field.weight);
+          if (normFields.contains(field) == false) {
+            lengthWeights.add(0f);
+          } else if (normFields.size() == 1) {
+            // MultiNormsLeafSimScorer uses the norm as-is
+            lengthWeights.add(1f);
+          } else {
+            lengthWeights.add(field.weight);
+          }
+        }
+        impactsPerField.get(impactsPerField.size() - 1).add((ImpactsEnum) iterators.get(i));
+      }
+      ImpactsEnum[][] impactsEnums = new ImpactsEnum[impactsPerField.size()][];
+      float[] weightArr = new float[impactsEnums.length];
+      float[] lengthWeightArr = new float[impactsEnums.length];
+      for (int i = 0; i < impactsEnums.length; ++i) {
+        impactsEnums[i] = impactsPerField.get(i).toArray(new ImpactsEnum[0]);
+        weightArr[i] = weights.get(i);
+        lengthWeightArr[i] = lengthWeights.get(i);
+      }
+      return CombinedFieldQuery.mergeImpacts(
+          impactsEnums, weightArr, lengthWeightArr, normFields.isEmpty() == false);
     }
 
     @Override
@@ -416,6 +480,235 @@ public final class CombinedFieldQuery extends Query implements Accountable {
     }
   }
 
+  /** Cache of decoded norms, like {@link MultiNormsLeafSimScorer}. */
+  private static final float[] LENGTH_TABLE = new float[256];
+
+  static {
+    for (int i = 0; i < 256; i++) {
+      LENGTH_TABLE[i] = SmallFloat.byte4ToInt((byte) i);
+    }
+  }
+
+  /**
+   * Merge impacts of multiple terms across multiple fields. {@code impactsEnums[i]} holds the terms
+   * of the i-th field, whose frequencies are multiplied by {@code weights[i]} and whose length is
+   * multiplied by {@code lengthWeights[i]} when computing the norm of the combined field, or
+   * ignored if {@code lengthWeights[i]} is 0.
+   *
+   * <p>Within a field, frequencies of terms are summed for every norm like {@link SynonymQuery}
+   * does. Then combinations of (freq, length) pairs across fields are computed, retaining only
+   * those that may produce competitive scores. A document that doesn't match a field is assumed to
+   * have a length of 0 on this field, which is a lower bound of its actual length.
+   */
+  static ImpactsSource mergeImpacts(
+      ImpactsEnum[][] impactsEnums, float[] weights, float[] lengthWeights, boolean hasNorms) {
+    assert impactsEnums.length == weights.length;
+    assert impactsEnums.length == lengthWeights.length;
+    return new ImpactsSource() {
+
+      @Override
+      public Impacts getImpacts() throws IOException {
+        final Impacts[][] impacts = new Impacts[impactsEnums.length][];
+        // Use the impacts that have the lower next boundary as a lead.
+        // It will decide on the number of levels and the block boundaries.
+        Impacts tmpLead = null;
+        for (int i = 0; i < impactsEnums.length; ++i) {
+          impacts[i] = new Impacts[impactsEnums[i].length];
+          for (int j = 0; j < impactsEnums[i].length; ++j) {
+            impacts[i][j] = impactsEnums[i][j].getImpacts();
+            if (tmpLead == null || impacts[i][j].getDocIdUpTo(0) < tmpLead.getDocIdUpTo(0)) {
+              tmpLead = impacts[i][j];
+            }
+          }
+        }
+        final Impacts lead = tmpLead;
+        return new Impacts() {
+
+          @Override
+          public int numLevels() {
+            // Delegate to the lead
+            return lead.numLevels();
+          }
+
+          @Override
+          public int getDocIdUpTo(int level) {
+            // Delegate to the lead
+            return lead.getDocIdUpTo(level);
+          }
+
+          /**
+           * Return the minimum level whose impacts are valid up to {@code docIdUpTo}, or {@code -1}
+           * if there is no such level.
+           */
+          private int getLevel(Impacts impacts, int docIdUpTo) {
+            for (int level = 0, numLevels = impacts.numLevels(); level < numLevels; ++level) {
+              if (impacts.getDocIdUpTo(level) >= docIdUpTo) {
+                return level;
+              }
+            }
+            return -1;
+          }
+
+          @Override
+          public List<Impact> getImpacts(int level) {
+            final int docIdUpTo = getDocIdUpTo(level);
+
+            // competitive (freq, length) pairs of the combined field, sorted by increasing length
+            // and increasing freq, starting with documents that don't match any field
+            List<FreqAndLength> combined = Collections.singletonList(new FreqAndLength(0, 0f));
+            for (int i = 0; i < impactsEnums.length; ++i) {
+              List<List<Impact>> toMerge = new ArrayList<>();
+              for (int j = 0; j < impactsEnums[i].length; ++j) {
+                if (impactsEnums[i][j].docID() <= docIdUpTo) {
+                  int impactsLevel = getLevel(impacts[i][j], docIdUpTo);
+                  if (impactsLevel == -1) {
+                    // One instance doesn't have impacts that cover up to docIdUpTo
+                    // Return impacts that trigger the maximum score
+                    return Collections.singletonList(new Impact(Integer.MAX_VALUE, 1L));
+                  }
+                  toMerge.add(impacts[i][j].getImpacts(impactsLevel));
+                }
+              }
+              if (toMerge.isEmpty() == false) {
+                combined = combine(combined, fieldImpacts(toMerge, weights[i], lengthWeights[i]));
+              }
+            }
+
+            List<Impact> mergedImpacts = new ArrayList<>();
+            for (FreqAndLength pair : combined) {
+              if (pair.freq == 0) {
+                continue;
+              }
+              final int freq = (int) Math.min(Integer.MAX_VALUE, pair.freq);
+              final long norm;
+              if (hasNorms) {
+                norm = SmallFloat.intToByte4(Math.round(pair.length));
+              } else {
+                norm = 1L; // default norm
+              }
+              if (mergedImpacts.isEmpty() == false
+                  && mergedImpacts.get(mergedImpacts.size() - 1).norm == norm) {
+                // same norm after encoding, the greater freq is more competitive
+                mergedImpacts.set(mergedImpacts.size() - 1, new Impact(freq, norm));
+              } else {
+                mergedImpacts.add(new Impact(freq, norm));
+              }
+            }
+            assert mergedImpacts.size()
+                > 0; // otherwise it would mean the docID is > docIdUpTo, which is wrong
+            return mergedImpacts;
+          }
+        };
+      }
+
+      @Override
+      public void advanceShallow(int target) throws IOException {
+        for (ImpactsEnum[] fieldImpactsEnums : impactsEnums) {
+          for (ImpactsEnum impactsEnum : fieldImpactsEnums) {
+            if (impactsEnum.docID() < target) {
+              impactsEnum.advanceShallow(target);
+            }
+          }
+        }
+      }
+    };
+  }
+
+  /**
+   * Return the (freq, length) pairs that may be produced by the terms of a single field, including
+   * documents that don't match this field.
+   */
+  private static List<FreqAndLength> fieldImpacts(
+      List<List<Impact>> toMerge, float weight, float lengthWeight) {
+    List<FreqAndLength> pairs = new ArrayList<>();
+    pairs.add(new FreqAndLength(0, 0f));
+    if (lengthWeight == 0) {
+      // no norms, only the max freq matters
+      long freq = 0;
+      for (List<Impact> impacts : toMerge) {
+        freq += weightedFreq(impacts.get(impacts.size() - 1).freq, weight);
+      }
+      pairs.add(new FreqAndLength(freq, 0f));
+      return pairs;
+    }
+    // All norms of the field, in increasing order. The freq of a term for a norm is the max freq
+    // of its impacts that have a lower or equal norm.
+    long[] norms =
+        toMerge.stream()
+            .flatMap(List::stream)
+            .mapToLong(impact -> impact.norm)
+            .map(norm -> norm ^ Long.MIN_VALUE) // sort as unsigned longs
+            .sorted()
+            .distinct()
+            .map(norm -> norm ^ Long.MIN_VALUE)
+            .toArray();
+    int[] upTo = new int[toMerge.size()];
+    for (long norm : norms) {
+      long freq = 0;
+      for (int i = 0; i < toMerge.size(); ++i) {
+        List<Impact> impacts = toMerge.get(i);
+        while (upTo[i] < impacts.size()
+            && Long.compareUnsigned(impacts.get(upTo[i]).norm, norm) <= 0) {
+          upTo[i]++;
+        }
+        if (upTo[i] > 0) {
+          freq += weightedFreq(impacts.get(upTo[i] - 1).freq, weight);
+        }
+      }
+      pairs.add(
+          new FreqAndLength(freq, lengthWeight * LENGTH_TABLE[Byte.toUnsignedInt((byte) norm)]));
+    }
+    return pairs;
+  }
+
+  /**
+   * Return the weighted freq, rounded up so that it is greater than or equal to the freq that is
+   * computed at scoring time.
+   */
+  private static long weightedFreq(int freq, float weight) {
+    return (long) Math.ceil(freq * weight);
+  }
+
+  /**
+   * Combine pairs of the previous fields with pairs of the next field and only retain pairs that
+   * are not dominated by another pair, ie. that have a greater freq than all pairs that have a
+   * lower or equal length. Lengths are summed in the same order as {@link MultiNormsLeafSimScorer}
+   * so that rounding errors can't make the length of a pair greater than the length of a document.
+   */
+  private static List<FreqAndLength> combine(List<FreqAndLength> a, List<FreqAndLength> b) {
+    List<FreqAndLength> pairs = new ArrayList<>(a.size() * b.size());
+    for (FreqAndLength x : a) {
+      for (FreqAndLength y : b) {
+        pairs.add(new FreqAndLength(x.freq + y.freq, x.length + y.length));
+      }
+    }
+    pairs.sort(
+        (x, y) -> {
+          int cmp = Float.compare(x.length, y.length);
+          if (cmp == 0) {
+            cmp = Long.compare(y.freq, x.freq);
+          }
+          return cmp;
+        });
+    List<FreqAndLength> competitive = new ArrayList<>();
+    for (FreqAndLength pair : pairs) {
+      if (competitive.isEmpty() || pair.freq > competitive.get(competitive.size() - 1).freq) {
+        competitive.add(pair);
+      }
+    }
+    return competitive;
+  }
+
+  private static class FreqAndLength {
+    final long freq;
+    final float length;
+
+    FreqAndLength(long freq, float length) {
+      this.freq = freq;
+      this.length = length;
+    }
+  }
+
   private static class WeightedDisiWrapper extends DisiWrapper {
     final float weight;
 
@@ -432,16 +725,19 @@ public final class CombinedFieldQuery extends Query implements Accountable {
   private static class CombinedFieldScorer extends Scorer {
     private final DisiPriorityQueue queue;
     private final DocIdSetIterator iterator;
+    private final ImpactsDISI impactsDisi;
     private final MultiNormsLeafSimScorer simScorer;
 
     CombinedFieldScorer(
         Weight weight,
         DisiPriorityQueue queue,
         DocIdSetIterator iterator,
+        ImpactsDISI impactsDisi,
         MultiNormsLeafSimScorer simScorer) {
       super(weight);
       this.queue = queue;
       this.iterator = iterator;
+      this.impactsDisi = impactsDisi;
       this.simScorer = simScorer;
     }
 
@@ -472,9 +768,27 @@ public final class CombinedFieldQuery extends Query implements Accountable {
       return iterator;
     }
 
+    @Override
+    public int advanceShallow(int target) throws IOException {
+      if (impactsDisi == null) {
+        return super.advanceShallow(target);
+      }
+      return impactsDisi.advanceShallow(target);
+    }
+
     @Override
     public float getMaxScore(int upTo) throws IOException {
-      return Float.POSITIVE_INFINITY;
+      if (impactsDisi == null) {
+        return Float.POSITIVE_INFINITY;
+      }
+      return impactsDisi.getMaxScore(upTo);
+    }
+
+    @Override
+    public void setMinCompetitiveScore(float minScore) {
+      if (impactsDisi != null) {
+        impactsDisi.setMinCompetitiveScore(minScore);
+      }
     }
   }
 }
@@ -80,12 +80,12 @@ final class MultiNormsLeafSimScorer {
   }
 
   private long getNormValue(int doc) throws IOException {
-    if (norms != null) {
-      boolean found = norms.advanceExact(doc);
-      assert found;
+    if (norms == null) {
+      return 1L; // default norm
+    } else if (norms.advanceExact(doc)) {
       return norms.longValue();
     } else {
-      return 1L; // default norm
+      return 0L; // the document doesn't have a value for any of the fields
     }
   }
 
@@ -129,10 +129,11 @@ final class MultiNormsLeafSimScorer {
     public boolean advanceExact(int target) throws IOException {
       float normValue = 0;
       for (int i = 0; i < normsArr.length; i++) {
-        boolean found = normsArr[i].advanceExact(target);
-        assert found;
-        normValue +=
-            weightArr[i] * LENGTH_TABLE[Byte.toUnsignedInt((byte) normsArr[i].longValue())];
+        // the document might not have a value for this field, which is a length of 0
+        if (normsArr[i].advanceExact(target)) {
+          normValue +=
+              weightArr[i] * LENGTH_TABLE[Byte.toUnsignedInt((byte) normsArr[i].longValue())];
+        }
       }
       current = SmallFloat.intToByte4(Math.round(normValue));
       return true;
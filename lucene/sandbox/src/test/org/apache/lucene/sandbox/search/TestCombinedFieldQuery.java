@@ -20,7 +20,9 @@ import com.carrotsearch.randomizedtesting.generators.RandomPicks;
 import java.io.IOException;
 import java.util.Arrays;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.FieldInvertState;
@@ -241,6 +243,62 @@ public class TestCombinedFieldQuery extends LuceneTestCase {
     dir.close();
   }
 
+  public void testRandomTopDocs() throws IOException {
+    Directory dir = newDirectory();
+    Similarity similarity = randomCompatibleSimilarity();
+
+    IndexWriterConfig iwc = new IndexWriterConfig();
+    iwc.setSimilarity(similarity);
+    RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+
+    FieldType noNorms = new FieldType(TextField.TYPE_NOT_STORED);
+    noNorms.setOmitNorms(true);
+    String[] fields = new String[] {"a", "b", "c"};
+    int numDocs = atLeast(1000);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      for (int j = 0; j < fields.length; ++j) {
+        if (random().nextInt(5) == 0) {
+          // some documents don't have all fields
+          continue;
+        }
+        StringBuilder value = new StringBuilder();
+        int length = 1 + random().nextInt(1 << random().nextInt(6));
+        for (int k = 0; k < length; ++k) {
+          value.append(random().nextInt(3 + 4 * j) == 0 ? "foo " : "bar" + k + " ");
+          if (random().nextInt(20) == 0) {
+            value.append("baz ");
+          }
+        }
+        FieldType fieldType = j == 2 ? noNorms : TextField.TYPE_NOT_STORED;
+        doc.add(new Field(fields[j], value.toString(), fieldType));
+      }
+      w.addDocument(doc);
+    }
+    IndexReader reader = w.getReader();
+    IndexSearcher searcher = newSearcher(reader);
+    searcher.setSimilarity(similarity);
+
+    int numIters = atLeast(5);
+    for (int iter = 0; iter < numIters; ++iter) {
+      CombinedFieldQuery.Builder builder = new CombinedFieldQuery.Builder();
+      for (int j = 0; j < fields.length; ++j) {
+        if (j == 0 || random().nextInt(4) != 0) {
+          builder.addField(fields[j], random().nextBoolean() ? 1f : 1 + random().nextInt(5) / 2f);
+        }
+      }
+      builder.addTerm(new BytesRef("foo"));
+      if (random().nextBoolean()) {
+        builder.addTerm(new BytesRef("baz"));
+      }
+      CheckHits.checkTopScores(random(), builder.build(), searcher);
+    }
+
+    reader.close();
+    w.close();
+    dir.close();
+  }
+
   private static Similarity randomCompatibleSimilarity() {
     return RandomPicks.randomFrom(
         random(),
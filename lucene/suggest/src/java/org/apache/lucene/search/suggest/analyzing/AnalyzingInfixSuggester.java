@@ -449,7 +449,59 @@ public class AnalyzingInfixSuggester extends Lookup implements Closeable {
         buildDocument(text, contexts, weight, payload));
   }
 
-  private Document buildDocument(
+  /**
+   * Removes the suggestion with exactly this text, if any. After a batch of deletions, you must
+   * call {@link #refresh} in the end in order to no longer see the suggestions in {@link #lookup}
+   */
+  public void delete(BytesRef text) throws IOException {
+    ensureOpen();
+    writer.deleteDocuments(new Term(EXACT_TEXT_FIELD_NAME, text.utf8ToString()));
+  }
+
+  /**
+   * Applies a batch of changes to the already built suggester, without rebuilding its index like
+   * {@link #build} does: every suggestion of <code>updates</code> replaces the suggestion with the
+   * same text, or is added if there is none, and then every suggestion whose text is in <code>
+   * deletes</code> is removed. Changes are committed, following the same rules as {@link #build},
+   * and visible to {@link #lookup} when this method returns.
+   *
+   * @param updates suggestions to add or update, keyed by their text
+   * @param deletes texts of the suggestions to remove, may be <code>null</code>
+   */
+  public void update(InputIterator updates, Iterable<BytesRef> deletes) throws IOException {
+    synchronized (searcherMgrLock) {
+      ensureOpen();
+      BytesRef text;
+      while ((text = updates.next()) != null) {
+        BytesRef payload;
+        if (updates.hasPayloads()) {
+          payload = updates.payload();
+        } else {
+          payload = null;
+        }
+        update(text, updates.contexts(), updates.weight(), payload);
+      }
+      if (deletes != null) {
+        for (BytesRef delete : deletes) {
+          delete(delete);
+        }
+      }
+      if (commitOnBuild || closeIndexWriterOnBuild) {
+        commit();
+      }
+      searcherMgr.maybeRefreshBlocking();
+      if (closeIndexWriterOnBuild) {
+        writer.close();
+        writer = null;
+      }
+    }
+  }
+
+  /**
+   * Builds the document that is indexed for a suggestion. Subclasses can override this to index
+   * additional fields, but must call the super implementation.
+   */
+  protected Document buildDocument(
       BytesRef text, Set<BytesRef> contexts, long weight, BytesRef payload) throws IOException {
     String textString = text.utf8ToString();
     Document doc = new Document();
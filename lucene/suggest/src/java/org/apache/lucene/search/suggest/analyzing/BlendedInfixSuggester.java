@@ -19,17 +19,24 @@ package org.apache.lucene.search.suggest.analyzing;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.document.FieldType;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.BinaryDocValues;
 import org.apache.lucene.index.IndexOptions;
-import org.apache.lucene.index.MultiDocValues;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
 import org.apache.lucene.search.BooleanClause;
@@ -38,6 +45,8 @@ import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteBuffersDataOutput;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.BytesRef;
 
@@ -54,6 +63,12 @@ import org.apache.lucene.util.BytesRef;
  */
 public class BlendedInfixSuggester extends AnalyzingInfixSuggester {
 
+  /**
+   * Field holding, for every suggestion, the first position of each of its analyzed tokens in
+   * ascending position order, so that blending does not need to read term vectors
+   */
+  protected static final String TEXT_POSITIONS_FIELD_NAME = "textpositions";
+
   /** Coefficient used for linear blending */
   protected static double LINEAR_COEF = 0.10;
 
@@ -225,26 +240,29 @@ public class BlendedInfixSuggester extends AnalyzingInfixSuggester {
     // we reduce the num to the one initially requested
     int actualNum = num / numFactor;
 
+    List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
     for (int i = 0; i < hits.scoreDocs.length; i++) {
       FieldDoc fd = (FieldDoc) hits.scoreDocs[i];
 
-      BinaryDocValues textDV =
-          MultiDocValues.getBinaryValues(searcher.getIndexReader(), TEXT_FIELD_NAME);
+      // doc values must be looked up by segment:
+      LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(fd.doc, leaves));
+      int targetDocID = fd.doc - leaf.docBase;
+
+      BinaryDocValues textDV = leaf.reader().getBinaryDocValues(TEXT_FIELD_NAME);
       assert textDV != null;
 
-      textDV.advance(fd.doc);
+      textDV.advance(targetDocID);
 
       final String text = textDV.binaryValue().utf8ToString();
       long weight = (Long) fd.fields[0];
 
       // This will just be null if app didn't pass payloads to build():
       // TODO: maybe just stored fields?  they compress...
-      BinaryDocValues payloadsDV =
-          MultiDocValues.getBinaryValues(searcher.getIndexReader(), "payloads");
+      BinaryDocValues payloadsDV = leaf.reader().getBinaryDocValues("payloads");
 
       BytesRef payload;
       if (payloadsDV != null) {
-        if (payloadsDV.advance(fd.doc) == fd.doc) {
+        if (payloadsDV.advance(targetDocID) == targetDocID) {
           payload = BytesRef.deepCopyOf(payloadsDV.binaryValue());
         } else {
           payload = new BytesRef(BytesRef.EMPTY_BYTES);
@@ -258,7 +276,7 @@ public class BlendedInfixSuggester extends AnalyzingInfixSuggester {
         // if hit starts with the key, we don't change the score
         coefficient = 1;
       } else {
-        coefficient = createCoefficient(searcher, fd.doc, matchedTokens, prefixToken);
+        coefficient = createCoefficient(leaf, targetDocID, matchedTokens, prefixToken);
       }
       if (weight == 0) {
         weight = 1;
@@ -303,21 +321,93 @@ public class BlendedInfixSuggester extends AnalyzingInfixSuggester {
     results.add(result);
   }
 
+  @Override
+  protected Document buildDocument(
+      BytesRef text, Set<BytesRef> contexts, long weight, BytesRef payload) throws IOException {
+    Document doc = super.buildDocument(text, contexts, weight, payload);
+    doc.add(new BinaryDocValuesField(TEXT_POSITIONS_FIELD_NAME, encodePositions(text)));
+    return doc;
+  }
+
+  /**
+   * Encodes the first position of each distinct analyzed token of <code>text</code>, in ascending
+   * position order, as a vInt count followed by (vInt position, token) pairs
+   */
+  private BytesRef encodePositions(BytesRef text) throws IOException {
+    Map<BytesRef, Integer> firstPositions = new HashMap<>();
+    List<BytesRef> tokens = new ArrayList<>();
+    try (TokenStream ts = indexAnalyzer.tokenStream(TEXT_FIELD_NAME, text.utf8ToString())) {
+      CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+      PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+      ts.reset();
+      int position = -1;
+      while (ts.incrementToken()) {
+        position += posIncAtt.getPositionIncrement();
+        BytesRef token = new BytesRef(termAtt);
+        if (firstPositions.putIfAbsent(token, position) == null) {
+          tokens.add(token);
+        }
+      }
+      ts.end();
+    }
+
+    ByteBuffersDataOutput out = new ByteBuffersDataOutput();
+    out.writeVInt(tokens.size());
+    for (BytesRef token : tokens) {
+      out.writeVInt(firstPositions.get(token));
+      out.writeVInt(token.length);
+      out.writeBytes(token.bytes, token.offset, token.length);
+    }
+    return new BytesRef(out.toArrayCopy());
+  }
+
   /**
    * Create the coefficient to transform the weight.
    *
-   * @param doc id of the document
+   * @param leaf segment holding the document
+   * @param doc id of the document, relative to the segment
    * @param matchedTokens tokens found in the query
    * @param prefixToken unfinished token in the query
    * @return the coefficient
-   * @throws IOException If there are problems reading term vectors from the underlying Lucene
-   *     index.
+   * @throws IOException If there are problems reading doc values or term vectors from the
+   *     underlying Lucene index.
    */
   private double createCoefficient(
-      IndexSearcher searcher, int doc, Set<String> matchedTokens, String prefixToken)
+      LeafReaderContext leaf, int doc, Set<String> matchedTokens, String prefixToken)
+      throws IOException {
+
+    BinaryDocValues positionsDV = leaf.reader().getBinaryDocValues(TEXT_POSITIONS_FIELD_NAME);
+    if (positionsDV == null || positionsDV.advance(doc) != doc) {
+      // suggestion was indexed before first positions were recorded
+      return createCoefficientFromTermVectors(leaf, doc, matchedTokens, prefixToken);
+    }
+
+    BytesRef positions = positionsDV.binaryValue();
+    ByteArrayDataInput in =
+        new ByteArrayDataInput(positions.bytes, positions.offset, positions.length);
+    int position = Integer.MAX_VALUE;
+    // tokens are sorted by position, so the first match is the closest one
+    for (int numTokens = in.readVInt(); numTokens > 0; numTokens--) {
+      int p = in.readVInt();
+      int length = in.readVInt();
+      String docTerm = new BytesRef(positions.bytes, in.getPosition(), length).utf8ToString();
+      in.skipBytes(length);
+      if (matchedTokens.contains(docTerm)
+          || (prefixToken != null && docTerm.startsWith(prefixToken))) {
+        position = p;
+        break;
+      }
+    }
+
+    // create corresponding coefficient based on position
+    return calculateCoefficient(position);
+  }
+
+  private double createCoefficientFromTermVectors(
+      LeafReaderContext leaf, int doc, Set<String> matchedTokens, String prefixToken)
       throws IOException {
 
-    Terms tv = searcher.getIndexReader().getTermVector(doc, TEXT_FIELD_NAME);
+    Terms tv = leaf.reader().getTermVector(doc, TEXT_FIELD_NAME);
     TermsEnum it = tv.iterator();
 
     Integer position = Integer.MAX_VALUE;
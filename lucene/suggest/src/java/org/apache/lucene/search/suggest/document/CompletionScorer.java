@@ -104,4 +104,20 @@ public class CompletionScorer extends BulkScorer {
     }
     return weight * boost;
   }
+
+  /**
+   * Returns an upper bound of the score of any completion that can be collected by this scorer,
+   * given the maximum index time weight of the suggester, or {@link Float#POSITIVE_INFINITY} if no
+   * bound is known.
+   */
+  float maxScore(long maxWeight) {
+    final float maxBoost = weight.maxBoost();
+    if (getClass() != CompletionScorer.class || Float.isFinite(maxBoost) == false) {
+      // scoring may have been customized
+      return Float.POSITIVE_INFINITY;
+    }
+    // score(weight, boost) is not monotonic when boost is in [0, 1) so consider all extremes
+    return Math.max(
+        score(maxWeight, 0f), Math.max(score(maxWeight, maxBoost), score(0f, maxBoost)));
+  }
 }
@@ -110,6 +110,19 @@ public class CompletionWeight extends Weight {
     return 0;
   }
 
+  /**
+   * Returns an upper bound of {@link #boost()} across all partial paths that may be set by {@link
+   * #setNextMatch(IntsRef)}, or {@link Float#POSITIVE_INFINITY} if no bound is known. This is used
+   * to skip segments that can not produce competitive completions.
+   *
+   * <p>Subclasses that override {@link #boost()} should override this method as well.
+   *
+   * @return upper bound of the suggestion query-time boost
+   */
+  protected float maxBoost() {
+    return getClass() == CompletionWeight.class ? 0 : Float.POSITIVE_INFINITY;
+  }
+
   /**
    * Returns the context of the partial path set by {@link #setNextMatch(IntsRef)}
    *
@@ -262,6 +262,7 @@ public class ContextQuery extends CompletionQuery implements Accountable {
     private final Map<IntsRef, Float> contextMap;
     private final int[] contextLengths;
     private final CompletionWeight innerWeight;
+    private final float maxContextBoost;
     private final BytesRefBuilder scratch = new BytesRefBuilder();
 
     private float currentBoost;
@@ -278,6 +279,11 @@ public class ContextQuery extends CompletionQuery implements Accountable {
       this.contextMap = contextMap;
       this.contextLengths = contextLengths;
       this.innerWeight = innerWeight;
+      float maxContextBoost = 0f; // unknown contexts are not boosted
+      for (float contextBoost : contextMap.values()) {
+        maxContextBoost = Math.max(maxContextBoost, contextBoost);
+      }
+      this.maxContextBoost = maxContextBoost;
     }
 
     @Override
@@ -338,6 +344,11 @@ public class ContextQuery extends CompletionQuery implements Accountable {
     protected float boost() {
       return currentBoost + innerWeight.boost();
     }
+
+    @Override
+    protected float maxBoost() {
+      return maxContextBoost + innerWeight.maxBoost();
+    }
   }
 
   @Override
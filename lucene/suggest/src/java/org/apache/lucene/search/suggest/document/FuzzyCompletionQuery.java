@@ -19,7 +19,11 @@ package org.apache.lucene.search.suggest.document;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.Term;
@@ -27,7 +31,9 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.search.suggest.BitsProducer;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.lucene.util.UnicodeUtil;
 import org.apache.lucene.util.automaton.Automata;
 import org.apache.lucene.util.automaton.Automaton;
@@ -72,6 +78,18 @@ public class FuzzyCompletionQuery extends PrefixCompletionQuery {
   /** The default transposition value passed to {@link LevenshteinAutomata} */
   public static final boolean DEFAULT_TRANSPOSITIONS = true;
 
+  /**
+   * Maximum memory usage of the compiled fuzzy automata that are kept around to be reused by
+   * queries that analyze to the same prefix(es) with the same fuzzy parameters
+   */
+  static final long AUTOMATON_CACHE_MAX_RAM_BYTES_USED = 4L * 1024 * 1024;
+
+  // access-ordered, so that iteration starts with the least recently used entry
+  private static final Map<AutomatonCacheKey, Automaton> AUTOMATON_CACHE =
+      new LinkedHashMap<>(16, 0.75f, true);
+  // guarded by AUTOMATON_CACHE
+  private static long automatonCacheRamBytesUsed;
+
   private final int maxEdits;
   private final boolean transpositions;
   private final int nonFuzzyPrefix;
@@ -151,23 +169,42 @@ public class FuzzyCompletionQuery extends PrefixCompletionQuery {
       originalAutomata = stream.toAutomaton(unicodeAware);
     }
     Set<IntsRef> refs = new HashSet<>();
-    Automaton automaton = toLevenshteinAutomata(originalAutomata, refs);
-    if (unicodeAware) {
-      Automaton utf8automaton = new UTF32ToUTF8().convert(automaton);
-      utf8automaton = Operations.determinize(utf8automaton, maxDeterminizedStates);
-      automaton = utf8automaton;
+    FiniteStringsIterator finiteStrings = new FiniteStringsIterator(originalAutomata);
+    for (IntsRef string; (string = finiteStrings.next()) != null; ) {
+      refs.add(IntsRef.deepCopyOf(string));
+    }
+    // building (and determinizing) levenshtein automata is costly compared to the lookup itself,
+    // so compiled automata are shared across queries that analyze to the same finite strings
+    AutomatonCacheKey key =
+        new AutomatonCacheKey(
+            refs,
+            maxEdits,
+            transpositions,
+            nonFuzzyPrefix,
+            minFuzzyLength,
+            unicodeAware,
+            maxDeterminizedStates);
+    Automaton automaton;
+    synchronized (AUTOMATON_CACHE) {
+      automaton = AUTOMATON_CACHE.get(key);
+    }
+    if (automaton == null) {
+      automaton = toLevenshteinAutomata(refs);
+      if (unicodeAware) {
+        Automaton utf8automaton = new UTF32ToUTF8().convert(automaton);
+        utf8automaton = Operations.determinize(utf8automaton, maxDeterminizedStates);
+        automaton = utf8automaton;
+      }
+      cacheAutomaton(key, automaton);
     }
     // TODO Accumulating all refs is bad, because the resulting set may be very big.
     // TODO Better iterate over automaton again inside FuzzyCompletionWeight?
     return new FuzzyCompletionWeight(this, automaton, refs);
   }
 
-  private Automaton toLevenshteinAutomata(Automaton automaton, Set<IntsRef> refs) {
+  private Automaton toLevenshteinAutomata(Set<IntsRef> strings) {
     List<Automaton> subs = new ArrayList<>();
-    FiniteStringsIterator finiteStrings = new FiniteStringsIterator(automaton);
-    for (IntsRef string; (string = finiteStrings.next()) != null; ) {
-      refs.add(IntsRef.deepCopyOf(string));
-
+    for (IntsRef string : strings) {
       if (string.length <= nonFuzzyPrefix || string.length < minFuzzyLength) {
         subs.add(Automata.makeString(string.ints, string.offset, string.length));
       } else {
@@ -252,14 +289,143 @@ public class FuzzyCompletionQuery extends PrefixCompletionQuery {
     return buffer.toString();
   }
 
+  /** Caches the given automaton, evicting least recently used ones if the cache is full */
+  private static void cacheAutomaton(AutomatonCacheKey key, Automaton automaton) {
+    final long ramBytesUsed = key.ramBytesUsed() + automaton.ramBytesUsed();
+    if (ramBytesUsed > AUTOMATON_CACHE_MAX_RAM_BYTES_USED) {
+      // would evict everything else
+      return;
+    }
+    synchronized (AUTOMATON_CACHE) {
+      Automaton previous = AUTOMATON_CACHE.put(key, automaton);
+      if (previous != null) {
+        // another query compiled the same automaton concurrently
+        automatonCacheRamBytesUsed -= key.ramBytesUsed() + previous.ramBytesUsed();
+      }
+      automatonCacheRamBytesUsed += ramBytesUsed;
+      for (Iterator<Map.Entry<AutomatonCacheKey, Automaton>> it =
+              AUTOMATON_CACHE.entrySet().iterator();
+          automatonCacheRamBytesUsed > AUTOMATON_CACHE_MAX_RAM_BYTES_USED && it.hasNext(); ) {
+        Map.Entry<AutomatonCacheKey, Automaton> eldest = it.next();
+        it.remove();
+        automatonCacheRamBytesUsed -=
+            eldest.getKey().ramBytesUsed() + eldest.getValue().ramBytesUsed();
+      }
+    }
+  }
+
+  /** Clears the cache of compiled fuzzy automata shared by all instances */
+  static void clearAutomatonCache() {
+    synchronized (AUTOMATON_CACHE) {
+      AUTOMATON_CACHE.clear();
+      automatonCacheRamBytesUsed = 0;
+    }
+  }
+
+  /** Returns the memory usage of the compiled fuzzy automata that are currently cached */
+  static long automatonCacheRamBytesUsed() {
+    synchronized (AUTOMATON_CACHE) {
+      return automatonCacheRamBytesUsed;
+    }
+  }
+
+  /** Returns the number of compiled fuzzy automata currently cached */
+  static int automatonCacheSize() {
+    synchronized (AUTOMATON_CACHE) {
+      return AUTOMATON_CACHE.size();
+    }
+  }
+
+  /**
+   * Identifies a compiled fuzzy automaton by the analyzed finite strings of the prefix and all
+   * parameters that affect how the levenshtein automata are built
+   */
+  private static final class AutomatonCacheKey implements Accountable {
+    private static final long BASE_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(AutomatonCacheKey.class)
+            + RamUsageEstimator.shallowSizeOfInstance(HashSet.class);
+    private static final long INTS_REF_RAM_BYTES_USED =
+        RamUsageEstimator.shallowSizeOfInstance(IntsRef.class)
+            + RamUsageEstimator.HASHTABLE_RAM_BYTES_PER_ENTRY;
+
+    private final Set<IntsRef> strings;
+    private final int maxEdits;
+    private final boolean transpositions;
+    private final int nonFuzzyPrefix;
+    private final int minFuzzyLength;
+    private final boolean unicodeAware;
+    private final int maxDeterminizedStates;
+    private final long ramBytesUsed;
+
+    AutomatonCacheKey(
+        Set<IntsRef> strings,
+        int maxEdits,
+        boolean transpositions,
+        int nonFuzzyPrefix,
+        int minFuzzyLength,
+        boolean unicodeAware,
+        int maxDeterminizedStates) {
+      this.strings = strings;
+      this.maxEdits = maxEdits;
+      this.transpositions = transpositions;
+      this.nonFuzzyPrefix = nonFuzzyPrefix;
+      this.minFuzzyLength = minFuzzyLength;
+      this.unicodeAware = unicodeAware;
+      this.maxDeterminizedStates = maxDeterminizedStates;
+      long ramBytesUsed = BASE_RAM_BYTES_USED;
+      for (IntsRef string : strings) {
+        ramBytesUsed += INTS_REF_RAM_BYTES_USED + RamUsageEstimator.sizeOf(string.ints);
+      }
+      this.ramBytesUsed = ramBytesUsed;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+      return ramBytesUsed;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof AutomatonCacheKey == false) {
+        return false;
+      }
+      AutomatonCacheKey other = (AutomatonCacheKey) obj;
+      return maxEdits == other.maxEdits
+          && transpositions == other.transpositions
+          && nonFuzzyPrefix == other.nonFuzzyPrefix
+          && minFuzzyLength == other.minFuzzyLength
+          && unicodeAware == other.unicodeAware
+          && maxDeterminizedStates == other.maxDeterminizedStates
+          && strings.equals(other.strings);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(
+          strings,
+          maxEdits,
+          transpositions,
+          nonFuzzyPrefix,
+          minFuzzyLength,
+          unicodeAware,
+          maxDeterminizedStates);
+    }
+  }
+
   private static class FuzzyCompletionWeight extends CompletionWeight {
     private final Set<IntsRef> refs;
+    private final int maxBoost;
     int currentBoost = 0;
 
     public FuzzyCompletionWeight(CompletionQuery query, Automaton automaton, Set<IntsRef> refs)
         throws IOException {
       super(query, automaton);
       this.refs = refs;
+      int maxLength = 0;
+      for (IntsRef ref : refs) {
+        maxLength = Math.max(maxLength, ref.length);
+      }
+      this.maxBoost = maxLength;
     }
 
     @Override
@@ -288,5 +454,10 @@ public class FuzzyCompletionQuery extends PrefixCompletionQuery {
     protected float boost() {
       return currentBoost;
     }
+
+    @Override
+    protected float maxBoost() {
+      return maxBoost;
+    }
   }
 }
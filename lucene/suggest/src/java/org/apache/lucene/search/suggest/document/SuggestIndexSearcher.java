@@ -19,6 +19,7 @@ package org.apache.lucene.search.suggest.document;
 import java.io.IOException;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
 import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.CollectionTerminatedException;
 import org.apache.lucene.search.IndexSearcher;
@@ -58,6 +59,9 @@ public class SuggestIndexSearcher extends IndexSearcher {
    *
    * <p>{@link TopSuggestDocsCollector#collect(int, CharSequence, CharSequence, float)} is called
    * for every matching completion hit.
+   *
+   * <p>Segments whose highest possible completion score can not compete with the completions
+   * collected so far are skipped.
    */
   public void suggest(CompletionQuery query, TopSuggestDocsCollector collector) throws IOException {
     // TODO use IndexSearcher.rewrite instead
@@ -66,7 +70,7 @@ public class SuggestIndexSearcher extends IndexSearcher {
     Weight weight = query.createWeight(this, collector.scoreMode(), 1f);
     for (LeafReaderContext context : getIndexReader().leaves()) {
       BulkScorer scorer = weight.bulkScorer(context);
-      if (scorer != null) {
+      if (scorer != null && isCompetitive(query, scorer, context, collector)) {
         try {
           scorer.score(collector.getLeafCollector(context), context.reader().getLiveDocs());
         } catch (CollectionTerminatedException e) {
@@ -76,4 +80,23 @@ public class SuggestIndexSearcher extends IndexSearcher {
       }
     }
   }
+
+  private static boolean isCompetitive(
+      CompletionQuery query,
+      BulkScorer scorer,
+      LeafReaderContext context,
+      TopSuggestDocsCollector collector)
+      throws IOException {
+    final float minCompetitiveScore = collector.minCompetitiveScore();
+    if (minCompetitiveScore == Float.NEGATIVE_INFINITY
+        || scorer instanceof CompletionScorer == false) {
+      return true;
+    }
+    final Terms terms = context.reader().terms(query.getField());
+    if (terms instanceof CompletionTerms == false) {
+      return true;
+    }
+    final long maxWeight = ((CompletionTerms) terms).getMaxWeight();
+    return ((CompletionScorer) scorer).maxScore(maxWeight) >= minCompetitiveScore;
+  }
 }
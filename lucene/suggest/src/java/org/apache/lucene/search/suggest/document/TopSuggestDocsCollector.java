@@ -127,6 +127,20 @@ public class TopSuggestDocsCollector extends SimpleCollector {
     }
   }
 
+  /**
+   * Returns the score that a completion must at least have to be collected, or {@link
+   * Float#NEGATIVE_INFINITY} if all completions are still competitive.
+   *
+   * <p>NOTE: when duplicates are skipped, hits are only deduplicated across segments at the end of
+   * the collection, so every completion is considered competitive.
+   */
+  float minCompetitiveScore() {
+    if (seenSurfaceForms != null || priorityQueue.size() < num) {
+      return Float.NEGATIVE_INFINITY;
+    }
+    return priorityQueue.top().score;
+  }
+
   /**
    * Returns at most <code>num</code> Top scoring {@link
    * org.apache.lucene.search.suggest.document.TopSuggestDocs}s
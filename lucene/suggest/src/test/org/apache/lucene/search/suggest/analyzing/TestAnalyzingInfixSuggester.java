@@ -1550,6 +1550,52 @@ public class TestAnalyzingInfixSuggester extends LuceneTestCase {
         });
   }
 
+  public void testUpdateAfterBuild() throws Exception {
+    performOperationWithAllOptionCombinations(
+        suggester -> {
+          suggester.build(new InputArrayIterator(sharedInputs));
+          Input updates[] =
+              new Input[] {
+                new Input("lend me your ear", 12, new BytesRef("foobox")),
+                new Input("earnest money", 5, new BytesRef("foobaq")),
+              };
+          suggester.update(
+              new InputArrayIterator(updates),
+              Collections.singleton(new BytesRef("a penny saved is a penny earned")));
+
+          // no refresh needed, changes are visible right away:
+          List<LookupResult> results =
+              suggester.lookup(TestUtil.stringToCharSequence("ear", random()), 10, true, true);
+          assertEquals(2, results.size());
+          assertEquals("lend me your ear", results.get(0).key);
+          assertEquals(12, results.get(0).value);
+          assertEquals(new BytesRef("foobox"), results.get(0).payload);
+          assertEquals("earnest money", results.get(1).key);
+          assertEquals(5, results.get(1).value);
+          assertEquals(new BytesRef("foobaq"), results.get(1).payload);
+          assertEquals(2, suggester.getCount());
+        });
+  }
+
+  public void testDelete() throws Exception {
+    Analyzer a = new MockAnalyzer(random(), MockTokenizer.WHITESPACE, false);
+    AnalyzingInfixSuggester suggester = new AnalyzingInfixSuggester(newDirectory(), a, a, 3, false);
+    suggester.build(new InputArrayIterator(sharedInputs));
+
+    suggester.delete(new BytesRef("lend me your ear"));
+    // Must refresh to no longer see deleted suggestions:
+    suggester.refresh();
+
+    List<LookupResult> results =
+        suggester.lookup(TestUtil.stringToCharSequence("ear", random()), 10, true, true);
+    assertEquals(1, results.size());
+    assertEquals("a penny saved is a penny earned", results.get(0).key);
+    assertEquals(10, results.get(0).value);
+
+    suggester.close();
+    a.close();
+  }
+
   public void testDisallowCommitBeforeBuild() throws Exception {
     performOperationWithAllOptionCombinations(
         suggester -> expectThrows(IllegalStateException.class, suggester::commit));
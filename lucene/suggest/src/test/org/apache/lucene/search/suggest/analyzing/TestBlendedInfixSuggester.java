@@ -26,6 +26,7 @@ import org.apache.lucene.analysis.CharArraySet;
 import org.apache.lucene.analysis.MockAnalyzer;
 import org.apache.lucene.analysis.MockTokenizer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.suggest.Input;
@@ -191,6 +192,43 @@ public class TestBlendedInfixSuggester extends LuceneTestCase {
     suggester.close();
   }
 
+  /**
+   * Suggestions indexed without first token positions (e.g. by an older version) must still be
+   * blended, using term vectors, the same way.
+   */
+  public void testBlendingWithoutPositions() throws IOException {
+    BytesRef pl = new BytesRef("lake");
+    long w = 20;
+    Input keys[] = new Input[] {new Input("top of the lake of the woods", w, pl)};
+    Analyzer a = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+
+    BlendedInfixSuggester suggester = new BlendedInfixSuggester(newDirectory(), a);
+    suggester.build(new InputArrayIterator(keys));
+    BlendedInfixSuggester noPositionsSuggester =
+        new BlendedInfixSuggester(newDirectory(), a) {
+          @Override
+          protected Document buildDocument(
+              BytesRef text, Set<BytesRef> contexts, long weight, BytesRef payload)
+              throws IOException {
+            Document doc = super.buildDocument(text, contexts, weight, payload);
+            doc.removeField(TEXT_POSITIONS_FIELD_NAME);
+            return doc;
+          }
+        };
+    noPositionsSuggester.build(new InputArrayIterator(keys));
+
+    for (String prefix : new String[] {"top", "of", "the", "lake", "wood"}) {
+      long expected = getInResults(noPositionsSuggester, prefix, pl, 1);
+      assertEquals(expected, getInResults(suggester, prefix, pl, 1));
+    }
+    assertEquals((int) (w * (1 - 0.10 * 1)), getInResults(suggester, "of", pl, 1));
+    assertEquals((int) (w * (1 - 0.10 * 2)), getInResults(suggester, "the", pl, 1));
+    assertEquals((int) (w * (1 - 0.10 * 6)), getInResults(suggester, "wood", pl, 1));
+
+    suggester.close();
+    noPositionsSuggester.close();
+  }
+
   /**
    * Assert that the factor is important to get results that might be lower in term of weight but
    * would be pushed up after the blending transformation
@@ -28,6 +28,7 @@ import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.LuceneTestCase;
+import org.apache.lucene.util.automaton.Operations;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -79,6 +80,54 @@ public class TestFuzzyCompletionQuery extends LuceneTestCase {
     iw.close();
   }
 
+  @Test
+  public void testAutomatonCache() throws Exception {
+    Analyzer analyzer = new MockAnalyzer(random());
+    RandomIndexWriter iw =
+        new RandomIndexWriter(random(), dir, iwcWithSuggestField(analyzer, "suggest_field"));
+    Document document = new Document();
+    document.add(new SuggestField("suggest_field", "suggestion", 2));
+    document.add(new SuggestField("suggest_field", "sugfoo", 1));
+    iw.addDocument(document);
+
+    DirectoryReader reader = iw.getReader();
+    SuggestIndexSearcher suggestIndexSearcher = new SuggestIndexSearcher(reader);
+    FuzzyCompletionQuery.clearAutomatonCache();
+    for (int i = 0; i < 3; i++) {
+      CompletionQuery query = new FuzzyCompletionQuery(analyzer, new Term("suggest_field", "sugg"));
+      TopSuggestDocs suggest = suggestIndexSearcher.suggest(query, 4, false);
+      assertSuggestions(suggest, new Entry("suggestion", 2 * 3), new Entry("sugfoo", 1 * 3));
+      assertEquals(1, FuzzyCompletionQuery.automatonCacheSize());
+    }
+
+    // different fuzzy parameters compile a different automaton
+    CompletionQuery query =
+        new FuzzyCompletionQuery(
+            analyzer,
+            new Term("suggest_field", "sugg"),
+            null,
+            0,
+            FuzzyCompletionQuery.DEFAULT_TRANSPOSITIONS,
+            FuzzyCompletionQuery.DEFAULT_NON_FUZZY_PREFIX,
+            FuzzyCompletionQuery.DEFAULT_MIN_FUZZY_LENGTH,
+            FuzzyCompletionQuery.DEFAULT_UNICODE_AWARE,
+            Operations.DEFAULT_MAX_DETERMINIZED_STATES);
+    TopSuggestDocs suggest = suggestIndexSearcher.suggest(query, 4, false);
+    assertSuggestions(suggest, new Entry("suggestion", 2 * 4));
+    assertEquals(2, FuzzyCompletionQuery.automatonCacheSize());
+    assertTrue(FuzzyCompletionQuery.automatonCacheRamBytesUsed() > 0);
+    assertTrue(
+        FuzzyCompletionQuery.automatonCacheRamBytesUsed()
+            <= FuzzyCompletionQuery.AUTOMATON_CACHE_MAX_RAM_BYTES_USED);
+
+    FuzzyCompletionQuery.clearAutomatonCache();
+    assertEquals(0, FuzzyCompletionQuery.automatonCacheSize());
+    assertEquals(0, FuzzyCompletionQuery.automatonCacheRamBytesUsed());
+
+    reader.close();
+    iw.close();
+  }
+
   @Test
   public void testFuzzyContextQuery() throws Exception {
     Analyzer analyzer = new MockAnalyzer(random());
@@ -50,6 +50,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.ScoreDoc;
@@ -659,6 +660,46 @@ public class TestSuggestField extends LuceneTestCase {
     iw.close();
   }
 
+  @Test
+  public void testSkipNonCompetitiveSegments() throws Exception {
+    Analyzer analyzer = new MockAnalyzer(random());
+    IndexWriterConfig iwc = iwcWithSuggestField(analyzer, "suggest_field");
+    iwc.setMergePolicy(NoMergePolicy.INSTANCE);
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwc);
+    int num = Math.min(1000, atLeast(10));
+
+    // have segments of 4 documents with descending suggestion weights:
+    // once the first segment filled the top N, all following segments
+    // can't produce competitive suggestions and should be skipped
+    for (int i = num; i > 0; i--) {
+      Document document = new Document();
+      document.add(new SuggestField("suggest_field", "abc_" + i, i));
+      iw.addDocument(document);
+      if (i % 4 == 0) {
+        iw.commit();
+      }
+    }
+    DirectoryReader reader = iw.getReader();
+    SuggestIndexSearcher indexSearcher = new SuggestIndexSearcher(reader);
+    PrefixCompletionQuery query =
+        new PrefixCompletionQuery(analyzer, new Term("suggest_field", "abc_"));
+    final int[] visitedSegments = new int[1];
+    TopSuggestDocsCollector collector =
+        new TopSuggestDocsCollector(1, false) {
+          @Override
+          protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            super.doSetNextReader(context);
+            visitedSegments[0]++;
+          }
+        };
+    indexSearcher.suggest(query, collector);
+    assertSuggestions(collector.get(), new Entry("abc_" + num, num));
+    assertEquals(1, visitedSegments[0]);
+
+    reader.close();
+    iw.close();
+  }
+
   @Test
   public void testMultipleSegments() throws Exception {
     Analyzer analyzer = new MockAnalyzer(random());
@@ -233,7 +233,7 @@ public abstract class BaseMergePolicyTestCase extends LuceneTestCase {
   }
 
   /** A directory that computes the length of a file based on its name. */
-  private static final Directory FAKE_DIRECTORY =
+  static final Directory FAKE_DIRECTORY =
       new Directory() {
 
         @Override
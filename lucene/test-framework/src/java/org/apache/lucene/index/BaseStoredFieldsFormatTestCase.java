@@ -401,6 +401,38 @@ public abstract class BaseStoredFieldsFormatTestCase extends BaseIndexFileFormat
     dir.close();
   }
 
+  public void testPrefetchDocument() throws IOException {
+    Directory dir = newDirectory();
+    IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
+    iwConf.setMaxBufferedDocs(RandomNumbers.randomIntBetween(random(), 2, 30));
+    RandomIndexWriter iw = new RandomIndexWriter(random(), dir, iwConf);
+
+    final int numDocs = atLeast(100);
+    for (int i = 0; i < numDocs; ++i) {
+      Document doc = new Document();
+      doc.add(new StoredField("id", Integer.toString(i)));
+      iw.addDocument(doc);
+    }
+    iw.commit();
+    final DirectoryReader rd = maybeWrapWithMergingReader(DirectoryReader.open(dir));
+    expectThrows(IllegalArgumentException.class, () -> rd.prefetchDocument(-1));
+    expectThrows(IllegalArgumentException.class, () -> rd.prefetchDocument(numDocs));
+
+    // prefetching a page of hits doesn't affect how documents are loaded
+    final int[] hits = new int[TestUtil.nextInt(random(), 1, 20)];
+    for (int i = 0; i < hits.length; ++i) {
+      hits[i] = random().nextInt(numDocs);
+      rd.prefetchDocument(hits[i]);
+    }
+    for (int hit : hits) {
+      assertEquals(Integer.toString(hit), rd.document(hit).get("id"));
+    }
+    rd.close();
+
+    iw.close();
+    dir.close();
+  }
+
   public void testConcurrentReads() throws Exception {
     Directory dir = newDirectory();
     IndexWriterConfig iwConf = newIndexWriterConfig(new MockAnalyzer(random()));
@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.lucene.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.index.MergePolicy.MergeContext;
+import org.apache.lucene.index.MergePolicy.MergeSpecification;
+import org.apache.lucene.index.MergePolicy.OneMerge;
+import org.apache.lucene.util.InfoStream;
+import org.apache.lucene.util.StringHelper;
+import org.apache.lucene.util.Version;
+
+/**
+ * Replays a history of segment events against a {@link MergePolicy}, without indexing any
+ * documents, so that merge policies can be compared offline on the same history: how many bytes
+ * they write, and how expensive searches are on the segments that they leave behind.
+ *
+ * <p>Searches are simulated with a simple cost model: each search costs {@link
+ * #setSegmentCost(double) segmentCost} per segment, plus, for every hit on a segment, the ratio of
+ * its number of documents to its number of live documents (deleted documents still need to be
+ * skipped), times {@code 1 + docValuesGenCost * generations} where {@code generations} is the
+ * number of doc-values update generations of the segment. If a {@link SegmentHeatTracker} is set,
+ * simulated hits are recorded into it so that a {@link CostBasedMergePolicy} can react to them.
+ */
+public class MergePolicySimulator {
+
+  /** An event of a segment history. */
+  public static final class Event {
+    private enum Type {
+      FLUSH,
+      DELETES,
+      DOC_VALUES_UPDATES,
+      SEARCH
+    }
+
+    private final Type type;
+    private final long count;
+    private final double sizeMB;
+    private final int numSegments;
+
+    private Event(Type type, long count, double sizeMB, int numSegments) {
+      this.type = type;
+      this.count = count;
+      this.sizeMB = sizeMB;
+      this.numSegments = numSegments;
+    }
+
+    /** A flush of a new segment of {@code numDocs} documents and {@code sizeMB} MB. */
+    public static Event flush(int numDocs, double sizeMB) {
+      return new Event(Type.FLUSH, numDocs, sizeMB, 0);
+    }
+
+    /** {@code numDeletes} deletes, spread uniformly across live documents. */
+    public static Event deletes(int numDeletes) {
+      return new Event(Type.DELETES, numDeletes, 0, 0);
+    }
+
+    /** A new doc-values update generation on {@code numSegments} random segments. */
+    public static Event docValuesUpdates(int numSegments) {
+      return new Event(Type.DOC_VALUES_UPDATES, 0, 0, numSegments);
+    }
+
+    /**
+     * A batch of searches that collect {@code numHits} hits in total. If {@code numHotSegments} is
+     * positive, half of the hits land on that many most recently written segments. The other hits
+     * land on all segments, in proportion to their number of live documents.
+     */
+    public static Event search(long numHits, int numHotSegments) {
+      return new Event(Type.SEARCH, numHits, 0, numHotSegments);
+    }
+
+    @Override
+    public String toString() {
+      return type + "(count=" + count + " sizeMB=" + sizeMB + " numSegments=" + numSegments + ")";
+    }
+  }
+
+  /** Statistics of a replay. */
+  public static final class Result {
+    /** Bytes written by flushes. */
+    public long flushBytesWritten;
+    /** Bytes written by merges. */
+    public long mergeBytesWritten;
+    /** Number of merges. */
+    public int numMerges;
+    /** Number of search events. */
+    public int numSearches;
+    /** Simulated cost of all searches. */
+    public double searchCost;
+    /** Number of segments at the end of the history. */
+    public int finalSegmentCount;
+
+    /** Ratio of all bytes written to bytes written by flushes. */
+    public double getWriteAmplification() {
+      return flushBytesWritten == 0
+          ? 0
+          : (double) (flushBytesWritten + mergeBytesWritten) / flushBytesWritten;
+    }
+
+    /** Average simulated cost of a search event. */
+    public double getAverageSearchCost() {
+      return numSearches == 0 ? 0 : searchCost / numSearches;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "writeAmplification=%.3f numMerges=%d avgSearchCost=%.1f finalSegmentCount=%d",
+          getWriteAmplification(),
+          numMerges,
+          getAverageSearchCost(),
+          finalSegmentCount);
+    }
+  }
+
+  private final Random random;
+  private double segmentCost = 1000;
+  private double docValuesGenCost = 0.1;
+  private SegmentHeatTracker heatTracker;
+
+  /** Creates a simulator that uses {@code random} for segment ids and doc-values updates. */
+  public MergePolicySimulator(Random random) {
+    this.random = random;
+  }
+
+  /** Sets the fixed cost of searching a segment. */
+  public MergePolicySimulator setSegmentCost(double segmentCost) {
+    this.segmentCost = segmentCost;
+    return this;
+  }
+
+  /** Sets the relative cost of a hit per doc-values update generation of its segment. */
+  public MergePolicySimulator setDocValuesGenCost(double docValuesGenCost) {
+    this.docValuesGenCost = docValuesGenCost;
+    return this;
+  }
+
+  /** Sets a tracker to record simulated hits into, or null. */
+  public MergePolicySimulator setHeatTracker(SegmentHeatTracker heatTracker) {
+    this.heatTracker = heatTracker;
+    return this;
+  }
+
+  /** Replays {@code history} against {@code mergePolicy}. */
+  public Result replay(MergePolicy mergePolicy, List<Event> history) throws IOException {
+    final Result result = new Result();
+    final MergeContext mergeContext = new SimulatedMergeContext();
+    SegmentInfos infos = new SegmentInfos(Version.LATEST.major);
+    long nextSegmentName = 0;
+
+    for (Event event : history) {
+      switch (event.type) {
+        case FLUSH:
+          infos.add(
+              newSegment(
+                  "_" + Long.toString(nextSegmentName++, Character.MAX_RADIX),
+                  Math.toIntExact(event.count),
+                  0,
+                  -1,
+                  -1,
+                  event.sizeMB,
+                  IndexWriter.SOURCE_FLUSH));
+          result.flushBytesWritten += (long) (event.sizeMB * 1024 * 1024);
+          break;
+        case DELETES:
+          infos = applyDeletes(infos, Math.toIntExact(event.count));
+          break;
+        case DOC_VALUES_UPDATES:
+          infos = applyDocValuesUpdates(infos, event.numSegments);
+          break;
+        case SEARCH:
+          result.searchCost += search(infos, event.count, event.numSegments);
+          result.numSearches++;
+          // searches don't change segments
+          continue;
+        default:
+          throw new AssertionError();
+      }
+
+      MergeSpecification merges =
+          mergePolicy.findMerges(MergeTrigger.SEGMENT_FLUSH, infos, mergeContext);
+      while (merges != null) {
+        for (OneMerge merge : merges.merges) {
+          String name = "_" + Long.toString(nextSegmentName++, Character.MAX_RADIX);
+          infos = applyMerge(infos, merge, name, result);
+        }
+        merges = mergePolicy.findMerges(MergeTrigger.MERGE_FINISHED, infos, mergeContext);
+      }
+    }
+    result.finalSegmentCount = infos.size();
+    return result;
+  }
+
+  private SegmentCommitInfo newSegment(
+      String name,
+      int maxDoc,
+      int delCount,
+      long delGen,
+      long docValuesGen,
+      double sizeMB,
+      String source) {
+    SegmentInfo info =
+        new SegmentInfo(
+            BaseMergePolicyTestCase.FAKE_DIRECTORY,
+            Version.LATEST,
+            Version.LATEST,
+            name,
+            maxDoc,
+            false,
+            Codec.getDefault(),
+            Collections.emptyMap(),
+            newId(),
+            Collections.singletonMap(IndexWriter.SOURCE, source),
+            null);
+    info.setFiles(
+        Collections.singleton(
+            name + "_size=" + Long.toString((long) (sizeMB * 1024 * 1024)) + ".fake"));
+    return new SegmentCommitInfo(info, delCount, 0, delGen, -1, docValuesGen, newId());
+  }
+
+  private byte[] newId() {
+    byte[] id = new byte[StringHelper.ID_LENGTH];
+    random.nextBytes(id);
+    return id;
+  }
+
+  private static SegmentCommitInfo withUpdates(
+      SegmentCommitInfo sci, int delCount, long delGen, long docValuesGen, byte[] id) {
+    return new SegmentCommitInfo(
+        sci.info, delCount, 0, delGen, sci.getFieldInfosGen(), docValuesGen, id);
+  }
+
+  private SegmentInfos applyMerge(
+      SegmentInfos infos, OneMerge merge, String mergedSegmentName, Result result)
+      throws IOException {
+    Set<SegmentCommitInfo> scis = new LinkedHashSet<>(infos.asList());
+    int newMaxDoc = 0;
+    double newSizeMB = 0;
+    for (SegmentCommitInfo sci : merge.segments) {
+      int numLiveDocs = sci.info.maxDoc() - sci.getDelCount();
+      newSizeMB += (double) sci.sizeInBytes() * numLiveDocs / sci.info.maxDoc() / 1024 / 1024;
+      newMaxDoc += numLiveDocs;
+      if (scis.remove(sci) == false) {
+        throw new IllegalStateException("merged segment " + sci + " is not in the index");
+      }
+    }
+    SegmentInfos newInfos = new SegmentInfos(Version.LATEST.major);
+    newInfos.addAll(scis);
+    newInfos.add(
+        newSegment(mergedSegmentName, newMaxDoc, 0, -1, -1, newSizeMB, IndexWriter.SOURCE_MERGE));
+    result.mergeBytesWritten += (long) (newSizeMB * 1024 * 1024);
+    result.numMerges++;
+    return newInfos;
+  }
+
+  private SegmentInfos applyDeletes(SegmentInfos infos, int numDeletes) {
+    List<SegmentCommitInfo> infoList = infos.asList();
+    int totalNumDocs = infoList.stream().mapToInt(s -> s.info.maxDoc() - s.getDelCount()).sum();
+    numDeletes = Math.min(numDeletes, totalNumDocs);
+    double w = totalNumDocs == 0 ? 0 : (double) numDeletes / totalNumDocs;
+    SegmentInfos newInfos = new SegmentInfos(Version.LATEST.major);
+    for (int i = 0; i < infoList.size(); ++i) {
+      SegmentCommitInfo sci = infoList.get(i);
+      int numLiveDocs = sci.info.maxDoc() - sci.getDelCount();
+      int segDeletes;
+      if (i == infoList.size() - 1) {
+        segDeletes = Math.min(numDeletes, numLiveDocs);
+      } else {
+        segDeletes = Math.min(numDeletes, (int) Math.ceil(w * numLiveDocs));
+      }
+      numDeletes -= segDeletes;
+      int newDelCount = sci.getDelCount() + segDeletes;
+      if (newDelCount < sci.info.maxDoc()) { // drop fully deleted segments
+        newInfos.add(
+            withUpdates(sci, newDelCount, sci.getDelGen() + 1, sci.getDocValuesGen(), newId()));
+      }
+    }
+    return newInfos;
+  }
+
+  private SegmentInfos applyDocValuesUpdates(SegmentInfos infos, int numSegments) {
+    List<SegmentCommitInfo> infoList = new ArrayList<>(infos.asList());
+    Collections.shuffle(infoList, random);
+    Set<SegmentCommitInfo> updated =
+        new LinkedHashSet<>(infoList.subList(0, Math.min(numSegments, infoList.size())));
+    SegmentInfos newInfos = new SegmentInfos(Version.LATEST.major);
+    for (SegmentCommitInfo sci : infos) {
+      if (updated.contains(sci)) {
+        long docValuesGen = sci.getDocValuesGen() == -1 ? 1 : sci.getDocValuesGen() + 1;
+        newInfos.add(withUpdates(sci, sci.getDelCount(), sci.getDelGen(), docValuesGen, newId()));
+      } else {
+        newInfos.add(sci);
+      }
+    }
+    return newInfos;
+  }
+
+  private double search(SegmentInfos infos, long numHits, int numHotSegments) {
+    List<SegmentCommitInfo> infoList = infos.asList();
+    if (infoList.isEmpty()) {
+      return 0;
+    }
+    long totalLiveDocs = 0;
+    for (SegmentCommitInfo sci : infoList) {
+      totalLiveDocs += sci.info.maxDoc() - sci.getDelCount();
+    }
+    // segments are appended as they are written, so the hot ones come last
+    int firstHotSegment = Math.max(0, infoList.size() - numHotSegments);
+    double hotHits = numHotSegments > 0 ? numHits / 2. : 0;
+    double cost = 0;
+    for (int i = 0; i < infoList.size(); i++) {
+      SegmentCommitInfo sci = infoList.get(i);
+      int numLiveDocs = sci.info.maxDoc() - sci.getDelCount();
+      double hits = (numHits - hotHits) * numLiveDocs / totalLiveDocs;
+      if (i >= firstHotSegment) {
+        hits += hotHits / (infoList.size() - firstHotSegment);
+      }
+      if (heatTracker != null) {
+        heatTracker.addHits(sci.info.name, Math.round(hits));
+      }
+      double generations = Math.max(0, sci.getDocValuesGen());
+      cost +=
+          segmentCost
+              + hits * sci.info.maxDoc() / numLiveDocs * (1 + docValuesGenCost * generations);
+    }
+    return cost;
+  }
+
+  private static final class SimulatedMergeContext implements MergeContext {
+    @Override
+    public int numDeletesToMerge(SegmentCommitInfo info) {
+      return info.getDelCount();
+    }
+
+    @Override
+    public int numDeletedDocs(SegmentCommitInfo info) {
+      return info.getDelCount();
+    }
+
+    @Override
+    public InfoStream getInfoStream() {
+      return InfoStream.NO_OUTPUT;
+    }
+
+    @Override
+    public Set<SegmentCommitInfo> getMergingSegments() {
+      return Collections.emptySet();
+    }
+  }
+}
@@ -46,6 +46,7 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexNotFoundException;
 import org.apache.lucene.mockfile.ExtrasFS;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.LuceneTestCase;
 import org.apache.lucene.util.TestUtil;
@@ -696,6 +697,37 @@ public abstract class BaseDirectoryTestCase extends LuceneTestCase {
     }
   }
 
+  public void testPrefetch() throws Exception {
+    try (Directory dir = getDirectory(createTempDir("testPrefetch"))) {
+      final int len = TestUtil.nextInt(random(), 8, 65536);
+      byte[] bytes = new byte[len];
+      random().nextBytes(bytes);
+      try (IndexOutput o = dir.createOutput("out", newIOContext(random()))) {
+        o.writeBytes(bytes, 0, len);
+      }
+
+      try (IndexInput i = dir.openInput("out", newIOContext(random()))) {
+        final int offset = random().nextInt(len / 2);
+        IndexInput[] inputs = {i, i.clone(), i.slice("slice", offset, len - offset)};
+        int[] offsets = {0, 0, offset};
+        for (int j = 0; j < inputs.length; ++j) {
+          IndexInput in = inputs[j];
+          final int length = Math.toIntExact(in.length());
+          final int pos = random().nextInt(length);
+          in.seek(pos);
+          // prefetching is only a hint: it doesn't move the file pointer nor affect reads
+          in.prefetch(random().nextInt(length), random().nextInt(length));
+          in.prefetch(0, length);
+          in.prefetch(length, 0);
+          assertEquals(pos, in.getFilePointer());
+          byte[] read = new byte[length - pos];
+          in.readBytes(read, 0, read.length);
+          assertArrayEquals(ArrayUtil.copyOfSubArray(bytes, offsets[j] + pos, len), read);
+        }
+      }
+    }
+  }
+
   // LUCENE-3382 -- make sure we get exception if the directory really does not exist.
   public void testNoDir() throws Throwable {
     Path tempDir = createTempDir("doesnotexist");